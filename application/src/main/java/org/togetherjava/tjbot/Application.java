@@ -15,6 +15,8 @@ import org.togetherjava.tjbot.features.SlashCommandAdapter;
 import org.togetherjava.tjbot.features.system.BotCore;
 import org.togetherjava.tjbot.logging.LogMarkers;
 import org.togetherjava.tjbot.logging.discord.DiscordLogging;
+import org.togetherjava.tjbot.metrics.MetricsRegistry;
+import org.togetherjava.tjbot.metrics.MetricsServer;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -74,6 +76,8 @@ public class Application {
     public static void runBot(Config config) {
         logger.info("Starting bot...");
 
+        startMetricsServer(config.getMetricsPort());
+
         Path databasePath = Path.of(config.getDatabasePath());
         try {
             Path parentDatabasePath = databasePath.toAbsolutePath().getParent();
@@ -81,6 +85,8 @@ public class Application {
                 Files.createDirectories(parentDatabasePath);
             }
             Database database = new Database("jdbc:sqlite:" + databasePath.toAbsolutePath());
+            Runtime.getRuntime()
+                .addShutdownHook(new Thread(database::flushWriteBehind, "database-flush"));
 
             JDA jda = JDABuilder.createDefault(config.getToken())
                 .enableIntents(GatewayIntent.GUILD_MEMBERS, GatewayIntent.MESSAGE_CONTENT)
@@ -90,6 +96,7 @@ public class Application {
 
             BotCore core = new BotCore(jda, database, config);
             CommandReloading.reloadCommands(jda, core);
+            core.warmUpFeatures();
             core.scheduleRoutines(jda);
 
             jda.addEventListener(core);
@@ -108,6 +115,22 @@ public class Application {
         }
     }
 
+    private static void startMetricsServer(int port) {
+        if (port == 0) {
+            logger.info("Metrics are disabled, no port configured");
+            return;
+        }
+
+        try {
+            MetricsServer metricsServer = MetricsServer.start(MetricsRegistry.getDefault(), port);
+            Runtime.getRuntime().addShutdownHook(new Thread(metricsServer::close, "metrics-stop"));
+            logger.info("Exposing metrics on port {}", metricsServer.getPort());
+        } catch (IOException e) {
+            // Metrics are secondary, the bot can run without them
+            logger.error("Failed to expose metrics on port {}", port, e);
+        }
+    }
+
     private static void onShutdown() {
         // This may be called during JVM shutdown via a hook and hence only has minimal time to
         // react.
@@ -2,9 +2,10 @@ package org.togetherjava.tjbot;
 
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.requests.restaction.CommandListUpdateAction;
-import org.jetbrains.annotations.Contract;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,14 +13,23 @@ import org.togetherjava.tjbot.features.BotCommand;
 import org.togetherjava.tjbot.features.CommandVisibility;
 import org.togetherjava.tjbot.features.system.CommandProvider;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
-import java.util.function.Predicate;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Offers utility functions for reloading all commands.
+ * <p>
+ * Commands are only pushed to Discord if they differ from the commands that are currently
+ * registered, since updating commands is heavily rate limited. The global commands and the commands
+ * of each guild are compared and pushed one after another, pausing after each push.
  */
 public class CommandReloading {
     private static final Logger logger = LoggerFactory.getLogger(CommandReloading.class);
@@ -33,6 +43,13 @@ public class CommandReloading {
      * is low.
      */
     public static final int MAX_COMMAND_COUNT = 110;
+    /**
+     * Pause after pushing the commands of a target, before the next target is synced, to not run
+     * into the rate limit of updating commands when the bot is in many guilds.
+     */
+    private static final Duration PUSH_PACING = Duration.ofSeconds(1);
+    private static final Executor PUSH_PACER =
+            CompletableFuture.delayedExecutor(PUSH_PACING.toMillis(), TimeUnit.MILLISECONDS);
 
     private CommandReloading() {
         throw new UnsupportedOperationException("Utility class");
@@ -40,63 +57,113 @@ public class CommandReloading {
 
     /**
      * Reloads all commands based on the given {@link CommandProvider}.
+     * <p>
+     * The reload happens in the background. Commands that are already registered as given by the
+     * provider are not pushed again.
      *
      * @param jda the JDA to update commands on
      * @param commandProvider the {@link CommandProvider} to grab commands from
      */
     public static void reloadCommands(final JDA jda, final CommandProvider commandProvider) {
         logger.info("Reloading commands...");
-        List<CommandListUpdateAction> actions =
-                Collections.synchronizedList(new ArrayList<>(MAX_COMMAND_COUNT));
-
-        // Reload global commands
-        actions.add(updateCommandsIf(command -> CommandVisibility.GLOBAL == command.getVisibility(),
-                getGlobalUpdateAction(jda), commandProvider));
-
-        // Reload guild commands (potentially many guilds)
-        // NOTE Storing the guild actions in a list is potentially dangerous since the
-        // bot might theoretically be part of so many guilds that it exceeds the max size of
-        // list. However, correctly reducing RestActions in a stream is not trivial.
-        getGuildUpdateActions(jda)
-            .map(updateAction -> updateCommandsIf(
-                    command -> CommandVisibility.GUILD == command.getVisibility(), updateAction,
-                    commandProvider))
-            .forEach(actions::add);
-        logger.debug("Reloading commands over {} action-upstreams", actions.size());
-
-        // Send message when all are done
-        RestAction.allOf(actions).queue(a -> logger.debug("Commands successfully reloaded!"));
+        List<CommandData> globalCommands =
+                getCommandData(commandProvider, CommandVisibility.GLOBAL);
+        List<CommandData> guildCommands = getCommandData(commandProvider, CommandVisibility.GUILD);
+
+        ReloadStats stats = new ReloadStats();
+        CompletableFuture<Void> reload = syncCommands("global", () -> jda.retrieveCommands(true),
+                jda::updateCommands, globalCommands, stats);
+
+        // Guilds are synced one after another, to pace the pushes
+        for (Guild guild : jda.getGuildCache()) {
+            reload = reload.thenCompose(any -> syncCommands("guild " + guild.getName(),
+                    () -> guild.retrieveCommands(true), guild::updateCommands, guildCommands,
+                    stats));
+        }
+
+        reload.thenRun(() -> logger.info(
+                "Commands successfully reloaded, pushed {} command lists, skipped {} that were up to date and failed {}",
+                stats.pushed.get(), stats.skipped.get(), stats.failed.get()));
     }
 
-    /**
-     * Updates all commands given by the command provider which pass the given filter by pushing
-     * through the given action upstream.
-     *
-     * @param commandFilter filter that matches commands that should be uploaded
-     * @param updateAction the upstream to update commands
-     * @return the given upstream for chaining
-     */
-    @Contract("_, _, _ -> param2")
-    private static CommandListUpdateAction updateCommandsIf(
-            final Predicate<? super BotCommand> commandFilter,
-            final CommandListUpdateAction updateAction, final CommandProvider commandProvider) {
-        commandProvider.getInteractors()
+    private static List<CommandData> getCommandData(final CommandProvider commandProvider,
+            final CommandVisibility visibility) {
+        return commandProvider.getInteractors()
             .stream()
             .filter(BotCommand.class::isInstance)
             .map(BotCommand.class::cast)
-            .filter(commandFilter)
+            .filter(command -> visibility == command.getVisibility())
             .map(BotCommand::getData)
-            .forEach(updateAction::addCommands);
+            .toList();
+    }
 
-        return updateAction;
+    /**
+     * Pushes the given commands to the given target, if they differ from the commands that are
+     * currently registered there.
+     *
+     * @param targetName the name of the target, for logging
+     * @param retrieveCommands retrieves the commands currently registered at the target
+     * @param updateCommands creates the action to replace all commands of the target
+     * @param commands the commands that should be registered at the target
+     * @param stats the statistics to record the outcome in
+     * @return a future that completes once the target is synced, also if it failed. After a push,
+     *         it only completes after pausing for {@link #PUSH_PACING}
+     */
+    private static CompletableFuture<Void> syncCommands(final String targetName,
+            final Supplier<? extends RestAction<List<Command>>> retrieveCommands,
+            final Supplier<CommandListUpdateAction> updateCommands,
+            final Collection<CommandData> commands, final ReloadStats stats) {
+        return retrieveCommands.get().submit().thenCompose(registeredCommands -> {
+            if (isUpToDate(registeredCommands, commands)) {
+                logger.debug("Commands of {} are up to date, skipping", targetName);
+                stats.skipped.incrementAndGet();
+                return CompletableFuture.completedFuture(null);
+            }
+
+            logger.debug("Commands of {} differ, pushing {} commands", targetName,
+                    commands.size());
+            // The pause delays syncing the next target, not the push itself
+            return updateCommands.get()
+                .addCommands(commands)
+                .submit()
+                .thenRunAsync(stats.pushed::incrementAndGet, PUSH_PACER);
+        }).exceptionally(failure -> {
+            logger.warn("Failed to reload the commands of {}", targetName, failure);
+            stats.failed.incrementAndGet();
+            return null;
+        });
     }
 
-    private static CommandListUpdateAction getGlobalUpdateAction(final JDA jda) {
-        return jda.updateCommands();
+    /**
+     * Whether the registered commands are structurally equal to the given commands, regardless of
+     * their order.
+     *
+     * @param registeredCommands the commands currently registered at Discord
+     * @param commands the commands that should be registered
+     * @return whether the registered commands are up to date
+     */
+    static boolean isUpToDate(final Collection<? extends Command> registeredCommands,
+            final Collection<? extends CommandData> commands) {
+        if (registeredCommands.size() != commands.size()) {
+            return false;
+        }
+
+        // Both sides are serialized by the same code, so defaults are filled in the same way
+        Map<String, Map<String, Object>> registeredData = toComparableData(
+                registeredCommands.stream().map(CommandData::fromCommand).toList());
+        return registeredData.equals(toComparableData(commands));
     }
 
-    private static Stream<CommandListUpdateAction> getGuildUpdateActions(final JDA jda) {
-        return jda.getGuildCache().stream().map(Guild::updateCommands);
+    private static Map<String, Map<String, Object>> toComparableData(
+            final Collection<? extends CommandData> commands) {
+        return commands.stream()
+            .collect(Collectors.toMap(command -> command.getType() + " " + command.getName(),
+                    command -> command.toData().toMap()));
     }
 
+    private static final class ReloadStats {
+        private final AtomicInteger pushed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+    }
 }
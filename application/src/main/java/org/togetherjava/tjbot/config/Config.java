@@ -17,6 +17,7 @@ import java.util.Objects;
  */
 public final class Config {
     private final String token;
+    private final String componentIdSecret;
     private final String githubApiKey;
     private final String databasePath;
     private final String projectWebsite;
@@ -46,10 +47,12 @@ public final class Config {
     private final RSSFeedsConfig rssFeedsConfig;
     private final String selectRolesChannelPattern;
     private final String memberCountCategoryPattern;
+    private final int metricsPort;
 
     @SuppressWarnings("ConstructorWithTooManyParameters")
     @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
     private Config(@JsonProperty(value = "token", required = true) String token,
+            @JsonProperty(value = "componentIdSecret", required = true) String componentIdSecret,
             @JsonProperty(value = "githubApiKey", required = true) String githubApiKey,
             @JsonProperty(value = "databasePath", required = true) String databasePath,
             @JsonProperty(value = "projectWebsite", required = true) String projectWebsite,
@@ -94,8 +97,10 @@ public final class Config {
                     required = true) FeatureBlacklistConfig featureBlacklistConfig,
             @JsonProperty(value = "rssConfig", required = true) RSSFeedsConfig rssFeedsConfig,
             @JsonProperty(value = "selectRolesChannelPattern",
-                    required = true) String selectRolesChannelPattern) {
+                    required = true) String selectRolesChannelPattern,
+            @JsonProperty(value = "metricsPort", required = true) int metricsPort) {
         this.token = Objects.requireNonNull(token);
+        this.componentIdSecret = Objects.requireNonNull(componentIdSecret);
         this.githubApiKey = Objects.requireNonNull(githubApiKey);
         this.databasePath = Objects.requireNonNull(databasePath);
         this.projectWebsite = Objects.requireNonNull(projectWebsite);
@@ -127,6 +132,7 @@ public final class Config {
         this.featureBlacklistConfig = Objects.requireNonNull(featureBlacklistConfig);
         this.rssFeedsConfig = Objects.requireNonNull(rssFeedsConfig);
         this.selectRolesChannelPattern = Objects.requireNonNull(selectRolesChannelPattern);
+        this.metricsPort = metricsPort;
     }
 
     /**
@@ -179,6 +185,18 @@ public final class Config {
         return token;
     }
 
+    /**
+     * Gets the secret used to sign component IDs that are encoded inline, see
+     * {@link org.togetherjava.tjbot.features.componentids.InlineComponentIdCodec}.
+     * <p>
+     * Changing it invalidates all such component IDs, including the ones of permanent components.
+     *
+     * @return the secret to sign component IDs with
+     */
+    public String getComponentIdSecret() {
+        return componentIdSecret;
+    }
+
     /**
      * Gets the API Key of GitHub.
      *
@@ -418,4 +436,14 @@ public final class Config {
     public RSSFeedsConfig getRSSFeedsConfig() {
         return rssFeedsConfig;
     }
+
+    /**
+     * Gets the local port on which metrics are exposed in the Prometheus text format, see
+     * {@link org.togetherjava.tjbot.metrics.MetricsServer}.
+     *
+     * @return the port of the metrics endpoint, or {@code 0} if metrics should not be exposed
+     */
+    public int getMetricsPort() {
+        return metricsPort;
+    }
 }
@@ -5,7 +5,22 @@ package org.togetherjava.tjbot.features;
  * <p>
  * New features are added in {@link org.togetherjava.tjbot.features.Features} and from there picked
  * up by {@link org.togetherjava.tjbot.features.system.BotCore}.
+ * <p>
+ * Constructing a feature should be cheap, since all features are constructed one after another
+ * before the bot can handle any event. Expensive preparations, such as requests over the network,
+ * belong into {@link #warmUp()} instead.
  */
 public interface Feature {
-    // Marker interface
+    /**
+     * Prepares the feature, for example by loading data over the network.
+     * <p>
+     * Called once after the bot is ready, off the event thread and in parallel with the warm-up of
+     * all other features. User interactors are not asked to handle interactions before their
+     * warm-up finished, users are told to try again later instead.
+     * <p>
+     * Does nothing by default.
+     */
+    default void warmUp() {
+        // No preparations needed by default
+    }
 }
@@ -15,6 +15,7 @@ import org.togetherjava.tjbot.features.bookmarks.BookmarksCommand;
 import org.togetherjava.tjbot.features.bookmarks.BookmarksSystem;
 import org.togetherjava.tjbot.features.bookmarks.LeftoverBookmarksCleanupRoutine;
 import org.togetherjava.tjbot.features.bookmarks.LeftoverBookmarksListener;
+import org.togetherjava.tjbot.features.chatgpt.ChatGptAnswerCache;
 import org.togetherjava.tjbot.features.chatgpt.ChatGptCommand;
 import org.togetherjava.tjbot.features.chatgpt.ChatGptService;
 import org.togetherjava.tjbot.features.code.CodeMessageAutoDetection;
@@ -22,9 +23,13 @@ import org.togetherjava.tjbot.features.code.CodeMessageHandler;
 import org.togetherjava.tjbot.features.code.CodeMessageManualDetection;
 import org.togetherjava.tjbot.features.filesharing.FileSharingMessageListener;
 import org.togetherjava.tjbot.features.github.GitHubCommand;
+import org.togetherjava.tjbot.features.github.GitHubIssueIndex;
+import org.togetherjava.tjbot.features.github.GitHubIssueIndexRoutine;
 import org.togetherjava.tjbot.features.github.GitHubReference;
+import org.togetherjava.tjbot.features.help.ActiveHelpThreadIndexer;
 import org.togetherjava.tjbot.features.help.GuildLeaveCloseThreadListener;
 import org.togetherjava.tjbot.features.help.HelpSystemHelper;
+import org.togetherjava.tjbot.features.help.HelpThreadActivityTracker;
 import org.togetherjava.tjbot.features.help.HelpThreadActivityUpdater;
 import org.togetherjava.tjbot.features.help.HelpThreadAutoArchiver;
 import org.togetherjava.tjbot.features.help.HelpThreadCommand;
@@ -64,6 +69,7 @@ import org.togetherjava.tjbot.features.moderation.scam.ScamHistoryStore;
 import org.togetherjava.tjbot.features.moderation.temp.TemporaryModerationRoutine;
 import org.togetherjava.tjbot.features.reminder.RemindRoutine;
 import org.togetherjava.tjbot.features.reminder.ReminderCommand;
+import org.togetherjava.tjbot.features.reminder.ReminderScheduler;
 import org.togetherjava.tjbot.features.system.BotCore;
 import org.togetherjava.tjbot.features.system.LogLevelCommand;
 import org.togetherjava.tjbot.features.tags.TagCommand;
@@ -111,10 +117,16 @@ public class Features {
         ModAuditLogWriter modAuditLogWriter = new ModAuditLogWriter(config);
         ScamHistoryStore scamHistoryStore = new ScamHistoryStore(database);
         GitHubReference githubReference = new GitHubReference(config);
+        GitHubIssueIndex githubIssueIndex = new GitHubIssueIndex();
+        ReminderScheduler reminderScheduler = new ReminderScheduler();
         CodeMessageHandler codeMessageHandler =
                 new CodeMessageHandler(blacklistConfig.special(), jshellEval);
         ChatGptService chatGptService = new ChatGptService(config);
-        HelpSystemHelper helpSystemHelper = new HelpSystemHelper(config, database, chatGptService);
+        ChatGptAnswerCache chatGptAnswerCache = new ChatGptAnswerCache(database);
+        HelpSystemHelper helpSystemHelper =
+                new HelpSystemHelper(config, database, chatGptService, chatGptAnswerCache);
+        HelpThreadActivityTracker helpThreadActivityTracker =
+                new HelpThreadActivityTracker(helpSystemHelper);
         HelpThreadLifecycleListener helpThreadLifecycleListener =
                 new HelpThreadLifecycleListener(helpSystemHelper, database);
 
@@ -127,13 +139,15 @@ public class Features {
         features.add(new ModAuditLogRoutine(database, config, modAuditLogWriter));
         features.add(new TemporaryModerationRoutine(jda, actionsStore, config));
         features.add(new TopHelpersPurgeMessagesRoutine(database));
-        features.add(new RemindRoutine(database));
+        features.add(new RemindRoutine(database, reminderScheduler));
         features.add(new ScamHistoryPurgeRoutine(scamHistoryStore));
         features.add(new HelpThreadMetadataPurger(database));
-        features.add(new HelpThreadActivityUpdater(helpSystemHelper));
+        features.add(new HelpThreadActivityUpdater(helpSystemHelper, helpThreadActivityTracker));
         features.add(new HelpThreadAutoArchiver(helpSystemHelper));
         features.add(new LeftoverBookmarksCleanupRoutine(bookmarksSystem));
-        features.add(new MarkHelpThreadCloseInDBRoutine(database, helpThreadLifecycleListener));
+        features.add(new GitHubIssueIndexRoutine(githubReference, githubIssueIndex));
+        features.add(new MarkHelpThreadCloseInDBRoutine(database, helpSystemHelper,
+                helpThreadLifecycleListener));
         features.add(new MemberCountDisplayRoutine(config));
         features.add(new RSSHandlerRoutine(config, database));
 
@@ -150,10 +164,12 @@ public class Features {
         features.add(new CodeMessageManualDetection(codeMessageHandler));
         features.add(new SlashCommandEducator());
         features.add(new PinnedNotificationRemover(config));
+        features.add(helpThreadActivityTracker);
 
         // Event receivers
         features.add(new RejoinModerationRoleListener(actionsStore, config));
-        features.add(new GuildLeaveCloseThreadListener(config));
+        features.add(new ActiveHelpThreadIndexer(jda, helpSystemHelper));
+        features.add(new GuildLeaveCloseThreadListener(helpSystemHelper));
         features.add(new LeftoverBookmarksListener(bookmarksSystem));
         features.add(new HelpThreadCreatedListener(helpSystemHelper));
         features.add(new HelpThreadLifecycleListener(helpSystemHelper, database));
@@ -180,14 +196,14 @@ public class Features {
         features.add(new TopHelpersCommand(database));
         features.add(new RoleSelectCommand());
         features.add(new NoteCommand(actionsStore));
-        features.add(new ReminderCommand(database));
+        features.add(new ReminderCommand(database, reminderScheduler));
         features.add(new QuarantineCommand(actionsStore, config));
         features.add(new UnquarantineCommand(actionsStore, config));
         features.add(new WhoIsCommand());
         features.add(new WolframAlphaCommand(config));
-        features.add(new GitHubCommand(githubReference));
+        features.add(new GitHubCommand(githubReference, githubIssueIndex));
         features.add(new ModMailCommand(jda, config));
-        features.add(new HelpThreadCommand(config, helpSystemHelper));
+        features.add(new HelpThreadCommand(config, helpSystemHelper, helpThreadActivityTracker));
         features.add(new ReportCommand(config));
         features.add(new BookmarksCommand(bookmarksSystem));
         features.add(new ChatGptCommand(chatGptService, helpSystemHelper));
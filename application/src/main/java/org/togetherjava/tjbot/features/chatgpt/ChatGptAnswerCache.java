@@ -0,0 +1,335 @@
+package org.togetherjava.tjbot.features.chatgpt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.jooq.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.togetherjava.tjbot.db.Database;
+import org.togetherjava.tjbot.db.generated.tables.records.ChatgptAnswerCacheRecord;
+import org.togetherjava.tjbot.metrics.Counter;
+import org.togetherjava.tjbot.metrics.MetricsRegistry;
+
+import javax.annotation.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+import static org.togetherjava.tjbot.db.generated.tables.ChatgptAnswerCache.CHATGPT_ANSWER_CACHE;
+
+/**
+ * Cache for answers of ChatGPT to questions of help threads, so that questions that are asked over
+ * and over again are answered right away, without asking ChatGPT again.
+ * <p>
+ * Questions are identified by their normalized text and the category of the help thread they were
+ * asked in. Questions do not have to be identical to share an answer, a question is also answered
+ * by the answer of a very similar question of the same category. The similarity is the estimated
+ * Jaccard similarity of the word pairs of the questions, computed using MinHash signatures.
+ * <p>
+ * Only a limited amount of answers is kept, and answers are dropped after some time, so that they
+ * do not get outdated. Answers are persisted in the database and are loaded again after a restart.
+ * How many questions were answered from the cache is exposed by
+ * {@link MetricsRegistry#getDefault()}.
+ * <p>
+ * The class is thread-safe.
+ */
+public final class ChatGptAnswerCache {
+    private static final Logger logger = LoggerFactory.getLogger(ChatGptAnswerCache.class);
+
+    private static final int MAX_ENTRIES = 1_000;
+    private static final Duration TIME_TO_LIVE = Duration.ofDays(30);
+    /**
+     * The estimated Jaccard similarity a question needs at least to be answered by the answer of
+     * another question.
+     */
+    static final double MIN_SIMILARITY = 0.75;
+    private static final int SHINGLE_SIZE = 2;
+    private static final int SIGNATURE_SIZE = 128;
+
+    private static final Pattern NON_WORD_CHARACTERS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    /**
+     * Words that are used in almost every question and hence do not help to tell them apart.
+     */
+    private static final Set<String> FILLER_WORDS =
+            Set.of("a", "an", "the", "i", "im", "my", "me", "it", "this", "is", "are", "to", "do",
+                    "does", "how", "can", "could", "please", "help", "with", "in", "of", "for");
+
+    private final Database database;
+    private final int maxEntries;
+    private final Cache<QuestionKey, CachedAnswer> questionToAnswer;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * Creates a new instance and loads the answers persisted in the given database.
+     *
+     * @param database the database to persist answers in
+     */
+    public ChatGptAnswerCache(Database database) {
+        this(database, MAX_ENTRIES, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new instance and loads the answers persisted in the given database.
+     *
+     * @param database the database to persist answers in
+     * @param maxEntries how many answers are kept at most
+     * @param maintenanceExecutor the executor evicting answers, for example to evict on the calling
+     *        thread in tests
+     */
+    ChatGptAnswerCache(Database database, int maxEntries, Executor maintenanceExecutor) {
+        this.database = database;
+        this.maxEntries = maxEntries;
+
+        questionToAnswer = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(TIME_TO_LIVE)
+            .executor(maintenanceExecutor)
+            .removalListener(this::onRemoval)
+            .build();
+
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        hits = metrics.counter("tjbot_chatgpt_answer_cache_hits_total",
+                "Questions that were answered from the cache, without asking ChatGPT");
+        misses = metrics.counter("tjbot_chatgpt_answer_cache_misses_total",
+                "Questions that had to be asked to ChatGPT");
+        metrics.gauge("tjbot_chatgpt_answer_cache_size", "Answers held by the cache",
+                questionToAnswer::estimatedSize);
+
+        loadAnswers();
+    }
+
+    /**
+     * Finds the answer to the given question, or to the question most similar to it.
+     *
+     * @param category the category of the help thread the question is asked in
+     * @param question the question to find the answer to
+     * @return the answer, if a similar enough question of the same category was answered already
+     */
+    public Optional<String> findAnswer(String category, String question) {
+        Optional<String> answer = findCachedAnswer(normalizeCategory(category), question);
+
+        if (answer.isPresent()) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return answer;
+    }
+
+    private Optional<String> findCachedAnswer(String category, String question) {
+        String normalizedQuestion = normalizeQuestion(question);
+        if (normalizedQuestion.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Instant expiredBefore = Instant.now().minus(TIME_TO_LIVE);
+        CachedAnswer identicalQuestionAnswer =
+                questionToAnswer.getIfPresent(new QuestionKey(category, normalizedQuestion));
+        if (identicalQuestionAnswer != null
+                && identicalQuestionAnswer.createdAt().isAfter(expiredBefore)) {
+            return Optional.of(identicalQuestionAnswer.answer());
+        }
+
+        long[] signature = computeSignature(normalizedQuestion);
+        CachedAnswer mostSimilarAnswer = null;
+        double highestSimilarity = MIN_SIMILARITY;
+        for (Map.Entry<QuestionKey, CachedAnswer> entry : questionToAnswer.asMap().entrySet()) {
+            CachedAnswer candidate = entry.getValue();
+            if (!entry.getKey().category().equals(category)
+                    || !candidate.createdAt().isAfter(expiredBefore)) {
+                continue;
+            }
+
+            double similarity = estimateSimilarity(signature, candidate.signature());
+            if (similarity >= highestSimilarity) {
+                highestSimilarity = similarity;
+                mostSimilarAnswer = candidate;
+            }
+        }
+
+        return Optional.ofNullable(mostSimilarAnswer).map(CachedAnswer::answer);
+    }
+
+    /**
+     * Adds the answer to the given question, replacing any previous answer to the same question.
+     * The answer is persisted in the background, but {@link #findAnswer(String, String)} takes it
+     * into account right away.
+     *
+     * @param category the category of the help thread the question was asked in
+     * @param question the question that was answered
+     * @param answer the answer of ChatGPT
+     */
+    public void putAnswer(String category, String question, String answer) {
+        String normalizedQuestion = normalizeQuestion(question);
+        if (normalizedQuestion.isEmpty()) {
+            // Nothing that could ever be looked up again
+            return;
+        }
+
+        QuestionKey key = new QuestionKey(normalizeCategory(category), normalizedQuestion);
+        Instant createdAt = Instant.now();
+
+        // Queued before caching, so that deleting the answer once evicted is queued after it
+        database.writeBehind(context -> context
+            .insertInto(CHATGPT_ANSWER_CACHE, CHATGPT_ANSWER_CACHE.CATEGORY,
+                    CHATGPT_ANSWER_CACHE.QUESTION, CHATGPT_ANSWER_CACHE.ANSWER,
+                    CHATGPT_ANSWER_CACHE.CREATED_AT)
+            .values(key.category(), key.question(), answer, createdAt)
+            .onDuplicateKeyUpdate()
+            .set(CHATGPT_ANSWER_CACHE.ANSWER, answer)
+            .set(CHATGPT_ANSWER_CACHE.CREATED_AT, createdAt)
+            .execute());
+
+        questionToAnswer.put(key,
+                new CachedAnswer(computeSignature(normalizedQuestion), answer, createdAt));
+    }
+
+    private void loadAnswers() {
+        Instant expiredBefore = Instant.now().minus(TIME_TO_LIVE);
+        database.write(context -> context.deleteFrom(CHATGPT_ANSWER_CACHE)
+            .where(CHATGPT_ANSWER_CACHE.CREATED_AT.lessOrEqual(expiredBefore))
+            .execute());
+
+        Result<ChatgptAnswerCacheRecord> answerRecords =
+                database.read(context -> context.selectFrom(CHATGPT_ANSWER_CACHE)
+                    .orderBy(CHATGPT_ANSWER_CACHE.CREATED_AT.desc())
+                    .limit(maxEntries)
+                    .fetch());
+
+        for (ChatgptAnswerCacheRecord answerRecord : answerRecords) {
+            String question = answerRecord.getQuestion();
+            questionToAnswer.put(new QuestionKey(answerRecord.getCategory(), question),
+                    new CachedAnswer(computeSignature(question), answerRecord.getAnswer(),
+                            answerRecord.getCreatedAt()));
+        }
+        logger.debug("Loaded {} cached ChatGPT answers", answerRecords.size());
+    }
+
+    private void onRemoval(@Nullable QuestionKey key, @Nullable CachedAnswer answer,
+            RemovalCause cause) {
+        if (!cause.wasEvicted() || key == null || answer == null) {
+            return;
+        }
+
+        // Keep the answer if the question was answered again meanwhile. The stored timestamp might
+        // be less precise than the one in memory, so it is not compared for equality.
+        database.writeBehind(context -> context.deleteFrom(CHATGPT_ANSWER_CACHE)
+            .where(CHATGPT_ANSWER_CACHE.CATEGORY.eq(key.category())
+                .and(CHATGPT_ANSWER_CACHE.QUESTION.eq(key.question()))
+                .and(CHATGPT_ANSWER_CACHE.CREATED_AT.lessOrEqual(answer.createdAt())))
+            .execute());
+    }
+
+    private static String normalizeCategory(String category) {
+        return category.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normalizes the given question, so that questions only differing in case, punctuation or
+     * filler words are considered identical.
+     *
+     * @param question the question to normalize
+     * @return the significant words of the question, in lower case and separated by a single
+     *         space; empty if there are none
+     */
+    static String normalizeQuestion(String question) {
+        return String.join(" ", toWords(question.toLowerCase(Locale.ROOT)));
+    }
+
+    private static List<String> toWords(String text) {
+        return NON_WORD_CHARACTERS.splitAsStream(text)
+            .filter(word -> !word.isEmpty())
+            .filter(word -> !FILLER_WORDS.contains(word))
+            .toList();
+    }
+
+    /**
+     * Estimates the Jaccard similarity of the word pairs of the two given questions.
+     *
+     * @param question the first question
+     * @param otherQuestion the second question
+     * @return the estimated similarity, between {@code 0} for completely different and {@code 1}
+     *         for identical questions
+     */
+    static double estimateSimilarity(String question, String otherQuestion) {
+        return estimateSimilarity(computeSignature(normalizeQuestion(question)),
+                computeSignature(normalizeQuestion(otherQuestion)));
+    }
+
+    private static double estimateSimilarity(long[] signature, long[] otherSignature) {
+        int matches = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (signature[i] == otherSignature[i]) {
+                matches++;
+            }
+        }
+        return (double) matches / SIGNATURE_SIZE;
+    }
+
+    /**
+     * Computes the MinHash signature of the given normalized question. Each element of the
+     * signature is the minimal hash of all shingles of the question, using a different hash
+     * function per element. The probability of two signatures agreeing in an element equals the
+     * Jaccard similarity of the shingles of their questions.
+     *
+     * @param normalizedQuestion the question, as normalized by {@link #normalizeQuestion(String)}
+     * @return the signature of the question
+     */
+    private static long[] computeSignature(String normalizedQuestion) {
+        long[] signature = new long[SIGNATURE_SIZE];
+        Arrays.fill(signature, Long.MAX_VALUE);
+
+        List<String> words = Arrays.asList(normalizedQuestion.split(" "));
+        int shingleCount = Math.max(1, words.size() - SHINGLE_SIZE + 1);
+        for (int i = 0; i < shingleCount; i++) {
+            String shingle =
+                    String.join(" ", words.subList(i, Math.min(words.size(), i + SHINGLE_SIZE)));
+            long shingleHash = hash(shingle);
+
+            for (int j = 0; j < SIGNATURE_SIZE; j++) {
+                // Seeding the same hash differently gives independent enough hash functions
+                signature[j] = Math.min(signature[j], mix(shingleHash + mix(j + 1L)));
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the given text.
+     */
+    private static long hash(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Finalizer of the SplitMix64 generator, spreading the bits of the given value well.
+     */
+    private static long mix(long value) {
+        long mixed = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94d049bb133111ebL;
+        return mixed ^ (mixed >>> 31);
+    }
+
+    private record QuestionKey(String category, String question) {
+    }
+
+    private record CachedAnswer(long[] signature, String answer, Instant createdAt) {
+    }
+}
@@ -2,7 +2,6 @@ package org.togetherjava.tjbot.features.chatgpt;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.SelfUser;
 import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -18,7 +17,6 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * The implemented command is {@code /chatgpt}, which allows users to ask ChatGPT a question, upon
@@ -49,6 +47,11 @@ public final class ChatGptCommand extends SlashCommandAdapter {
         this.helper = helper;
     }
 
+    @Override
+    public void warmUp() {
+        chatGptService.warmUp();
+    }
+
     @Override
     public void onSlashCommand(SlashCommandInteractionEvent event) {
         Instant previousAskTime = userIdToAskedAtCache.getIfPresent(event.getMember().getId());
@@ -82,22 +85,30 @@ public final class ChatGptCommand extends SlashCommandAdapter {
 
         String context = "";
         String question = event.getValue(QUESTION_INPUT).getAsString();
+        SelfUser selfUser = event.getJDA().getSelfUser();
 
-        Optional<String> optional = chatGptService.ask(question, context);
-        if (optional.isPresent()) {
-            userIdToAskedAtCache.put(event.getMember().getId(), Instant.now());
-        }
+        // The answer is shown while it is being generated, by editing the reply
+        ThrottledMessageEditor responseEditor =
+                new ThrottledMessageEditor(response -> event.getHook()
+                    .editOriginalEmbeds(
+                            helper.generateGptResponseEmbed(response, selfUser, question)));
 
         String errorResponse = """
                     An error has occurred while trying to communicate with ChatGPT.
                     Please try again later.
                 """;
 
-        String response = optional.orElse(errorResponse);
-        SelfUser selfUser = event.getJDA().getSelfUser();
+        // The cooldown already applies while the answer is streamed, asking again is paid as well
+        String userId = event.getMember().getId();
+        userIdToAskedAtCache.put(userId, Instant.now());
 
-        MessageEmbed responseEmbed = helper.generateGptResponseEmbed(response, selfUser, question);
+        chatGptService.askStreaming(question, context, responseEditor).thenAccept(optional -> {
+            if (optional.isEmpty()) {
+                // Users may try again right away, since they did not get an answer
+                userIdToAskedAtCache.invalidate(userId);
+            }
 
-        event.getHook().sendMessageEmbeds(responseEmbed).queue();
+            responseEditor.finish(optional.orElse(errorResponse));
+        });
     }
 }
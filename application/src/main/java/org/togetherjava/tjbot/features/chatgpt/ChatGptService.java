@@ -14,6 +14,9 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Service used to communicate to OpenAI API to generate responses.
@@ -49,9 +52,12 @@ public class ChatGptService {
 
     private boolean isDisabled = false;
     private OpenAiService openAiService;
+    private ChatGptStreamClient streamClient;
+    private final AtomicBoolean isWarmedUp = new AtomicBoolean();
 
     /**
-     * Creates instance of ChatGPTService
+     * Creates instance of ChatGPTService. Does not contact the OpenAI API yet, see
+     * {@link #warmUp()}.
      *
      * @param config needed for token to OpenAI API.
      */
@@ -64,6 +70,20 @@ public class ChatGptService {
         }
 
         openAiService = new OpenAiService(apiKey, TIMEOUT);
+        streamClient = new ChatGptStreamClient(apiKey, TIMEOUT);
+    }
+
+    /**
+     * Sets up the model by sending the system setup message to ChatGPT. Only the first call has an
+     * effect, further calls return immediately.
+     * <p>
+     * Blocks until ChatGPT answered, so it should be called off the event thread, for example
+     * during the warm-up of a feature.
+     */
+    public void warmUp() {
+        if (isDisabled || isWarmedUp.getAndSet(true)) {
+            return;
+        }
 
         ChatMessage setupMessage = new ChatMessage(ChatMessageRole.SYSTEM.value(), """
                 For code supplied for review, refer to the old code supplied rather than
@@ -97,19 +117,7 @@ public class ChatGptService {
         }
 
         try {
-            String instructions = "KEEP IT CONCISE, NOT MORE THAN 280 WORDS";
-            String questionWithContext = "context: Category %s on a Java Q&A discord server. %s %s"
-                .formatted(context, instructions, question);
-            ChatMessage chatMessage = new ChatMessage(ChatMessageRole.USER.value(),
-                    Objects.requireNonNull(questionWithContext));
-            ChatCompletionRequest chatCompletionRequest = ChatCompletionRequest.builder()
-                .model(AI_MODEL)
-                .messages(List.of(chatMessage))
-                .frequencyPenalty(FREQUENCY_PENALTY)
-                .temperature(TEMPERATURE)
-                .maxTokens(MAX_TOKENS)
-                .n(MAX_NUMBER_OF_RESPONSES)
-                .build();
+            ChatCompletionRequest chatCompletionRequest = createQuestionRequest(question, context);
 
             String response = openAiService.createChatCompletion(chatCompletionRequest)
                 .getChoices()
@@ -133,4 +141,42 @@ public class ChatGptService {
         }
         return Optional.empty();
     }
+
+    /**
+     * Prompt ChatGPT with a question and receive the response while it is being generated.
+     * <p>
+     * Does not block, the request is sent in the background.
+     *
+     * @param question The question being asked of ChatGPT. Max is {@value MAX_TOKENS} tokens.
+     * @param context The category of asked question, to set the context(eg. Java, Database, Other
+     *        etc).
+     * @param onAnswerSoFar called with the response received so far, each time a new part of it
+     *        arrived, for example a {@link ThrottledMessageEditor}
+     * @return the complete response from ChatGPT, or empty if there was an error; never completes
+     *         exceptionally
+     */
+    public CompletableFuture<Optional<String>> askStreaming(String question, String context,
+            Consumer<? super String> onAnswerSoFar) {
+        if (isDisabled) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        return streamClient.stream(createQuestionRequest(question, context), onAnswerSoFar);
+    }
+
+    private static ChatCompletionRequest createQuestionRequest(String question, String context) {
+        String instructions = "KEEP IT CONCISE, NOT MORE THAN 280 WORDS";
+        String questionWithContext = "context: Category %s on a Java Q&A discord server. %s %s"
+            .formatted(context, instructions, question);
+        ChatMessage chatMessage = new ChatMessage(ChatMessageRole.USER.value(),
+                Objects.requireNonNull(questionWithContext));
+        return ChatCompletionRequest.builder()
+            .model(AI_MODEL)
+            .messages(List.of(chatMessage))
+            .frequencyPenalty(FREQUENCY_PENALTY)
+            .temperature(TEMPERATURE)
+            .maxTokens(MAX_TOKENS)
+            .n(MAX_NUMBER_OF_RESPONSES)
+            .build();
+    }
 }
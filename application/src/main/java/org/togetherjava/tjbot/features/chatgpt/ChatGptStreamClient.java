@@ -0,0 +1,198 @@
+package org.togetherjava.tjbot.features.chatgpt;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theokanning.openai.completion.chat.ChatCompletionChoice;
+import com.theokanning.openai.completion.chat.ChatCompletionChunk;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.ChatMessage;
+import com.theokanning.openai.service.OpenAiService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Asks ChatGPT for chat completions in streaming mode, so that the answer can be shown while it is
+ * still being generated.
+ * <p>
+ * The OpenAI API sends the answer in small parts, as server-sent events. Each event is a line
+ * {@code data: <chunk>}, where the chunk is a JSON object holding the next part of the answer. The
+ * stream ends with the event {@code data: [DONE]}.
+ * <p>
+ * Requests are sent asynchronously and the events are read on a virtual thread, without blocking
+ * the calling thread. The timeout bounds both, waiting for ChatGPT to start answering and reading
+ * the answer afterwards. Reading is aborted by closing the response body, which also wakes up the
+ * thread if it is waiting for the next event.
+ */
+final class ChatGptStreamClient {
+    private static final Logger logger = LoggerFactory.getLogger(ChatGptStreamClient.class);
+
+    private static final String API_URL = "https://api.openai.com/v1";
+    private static final String DATA_PREFIX = "data:";
+    private static final String DONE_DATA = "[DONE]";
+    private static final int HTTP_OK = 200;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = OpenAiService.defaultObjectMapper();
+    private final Executor streamReadService = Executors
+        .newThreadPerTaskExecutor(Thread.ofVirtual().name("chatgpt-stream-", 0).factory());
+    private final String apiKey;
+    private final String baseUrl;
+    private final Duration timeout;
+
+    /**
+     * Creates a new client, asking the OpenAI API.
+     *
+     * @param apiKey the OpenAI API key to authenticate with
+     * @param timeout how long to wait for ChatGPT to start answering, and again to finish
+     *        answering once it started
+     */
+    ChatGptStreamClient(String apiKey, Duration timeout) {
+        this(apiKey, API_URL, timeout);
+    }
+
+    /**
+     * Creates a new client, asking the given API, for example a local stub.
+     *
+     * @param apiKey the OpenAI API key to authenticate with
+     * @param baseUrl the base URL of the OpenAI API, without trailing slash
+     * @param timeout how long to wait for ChatGPT to start answering, and again to finish
+     *        answering once it started
+     */
+    ChatGptStreamClient(String apiKey, String baseUrl, Duration timeout) {
+        this.apiKey = apiKey;
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Asks ChatGPT for a completion of the given request, in streaming mode.
+     *
+     * @param request the request to send, streaming is enabled by this method
+     * @param onAnswerSoFar called with the answer received so far, each time a new part of it
+     *        arrived
+     * @return the complete answer, or empty if ChatGPT could not be asked or did not answer; never
+     *         completes exceptionally
+     */
+    CompletableFuture<Optional<String>> stream(ChatCompletionRequest request,
+            Consumer<? super String> onAnswerSoFar) {
+        request.setStream(true);
+
+        HttpRequest httpRequest;
+        try {
+            httpRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/chat/completions"))
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .timeout(timeout)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(request)))
+                .build();
+        } catch (JsonProcessingException e) {
+            logger.warn("Unable to serialize the request to ChatGPT", e);
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        return httpClient.sendAsync(httpRequest, BodyHandlers.ofInputStream())
+            .thenApplyAsync(response -> readAnswer(response, onAnswerSoFar), streamReadService)
+            .exceptionally(failure -> {
+                logger.warn("There was an error using the OpenAI API", failure);
+                return Optional.empty();
+            });
+    }
+
+    private Optional<String> readAnswer(HttpResponse<InputStream> response,
+            Consumer<? super String> onAnswerSoFar) {
+        InputStream body = response.body();
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        // Bounds reading the answer, also if ChatGPT stops sending events without finishing
+        CompletableFuture.delayedExecutor(timeout.toNanos(), TimeUnit.NANOSECONDS)
+            .execute(() -> abortReading(body));
+
+        try (Stream<String> lines =
+                new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)).lines()) {
+            if (response.statusCode() != HTTP_OK) {
+                logger.warn("There was an error using the OpenAI API, status code: {}, body: {}",
+                        response.statusCode(), lines.collect(Collectors.joining("\n")));
+                return Optional.empty();
+            }
+
+            StringBuilder answer = new StringBuilder();
+            Iterator<String> lineIterator = lines.iterator();
+            while (lineIterator.hasNext()) {
+                String line = lineIterator.next();
+                if (!line.startsWith(DATA_PREFIX)) {
+                    // Blank lines separate events, other fields are of no interest
+                    continue;
+                }
+
+                String data = line.substring(DATA_PREFIX.length()).strip();
+                if (DONE_DATA.equals(data)) {
+                    break;
+                }
+
+                Optional<String> answerPart = parseAnswerPart(data);
+                if (answerPart.isPresent()) {
+                    answer.append(answerPart.orElseThrow());
+                    onAnswerSoFar.accept(answer.toString());
+                }
+            }
+
+            return answer.isEmpty() ? Optional.empty() : Optional.of(answer.toString());
+        } catch (UncheckedIOException e) {
+            if (System.nanoTime() - deadlineNanos < 0) {
+                throw e;
+            }
+            logger.warn("ChatGPT did not finish answering within {}, aborted reading the answer",
+                    timeout);
+            return Optional.empty();
+        }
+    }
+
+    private static void abortReading(InputStream body) {
+        try {
+            // Does nothing if the body was already closed
+            body.close();
+        } catch (IOException e) {
+            logger.debug("Unable to close the response body of ChatGPT", e);
+        }
+    }
+
+    private Optional<String> parseAnswerPart(String data) {
+        ChatCompletionChunk chunk;
+        try {
+            chunk = objectMapper.readValue(data, ChatCompletionChunk.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Unable to parse a chunk sent by ChatGPT", e);
+        }
+
+        if (chunk.getChoices() == null || chunk.getChoices().isEmpty()) {
+            return Optional.empty();
+        }
+
+        ChatCompletionChoice choice = chunk.getChoices().getFirst();
+        return Optional.ofNullable(choice.getMessage())
+            .map(ChatMessage::getContent)
+            .filter(content -> !content.isEmpty());
+    }
+}
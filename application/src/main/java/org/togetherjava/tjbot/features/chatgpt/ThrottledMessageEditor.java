@@ -0,0 +1,174 @@
+package org.togetherjava.tjbot.features.chatgpt;
+
+import net.dv8tion.jda.api.requests.RestAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Edits a message to show a text that keeps growing, for example an answer of ChatGPT while it is
+ * still being generated, see {@link ChatGptService#askStreaming(String, String, Consumer)}.
+ * <p>
+ * Discord rate limits edits of messages, so the message is edited at most once every one and a
+ * half seconds, showing the latest text at that time. An edit is only sent once the previous edit
+ * went through. Once the final text is known, it has to be given to
+ * {@link #finish(String)}, which edits the message a last time. If there is no final text, for
+ * example because the message is deleted instead, editing has to be stopped by {@link #cancel()}.
+ * <p>
+ * The class is thread-safe.
+ */
+public final class ThrottledMessageEditor implements Consumer<String> {
+    private static final Logger logger = LoggerFactory.getLogger(ThrottledMessageEditor.class);
+    private static final Duration EDIT_INTERVAL = Duration.ofMillis(1_500);
+    private static final ScheduledExecutorService EDIT_SERVICE =
+            Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("throttled-message-editor").daemon().factory());
+
+    private final Function<? super String, ? extends RestAction<?>> editMessage;
+    private final Duration editInterval;
+    private final CompletableFuture<Void> finished = new CompletableFuture<>();
+
+    @Nullable
+    private String latestText;
+    @Nullable
+    private String editedText;
+    private boolean isEditPending;
+    private boolean isFinishing;
+    private boolean isCancelled;
+    private long lastEditAtNanos;
+
+    /**
+     * Creates a new editor.
+     *
+     * @param editMessage creates the action to edit the message to show the given text
+     */
+    public ThrottledMessageEditor(Function<? super String, ? extends RestAction<?>> editMessage) {
+        this(editMessage, EDIT_INTERVAL);
+    }
+
+    /**
+     * Creates a new editor.
+     *
+     * @param editMessage creates the action to edit the message to show the given text
+     * @param editInterval how much time has to pass between two edits at least
+     */
+    ThrottledMessageEditor(Function<? super String, ? extends RestAction<?>> editMessage,
+            Duration editInterval) {
+        this.editMessage = editMessage;
+        this.editInterval = editInterval;
+        lastEditAtNanos = System.nanoTime() - editInterval.toNanos();
+    }
+
+    /**
+     * Updates the text to show. The message is edited once it is allowed to be edited again.
+     *
+     * @param text the text to show
+     */
+    @Override
+    public synchronized void accept(String text) {
+        if (isFinishing) {
+            return;
+        }
+
+        latestText = text;
+        scheduleEditIfNeeded();
+    }
+
+    /**
+     * Updates the text to show a last time. Further texts given to {@link #accept(String)} are
+     * ignored.
+     *
+     * @param text the final text to show
+     * @return a future that completes once the message shows the final text, or the last edit
+     *         failed
+     */
+    public synchronized CompletableFuture<Void> finish(String text) {
+        latestText = text;
+        isFinishing = true;
+        scheduleEditIfNeeded();
+
+        return finished;
+    }
+
+    /**
+     * Stops editing the message. Texts that are not shown yet are dropped and further texts given
+     * to {@link #accept(String)} are ignored.
+     *
+     * @return a future that completes once no edit of the message is in flight anymore, for example
+     *         before deleting the message
+     */
+    public synchronized CompletableFuture<Void> cancel() {
+        isFinishing = true;
+        isCancelled = true;
+        scheduleEditIfNeeded();
+
+        return finished;
+    }
+
+    private void scheduleEditIfNeeded() {
+        if (isEditPending) {
+            // Once done, the pending edit schedules the next one
+            return;
+        }
+
+        if (isCancelled || Objects.equals(latestText, editedText)) {
+            if (isFinishing) {
+                finished.complete(null);
+            }
+            return;
+        }
+
+        long delayNanos = Math.max(0, lastEditAtNanos + editInterval.toNanos() - System.nanoTime());
+        isEditPending = true;
+        EDIT_SERVICE.schedule(this::edit, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void edit() {
+        String text;
+        synchronized (this) {
+            if (isCancelled) {
+                isEditPending = false;
+                scheduleEditIfNeeded();
+                return;
+            }
+
+            text = Objects.requireNonNull(latestText);
+            lastEditAtNanos = System.nanoTime();
+        }
+
+        CompletableFuture<?> editAction;
+        try {
+            editAction = editMessage.apply(text).submit();
+        } catch (RuntimeException e) {
+            editAction = CompletableFuture.failedFuture(e);
+        }
+
+        editAction.whenComplete((any, failure) -> {
+            synchronized (this) {
+                isEditPending = false;
+                editedText = text;
+
+                if (failure != null) {
+                    logger.warn("Unable to edit the message to show the latest text", failure);
+                    if (isFinishing) {
+                        // Trying again would most likely fail as well
+                        finished.complete(null);
+                        return;
+                    }
+                }
+
+                scheduleEditIfNeeded();
+            }
+        });
+    }
+}
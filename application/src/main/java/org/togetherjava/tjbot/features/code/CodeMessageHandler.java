@@ -20,6 +20,7 @@ import org.togetherjava.tjbot.features.UserInteractor;
 import org.togetherjava.tjbot.features.componentids.ComponentIdGenerator;
 import org.togetherjava.tjbot.features.componentids.ComponentIdInteractor;
 import org.togetherjava.tjbot.features.jshell.JShellEval;
+import org.togetherjava.tjbot.features.utils.CacheMetrics;
 import org.togetherjava.tjbot.features.utils.CodeFence;
 import org.togetherjava.tjbot.features.utils.MessageUtils;
 
@@ -63,7 +64,7 @@ public final class CodeMessageHandler extends MessageReceiverAdapter implements
      * The feature is secondary though, which is why its kept in RAM and not in the DB.
      */
     private final Cache<Long, Long> originalMessageToCodeReply =
-            Caffeine.newBuilder().maximumSize(2_000).build();
+            Caffeine.newBuilder().maximumSize(2_000).recordStats().build();
 
     /**
      * Creates a new instance.
@@ -74,6 +75,7 @@ public final class CodeMessageHandler extends MessageReceiverAdapter implements
      */
     public CodeMessageHandler(FeatureBlacklist<String> blacklist, JShellEval jshellEval) {
         componentIdInteractor = new ComponentIdInteractor(getInteractionType(), getName());
+        CacheMetrics.register("code_replies", originalMessageToCodeReply);
 
         List<CodeAction> codeActions = blacklist
             .filterStream(Stream.of(new FormatCodeCommand(), new EvalCodeCommand(jshellEval)),
@@ -31,7 +31,8 @@ public interface ComponentIdGenerator {
      *
      * @param componentId the component ID payload to persist and generate a valid ID for
      * @param lifespan the lifespan of the generated and persisted component ID
-     * @return a UUID for the given payload, which can be used as component ID
+     * @return an ID for the given payload, which can be used as component ID; either the payload
+     *         encoded inline, see {@link InlineComponentIdCodec}, or a UUID if it is too large
      * @throws InvalidComponentIdFormatException if the given component ID was in an unexpected
      *         format and could not be serialized
      */
@@ -30,11 +30,12 @@ public interface ComponentIdParser {
      * {@link Button#of(ButtonStyle, String, String)} for details on where the ID was originally
      * transported with.
      *
-     * @param uuid the UUID to parse which represents the component ID
-     * @return the payload associated to the given UUID, if empty the component ID either never
+     * @param id the ID to parse which represents the component ID, either a UUID or the payload
+     *        encoded inline, see {@link InlineComponentIdCodec}
+     * @return the payload associated to the given ID, if empty the component ID either never
      *         existed to begin with or expired due to its lifetime setting
-     * @throws InvalidComponentIdFormatException if the component ID associated to the given UUID
-     *         was in an unexpected format and could not be deserialized
+     * @throws InvalidComponentIdFormatException if the component ID associated to the given ID was
+     *         in an unexpected format and could not be deserialized
      */
-    Optional<ComponentId> parse(String uuid);
+    Optional<ComponentId> parse(String id);
 }
@@ -13,6 +13,7 @@ import org.togetherjava.tjbot.db.Database;
 import org.togetherjava.tjbot.db.generated.tables.ComponentIds;
 import org.togetherjava.tjbot.db.generated.tables.records.ComponentIdsRecord;
 import org.togetherjava.tjbot.features.SlashCommand;
+import org.togetherjava.tjbot.features.utils.CacheMetrics;
 import org.togetherjava.tjbot.logging.LogMarkers;
 
 import java.time.Instant;
@@ -22,9 +23,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -49,12 +54,14 @@ import java.util.stream.Collectors;
  * Component IDs which have not been used for a long time, depending on their {@link Lifespan}
  * setting, might get evicted from the store after some time. The store implements a
  * <strong>LRU-cache</strong> and each call of {@link #get(UUID)} will update the usage-timestamp
- * for the component ID.
+ * for the component ID. These updates are collected and written to the database periodically in a
+ * single batch, instead of one write per lookup.
  * <p>
  * Users can react to eviction by adding a listener to
  * {@link #addComponentIdRemovedListener(Consumer)}.
  * <p>
- * The store is fully thread-safe, component IDs can be generated and parsed multithreaded.
+ * The store is fully thread-safe, component IDs can be generated and parsed multithreaded. Lookups
+ * that hit the in-memory cache do not lock.
  */
 @SuppressWarnings("ClassWithTooManyFields")
 public final class ComponentIdStore implements AutoCloseable {
@@ -71,7 +78,14 @@ public final class ComponentIdStore implements AutoCloseable {
     private static final int EVICT_CACHE_OLDER_THAN = 2;
     private static final ChronoUnit EVICT_CACHE_OLDER_THAN_UNIT = ChronoUnit.HOURS;
 
-    private final Object storeLock = new Object();
+    private static final long FLUSH_HEAT_EVERY = 1;
+    private static final ChronoUnit FLUSH_HEAT_EVERY_UNIT = ChronoUnit.MINUTES;
+    /**
+     * Maximal amount of UUIDs heated by a single statement, to stay well below the limit of bind
+     * variables of the database.
+     */
+    private static final int FLUSH_HEAT_BATCH_SIZE = 500;
+
     private final Database database;
     /**
      * In-memory cache which is used as first stage before the database, to speedup look-ups. Should
@@ -81,12 +95,16 @@ public final class ComponentIdStore implements AutoCloseable {
     private final Cache<UUID, ComponentId> storeCache;
     private final Collection<Consumer<ComponentId>> componentIdRemovedListeners =
             Collections.synchronizedCollection(new ArrayList<>());
-    private final ExecutorService heatService = Executors.newCachedThreadPool();
+    /**
+     * UUIDs that have been used since the last heat flush, see {@link #flushHeat()}.
+     */
+    private final Set<UUID> heatedUuids = ConcurrentHashMap.newKeySet();
     private final ExecutorService componentIdRemovedListenerService =
             Executors.newCachedThreadPool();
     private final ScheduledExecutorService evictionService =
             Executors.newSingleThreadScheduledExecutor();
     private final ScheduledFuture<?> evictionTask;
+    private final ScheduledFuture<?> flushHeatTask;
     private final long evictDatabaseOlderThan;
     private final TemporalUnit evictDatabaseOlderThanUnit;
 
@@ -123,7 +141,9 @@ public final class ComponentIdStore implements AutoCloseable {
         storeCache = Caffeine.newBuilder()
             .maximumSize(CACHE_SIZE)
             .expireAfterAccess(EVICT_CACHE_OLDER_THAN, TimeUnit.of(EVICT_CACHE_OLDER_THAN_UNIT))
+            .recordStats()
             .build();
+        CacheMetrics.register("component_ids", storeCache);
 
         Runnable evictCommand = () -> {
             try {
@@ -135,6 +155,17 @@ public final class ComponentIdStore implements AutoCloseable {
         evictionTask = evictionService.scheduleWithFixedDelay(evictCommand, evictEveryInitialDelay,
                 evictEveryDelay, TimeUnit.of(evictEveryUnit));
 
+        Runnable flushHeatCommand = () -> {
+            try {
+                flushHeat();
+            } catch (Exception e) {
+                logger.error("Unknown error while heating component IDs in the database.", e);
+            }
+        };
+        // Same single thread as the eviction, so they never run concurrently
+        flushHeatTask = evictionService.scheduleWithFixedDelay(flushHeatCommand, FLUSH_HEAT_EVERY,
+                FLUSH_HEAT_EVERY, TimeUnit.of(FLUSH_HEAT_EVERY_UNIT));
+
         logDebugSizeStatistics();
     }
 
@@ -167,19 +198,15 @@ public final class ComponentIdStore implements AutoCloseable {
      */
     @SuppressWarnings("WeakerAccess")
     public Optional<ComponentId> get(UUID uuid) {
-        synchronized (storeLock) {
-            // Get it from the cache or, if not found, the database
-            return Optional.ofNullable(storeCache.getIfPresent(uuid)).or(() -> {
-                Optional<ComponentId> databaseComponentId = getFromDatabase(uuid);
-                databaseComponentId.ifPresent(id -> {
-                    // Put it back into the cache
-                    storeCache.put(uuid, id);
-
-                    heatService.execute(() -> heatRecord(uuid));
-                });
-                return databaseComponentId;
-            });
+        // Get it from the cache or, if not found, load it from the database into the cache.
+        // Loading is atomic per UUID, so it can not race with the eviction of the same UUID.
+        Optional<ComponentId> componentId = Optional.ofNullable(
+                storeCache.get(uuid, uuidToLoad -> getFromDatabase(uuidToLoad).orElse(null)));
+
+        if (componentId.isPresent()) {
+            heatedUuids.add(uuid);
         }
+        return componentId;
     }
 
     /**
@@ -203,12 +230,12 @@ public final class ComponentIdStore implements AutoCloseable {
                 () -> "The UUID '%s' already exists and is associated to a component id."
                     .formatted(uuid);
 
-        synchronized (storeLock) {
-            if (storeCache.getIfPresent(uuid) != null) {
-                throw new IllegalArgumentException(alreadyExistsMessageSupplier.get());
-            }
-            storeCache.put(uuid, componentId);
+        // Atomic per UUID, so only puts of the same UUID compete with each other
+        if (storeCache.asMap().putIfAbsent(uuid, componentId) != null) {
+            throw new IllegalArgumentException(alreadyExistsMessageSupplier.get());
+        }
 
+        try {
             database.writeTransaction(context -> {
                 String uuidText = uuid.toString();
                 if (context.fetchExists(ComponentIds.COMPONENT_IDS,
@@ -218,12 +245,16 @@ public final class ComponentIdStore implements AutoCloseable {
 
                 ComponentIdsRecord componentIdsRecord =
                         context.newRecord(ComponentIds.COMPONENT_IDS)
-                            .setUuid(uuid.toString())
+                            .setUuid(uuidText)
                             .setComponentId(serializeComponentId(componentId))
                             .setLastUsed(Instant.now())
                             .setLifespan(lifespan.name());
                 componentIdsRecord.insert();
             });
+        } catch (RuntimeException e) {
+            // Not persisted, so it must not stay in the cache either
+            storeCache.asMap().remove(uuid, componentId);
+            throw e;
         }
     }
 
@@ -237,65 +268,73 @@ public final class ComponentIdStore implements AutoCloseable {
     }
 
     /**
-     * Updates the <b>last_used</b> timestamp for the given UUID in the database to the current
-     * time. This effectively heats the record, so that it will not be targeted for the next
-     * evictions.
-     *
-     * @param uuid the uuid to heat
-     * @throws IllegalArgumentException if there is no, or multiple, records associated to that UUID
+     * Updates the <b>last_used</b> timestamp of all UUIDs used since the last flush in the database
+     * to the current time. This effectively heats the records, so that they will not be targeted
+     * for the next evictions.
+     * <p>
+     * Records that have been evicted in the meantime are ignored.
      */
-    private void heatRecord(UUID uuid) {
-        int updatedRecords;
-        synchronized (storeLock) {
-            updatedRecords =
-                    database.writeAndProvide(context -> context.update(ComponentIds.COMPONENT_IDS)
-                        .set(ComponentIds.COMPONENT_IDS.LAST_USED, Instant.now())
-                        .where(ComponentIds.COMPONENT_IDS.UUID.eq(uuid.toString()))
-                        .execute());
+    void flushHeat() {
+        List<String> uuidsToHeat = new ArrayList<>();
+        Iterator<UUID> heatedUuidsIterator = heatedUuids.iterator();
+        while (heatedUuidsIterator.hasNext()) {
+            uuidsToHeat.add(heatedUuidsIterator.next().toString());
+            heatedUuidsIterator.remove();
         }
 
-        // NOTE Case 0, where no records are updated, is ignored on purpose.
-        // This happens when the entry has been evicted before the heating was executed.
-        if (updatedRecords > 1) {
-            throw new AssertionError(
-                    "Multiple records had the UUID '%s' even though it is unique.".formatted(uuid));
+        if (uuidsToHeat.isEmpty()) {
+            return;
         }
+
+        Instant now = Instant.now();
+        database.writeTransaction(context -> {
+            for (int i = 0; i < uuidsToHeat.size(); i += FLUSH_HEAT_BATCH_SIZE) {
+                int batchEnd = Math.min(i + FLUSH_HEAT_BATCH_SIZE, uuidsToHeat.size());
+                List<String> batch = uuidsToHeat.subList(i, batchEnd);
+                context.update(ComponentIds.COMPONENT_IDS)
+                    .set(ComponentIds.COMPONENT_IDS.LAST_USED, now)
+                    .where(ComponentIds.COMPONENT_IDS.UUID.in(batch))
+                    .execute();
+            }
+        });
+        logger.debug("Heated {} component ids in the database", uuidsToHeat.size());
     }
 
     private void evictDatabase() {
+        // Recently used records must not be evicted
+        flushHeat();
+
         logger.debug("Evicting old non-permanent component ids from the database...");
         AtomicInteger evictedCounter = new AtomicInteger(0);
-        synchronized (storeLock) {
-            database.write(context -> {
-                Result<ComponentIdsRecord> oldRecords = context
-                    .selectFrom(ComponentIds.COMPONENT_IDS)
-                    .where(ComponentIds.COMPONENT_IDS.LIFESPAN.notEqual(Lifespan.PERMANENT.name())
-                        .and(ComponentIds.COMPONENT_IDS.LAST_USED.lessOrEqual(Instant.now()
-                            .minus(evictDatabaseOlderThan, evictDatabaseOlderThanUnit))))
-                    .fetch();
-
-                oldRecords.forEach(recordToDelete -> {
-                    UUID uuid = UUID
-                        .fromString(recordToDelete.getValue(ComponentIds.COMPONENT_IDS.UUID));
-                    ComponentId componentId = deserializeComponentId(
-                            recordToDelete.getValue(ComponentIds.COMPONENT_IDS.COMPONENT_ID));
-                    Instant lastUsed = recordToDelete.getLastUsed();
-
-                    recordToDelete.delete();
-                    evictedCounter.getAndIncrement();
-                    logger.debug(
-                            "Evicted component id with uuid '{}' from user interactor '{}', last used '{}'",
-                            uuid, componentId.userInteractorName(), lastUsed);
-
-                    // Remove them from the cache if still in there
-                    storeCache.invalidate(uuid);
-                    // Notify all listeners, but non-blocking to not delay eviction
-                    componentIdRemovedListeners
-                        .forEach(listener -> componentIdRemovedListenerService
-                            .execute(() -> listener.accept(componentId)));
-                });
+        database.write(context -> {
+            Result<ComponentIdsRecord> oldRecords = context
+                .selectFrom(ComponentIds.COMPONENT_IDS)
+                .where(ComponentIds.COMPONENT_IDS.LIFESPAN.notEqual(Lifespan.PERMANENT.name())
+                    .and(ComponentIds.COMPONENT_IDS.LAST_USED.lessOrEqual(Instant.now()
+                        .minus(evictDatabaseOlderThan, evictDatabaseOlderThanUnit))))
+                .fetch();
+
+            oldRecords.forEach(recordToDelete -> {
+                UUID uuid = UUID
+                    .fromString(recordToDelete.getValue(ComponentIds.COMPONENT_IDS.UUID));
+                ComponentId componentId = deserializeComponentId(
+                        recordToDelete.getValue(ComponentIds.COMPONENT_IDS.COMPONENT_ID));
+                Instant lastUsed = recordToDelete.getLastUsed();
+
+                recordToDelete.delete();
+                evictedCounter.getAndIncrement();
+                logger.debug(
+                        "Evicted component id with uuid '{}' from user interactor '{}', last used '{}'",
+                        uuid, componentId.userInteractorName(), lastUsed);
+
+                // Remove them from the cache if still in there
+                storeCache.invalidate(uuid);
+                // Notify all listeners, but non-blocking to not delay eviction
+                componentIdRemovedListeners
+                    .forEach(listener -> componentIdRemovedListenerService
+                        .execute(() -> listener.accept(componentId)));
             });
-        }
+        });
 
         if (evictedCounter.get() != 0) {
             logger.info("Evicted {} old non-permanent component ids from the database",
@@ -303,7 +342,14 @@ public final class ComponentIdStore implements AutoCloseable {
         }
     }
 
-    private static String serializeComponentId(ComponentId componentId) {
+    /**
+     * Serializes the given component ID into the CSV format it is persisted in.
+     *
+     * @param componentId the component ID to serialize
+     * @return the serialized component ID
+     * @throws InvalidComponentIdFormatException if the component ID could not be serialized
+     */
+    static String serializeComponentId(ComponentId componentId) {
         try {
             return CSV.writerFor(ComponentId.class)
                 .with(CSV.schemaFor(ComponentId.class))
@@ -313,7 +359,15 @@ public final class ComponentIdStore implements AutoCloseable {
         }
     }
 
-    private static ComponentId deserializeComponentId(String componentId) {
+    /**
+     * Deserializes a component ID from the CSV format it is persisted in. See
+     * {@link #serializeComponentId(ComponentId)}.
+     *
+     * @param componentId the serialized component ID
+     * @return the deserialized component ID
+     * @throws InvalidComponentIdFormatException if the component ID could not be deserialized
+     */
+    static ComponentId deserializeComponentId(String componentId) {
         try {
             return CSV.readerFor(ComponentId.class)
                 .with(CSV.schemaFor(ComponentId.class))
@@ -341,11 +395,13 @@ public final class ComponentIdStore implements AutoCloseable {
 
     @Override
     public void close() {
-        heatService.shutdown();
         if (evictionTask != null) {
             evictionTask.cancel(false);
         }
+        flushHeatTask.cancel(false);
         evictionService.shutdown();
+        // Persist the remaining heat, it would be lost otherwise
+        flushHeat();
         componentIdRemovedListenerService.shutdown();
     }
 }
@@ -0,0 +1,257 @@
+package org.togetherjava.tjbot.features.componentids;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encodes component IDs directly into the ID used by Discord, so that they can be parsed back
+ * without any storage, as opposed to {@link ComponentIdStore}.
+ * <p>
+ * Discord limits IDs to {@value #MAX_LENGTH} characters, so only small payloads can be encoded
+ * inline, such as a user ID and an action. {@link #encode(ComponentId, Lifespan)} tells whether a
+ * payload fits, otherwise the store has to be used instead. IDs encoded by this class can be told
+ * apart from others by {@link #isInline(String)}.
+ * <p>
+ * Since users could craft any ID, encoded IDs are signed with an HMAC and rejected if the signature
+ * does not match. Instead of being evicted after not being used for a while, IDs with
+ * {@link Lifespan#REGULAR} embed a fixed expiry date, {@link #REGULAR_LIFESPAN} after their
+ * creation.
+ * <p>
+ * The format is a marker, a version and the Base64 encoded binary payload followed by the
+ * truncated signature. The payload consists of the expiry date in epoch seconds, {@code 0} for
+ * none, a nonce, then the name of the user interactor and the elements, each as length-prefixed
+ * UTF-8. The nonce makes every encoded ID unique, even if the same component ID is encoded
+ * multiple times, since Discord rejects messages whose components share an ID.
+ * <p>
+ * The codec is thread-safe.
+ */
+public final class InlineComponentIdCodec {
+    /**
+     * Maximal length of component IDs accepted by Discord.
+     */
+    static final int MAX_LENGTH = 100;
+    /**
+     * Time after which inline IDs with {@link Lifespan#REGULAR} expire, matching the time after
+     * which unused IDs are evicted from the {@link ComponentIdStore}.
+     */
+    static final Duration REGULAR_LIFESPAN = Duration.ofDays(20);
+
+    // UUIDs, as used by the store, never contain this character
+    private static final char MARKER = '~';
+    private static final char VERSION = '1';
+    private static final String PREFIX = String.valueOf(MARKER) + VERSION;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final byte[] KEY_DERIVATION_LABEL =
+            "tjbot-inline-component-ids".getBytes(StandardCharsets.UTF_8);
+    private static final int SIGNATURE_LENGTH = 12;
+    private static final int EXPIRY_LENGTH = Long.BYTES;
+    private static final int NONCE_LENGTH = Integer.BYTES;
+    private static final long NO_EXPIRY = 0;
+
+    private static final Base64.Encoder BASE64_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Clock clock;
+    /**
+     * Counts up per encoded ID, starting at a random value to avoid repeating the nonces of IDs
+     * encoded before a restart.
+     */
+    private final AtomicInteger nextNonce = new AtomicInteger(new SecureRandom().nextInt());
+
+    /**
+     * Creates a new codec that signs IDs with a key derived from the given secret.
+     * <p>
+     * The secret must stay the same across restarts, otherwise previously created IDs are rejected.
+     * It must not be known to users and should be dedicated to this purpose, for example a random
+     * string, so that IDs stay valid when other secrets, such as the token of the bot, are changed.
+     *
+     * @param secret the secret to derive the signing key from
+     */
+    public InlineComponentIdCodec(String secret) {
+        this(secret, Clock.systemUTC());
+    }
+
+    InlineComponentIdCodec(String secret, Clock clock) {
+        byte[] derivedKey = computeHmac(
+                new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM),
+                KEY_DERIVATION_LABEL);
+        key = new SecretKeySpec(derivedKey, HMAC_ALGORITHM);
+        this.clock = clock;
+    }
+
+    /**
+     * Whether the given ID was encoded by this class, as opposed to, for example, a UUID of the
+     * {@link ComponentIdStore}.
+     *
+     * @param id the ID to check
+     * @return whether the ID is encoded inline
+     */
+    public static boolean isInline(String id) {
+        return !id.isEmpty() && id.charAt(0) == MARKER;
+    }
+
+    /**
+     * Encodes the given component ID inline, if it fits into {@value #MAX_LENGTH} characters.
+     *
+     * @param componentId the component ID to encode
+     * @param lifespan the lifespan of the component ID
+     * @return the encoded ID, or empty if it is too long
+     */
+    public Optional<String> encode(ComponentId componentId, Lifespan lifespan) {
+        long expiry = switch (lifespan) {
+            case PERMANENT -> NO_EXPIRY;
+            case REGULAR -> clock.instant().plus(REGULAR_LIFESPAN).getEpochSecond();
+        };
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(MAX_LENGTH);
+        payload.writeBytes(ByteBuffer.allocate(EXPIRY_LENGTH).putLong(expiry).array());
+        payload.writeBytes(
+                ByteBuffer.allocate(NONCE_LENGTH).putInt(nextNonce.getAndIncrement()).array());
+        writeString(payload, componentId.userInteractorName());
+        writeVarInt(payload, componentId.elements().size());
+        componentId.elements().forEach(element -> writeString(payload, element));
+
+        // Base64 encodes 3 bytes as 4 characters
+        int payloadLength = payload.size() + SIGNATURE_LENGTH;
+        int encodedLength = PREFIX.length() + (payloadLength * 4 + 2) / 3;
+        if (encodedLength > MAX_LENGTH) {
+            return Optional.empty();
+        }
+
+        payload.writeBytes(sign(payload.toByteArray()));
+        return Optional.of(PREFIX + BASE64_ENCODER.encodeToString(payload.toByteArray()));
+    }
+
+    /**
+     * Decodes an ID previously encoded by {@link #encode(ComponentId, Lifespan)}.
+     *
+     * @param id the ID to decode, must be inline as determined by {@link #isInline(String)}
+     * @return the decoded component ID, or empty if it expired
+     * @throws InvalidComponentIdFormatException if the ID is malformed or its signature does not
+     *         match, for example because it was crafted by a user
+     */
+    public Optional<ComponentId> decode(String id) {
+        if (!id.startsWith(PREFIX)) {
+            throw new InvalidComponentIdFormatException(
+                    "The inline component ID has an unknown version: " + id);
+        }
+
+        byte[] bytes;
+        try {
+            bytes = BASE64_DECODER.decode(id.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidComponentIdFormatException(e);
+        }
+        if (bytes.length < EXPIRY_LENGTH + NONCE_LENGTH + SIGNATURE_LENGTH) {
+            throw new InvalidComponentIdFormatException(
+                    "The inline component ID is too short: " + id);
+        }
+
+        byte[] payload = Arrays.copyOf(bytes, bytes.length - SIGNATURE_LENGTH);
+        byte[] signature = Arrays.copyOfRange(bytes, payload.length, bytes.length);
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            throw new InvalidComponentIdFormatException(
+                    "The signature of the inline component ID does not match: " + id);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        long expiry = buffer.getLong();
+        if (expiry != NO_EXPIRY && clock.instant().isAfter(Instant.ofEpochSecond(expiry))) {
+            return Optional.empty();
+        }
+        // Only there to make the ID unique
+        buffer.position(buffer.position() + NONCE_LENGTH);
+
+        try {
+            String userInteractorName = readString(buffer);
+            int elementCount = readVarInt(buffer);
+            List<String> elements = new ArrayList<>(Math.min(elementCount, payload.length));
+            for (int i = 0; i < elementCount; i++) {
+                elements.add(readString(buffer));
+            }
+
+            if (buffer.hasRemaining()) {
+                throw new InvalidComponentIdFormatException(
+                        "The inline component ID has trailing data: " + id);
+            }
+            return Optional.of(new ComponentId(userInteractorName, elements));
+        } catch (RuntimeException e) {
+            if (e instanceof InvalidComponentIdFormatException) {
+                throw e;
+            }
+            throw new InvalidComponentIdFormatException(e);
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        return Arrays.copyOf(computeHmac(key, payload), SIGNATURE_LENGTH);
+    }
+
+    private static byte[] computeHmac(SecretKeySpec key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC method must be supported", e);
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream target, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(target, bytes.length);
+        target.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuffer source) {
+        int length = readVarInt(source);
+        if (length > source.remaining()) {
+            throw new InvalidComponentIdFormatException(
+                    "The inline component ID contains a string longer than the ID itself");
+        }
+
+        String text = new String(source.array(), source.position(), length, StandardCharsets.UTF_8);
+        source.position(source.position() + length);
+        return text;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream target, int value) {
+        // 7 bits per byte, the highest bit marks that more bytes follow
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            target.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        target.write(remaining);
+    }
+
+    private static int readVarInt(ByteBuffer source) {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            byte current = source.get();
+            value |= (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new InvalidComponentIdFormatException(
+                "The inline component ID contains a malformed number");
+    }
+}
@@ -0,0 +1,114 @@
+package org.togetherjava.tjbot.features.github;
+
+import org.kohsuke.github.GHIssue;
+import org.kohsuke.github.GHIssueState;
+import org.kohsuke.github.GHIssueStateReason;
+import org.kohsuke.github.GHLabel;
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHUser;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The data of an issue or pull request that is displayed when referencing it, see
+ * {@link GitHubReference#generateReply(GitHubIssue)}.
+ *
+ * @param number the number of the issue
+ * @param title the title of the issue
+ * @param htmlUrl the URL of the issue on the website
+ * @param body the description of the issue, if any
+ * @param labels the names of all labels of the issue
+ * @param assignees the logins of all users assigned to the issue
+ * @param authorLogin the login of the user who created the issue
+ * @param authorAvatarUrl the URL to the avatar of the user who created the issue, if any
+ * @param createdAt the time the issue was created at
+ * @param status the status of the issue
+ */
+record GitHubIssue(int number, String title, String htmlUrl, @Nullable String body,
+        List<String> labels, List<String> assignees, String authorLogin,
+        @Nullable String authorAvatarUrl, Instant createdAt, Status status) {
+
+    /**
+     * The data of an issue or pull request that is displayed when referencing it.
+     *
+     * @param number the number of the issue
+     * @param title the title of the issue
+     * @param htmlUrl the URL of the issue on the website
+     * @param body the description of the issue, if any
+     * @param labels the names of all labels of the issue
+     * @param assignees the logins of all users assigned to the issue
+     * @param authorLogin the login of the user who created the issue
+     * @param authorAvatarUrl the URL to the avatar of the user who created the issue, if any
+     * @param createdAt the time the issue was created at
+     * @param status the status of the issue
+     */
+    GitHubIssue {
+        labels = List.copyOf(labels);
+        assignees = List.copyOf(assignees);
+    }
+
+    /**
+     * Extracts the data of the given issue.
+     * <p>
+     * Might do blocking requests to GitHub, if the issue was not fully loaded yet.
+     *
+     * @param issue the issue to extract the data of
+     * @return the data of the issue
+     * @throws IOException if a request to GitHub failed
+     */
+    static GitHubIssue of(GHIssue issue) throws IOException {
+        return new GitHubIssue(issue.getNumber(), issue.getTitle(),
+                issue.getHtmlUrl().toString(), issue.getBody(),
+                issue.getLabels().stream().map(GHLabel::getName).toList(),
+                issue.getAssignees().stream().map(GHUser::getLogin).toList(),
+                issue.getUser().getLogin(), issue.getUser().getAvatarUrl(),
+                issue.getCreatedAt().toInstant(), getStatus(issue));
+    }
+
+    private static Status getStatus(GHIssue issue) throws IOException {
+        if (issue instanceof GHPullRequest pr) {
+            if (pr.isMerged()) {
+                return Status.COMPLETED;
+            } else if (pr.isDraft()) {
+                return Status.DRAFT;
+            }
+        } else {
+            if (issue.getStateReason() == GHIssueStateReason.COMPLETED) {
+                return Status.COMPLETED;
+            } else if (issue.getStateReason() == GHIssueStateReason.NOT_PLANNED) {
+                return Status.NOT_PLANNED;
+            }
+        }
+        return issue.getState() == GHIssueState.OPEN ? Status.OPEN : Status.CLOSED;
+    }
+
+    /**
+     * The status of an issue or pull request.
+     */
+    enum Status {
+        /**
+         * Open and waiting to be worked on, or to be reviewed.
+         */
+        OPEN,
+        /**
+         * Closed without a more specific reason.
+         */
+        CLOSED,
+        /**
+         * A completed issue, or a merged pull request.
+         */
+        COMPLETED,
+        /**
+         * An issue that was closed since it is not planned to be done.
+         */
+        NOT_PLANNED,
+        /**
+         * A pull request that is still a draft.
+         */
+        DRAFT
+    }
+}
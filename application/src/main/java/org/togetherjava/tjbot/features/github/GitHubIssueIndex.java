@@ -0,0 +1,181 @@
+package org.togetherjava.tjbot.features.github;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index of the titles of all issues and pull requests of the configured repositories,
+ * used to autocomplete them without touching the network.
+ * <p>
+ * Titles are normalized once and split into trigrams when they are added, see
+ * {@link #extractTrigrams(String)}. A query is ranked by the amount of its trigrams each title
+ * contains, which only looks at titles sharing at least one trigram with the query. Titles sharing
+ * too few trigrams with the query are not considered a match at all.
+ * <p>
+ * The index is filled by {@link GitHubIssueIndexRoutine}. Changes build a new snapshot of the index
+ * which is then swapped in, so queries never wait for updates. The class is thread-safe.
+ */
+public final class GitHubIssueIndex {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    /**
+     * Suggestions might have been selected before, their id is not part of the title.
+     */
+    private static final Pattern ISSUE_ID_PREFIX = Pattern.compile("^\\[#\\d+] ");
+    /**
+     * The fraction of the trigrams of a query a title has to contain to be considered a match.
+     */
+    private static final double MIN_SHARED_TRIGRAMS_RATIO = 1.0 / 3;
+
+    private final Map<IssueKey, IndexedIssue> keyToIssue = new HashMap<>();
+    private volatile Snapshot snapshot = Snapshot.of(List.of());
+
+    /**
+     * Adds the given issues to the index, replacing previous versions of them.
+     *
+     * @param issues the issues to add
+     */
+    synchronized void putAll(Collection<IndexedIssue> issues) {
+        if (issues.isEmpty()) {
+            return;
+        }
+
+        issues.forEach(issue -> keyToIssue
+            .put(new IssueKey(issue.repositoryId(), issue.number()), issue));
+        snapshot = Snapshot.of(keyToIssue.values());
+    }
+
+    /**
+     * Finds the issues whose titles match the given query best.
+     * <p>
+     * Without a query, the most recently updated issues are returned.
+     *
+     * @param query the query, for example the beginning of a title, possibly with typos
+     * @param limit the maximal amount of issues to return
+     * @return the best matching issues, best first, formatted as {@code "[#123] title"}
+     */
+    List<String> findClosestTitles(String query, int limit) {
+        return snapshot.findClosestTitles(query, limit);
+    }
+
+    /**
+     * Splits the given text into trigrams, after normalizing it.
+     * <p>
+     * Each word is padded with two spaces in front and one at the end, so that even single letters
+     * result in a trigram and trigrams at the start of words are weighted higher.
+     *
+     * @param text the text to split
+     * @return all distinct trigrams of the text
+     */
+    static Set<String> extractTrigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+
+        String normalizedText =
+                ISSUE_ID_PREFIX.matcher(text).replaceFirst("").toLowerCase(Locale.US);
+        for (String word : WORD_SEPARATOR.split(normalizedText)) {
+            if (word.isEmpty()) {
+                continue;
+            }
+
+            String paddedWord = "  " + word + " ";
+            for (int i = 0; i + 3 <= paddedWord.length(); i++) {
+                trigrams.add(paddedWord.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * An issue or pull request in the index.
+     *
+     * @param repositoryId the id of the repository the issue is in
+     * @param number the number of the issue
+     * @param title the title of the issue
+     * @param updatedAt the last time the issue was updated at
+     */
+    record IndexedIssue(long repositoryId, int number, String title, Instant updatedAt) {
+    }
+
+    private record IssueKey(long repositoryId, int number) {
+    }
+
+    /**
+     * Immutable state of the index.
+     *
+     * @param displayTitles the formatted titles of all issues, most recently updated first
+     * @param trigramToIssues for each trigram, the positions of all issues in
+     *        {@code displayTitles} whose title contains it
+     */
+    private record Snapshot(String[] displayTitles, Map<String, int[]> trigramToIssues) {
+        static Snapshot of(Collection<IndexedIssue> issues) {
+            IndexedIssue[] sortedIssues = issues.stream()
+                .sorted(Comparator.comparing(IndexedIssue::updatedAt).reversed())
+                .toArray(IndexedIssue[]::new);
+
+            String[] displayTitles = new String[sortedIssues.length];
+            Map<String, List<Integer>> trigramToIssueList = new HashMap<>();
+            for (int i = 0; i < sortedIssues.length; i++) {
+                IndexedIssue issue = sortedIssues[i];
+                displayTitles[i] = "[#%d] %s".formatted(issue.number(), issue.title());
+
+                for (String trigram : extractTrigrams(issue.title())) {
+                    trigramToIssueList.computeIfAbsent(trigram, any -> new ArrayList<>()).add(i);
+                }
+            }
+
+            Map<String, int[]> trigramToIssues = HashMap.newHashMap(trigramToIssueList.size());
+            trigramToIssueList.forEach((trigram, issueList) -> trigramToIssues.put(trigram,
+                    issueList.stream().mapToInt(Integer::intValue).toArray()));
+            return new Snapshot(displayTitles, trigramToIssues);
+        }
+
+        List<String> findClosestTitles(String query, int limit) {
+            Set<String> queryTrigrams = extractTrigrams(query);
+            if (queryTrigrams.isEmpty()) {
+                return Arrays.stream(displayTitles).limit(limit).toList();
+            }
+
+            int[] sharedTrigrams = new int[displayTitles.length];
+            for (String trigram : queryTrigrams) {
+                for (int issue : trigramToIssues.getOrDefault(trigram, new int[0])) {
+                    sharedTrigrams[issue]++;
+                }
+            }
+
+            int minSharedTrigrams =
+                    Math.max(1, (int) Math.ceil(queryTrigrams.size() * MIN_SHARED_TRIGRAMS_RATIO));
+
+            // Keeps the worst of the best matches on top, ties are broken by recency
+            Comparator<Integer> byRelevance =
+                    Comparator.<Integer>comparingInt(issue -> sharedTrigrams[issue])
+                        .thenComparing(Comparator.reverseOrder());
+            Queue<Integer> bestIssues = new PriorityQueue<>(byRelevance);
+            for (int issue = 0; issue < sharedTrigrams.length; issue++) {
+                if (sharedTrigrams[issue] < minSharedTrigrams) {
+                    continue;
+                }
+
+                bestIssues.add(issue);
+                if (bestIssues.size() > limit) {
+                    bestIssues.remove();
+                }
+            }
+
+            return bestIssues.stream()
+                .sorted(byRelevance.reversed())
+                .map(issue -> displayTitles[issue])
+                .toList();
+        }
+    }
+}
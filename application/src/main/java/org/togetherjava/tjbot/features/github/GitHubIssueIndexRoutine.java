@@ -0,0 +1,92 @@
+package org.togetherjava.tjbot.features.github;
+
+import net.dv8tion.jda.api.JDA;
+import org.kohsuke.github.GHIssue;
+import org.kohsuke.github.GHIssueQueryBuilder;
+import org.kohsuke.github.GHIssueState;
+import org.kohsuke.github.GHRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.togetherjava.tjbot.features.Routine;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routine that keeps the {@link GitHubIssueIndex} in sync with the configured repositories.
+ * <p>
+ * The first run downloads all issues, later runs only the issues that were updated since the
+ * previous run.
+ */
+public final class GitHubIssueIndexRoutine implements Routine {
+    private static final Logger logger = LoggerFactory.getLogger(GitHubIssueIndexRoutine.class);
+    private static final int PAGE_SIZE = 100;
+
+    private final GitHubReference reference;
+    private final GitHubIssueIndex issueIndex;
+    private final Map<Long, Instant> repositoryIdToLastUpdate = new HashMap<>();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param reference providing the repositories to index
+     * @param issueIndex the index to keep in sync
+     */
+    public GitHubIssueIndexRoutine(GitHubReference reference, GitHubIssueIndex issueIndex) {
+        this.reference = reference;
+        this.issueIndex = issueIndex;
+    }
+
+    @Override
+    public Schedule createSchedule() {
+        return new Schedule(ScheduleMode.FIXED_DELAY, 0, 1, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void runRoutine(JDA jda) {
+        for (GHRepository repository : reference.getRepositories()) {
+            try {
+                syncRepository(repository);
+            } catch (IOException e) {
+                logger.warn("Unable to sync the issues of the GitHub repository {}",
+                        repository.getFullName(), e);
+            }
+        }
+    }
+
+    private void syncRepository(GHRepository repository) throws IOException {
+        GHIssueQueryBuilder.ForRepository query =
+                repository.queryIssues().state(GHIssueState.ALL).pageSize(PAGE_SIZE);
+
+        Instant lastUpdate = repositoryIdToLastUpdate.get(repository.getId());
+        if (lastUpdate != null) {
+            // Inclusive, so the last issue is fetched again, but none updated at the same time
+            query.since(Date.from(lastUpdate));
+        }
+
+        List<GitHubIssueIndex.IndexedIssue> updatedIssues = new ArrayList<>();
+        for (GHIssue issue : query.list()) {
+            Instant updatedAt = issue.getUpdatedAt().toInstant();
+            updatedIssues.add(new GitHubIssueIndex.IndexedIssue(repository.getId(),
+                    issue.getNumber(), issue.getTitle(), updatedAt));
+
+            if (lastUpdate == null || updatedAt.isAfter(lastUpdate)) {
+                lastUpdate = updatedAt;
+            }
+        }
+
+        issueIndex.putAll(updatedIssues);
+        if (lastUpdate != null) {
+            repositoryIdToLastUpdate.put(repository.getId(), lastUpdate);
+        }
+        logger.debug("Synced {} updated issues of the GitHub repository {}", updatedIssues.size(),
+                repository.getFullName());
+    }
+}
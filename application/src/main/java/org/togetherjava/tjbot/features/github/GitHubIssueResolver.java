@@ -0,0 +1,247 @@
+package org.togetherjava.tjbot.features.github;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Resolves issues and pull requests to the embeds displaying them, asynchronously and without
+ * blocking the calling thread.
+ * <p>
+ * Rendered embeds are cached by repository and issue number. Cached embeds are used as-is for a
+ * short time, afterwards they are revalidated with a conditional request using the ETag GitHub sent
+ * along, which is cheap and does not count against the rate limit if the issue did not change.
+ * Concurrent lookups of the same issue share a single request.
+ * <p>
+ * If GitHub can not be reached, a previously cached embed is used, even if outdated.
+ */
+final class GitHubIssueResolver {
+    private static final Logger logger = LoggerFactory.getLogger(GitHubIssueResolver.class);
+
+    private static final String API_URL = "https://api.github.com";
+    /**
+     * Cached embeds younger than this are used without asking GitHub whether they changed.
+     */
+    private static final Duration FRESH_DURATION = Duration.ofMinutes(1);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final int MAX_CACHED_ISSUES = 1_000;
+
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_NOT_MODIFIED = 304;
+    private static final int HTTP_NOT_FOUND = 404;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String apiKey;
+    private final Function<? super GitHubIssue, MessageEmbed> renderer;
+    private final String baseUrl;
+    private final Duration freshDuration;
+
+    private final Cache<IssueKey, CachedEmbed> issueToEmbedCache =
+            Caffeine.newBuilder().maximumSize(MAX_CACHED_ISSUES).build();
+    private final Map<IssueKey, CompletableFuture<Optional<MessageEmbed>>> pendingLookups =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new resolver, looking up issues on GitHub.
+     *
+     * @param apiKey the GitHub API key to authenticate with
+     * @param renderer renders an issue to the embed displaying it
+     */
+    GitHubIssueResolver(String apiKey, Function<? super GitHubIssue, MessageEmbed> renderer) {
+        this(apiKey, renderer, API_URL, FRESH_DURATION);
+    }
+
+    /**
+     * Creates a new resolver, looking up issues on the given API, for example a local stub.
+     *
+     * @param apiKey the GitHub API key to authenticate with
+     * @param renderer renders an issue to the embed displaying it
+     * @param baseUrl the base URL of the GitHub REST API, without trailing slash
+     * @param freshDuration how long cached embeds are used without revalidating them
+     */
+    GitHubIssueResolver(String apiKey, Function<? super GitHubIssue, MessageEmbed> renderer,
+            String baseUrl, Duration freshDuration) {
+        this.apiKey = apiKey;
+        this.renderer = renderer;
+        this.baseUrl = baseUrl;
+        this.freshDuration = freshDuration;
+    }
+
+    /**
+     * Resolves the given issue or pull request to the embed displaying it.
+     *
+     * @param repositoryId the id of the repository the issue is in
+     * @param number the number of the issue
+     * @return the embed displaying the issue, or empty if there is no such issue or it could not be
+     *         looked up; never completes exceptionally
+     */
+    CompletableFuture<Optional<MessageEmbed>> resolve(long repositoryId, int number) {
+        IssueKey key = new IssueKey(repositoryId, number);
+
+        CachedEmbed cachedEmbed = issueToEmbedCache.getIfPresent(key);
+        if (cachedEmbed != null
+                && cachedEmbed.validatedAt().plus(freshDuration).isAfter(Instant.now())) {
+            return CompletableFuture.completedFuture(Optional.of(cachedEmbed.embed()));
+        }
+
+        CompletableFuture<Optional<MessageEmbed>> lookup = new CompletableFuture<>();
+        CompletableFuture<Optional<MessageEmbed>> pendingLookup =
+                pendingLookups.putIfAbsent(key, lookup);
+        if (pendingLookup != null) {
+            return pendingLookup;
+        }
+
+        fetch(key, cachedEmbed).whenComplete((embed, failure) -> {
+            pendingLookups.remove(key, lookup);
+            if (failure == null) {
+                lookup.complete(embed);
+            } else {
+                lookup.completeExceptionally(failure);
+            }
+        });
+        return lookup;
+    }
+
+    private CompletableFuture<Optional<MessageEmbed>> fetch(IssueKey key,
+            @Nullable CachedEmbed cachedEmbed) {
+        HttpRequest.Builder request = HttpRequest
+            .newBuilder(URI.create("%s/repositories/%d/issues/%d".formatted(baseUrl,
+                    key.repositoryId(), key.number())))
+            .header("Accept", "application/vnd.github+json")
+            .header("Authorization", "Bearer " + apiKey)
+            .timeout(REQUEST_TIMEOUT)
+            .GET();
+        if (cachedEmbed != null) {
+            request.header("If-None-Match", cachedEmbed.etag());
+        }
+
+        Instant requestedAt = Instant.now();
+        return httpClient.sendAsync(request.build(), BodyHandlers.ofByteArray())
+            .thenApply(response -> handleResponse(key, cachedEmbed, response, requestedAt))
+            .exceptionally(failure -> {
+                logger.warn("Unable to look up the GitHub issue #{} in repository {}",
+                        key.number(), key.repositoryId(), failure);
+                return Optional.ofNullable(cachedEmbed).map(CachedEmbed::embed);
+            });
+    }
+
+    private Optional<MessageEmbed> handleResponse(IssueKey key, @Nullable CachedEmbed cachedEmbed,
+            HttpResponse<byte[]> response, Instant requestedAt) {
+        int statusCode = response.statusCode();
+
+        if (statusCode == HTTP_NOT_MODIFIED && cachedEmbed != null) {
+            issueToEmbedCache.put(key,
+                    new CachedEmbed(cachedEmbed.embed(), cachedEmbed.etag(), requestedAt));
+            return Optional.of(cachedEmbed.embed());
+        }
+
+        if (statusCode == HTTP_OK) {
+            MessageEmbed embed = renderer.apply(parseIssue(response.body()));
+
+            Optional<String> etag = response.headers().firstValue("ETag");
+            if (etag.isPresent()) {
+                issueToEmbedCache.put(key, new CachedEmbed(embed, etag.orElseThrow(), requestedAt));
+            } else {
+                issueToEmbedCache.invalidate(key);
+            }
+            return Optional.of(embed);
+        }
+
+        if (statusCode == HTTP_NOT_FOUND) {
+            issueToEmbedCache.invalidate(key);
+            return Optional.empty();
+        }
+
+        logger.warn("Unable to look up the GitHub issue #{} in repository {}, status code {}",
+                key.number(), key.repositoryId(), statusCode);
+        return Optional.ofNullable(cachedEmbed).map(CachedEmbed::embed);
+    }
+
+    private GitHubIssue parseIssue(byte[] body) {
+        IssueResponse issue;
+        try {
+            issue = objectMapper.readValue(body, IssueResponse.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to parse the GitHub issue", e);
+        }
+
+        return new GitHubIssue(issue.number(), issue.title(), issue.htmlUrl(), issue.body(),
+                issue.labels().stream().map(LabelResponse::name).toList(),
+                issue.assignees().stream().map(UserResponse::login).toList(),
+                issue.user().login(), issue.user().avatarUrl(), Instant.parse(issue.createdAt()),
+                getStatus(issue));
+    }
+
+    private static GitHubIssue.Status getStatus(IssueResponse issue) {
+        if (issue.pullRequest() != null) {
+            if (issue.pullRequest().mergedAt() != null) {
+                return GitHubIssue.Status.COMPLETED;
+            } else if (issue.draft()) {
+                return GitHubIssue.Status.DRAFT;
+            }
+        } else {
+            if ("completed".equals(issue.stateReason())) {
+                return GitHubIssue.Status.COMPLETED;
+            } else if ("not_planned".equals(issue.stateReason())) {
+                return GitHubIssue.Status.NOT_PLANNED;
+            }
+        }
+        return "open".equals(issue.state()) ? GitHubIssue.Status.OPEN : GitHubIssue.Status.CLOSED;
+    }
+
+    private record IssueKey(long repositoryId, int number) {
+    }
+
+    private record CachedEmbed(MessageEmbed embed, String etag, Instant validatedAt) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record IssueResponse(@JsonProperty("number") int number,
+            @JsonProperty("title") String title, @JsonProperty("html_url") String htmlUrl,
+            @JsonProperty("body") @Nullable String body,
+            @JsonProperty("labels") List<LabelResponse> labels,
+            @JsonProperty("assignees") List<UserResponse> assignees,
+            @JsonProperty("user") UserResponse user,
+            @JsonProperty("created_at") String createdAt, @JsonProperty("state") String state,
+            @JsonProperty("state_reason") @Nullable String stateReason,
+            @JsonProperty("draft") boolean draft,
+            @JsonProperty("pull_request") @Nullable PullRequestResponse pullRequest) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record LabelResponse(@JsonProperty("name") String name) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record UserResponse(@JsonProperty("login") String login,
+            @JsonProperty("avatar_url") @Nullable String avatarUrl) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record PullRequestResponse(@JsonProperty("merged_at") @Nullable String mergedAt) {
+    }
+}
@@ -9,12 +9,7 @@ import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import org.apache.commons.collections4.ListUtils;
 import org.kohsuke.github.GHIssue;
-import org.kohsuke.github.GHIssueState;
-import org.kohsuke.github.GHIssueStateReason;
-import org.kohsuke.github.GHLabel;
-import org.kohsuke.github.GHPullRequest;
 import org.kohsuke.github.GHRepository;
-import org.kohsuke.github.GHUser;
 import org.kohsuke.github.GitHub;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,16 +21,14 @@ import java.awt.Color;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 /**
  * GitHub Referencing feature. If someone sends #id of an issue (e.g. #207) in specified channel,
@@ -67,17 +60,20 @@ public final class GitHubReference extends MessageReceiverAdapter {
             DateTimeFormatter.ofPattern("dd MMM, yyyy").withZone(ZoneOffset.UTC);
     private final Predicate<String> hasGithubIssueReferenceEnabled;
     private final Config config;
+    private final GitHubIssueResolver issueResolver;
 
     /**
-     * The repositories that are searched when looking for an issue.
+     * The repositories that are searched when looking for an issue, acquired during
+     * {@link #warmUp()}.
      */
-    private List<GHRepository> repositories;
+    private volatile List<GHRepository> repositories = List.of();
 
     /**
      * Constructs an instance of GitHubReference.
      *
      * This constructor initializes a new GitHubReference with the specified Config. It also sets up
-     * a predicate for matching allowed channels for feature and acquires repositories.
+     * a predicate for matching allowed channels for feature. The repositories are acquired later,
+     * during {@link #warmUp()}.
      *
      * @param config The Config to get allowed channel pattern for feature.
      */
@@ -86,21 +82,24 @@ public final class GitHubReference extends MessageReceiverAdapter {
         this.hasGithubIssueReferenceEnabled =
                 Pattern.compile(config.getGitHubReferencingEnabledChannelPattern())
                     .asMatchPredicate();
-        acquireRepositories();
+        issueResolver = new GitHubIssueResolver(config.getGitHubApiKey(), this::generateReply);
     }
 
     /**
      * Acquires the list of repositories to use as a source for lookup.
      */
-    private void acquireRepositories() {
+    @Override
+    public void warmUp() {
         try {
-            repositories = new ArrayList<>();
+            List<GHRepository> acquiredRepositories = new ArrayList<>();
 
             GitHub githubApi = GitHub.connectUsingOAuth(config.getGitHubApiKey());
 
             for (long repoId : config.getGitHubRepositories()) {
-                repositories.add(githubApi.getRepositoryById(repoId));
+                acquiredRepositories.add(githubApi.getRepositoryById(repoId));
             }
+
+            repositories = List.copyOf(acquiredRepositories);
         } catch (IOException ex) {
             logger.warn(
                     "The GitHub key ({}) used in this config is invalid. Skipping GitHubReference feature – {}",
@@ -116,17 +115,29 @@ public final class GitHubReference extends MessageReceiverAdapter {
 
         Message message = event.getMessage();
         String content = message.getContentRaw();
-        Matcher matcher = ISSUE_REFERENCE_PATTERN.matcher(content);
-        List<MessageEmbed> embeds = new ArrayList<>();
-
-        while (matcher.find()) {
-            long defaultRepoId = config.getGitHubRepositories().getFirst();
-
-            int issueId = Integer.parseInt(matcher.group(ID_GROUP));
-            findIssue(issueId, defaultRepoId).ifPresent(issue -> embeds.add(generateReply(issue)));
+        long defaultRepoId = config.getGitHubRepositories().getFirst();
+
+        // Resolved in parallel and off the event thread, since each lookup may hit GitHub
+        List<CompletableFuture<Optional<MessageEmbed>>> embedLookups =
+                ISSUE_REFERENCE_PATTERN.matcher(content)
+                    .results()
+                    .map(result -> Integer.parseInt(result.group(ID_GROUP)))
+                    .map(issueId -> issueResolver.resolve(defaultRepoId, issueId))
+                    .toList();
+        if (embedLookups.isEmpty()) {
+            return;
         }
 
-        replyBatchEmbeds(embeds, message, false);
+        CompletableFuture.allOf(embedLookups.toArray(CompletableFuture[]::new))
+            .thenRun(() -> replyBatchEmbeds(embedLookups.stream()
+                .map(CompletableFuture::join)
+                .flatMap(Optional::stream)
+                .toList(), message, false))
+            .exceptionally(failure -> {
+                logger.warn("Unable to reply to the issue references in message {}",
+                        message.getId(), failure);
+                return null;
+            });
     }
 
     /**
@@ -155,72 +166,52 @@ public final class GitHubReference extends MessageReceiverAdapter {
 
     /**
      * Generates the embed to reply with when someone references an issue.
+     * <p>
+     * Might do blocking requests to GitHub, if the issue was not fully loaded yet.
      */
     MessageEmbed generateReply(GHIssue issue) throws UncheckedIOException {
         try {
-            String title = "[#%d] %s".formatted(issue.getNumber(), issue.getTitle());
-            String titleUrl = issue.getHtmlUrl().toString();
-            String description = issue.getBody();
-
-            if (description != null && description.length() > MessageEmbed.DESCRIPTION_MAX_LENGTH) {
-                description = "too long for preview, visit Github";
-            }
-
-            String labels = issue.getLabels()
-                .stream()
-                .map(GHLabel::getName)
-                .collect(Collectors.joining(", "));
-
-            String assignees = issue.getAssignees()
-                .stream()
-                .map(this::getUserNameOrThrow)
-                .collect(Collectors.joining(", "));
-
-            Instant createdAt = issue.getCreatedAt().toInstant();
-            String dateOfCreation = FORMATTER.format(createdAt);
-
-            String footer = "%s • %s • %s".formatted(labels, assignees, dateOfCreation);
-            return new EmbedBuilder().setColor(getIssueStateColor(issue))
-                .setTitle(title, titleUrl)
-                .setDescription(description)
-                .setAuthor(issue.getUser().getName(), null, issue.getUser().getAvatarUrl())
-                .setFooter(footer)
-                .build();
-
+            return generateReply(GitHubIssue.of(issue));
         } catch (IOException ex) {
             throw new UncheckedIOException(ex);
         }
     }
 
     /**
-     * Returns the color based on the state of the issue/PR
+     * Generates the embed to reply with when someone references an issue.
      */
-    private Color getIssueStateColor(GHIssue issue) throws IOException {
-        if (issue instanceof GHPullRequest pr) {
-            if (pr.isMerged()) {
-                return MERGED_STATE;
-            } else if (pr.isDraft()) {
-                return DRAFT_STATE;
-            }
-        } else {
-            if (issue.getStateReason() == GHIssueStateReason.COMPLETED) {
-                return MERGED_STATE;
-            } else if (issue.getStateReason() == GHIssueStateReason.NOT_PLANNED) {
-                return NOT_PLANNED_STATE;
-            }
+    MessageEmbed generateReply(GitHubIssue issue) {
+        String title = "[#%d] %s".formatted(issue.number(), issue.title());
+        String description = issue.body();
+
+        if (description != null && description.length() > MessageEmbed.DESCRIPTION_MAX_LENGTH) {
+            description = "too long for preview, visit Github";
         }
-        return issue.getState() == GHIssueState.OPEN ? OPEN_STATE : CLOSE_STATE;
+
+        String labels = String.join(", ", issue.labels());
+        String assignees = String.join(", ", issue.assignees());
+        String dateOfCreation = FORMATTER.format(issue.createdAt());
+
+        String footer = "%s • %s • %s".formatted(labels, assignees, dateOfCreation);
+        return new EmbedBuilder().setColor(getIssueStateColor(issue.status()))
+            .setTitle(title, issue.htmlUrl())
+            .setDescription(description)
+            .setAuthor(issue.authorLogin(), null, issue.authorAvatarUrl())
+            .setFooter(footer)
+            .build();
     }
 
     /**
-     * Either properly gathers the name of a user or throws a UncheckedIOException.
+     * Returns the color based on the state of the issue/PR
      */
-    private String getUserNameOrThrow(GHUser user) throws UncheckedIOException {
-        try {
-            return user.getName();
-        } catch (IOException ex) {
-            throw new UncheckedIOException(ex);
-        }
+    private static Color getIssueStateColor(GitHubIssue.Status status) {
+        return switch (status) {
+            case OPEN -> OPEN_STATE;
+            case CLOSED -> CLOSE_STATE;
+            case COMPLETED -> MERGED_STATE;
+            case NOT_PLANNED -> NOT_PLANNED_STATE;
+            case DRAFT -> DRAFT_STATE;
+        };
     }
 
     /**
@@ -245,29 +236,8 @@ public final class GitHubReference extends MessageReceiverAdapter {
         }).filter(Optional::isPresent).findFirst().orElse(Optional.empty());
     }
 
-    Optional<GHIssue> findIssue(int id, long defaultRepoId) {
-        return repositories.stream()
-            .filter(repository -> repository.getId() == defaultRepoId)
-            .map(repository -> {
-                try {
-                    GHIssue issue = repository.getIssue(id);
-                    if (issue.isPullRequest()) {
-                        issue = repository.getPullRequest(id);
-                    }
-                    return Optional.of(issue);
-                } catch (FileNotFoundException ignored) {
-                    return Optional.<GHIssue>empty();
-                } catch (IOException ex) {
-                    throw new UncheckedIOException(ex);
-                }
-            })
-            .filter(Optional::isPresent)
-            .map(Optional::orElseThrow)
-            .findAny();
-    }
-
     /**
-     * All repositories monitored by this instance.
+     * All repositories monitored by this instance, empty until the instance is warmed up.
      */
     List<GHRepository> getRepositories() {
         return repositories;
@@ -0,0 +1,163 @@
+package org.togetherjava.tjbot.features.help;
+
+import org.togetherjava.tjbot.metrics.MetricsRegistry;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of all active, i.e. not archived, help threads, per guild.
+ * <p>
+ * Threads are indexed by their id and by the id of their owner, so features can look up the active
+ * threads of a guild or of a single user without asking Discord. The index is owned by
+ * {@link HelpSystemHelper} and kept up to date from gateway events by
+ * {@link ActiveHelpThreadIndexer}.
+ * <p>
+ * The class is thread-safe.
+ */
+final class ActiveHelpThreadIndex {
+    private final Map<Long, GuildThreads> guildIdToThreads = new ConcurrentHashMap<>();
+
+    ActiveHelpThreadIndex() {
+        MetricsRegistry.getDefault()
+            .gauge("tjbot_help_threads_active", "Active help threads known to the index",
+                    this::size);
+    }
+
+    /**
+     * Adds the given thread to the index, if not present yet.
+     *
+     * @param guildId the id of the guild the thread is in
+     * @param threadId the id of the thread
+     * @param ownerId the id of the user who created the thread
+     */
+    void add(long guildId, long threadId, long ownerId) {
+        guildIdToThreads.computeIfAbsent(guildId, any -> new GuildThreads())
+            .add(threadId, ownerId);
+    }
+
+    /**
+     * Removes the given thread from the index, if present.
+     *
+     * @param guildId the id of the guild the thread is in
+     * @param threadId the id of the thread
+     */
+    void remove(long guildId, long threadId) {
+        GuildThreads threads = guildIdToThreads.get(guildId);
+        if (threads != null) {
+            threads.remove(threadId);
+        }
+    }
+
+    /**
+     * Replaces all threads of the given guild, for example after loading them in bulk.
+     *
+     * @param guildId the id of the guild
+     * @param threadIdToOwnerId the active threads of the guild, mapped to the id of their owner
+     */
+    void replaceGuild(long guildId, Map<Long, Long> threadIdToOwnerId) {
+        GuildThreads threads = new GuildThreads();
+        threadIdToOwnerId.forEach(threads::add);
+
+        guildIdToThreads.put(guildId, threads);
+    }
+
+    /**
+     * Removes all threads of the given guild, for example after the bot left it.
+     *
+     * @param guildId the id of the guild
+     */
+    void removeGuild(long guildId) {
+        guildIdToThreads.remove(guildId);
+    }
+
+    /**
+     * Gets the ids of all active threads in the given guild.
+     *
+     * @param guildId the id of the guild
+     * @return the ids of all active threads, a snapshot of the index
+     */
+    List<Long> getThreadIds(long guildId) {
+        GuildThreads threads = guildIdToThreads.get(guildId);
+        return threads == null ? List.of() : threads.getThreadIds();
+    }
+
+    /**
+     * Gets the ids of all active threads in the given guild that were created by the given user.
+     *
+     * @param guildId the id of the guild
+     * @param ownerId the id of the user
+     * @return the ids of the active threads of the user, a snapshot of the index
+     */
+    List<Long> getThreadIdsOfOwner(long guildId, long ownerId) {
+        GuildThreads threads = guildIdToThreads.get(guildId);
+        return threads == null ? List.of() : threads.getThreadIdsOfOwner(ownerId);
+    }
+
+    /**
+     * Whether the given thread is active, in any guild.
+     *
+     * @param threadId the id of the thread
+     * @return whether the thread is active
+     */
+    boolean isActive(long threadId) {
+        return guildIdToThreads.values().stream().anyMatch(threads -> threads.contains(threadId));
+    }
+
+    /**
+     * Gets the amount of active threads, in all guilds.
+     *
+     * @return the amount of active threads
+     */
+    int size() {
+        return guildIdToThreads.values().stream().mapToInt(GuildThreads::size).sum();
+    }
+
+    private static final class GuildThreads {
+        private final Map<Long, Long> threadIdToOwnerId = new HashMap<>();
+        private final Map<Long, Set<Long>> ownerIdToThreadIds = new HashMap<>();
+
+        synchronized void add(long threadId, long ownerId) {
+            Long previousOwnerId = threadIdToOwnerId.put(threadId, ownerId);
+            if (previousOwnerId != null) {
+                removeFromOwner(previousOwnerId, threadId);
+            }
+            ownerIdToThreadIds.computeIfAbsent(ownerId, any -> new HashSet<>()).add(threadId);
+        }
+
+        synchronized void remove(long threadId) {
+            Long ownerId = threadIdToOwnerId.remove(threadId);
+            if (ownerId != null) {
+                removeFromOwner(ownerId, threadId);
+            }
+        }
+
+        synchronized List<Long> getThreadIds() {
+            return List.copyOf(threadIdToOwnerId.keySet());
+        }
+
+        synchronized List<Long> getThreadIdsOfOwner(long ownerId) {
+            return List.copyOf(ownerIdToThreadIds.getOrDefault(ownerId, Set.of()));
+        }
+
+        synchronized boolean contains(long threadId) {
+            return threadIdToOwnerId.containsKey(threadId);
+        }
+
+        synchronized int size() {
+            return threadIdToOwnerId.size();
+        }
+
+        private void removeFromOwner(long ownerId, long threadId) {
+            Set<Long> threadIds = ownerIdToThreadIds.get(ownerId);
+            threadIds.remove(threadId);
+            if (threadIds.isEmpty()) {
+                ownerIdToThreadIds.remove(ownerId);
+            }
+        }
+    }
+}
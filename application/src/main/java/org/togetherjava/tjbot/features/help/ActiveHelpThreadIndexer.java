@@ -0,0 +1,125 @@
+package org.togetherjava.tjbot.features.help;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.events.channel.ChannelCreateEvent;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.channel.update.ChannelUpdateArchivedEvent;
+import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.togetherjava.tjbot.features.EventReceiver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the index of active help threads, see {@link HelpSystemHelper#getActiveThreadsIn(Guild)},
+ * up to date.
+ * <p>
+ * The index is loaded in bulk from the cache of the given JDA instance once, which is ready by
+ * then. Afterwards, it follows the creation, archival and deletion of threads from gateway events.
+ * Guilds that become ready again, for example after the session was recreated, are loaded again.
+ */
+public final class ActiveHelpThreadIndexer extends ListenerAdapter implements EventReceiver {
+    private static final Logger logger = LoggerFactory.getLogger(ActiveHelpThreadIndexer.class);
+
+    private final HelpSystemHelper helper;
+    private final ActiveHelpThreadIndex index;
+
+    /**
+     * Creates a new instance and loads the active help threads of all guilds.
+     *
+     * @param jda the JDA instance to load the active help threads from, must be ready
+     * @param helper the helper owning the index of active threads
+     */
+    public ActiveHelpThreadIndexer(JDA jda, HelpSystemHelper helper) {
+        this.helper = helper;
+        index = helper.getActiveThreadIndex();
+
+        jda.getGuildCache().forEach(this::loadGuild);
+    }
+
+    @Override
+    public void onGuildReady(GuildReadyEvent event) {
+        loadGuild(event.getGuild());
+    }
+
+    @Override
+    public void onGuildJoin(GuildJoinEvent event) {
+        loadGuild(event.getGuild());
+    }
+
+    @Override
+    public void onGuildLeave(GuildLeaveEvent event) {
+        index.removeGuild(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onChannelCreate(ChannelCreateEvent event) {
+        if (!event.getChannelType().isThread()) {
+            return;
+        }
+
+        ThreadChannel threadChannel = event.getChannel().asThreadChannel();
+        if (isActiveHelpThread(threadChannel)) {
+            index.add(threadChannel.getGuild().getIdLong(), threadChannel.getIdLong(),
+                    threadChannel.getOwnerIdLong());
+        }
+    }
+
+    @Override
+    public void onChannelUpdateArchived(ChannelUpdateArchivedEvent event) {
+        ThreadChannel threadChannel = event.getChannel().asThreadChannel();
+        if (!helper.isHelpForumName(threadChannel.getParentChannel().getName())) {
+            return;
+        }
+
+        long guildId = threadChannel.getGuild().getIdLong();
+        if (threadChannel.isArchived()) {
+            index.remove(guildId, threadChannel.getIdLong());
+        } else {
+            index.add(guildId, threadChannel.getIdLong(), threadChannel.getOwnerIdLong());
+        }
+    }
+
+    @Override
+    public void onChannelDelete(ChannelDeleteEvent event) {
+        if (!event.getChannelType().isThread()) {
+            return;
+        }
+
+        index.remove(event.getGuild().getIdLong(), event.getChannel().getIdLong());
+    }
+
+    private void loadGuild(Guild guild) {
+        Optional<ForumChannel> maybeHelpForum = helper
+            .handleRequireHelpForum(guild, channelPattern -> logger.warn(
+                    "Unable to index active help threads, did not find a help forum matching the configured pattern '{}' for guild '{}'",
+                    channelPattern, guild.getName()));
+
+        Map<Long, Long> threadIdToOwnerId = maybeHelpForum.map(ForumChannel::getThreadChannels)
+            .orElseGet(List::of)
+            .stream()
+            .filter(Predicate.not(ThreadChannel::isArchived))
+            .collect(Collectors.toMap(ThreadChannel::getIdLong, ThreadChannel::getOwnerIdLong));
+
+        index.replaceGuild(guild.getIdLong(), threadIdToOwnerId);
+        logger.debug("Indexed {} active help threads for guild '{}'", threadIdToOwnerId.size(),
+                guild.getName());
+    }
+
+    private boolean isActiveHelpThread(ThreadChannel threadChannel) {
+        return !threadChannel.isArchived()
+                && helper.isHelpForumName(threadChannel.getParentChannel().getName());
+    }
+}
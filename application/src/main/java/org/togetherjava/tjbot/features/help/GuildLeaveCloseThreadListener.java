@@ -5,22 +5,21 @@ import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 
-import org.togetherjava.tjbot.config.Config;
 import org.togetherjava.tjbot.features.EventReceiver;
 
 /**
  * Remove all thread channels associated to a user when they leave the guild.
  */
 public final class GuildLeaveCloseThreadListener extends ListenerAdapter implements EventReceiver {
-    private final String helpForumPattern;
+    private final HelpSystemHelper helper;
 
     /**
      * Creates a new instance.
      *
-     * @param config the config to get help forum channel pattern from
+     * @param helper the helper knowing the active help threads
      */
-    public GuildLeaveCloseThreadListener(Config config) {
-        this.helpForumPattern = config.getHelpSystem().getHelpForumPattern();
+    public GuildLeaveCloseThreadListener(HelpSystemHelper helper) {
+        this.helper = helper;
     }
 
     @Override
@@ -30,13 +29,9 @@ public final class GuildLeaveCloseThreadListener extends ListenerAdapter impleme
             .setColor(HelpSystemHelper.AMBIENT_COLOR)
             .build();
 
-        event.getGuild()
-            .retrieveActiveThreads()
-            .queue(threads -> threads.stream()
-                .filter(thread -> thread.getOwnerIdLong() == event.getUser().getIdLong())
-                .filter(thread -> thread.getParentChannel().getName().matches(helpForumPattern))
-                .forEach(thread -> thread.sendMessageEmbeds(embed)
-                    .flatMap(any -> thread.getManager().setArchived(true))
-                    .queue()));
+        helper.getActiveThreadsOf(event.getGuild(), event.getUser().getIdLong())
+            .forEach(thread -> thread.sendMessageEmbeds(embed)
+                .flatMap(any -> thread.getManager().setArchived(true))
+                .queue());
     }
 }
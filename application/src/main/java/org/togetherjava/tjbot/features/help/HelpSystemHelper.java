@@ -7,7 +7,6 @@ import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.SelfUser;
-import net.dv8tion.jda.api.entities.channel.attribute.IThreadContainer;
 import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 import net.dv8tion.jda.api.entities.channel.forums.ForumTag;
@@ -24,8 +23,10 @@ import org.togetherjava.tjbot.config.HelpSystemConfig;
 import org.togetherjava.tjbot.db.Database;
 import org.togetherjava.tjbot.db.generated.tables.HelpThreads;
 import org.togetherjava.tjbot.db.generated.tables.records.HelpThreadsRecord;
+import org.togetherjava.tjbot.features.chatgpt.ChatGptAnswerCache;
 import org.togetherjava.tjbot.features.chatgpt.ChatGptCommand;
 import org.togetherjava.tjbot.features.chatgpt.ChatGptService;
+import org.togetherjava.tjbot.features.chatgpt.ThrottledMessageEditor;
 import org.togetherjava.tjbot.features.componentids.ComponentIdInteractor;
 
 import java.awt.Color;
@@ -36,6 +37,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -69,8 +71,11 @@ public final class HelpSystemHelper {
 
     private final Database database;
     private final ChatGptService chatGptService;
+    private final ChatGptAnswerCache chatGptAnswerCache;
+    private final ActiveHelpThreadIndex activeThreadIndex = new ActiveHelpThreadIndex();
     private static final int MAX_QUESTION_LENGTH = 200;
     private static final int MIN_QUESTION_LENGTH = 10;
+    private static final String CHATGPT_PLACEHOLDER_ANSWER = "*Thinking...*";
     private static final String CHATGPT_FAILURE_MESSAGE =
             "You can use %s to ask ChatGPT about your question while you wait for a human to respond.";
 
@@ -80,11 +85,15 @@ public final class HelpSystemHelper {
      * @param config the config to use
      * @param database the database to store help thread metadata in
      * @param chatGptService the service used to ask ChatGPT questions via the API.
+     * @param chatGptAnswerCache the cache of answers to questions that were asked to ChatGPT
+     *        already
      */
-    public HelpSystemHelper(Config config, Database database, ChatGptService chatGptService) {
+    public HelpSystemHelper(Config config, Database database, ChatGptService chatGptService,
+            ChatGptAnswerCache chatGptAnswerCache) {
         HelpSystemConfig helpConfig = config.getHelpSystem();
         this.database = database;
         this.chatGptService = chatGptService;
+        this.chatGptAnswerCache = chatGptAnswerCache;
 
         hasTagManageRole = Pattern.compile(config.getTagManageRolePattern()).asMatchPredicate();
         helpForumPattern = helpConfig.getHelpForumPattern();
@@ -107,6 +116,7 @@ public final class HelpSystemHelper {
 
         threadActivityTagNames = Arrays.stream(ThreadActivity.values())
             .map(ThreadActivity::getTagName)
+            .map(String::toLowerCase)
             .collect(Collectors.toSet());
 
 
@@ -117,17 +127,21 @@ public final class HelpSystemHelper {
      * uses a simple heuristic of length to determine if enough context exists in a question. If the
      * title is used, it must also include a question mark since the title is often used more as an
      * indicator of topic versus a question.
+     * <p>
+     * Questions that are very similar to questions the AI answered already are answered right away
+     * with the same answer, see {@link ChatGptAnswerCache}. Otherwise, the answer of the AI is
+     * streamed into the sent embed while it is being generated, in the background. If the AI fails
+     * to answer, the embed is replaced by a message indicating that.
      *
      * @param originalQuestion The first message of the thread which originates from the question
      *        asker.
      * @param threadChannel The thread in which the question was asked.
-     * @return An answer for the user from the AI service or a message indicating either an error or
-     *         why the message wasn't used.
+     * @return The embed the answer of the AI is streamed into, or a message indicating why the
+     *         message wasn't used.
      */
     RestAction<Message> constructChatGptAttempt(ThreadChannel threadChannel,
             String originalQuestion, ComponentIdInteractor componentIdInteractor) {
         Optional<String> questionOptional = prepareChatGptQuestion(threadChannel, originalQuestion);
-        Optional<String> chatGPTAnswer;
 
         if (questionOptional.isEmpty()) {
             return useChatGptFallbackMessage(threadChannel);
@@ -139,13 +153,7 @@ public final class HelpSystemHelper {
         ForumTag matchingTag = getCategoryTagOfChannel(threadChannel).orElse(defaultTag);
 
         String context = matchingTag.getName();
-        chatGPTAnswer = chatGptService.ask(question, context);
-
-        if (chatGPTAnswer.isEmpty()) {
-            return useChatGptFallbackMessage(threadChannel);
-        }
 
-        StringBuilder idForDismissButton = new StringBuilder();
         RestAction<Message> message =
                 mentionGuildSlashCommand(threadChannel.getGuild(), ChatGptCommand.COMMAND_NAME)
                     .map("""
@@ -153,21 +161,48 @@ public final class HelpSystemHelper {
                             In any case, a human is on the way 👍. To continue talking to the AI, you can use \
                             %s.
                             """::formatted)
-                    .flatMap(threadChannel::sendMessage)
-                    .onSuccess(m -> idForDismissButton.append(m.getId()));
+                    .flatMap(threadChannel::sendMessage);
 
-        String answer = chatGPTAnswer.orElseThrow();
         SelfUser selfUser = threadChannel.getJDA().getSelfUser();
+        Optional<String> cachedAnswer = chatGptAnswerCache.findAnswer(context, question);
+        if (cachedAnswer.isPresent()) {
+            MessageEmbed answerEmbed = generateGptResponseEmbed(cachedAnswer.orElseThrow(),
+                    selfUser, originalQuestion);
 
-        int responseCharLimit = MessageEmbed.DESCRIPTION_MAX_LENGTH;
-        if (answer.length() > responseCharLimit) {
-            answer = answer.substring(0, responseCharLimit);
+            return message.flatMap(introMessage -> threadChannel.sendMessageEmbeds(answerEmbed)
+                .addActionRow(generateDismissButton(componentIdInteractor, introMessage.getId())));
         }
 
-        MessageEmbed responseEmbed = generateGptResponseEmbed(answer, selfUser, originalQuestion);
-        return message.flatMap(any -> threadChannel.sendMessageEmbeds(responseEmbed)
-            .addActionRow(
-                    generateDismissButton(componentIdInteractor, idForDismissButton.toString())));
+        MessageEmbed placeholderEmbed =
+                generateGptResponseEmbed(CHATGPT_PLACEHOLDER_ANSWER, selfUser, originalQuestion);
+
+        return message.flatMap(introMessage -> threadChannel.sendMessageEmbeds(placeholderEmbed)
+            .addActionRow(generateDismissButton(componentIdInteractor, introMessage.getId()))
+            .onSuccess(answerMessage -> streamChatGptAnswer(question, context, originalQuestion,
+                    introMessage, answerMessage)));
+    }
+
+    private void streamChatGptAnswer(String question, String context, String originalQuestion,
+            Message introMessage, Message answerMessage) {
+        SelfUser selfUser = answerMessage.getJDA().getSelfUser();
+        ThrottledMessageEditor answerEditor = new ThrottledMessageEditor(
+                answer -> answerMessage.editMessageEmbeds(
+                        generateGptResponseEmbed(answer, selfUser, originalQuestion)));
+
+        chatGptService.askStreaming(question, context, answerEditor).thenAccept(answer -> {
+            if (answer.isPresent()) {
+                chatGptAnswerCache.putAnswer(context, question, answer.orElseThrow());
+                answerEditor.finish(answer.orElseThrow());
+                return;
+            }
+
+            // Edits still in flight would fail once the messages are deleted
+            ThreadChannel threadChannel = answerMessage.getChannel().asThreadChannel();
+            answerEditor.cancel()
+                .thenRun(() -> RestAction.allOf(introMessage.delete(), answerMessage.delete())
+                    .flatMap(any -> useChatGptFallbackMessage(threadChannel))
+                    .queue());
+        });
     }
 
     /**
@@ -188,10 +223,15 @@ public final class HelpSystemHelper {
                 ? capitalizedTitle.substring(0, embedTitleLimit)
                 : capitalizedTitle;
 
+        int responseCharLimit = MessageEmbed.DESCRIPTION_MAX_LENGTH;
+        String description = answer.length() > responseCharLimit
+                ? answer.substring(0, responseCharLimit)
+                : answer;
+
         return new EmbedBuilder()
             .setAuthor(selfUser.getName(), null, selfUser.getEffectiveAvatarUrl())
             .setTitle(titleForEmbed)
-            .setDescription(answer)
+            .setDescription(description)
             .setColor(Color.pink)
             .setFooter(responseByGptFooter)
             .build();
@@ -369,9 +409,39 @@ public final class HelpSystemHelper {
         return maybeChannel;
     }
 
-    List<ThreadChannel> getActiveThreadsIn(IThreadContainer channel) {
-        return channel.getThreadChannels()
-            .stream()
+    ActiveHelpThreadIndex getActiveThreadIndex() {
+        return activeThreadIndex;
+    }
+
+    /**
+     * Gets all active help threads of the given guild, as known by the index of active threads.
+     * Does not ask Discord, threads are resolved from the cache.
+     *
+     * @param guild the guild to get the threads of
+     * @return all active help threads of the guild
+     */
+    List<ThreadChannel> getActiveThreadsIn(Guild guild) {
+        return resolveActiveThreads(guild, activeThreadIndex.getThreadIds(guild.getIdLong()));
+    }
+
+    /**
+     * Gets all active help threads of the given guild that were created by the given user, as known
+     * by the index of active threads. Does not ask Discord, threads are resolved from the cache.
+     *
+     * @param guild the guild to get the threads of
+     * @param ownerId the id of the user who created the threads
+     * @return all active help threads of the user
+     */
+    List<ThreadChannel> getActiveThreadsOf(Guild guild, long ownerId) {
+        return resolveActiveThreads(guild,
+                activeThreadIndex.getThreadIdsOfOwner(guild.getIdLong(), ownerId));
+    }
+
+    private static List<ThreadChannel> resolveActiveThreads(Guild guild,
+            Collection<Long> threadIds) {
+        return threadIds.stream()
+            .map(guild::getThreadChannelById)
+            .filter(Objects::nonNull)
             .filter(Predicate.not(ThreadChannel::isArchived))
             .toList();
     }
@@ -0,0 +1,171 @@
+package org.togetherjava.tjbot.features.help;
+
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
+import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+
+import org.togetherjava.tjbot.features.MessageReceiverAdapter;
+import org.togetherjava.tjbot.metrics.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the recent messages of all help threads, to determine their activity without asking
+ * Discord for their history.
+ * <p>
+ * For each thread, the authors of its most recent messages are kept in a sliding window that is fed
+ * by incoming messages. Threads the tracker did not see yet, for example after a restart, are
+ * unknown and have to be seeded once with their history, see
+ * {@link #seed(ThreadChannel, List)}.
+ * <p>
+ * The activity is read by {@link HelpThreadActivityUpdater}. The class is thread-safe.
+ */
+public final class HelpThreadActivityTracker extends MessageReceiverAdapter {
+    /**
+     * The amount of most recent messages of a thread its activity is determined by.
+     */
+    static final int ACTIVITY_DETERMINE_MESSAGE_LIMIT = 11;
+
+    private final HelpSystemHelper helper;
+    private final Map<Long, ActivityWindow> threadIdToWindow = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param helper the helper to use
+     */
+    public HelpThreadActivityTracker(HelpSystemHelper helper) {
+        this.helper = helper;
+
+        MetricsRegistry.getDefault()
+            .gauge("tjbot_help_thread_activity_tracked_threads",
+                    "Help threads whose activity is tracked", threadIdToWindow::size);
+    }
+
+    @Override
+    public void onMessageReceived(MessageReceivedEvent event) {
+        if (!isHelpThread(event.getChannel())) {
+            return;
+        }
+
+        // Unknown threads are seeded with their history later on, which includes this message
+        threadIdToWindow.computeIfPresent(event.getChannel().getIdLong(),
+                (threadId, window) -> window.withMessage(event.getAuthor().getIdLong()));
+    }
+
+    @Override
+    public void onMessageDeleted(MessageDeleteEvent event) {
+        if (!isHelpThread(event.getChannel())) {
+            return;
+        }
+
+        // The window does not know which message moves up in place of the deleted one,
+        // so the thread is seeded again with its history instead
+        threadIdToWindow.remove(event.getChannel().getIdLong());
+    }
+
+    /**
+     * Determines the activity of the given thread from the messages seen in it.
+     *
+     * @param threadId the id of the thread
+     * @param selfUserId the id of the bot, whose messages do not count as activity
+     * @return the activity of the thread, or empty if the thread is unknown and has to be seeded
+     *         first
+     */
+    Optional<HelpSystemHelper.ThreadActivity> getActivity(long threadId, long selfUserId) {
+        return Optional.ofNullable(threadIdToWindow.get(threadId))
+            .map(window -> window.determineActivity(selfUserId));
+    }
+
+    /**
+     * Seeds the given thread with its most recent messages, after which the thread is kept up to
+     * date by incoming messages.
+     *
+     * @param thread the thread to seed
+     * @param history the most recent messages of the thread, most recent first, limited to
+     *        {@link #ACTIVITY_DETERMINE_MESSAGE_LIMIT}
+     */
+    void seed(ThreadChannel thread, List<Message> history) {
+        ActivityWindow window = ActivityWindow.EMPTY;
+        for (Message message : history.reversed()) {
+            window = window.withMessage(message.getAuthor().getIdLong());
+        }
+
+        threadIdToWindow.put(thread.getIdLong(), window);
+    }
+
+    /**
+     * Resets the activity of the given thread, as if no messages were sent in it so far.
+     *
+     * @param threadId the id of the thread to reset
+     */
+    void reset(long threadId) {
+        threadIdToWindow.put(threadId, ActivityWindow.EMPTY);
+    }
+
+    /**
+     * Stops tracking all threads except for the given ones, for example since they have been
+     * closed.
+     *
+     * @param threadIds the ids of the threads to keep tracking
+     */
+    void retainThreads(Set<Long> threadIds) {
+        threadIdToWindow.keySet().retainAll(threadIds);
+    }
+
+    private boolean isHelpThread(MessageChannelUnion channel) {
+        if (!channel.getType().isThread()) {
+            return false;
+        }
+
+        String rootChannelName = channel.asThreadChannel().getParentChannel().getName();
+        return helper.isHelpForumName(rootChannelName);
+    }
+
+    /**
+     * The authors of the most recent messages of a thread.
+     *
+     * @param authorIds the ids of the authors, oldest message first, limited to
+     *        {@link #ACTIVITY_DETERMINE_MESSAGE_LIMIT}
+     */
+    record ActivityWindow(List<Long> authorIds) {
+        static final ActivityWindow EMPTY = new ActivityWindow(List.of());
+
+        ActivityWindow withMessage(long authorId) {
+            List<Long> nextAuthorIds = new ArrayList<>(authorIds.size() + 1);
+            int start = authorIds.size() >= ACTIVITY_DETERMINE_MESSAGE_LIMIT ? 1 : 0;
+            nextAuthorIds.addAll(authorIds.subList(start, authorIds.size()));
+            nextAuthorIds.add(authorId);
+
+            return new ActivityWindow(List.copyOf(nextAuthorIds));
+        }
+
+        HelpSystemHelper.ThreadActivity determineActivity(long selfUserId) {
+            if (authorIds.size() >= ACTIVITY_DETERMINE_MESSAGE_LIMIT) {
+                // There are likely even more messages, but we hit the limit
+                return HelpSystemHelper.ThreadActivity.HIGH;
+            }
+
+            Map<Long, Integer> authorToMessageCount = new HashMap<>();
+            authorIds.stream()
+                .filter(authorId -> authorId != selfUserId)
+                .forEach(authorId -> authorToMessageCount.merge(authorId, 1, Integer::sum));
+
+            boolean isThereActivity = authorToMessageCount.size() >= 2 && authorToMessageCount
+                .values()
+                .stream()
+                .anyMatch(messageCount -> messageCount >= 2);
+
+            return isThereActivity ? HelpSystemHelper.ThreadActivity.MEDIUM
+                    : HelpSystemHelper.ThreadActivity.LOW;
+        }
+    }
+}
@@ -6,7 +6,6 @@ import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageEmbed;
-import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.utils.TimeUtil;
@@ -18,7 +17,6 @@ import org.togetherjava.tjbot.features.Routine;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -54,18 +52,9 @@ public final class HelpThreadAutoArchiver implements Routine {
     }
 
     private void autoArchiveForGuild(Guild guild) {
-        Optional<ForumChannel> maybeHelpForum = helper
-            .handleRequireHelpForum(guild, channelPattern -> logger.warn(
-                    "Unable to auto archive help threads, did not find a help forum matching the configured pattern '{}' for guild '{}'",
-                    channelPattern, guild.getName()));
-
-        if (maybeHelpForum.isEmpty()) {
-            return;
-        }
-
         logger.debug("Auto archiving of help threads");
 
-        List<ThreadChannel> activeThreads = helper.getActiveThreadsIn(maybeHelpForum.orElseThrow());
+        List<ThreadChannel> activeThreads = helper.getActiveThreadsIn(guild);
         logger.debug("Found {} active questions", activeThreads.size());
 
         Instant archiveAfterMoment = computeArchiveAfterMoment();
@@ -25,7 +25,6 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.EnumMap;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
@@ -37,8 +36,6 @@ import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static org.togetherjava.tjbot.features.help.HelpThreadActivityUpdater.manuallyResetChannelActivityCache;
-
 /**
  * Implements the {@code /help-thread} command, used to maintain certain aspects of help threads,
  * such as renaming or closing them.
@@ -56,6 +53,7 @@ public final class HelpThreadCommand extends SlashCommandAdapter {
     public static final String COMMAND_NAME = "help-thread";
 
     private final HelpSystemHelper helper;
+    private final HelpThreadActivityTracker activityTracker;
     private final Map<String, Subcommand> nameToSubcommand;
     private final Map<Subcommand, Cache<Long, Instant>> subcommandToCooldownCache;
     private final Map<Subcommand, BiConsumer<SlashCommandInteractionEvent, ThreadChannel>> subcommandToEventHandler;
@@ -65,8 +63,10 @@ public final class HelpThreadCommand extends SlashCommandAdapter {
      *
      * @param config the config to use
      * @param helper the helper to use
+     * @param activityTracker the tracker of help thread activities, reset by the command
      */
-    public HelpThreadCommand(Config config, HelpSystemHelper helper) {
+    public HelpThreadCommand(Config config, HelpSystemHelper helper,
+            HelpThreadActivityTracker activityTracker) {
         super(COMMAND_NAME, "Help thread specific commands", CommandVisibility.GUILD);
 
         OptionData categoryChoices =
@@ -93,6 +93,7 @@ public final class HelpThreadCommand extends SlashCommandAdapter {
         getData().addSubcommands(Subcommand.RESET_ACTIVITY.toSubcommandData());
 
         this.helper = helper;
+        this.activityTracker = activityTracker;
 
         Supplier<Cache<Long, Instant>> createCooldownCache = () -> Caffeine.newBuilder()
             .maximumSize(1_000)
@@ -212,13 +213,9 @@ public final class HelpThreadCommand extends SlashCommandAdapter {
     private void resetActivity(SlashCommandInteractionEvent event, ThreadChannel helpThread) {
         refreshCooldownFor(Subcommand.RESET_ACTIVITY, helpThread);
 
-        helpThread.getHistory()
-            .retrievePast(1)
-            .map(List::getFirst)
-            .queue(lastMessage -> manuallyResetChannelActivityCache.put(helpThread.getIdLong(),
-                    lastMessage.getIdLong()));
+        activityTracker.reset(helpThread.getIdLong());
 
-        helper.changeChannelActivity(helpThread, HelpSystemHelper.ThreadActivity.LOW);
+        helper.changeChannelActivity(helpThread, HelpSystemHelper.ThreadActivity.LOW).queue();
         event.reply("Activities have been reset.").queue();
     }
 
@@ -87,7 +87,7 @@ public final class HelpThreadLifecycleListener extends ListenerAdapter implement
         ThreadChannel threadChannel = jda.getThreadChannelById(id);
         if (threadChannel == null) {
             logger.info("thread with id: {} no longer exists, marking archived in records", id);
-            database.write(context -> context.update(HELP_THREADS)
+            database.writeBehind(context -> context.update(HELP_THREADS)
                 .set(HELP_THREADS.CLOSED_AT, closedAt)
                 .set(HELP_THREADS.TICKET_STATUS, HelpSystemHelper.TicketStatus.ARCHIVED.val)
                 .where(HELP_THREADS.CHANNEL_ID.eq(id))
@@ -99,7 +99,7 @@ public final class HelpThreadLifecycleListener extends ListenerAdapter implement
         int messageCount = threadChannel.getMessageCount();
         int participantsExceptAuthor = threadChannel.getMemberCount() - 1;
 
-        database.write(context -> context.update(HELP_THREADS)
+        database.writeBehind(context -> context.update(HELP_THREADS)
             .set(HELP_THREADS.CLOSED_AT, closedAt)
             .set(HELP_THREADS.TICKET_STATUS, HelpSystemHelper.TicketStatus.ARCHIVED.val)
             .set(HELP_THREADS.MESSAGE_COUNT, messageCount)
@@ -112,7 +112,7 @@ public final class HelpThreadLifecycleListener extends ListenerAdapter implement
     }
 
     private void updateThreadStatusToActive(long threadId) {
-        database.write(context -> context.update(HELP_THREADS)
+        database.writeBehind(context -> context.update(HELP_THREADS)
             .set(HELP_THREADS.TICKET_STATUS, HelpSystemHelper.TicketStatus.ACTIVE.val)
             .where(HELP_THREADS.CHANNEL_ID.eq(threadId))
             .execute());
@@ -121,7 +121,7 @@ public final class HelpThreadLifecycleListener extends ListenerAdapter implement
     }
 
     private void handleTagsUpdate(long threadId, String updatedTag) {
-        database.write(context -> context.update(HELP_THREADS)
+        database.writeBehind(context -> context.update(HELP_THREADS)
             .set(HELP_THREADS.TAGS, updatedTag)
             .where(HELP_THREADS.CHANNEL_ID.eq(threadId))
             .execute());
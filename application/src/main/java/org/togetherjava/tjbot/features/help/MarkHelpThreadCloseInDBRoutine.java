@@ -18,23 +18,28 @@ import static org.togetherjava.tjbot.db.generated.tables.HelpThreads.HELP_THREAD
 /**
  * Updates the status of help threads in database that were created a few days ago and couldn't be
  * closed.
+ * <p>
+ * Threads that are still active, as known by the index of active help threads, are left untouched.
  */
 public final class MarkHelpThreadCloseInDBRoutine implements Routine {
     private static final Logger logger =
             LoggerFactory.getLogger(MarkHelpThreadCloseInDBRoutine.class);
     private final Database database;
+    private final HelpSystemHelper helper;
     private final HelpThreadLifecycleListener helpThreadLifecycleListener;
 
     /**
      * Creates a new instance.
      *
      * @param database the database to store help thread metadata in
+     * @param helper the helper knowing the active help threads
      * @param helpThreadLifecycleListener class which offers method to update thread status in
      *        database
      */
-    public MarkHelpThreadCloseInDBRoutine(Database database,
+    public MarkHelpThreadCloseInDBRoutine(Database database, HelpSystemHelper helper,
             HelpThreadLifecycleListener helpThreadLifecycleListener) {
         this.database = database;
+        this.helper = helper;
         this.helpThreadLifecycleListener = helpThreadLifecycleListener;
     }
 
@@ -51,11 +56,13 @@ public final class MarkHelpThreadCloseInDBRoutine implements Routine {
     private void updateTicketStatus(JDA jda) {
         Instant now = Instant.now();
         Instant threeDaysAgo = now.minus(3, ChronoUnit.DAYS);
+        ActiveHelpThreadIndex activeThreadIndex = helper.getActiveThreadIndex();
         List<Long> threadIdsToClose = database.read(context -> context.selectFrom(HELP_THREADS)
             .where(HELP_THREADS.TICKET_STATUS.eq(HelpSystemHelper.TicketStatus.ACTIVE.val))
             .and(HELP_THREADS.CREATED_AT.lessThan(threeDaysAgo))
             .stream()
             .map(HelpThreadsRecord::getChannelId)
+            .filter(threadId -> !activeThreadIndex.isActive(threadId))
             .toList());
 
         threadIdsToClose.forEach(id -> {
@@ -1,6 +1,9 @@
 package org.togetherjava.tjbot.features.moderation;
 
 import org.jooq.Condition;
+import org.jooq.Field;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
 
 import org.togetherjava.tjbot.db.Database;
 import org.togetherjava.tjbot.db.generated.tables.ModerationActions;
@@ -9,9 +12,13 @@ import org.togetherjava.tjbot.db.generated.tables.records.ModerationActionsRecor
 import javax.annotation.Nullable;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Store for moderation actions, e.g. as banning users. Can be used to retrieve information about
@@ -40,19 +47,6 @@ public final class ModerationActionsStore {
         this.database = Objects.requireNonNull(database);
     }
 
-    /**
-     * Gets all already expired actions, measured by the current time, which have been written to
-     * the store, chronologically ascending with the action issued the earliest first.
-     * 
-     * @return a list of all expired actions, chronologically ascending
-     */
-    public List<ActionRecord> getExpiredActionsAscending() {
-        return getActionsAscendingWhere(
-                ModerationActions.MODERATION_ACTIONS.ACTION_EXPIRES_AT.isNotNull()
-                    .and(ModerationActions.MODERATION_ACTIONS.ACTION_EXPIRES_AT
-                        .lessOrEqual(Instant.now())));
-    }
-
     /**
      * Gets all actions of a given type that have been written to the store, chronologically
      * ascending with the earliest action first.
@@ -120,6 +114,98 @@ public final class ModerationActionsStore {
             .map(ActionRecord::of);
     }
 
+    /**
+     * Plans the revocation of all temporary actions that expired and were not handled yet, see
+     * {@link #markExpirationHandled(PendingRevocation)}.
+     * <p>
+     * Expired actions are grouped by guild, target and type. For each group, the last action of its
+     * type and the last action revoking it are determined, all within a single query.
+     *
+     * @param applyTypeToRevokeType the types of temporary actions to plan for, mapped to the type
+     *        of action revoking them, such as {@link ModerationAction#BAN} to
+     *        {@link ModerationAction#UNBAN}
+     * @return a pending revocation for each group of expired actions
+     */
+    public List<PendingRevocation> getPendingRevocations(
+            Map<ModerationAction, ModerationAction> applyTypeToRevokeType) {
+        if (applyTypeToRevokeType.isEmpty()) {
+            return List.of();
+        }
+
+        Instant now = Instant.now();
+        ModerationActions actions = ModerationActions.MODERATION_ACTIONS;
+        ModerationActions expiredActions = actions.as("expired_actions");
+
+        // Each expired action is joined with all apply and revoke actions of its group
+        Condition isOfExpiredGroup = expiredActions.GUILD_ID.eq(actions.GUILD_ID)
+            .and(expiredActions.TARGET_ID.eq(actions.TARGET_ID))
+            .and(DSL.or(applyTypeToRevokeType.entrySet()
+                .stream()
+                .map(applyToRevokeType -> expiredActions.ACTION_TYPE
+                    .eq(applyToRevokeType.getKey().name())
+                    .and(actions.ACTION_TYPE.in(applyToRevokeType.getKey().name(),
+                            applyToRevokeType.getValue().name())))
+                .toList()));
+
+        Field<Integer> recency = DSL.rowNumber()
+            .over(DSL.partitionBy(actions.GUILD_ID, actions.TARGET_ID, actions.ACTION_TYPE)
+                .orderBy(actions.ISSUED_AT.desc(), actions.CASE_ID.desc()))
+            .as("recency");
+        List<Field<?>> rankedFields = new ArrayList<>(List.of(actions.fields()));
+        rankedFields.add(recency);
+
+        Table<?> rankedActions = DSL.select(rankedFields)
+            .from(actions)
+            .join(expiredActions)
+            .on(isOfExpiredGroup)
+            .where(isPendingExpiration(expiredActions, now))
+            .asTable("ranked_actions");
+
+        List<ActionRecord> lastActions = database
+            .read(context -> context.select(rankedActions.fields(actions.fields()))
+                .from(rankedActions)
+                .where(rankedActions.field(recency).eq(1))
+                .fetchInto(actions))
+            .stream()
+            .map(ActionRecord::of)
+            .toList();
+
+        Map<RevocationGroup, ActionRecord> groupToLastAction = lastActions.stream()
+            .collect(Collectors.toMap(RevocationGroup::of, Function.identity()));
+        return lastActions.stream()
+            .filter(action -> applyTypeToRevokeType.containsKey(action.actionType()))
+            .map(lastApplyAction -> {
+                RevocationGroup revokeGroup = new RevocationGroup(lastApplyAction.guildId(),
+                        lastApplyAction.targetId(),
+                        applyTypeToRevokeType.get(lastApplyAction.actionType()));
+                return new PendingRevocation(lastApplyAction, groupToLastAction.get(revokeGroup),
+                        now);
+            })
+            .toList();
+    }
+
+    /**
+     * Marks the expired actions of the given group as handled, so that they are not part of any
+     * pending revocation anymore. Should be called once a revocation was executed or found to be
+     * not necessary.
+     * <p>
+     * Only actions that expired until the revocation was planned are marked, later ones, such as
+     * the last action if it was still effective, stay pending.
+     *
+     * @param revocation the revocation to mark as handled
+     */
+    public void markExpirationHandled(PendingRevocation revocation) {
+        ModerationActions actions = ModerationActions.MODERATION_ACTIONS;
+
+        database.write(context -> context.update(actions)
+            .set(actions.EXPIRATION_HANDLED, true)
+            .where(isPendingExpiration(actions, revocation.plannedAt())
+                .and(actions.GUILD_ID.eq(revocation.guildId()))
+                .and(actions.TARGET_ID.eq(revocation.targetId()))
+                .and(actions.ACTION_TYPE.eq(revocation.applyType().name())))
+            .execute());
+    }
+
     /**
      * Gets the action with the given case id from the store, if present.
      *
@@ -179,6 +265,10 @@ public final class ModerationActionsStore {
                 ModerationActions.MODERATION_ACTIONS.GUILD_ID.eq(guildId).and(condition));
     }
 
+    private static Condition isPendingExpiration(ModerationActions actions, Instant now) {
+        return actions.EXPIRATION_HANDLED.isFalse().and(actions.ACTION_EXPIRES_AT.lessOrEqual(now));
+    }
+
     private List<ActionRecord> getActionsAscendingWhere(Condition condition) {
         Objects.requireNonNull(condition);
 
@@ -189,4 +279,10 @@ public final class ModerationActionsStore {
             .map(ActionRecord::of)
             .toList());
     }
+
+    private record RevocationGroup(long guildId, long targetId, ModerationAction type) {
+        static RevocationGroup of(ActionRecord action) {
+            return new RevocationGroup(action.guildId(), action.targetId(), action.actionType());
+        }
+    }
 }
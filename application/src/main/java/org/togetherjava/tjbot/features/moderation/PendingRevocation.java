@@ -0,0 +1,51 @@
+package org.togetherjava.tjbot.features.moderation;
+
+import javax.annotation.Nullable;
+
+import java.time.Instant;
+
+/**
+ * A group of expired temporary actions against a target that might have to be revoked, as planned
+ * by {@link ModerationActionsStore#getPendingRevocations(java.util.Map)}.
+ * <p>
+ * The group should not be revoked if its last action is still effective, or if it was revoked
+ * already by an action issued afterwards.
+ *
+ * @param lastApplyAction the action of the group's type that was issued the latest against the
+ *        target, possibly still effective
+ * @param lastRevokeAction the action revoking the group's type that was issued the latest against
+ *        the target, if present
+ * @param plannedAt the instant at which the revocation was planned, actions that expired until
+ *        then are part of the group
+ */
+public record PendingRevocation(ActionRecord lastApplyAction,
+        @Nullable ActionRecord lastRevokeAction, Instant plannedAt) {
+
+    /**
+     * Gets the id of the guild in which context the actions happened.
+     *
+     * @return the id of the guild
+     */
+    public long guildId() {
+        return lastApplyAction.guildId();
+    }
+
+    /**
+     * Gets the id of the user who was the target of the actions.
+     *
+     * @return the id of the target
+     */
+    public long targetId() {
+        return lastApplyAction.targetId();
+    }
+
+    /**
+     * Gets the type of the actions that might have to be revoked, such as
+     * {@link ModerationAction#BAN}.
+     *
+     * @return the type of the actions
+     */
+    public ModerationAction applyType() {
+        return lastApplyAction.actionType();
+    }
+}
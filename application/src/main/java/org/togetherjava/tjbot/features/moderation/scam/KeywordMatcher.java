@@ -0,0 +1,139 @@
+package org.togetherjava.tjbot.features.moderation.scam;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Finds occurrences of any of a fixed set of keywords in a text, case-insensitive, using the
+ * Aho-Corasick algorithm.
+ * <p>
+ * The automaton is built once and then matches text in a single pass, character by character,
+ * regardless of the amount of keywords. Text is fed with {@link #next(int, char)}, starting at
+ * {@link #START_STATE}, and {@link #isMatch(int)} tells whether any keyword ends at the current
+ * character.
+ * <p>
+ * The matcher is immutable and thread-safe, the state of a scan is held by the caller.
+ */
+final class KeywordMatcher {
+    /**
+     * The state to start a scan with, also used to restart it, for example at token boundaries.
+     */
+    static final int START_STATE = 0;
+
+    // State i has a transition for each char in transitionChars[i], sorted, leading to the state
+    // at the same index in transitionTargets[i]
+    private final char[][] transitionChars;
+    private final int[][] transitionTargets;
+    private final int[] failureLinks;
+    private final boolean[] matches;
+
+    /**
+     * Creates a new matcher for the given keywords.
+     *
+     * @param keywords the keywords to find, matched case-insensitive
+     */
+    KeywordMatcher(Collection<String> keywords) {
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<Boolean> isKeywordEnd = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        isKeywordEnd.add(false);
+
+        for (String keyword : keywords) {
+            int state = START_STATE;
+            for (char c : keyword.toLowerCase(Locale.US).toCharArray()) {
+                Integer nextState = trie.get(state).get(c);
+                if (nextState == null) {
+                    nextState = trie.size();
+                    trie.add(new TreeMap<>());
+                    isKeywordEnd.add(false);
+                    trie.get(state).put(c, nextState);
+                }
+                state = nextState;
+            }
+            isKeywordEnd.set(state, true);
+        }
+
+        int stateCount = trie.size();
+        transitionChars = new char[stateCount][];
+        transitionTargets = new int[stateCount][];
+        failureLinks = new int[stateCount];
+        matches = new boolean[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            Map<Character, Integer> transitions = trie.get(state);
+            transitionChars[state] = new char[transitions.size()];
+            transitionTargets[state] = new int[transitions.size()];
+
+            int i = 0;
+            for (Map.Entry<Character, Integer> transition : transitions.entrySet()) {
+                transitionChars[state][i] = transition.getKey();
+                transitionTargets[state][i] = transition.getValue();
+                i++;
+            }
+            matches[state] = isKeywordEnd.get(state);
+        }
+
+        computeFailureLinks();
+    }
+
+    private void computeFailureLinks() {
+        // Breadth-first, so that the links of shorter prefixes are known already
+        Queue<Integer> pending = new ArrayDeque<>();
+        for (int child : transitionTargets[START_STATE]) {
+            failureLinks[child] = START_STATE;
+            pending.add(child);
+        }
+
+        while (!pending.isEmpty()) {
+            int state = pending.remove();
+            for (int i = 0; i < transitionChars[state].length; i++) {
+                int child = transitionTargets[state][i];
+                int failureLink = next(failureLinks[state], transitionChars[state][i]);
+
+                failureLinks[child] = failureLink;
+                // A keyword ending in the longest proper suffix also ends here
+                matches[child] |= matches[failureLink];
+                pending.add(child);
+            }
+        }
+    }
+
+    /**
+     * Advances the scan by the given character.
+     *
+     * @param state the current state of the scan
+     * @param c the next character of the text, case is ignored
+     * @return the new state of the scan
+     */
+    int next(int state, char c) {
+        char foldedChar = Character.toLowerCase(c);
+
+        int currentState = state;
+        while (true) {
+            int index = Arrays.binarySearch(transitionChars[currentState], foldedChar);
+            if (index >= 0) {
+                return transitionTargets[currentState][index];
+            }
+            if (currentState == START_STATE) {
+                return START_STATE;
+            }
+            currentState = failureLinks[currentState];
+        }
+    }
+
+    /**
+     * Whether any keyword ends in the given state, i.e. at the character that led to it.
+     *
+     * @param state the state to check
+     * @return whether a keyword was found
+     */
+    boolean isMatch(int state) {
+        return matches[state];
+    }
+}
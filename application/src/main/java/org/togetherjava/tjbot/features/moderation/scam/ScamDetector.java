@@ -5,8 +5,8 @@ import org.togetherjava.tjbot.config.ScamBlockerConfig;
 import org.togetherjava.tjbot.features.utils.StringDistances;
 
 import java.net.URI;
-import java.util.Locale;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Detects whether a text message classifies as scam or not, using certain heuristics.
@@ -15,8 +15,14 @@ import java.util.regex.Pattern;
  * {@link #isScam(CharSequence)}.
  */
 public final class ScamDetector {
-    private static final Pattern TOKENIZER = Pattern.compile("[\\s,]");
-    private final ScamBlockerConfig config;
+    private static final String EVERYONE_PING = "@everyone";
+    private static final String URL_START = "http";
+
+    private final KeywordMatcher suspiciousKeywordMatcher;
+    private final Set<String> hostWhitelist;
+    private final Set<String> hostBlacklist;
+    private final List<String> suspiciousHostKeywords;
+    private final int isHostSimilarToKeywordDistanceThreshold;
 
     /**
      * Creates a new instance with the given configuration
@@ -24,7 +30,15 @@ public final class ScamDetector {
      * @param config the scam blocker config to use
      */
     public ScamDetector(Config config) {
-        this.config = config.getScamBlocker();
+        ScamBlockerConfig scamBlockerConfig = config.getScamBlocker();
+
+        // Message analysis is hot, so everything derived from the config is prepared once
+        suspiciousKeywordMatcher = new KeywordMatcher(scamBlockerConfig.getSuspiciousKeywords());
+        hostWhitelist = Set.copyOf(scamBlockerConfig.getHostWhitelist());
+        hostBlacklist = Set.copyOf(scamBlockerConfig.getHostBlacklist());
+        suspiciousHostKeywords = List.copyOf(scamBlockerConfig.getSuspiciousHostKeywords());
+        isHostSimilarToKeywordDistanceThreshold =
+                scamBlockerConfig.getIsHostSimilarToKeywordDistanceThreshold();
     }
 
     /**
@@ -35,7 +49,28 @@ public final class ScamDetector {
      */
     public boolean isScam(CharSequence message) {
         AnalyseResults results = new AnalyseResults();
-        TOKENIZER.splitAsStream(message).forEach(token -> analyzeToken(token, results));
+        String text = message.toString();
+
+        // Tokens are separated by whitespace or commas, keywords are searched within a token
+        int tokenStart = 0;
+        int keywordMatcherState = KeywordMatcher.START_STATE;
+        boolean tokenContainsSuspiciousKeyword = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isTokenSeparator(c)) {
+                analyzeToken(text, tokenStart, i, tokenContainsSuspiciousKeyword, results);
+
+                tokenStart = i + 1;
+                keywordMatcherState = KeywordMatcher.START_STATE;
+                tokenContainsSuspiciousKeyword = false;
+                continue;
+            }
+
+            keywordMatcherState = suspiciousKeywordMatcher.next(keywordMatcherState, c);
+            tokenContainsSuspiciousKeyword |= suspiciousKeywordMatcher.isMatch(keywordMatcherState);
+        }
+        analyzeToken(text, tokenStart, text.length(), tokenContainsSuspiciousKeyword, results);
+
         return isScam(results);
     }
 
@@ -46,21 +81,40 @@ public final class ScamDetector {
         return results.containsSuspiciousKeyword && results.hasSuspiciousUrl;
     }
 
-    private void analyzeToken(String token, AnalyseResults results) {
-        if (token.isBlank()) {
+    private static boolean isTokenSeparator(char c) {
+        return switch (c) {
+            case ' ', '\t', '\n', '\u000B', '\f', '\r', ',' -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isBlank(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void analyzeToken(String text, int start, int end, boolean containsSuspiciousKeyword,
+            AnalyseResults results) {
+        if (isBlank(text, start, end)) {
             return;
         }
 
-        if (!results.pingsEveryone && "@everyone".equalsIgnoreCase(token)) {
+        int length = end - start;
+        if (!results.pingsEveryone && length == EVERYONE_PING.length()
+                && text.regionMatches(true, start, EVERYONE_PING, 0, length)) {
             results.pingsEveryone = true;
         }
 
-        if (!results.containsSuspiciousKeyword && containsSuspiciousKeyword(token)) {
+        if (containsSuspiciousKeyword) {
             results.containsSuspiciousKeyword = true;
         }
 
-        if (token.startsWith("http")) {
-            analyzeUrl(token, results);
+        if (text.startsWith(URL_START, start)) {
+            analyzeUrl(text.substring(start, end), results);
         }
     }
 
@@ -79,16 +133,16 @@ public final class ScamDetector {
 
         results.hasUrl = true;
 
-        if (config.getHostWhitelist().contains(host)) {
+        if (hostWhitelist.contains(host)) {
             return;
         }
 
-        if (config.getHostBlacklist().contains(host)) {
+        if (hostBlacklist.contains(host)) {
             results.hasSuspiciousUrl = true;
             return;
         }
 
-        for (String keyword : config.getSuspiciousHostKeywords()) {
+        for (String keyword : suspiciousHostKeywords) {
             if (isHostSimilarToKeyword(host, keyword)) {
                 results.hasSuspiciousUrl = true;
                 break;
@@ -96,15 +150,6 @@ public final class ScamDetector {
         }
     }
 
-    private boolean containsSuspiciousKeyword(String token) {
-        String preparedToken = token.toLowerCase(Locale.US);
-
-        return config.getSuspiciousKeywords()
-            .stream()
-            .map(keyword -> keyword.toLowerCase(Locale.US))
-            .anyMatch(preparedToken::contains);
-    }
-
     private boolean isHostSimilarToKeyword(String host, String keyword) {
         // NOTE This algorithm is far from optimal.
         // It is good enough for our purpose though and not that complex.
@@ -115,9 +160,10 @@ public final class ScamDetector {
         int windowEnd = keyword.length();
         while (windowEnd <= host.length()) {
             String window = host.substring(windowStart, windowEnd);
-            int distance = StringDistances.editDistance(keyword, window);
+            int distance = StringDistances.editDistance(keyword, window,
+                    isHostSimilarToKeywordDistanceThreshold);
 
-            if (distance <= config.getIsHostSimilarToKeywordDistanceThreshold()) {
+            if (distance <= isHostSimilarToKeywordDistanceThreshold) {
                 return true;
             }
 
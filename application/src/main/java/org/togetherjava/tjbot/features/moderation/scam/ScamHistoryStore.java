@@ -44,7 +44,8 @@ public final class ScamHistoryStore {
     }
 
     /**
-     * Adds the given scam message to the store.
+     * Adds the given scam message to the store. The scam is committed in the background, but all
+     * other methods of this store take it into account right away.
      *
      * @param scam the message to add
      * @param isDeleted whether the message is already, or about to get, deleted
@@ -52,7 +53,7 @@ public final class ScamHistoryStore {
     public void addScam(Message scam, boolean isDeleted) {
         Objects.requireNonNull(scam);
 
-        database.write(context -> context.newRecord(SCAM_HISTORY)
+        database.writeBehind(context -> context.newRecord(SCAM_HISTORY)
             .setSentAt(scam.getTimeCreated().toInstant())
             .setGuildId(scam.getGuild().getIdLong())
             .setChannelId(scam.getChannel().getIdLong())
@@ -88,6 +89,8 @@ public final class ScamHistoryStore {
      */
     public Collection<ScamIdentification> markScamDuplicatesDeleted(long guildId, long authorId,
             String contentHash) {
+        // Scams are added in the background, the duplicates must include them
+        database.flushWriteBehind();
         return database.writeAndProvide(context -> {
             Result<ScamHistoryRecord> undeletedDuplicates = context.selectFrom(SCAM_HISTORY)
                 .where(SCAM_HISTORY.GUILD_ID.eq(guildId)
@@ -112,6 +115,8 @@ public final class ScamHistoryStore {
      */
     public boolean hasRecentScamDuplicate(Message scam) {
         Instant recentScamThreshold = Instant.now().minus(RECENT_SCAM_DURATION);
+        // Scams are added in the background, spam waves must still see the scam sent just before
+        database.flushWriteBehind();
 
         return database.read(context -> context.fetchCount(SCAM_HISTORY,
                 SCAM_HISTORY.SENT_AT.greaterOrEqual(recentScamThreshold)
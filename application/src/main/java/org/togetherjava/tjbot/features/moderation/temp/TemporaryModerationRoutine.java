@@ -12,12 +12,12 @@ import org.togetherjava.tjbot.features.Routine;
 import org.togetherjava.tjbot.features.moderation.ActionRecord;
 import org.togetherjava.tjbot.features.moderation.ModerationAction;
 import org.togetherjava.tjbot.features.moderation.ModerationActionsStore;
+import org.togetherjava.tjbot.features.moderation.PendingRevocation;
 import org.togetherjava.tjbot.features.moderation.audit.AuditCommand;
 import org.togetherjava.tjbot.logging.LogMarkers;
 
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -29,6 +29,9 @@ import java.util.stream.Stream;
  * <p>
  * Revoked actions are compatible with {@link ModerationActionsStore} and commands such as
  * {@link org.togetherjava.tjbot.features.moderation.UnbanCommand} and {@link AuditCommand}.
+ * <p>
+ * Expired actions are marked as handled once they have been revoked, or found to not need a
+ * revocation, so that later runs only look at newly expired actions.
  */
 public final class TemporaryModerationRoutine implements Routine {
     private static final Logger logger = LoggerFactory.getLogger(TemporaryModerationRoutine.class);
@@ -36,6 +39,7 @@ public final class TemporaryModerationRoutine implements Routine {
     private final ModerationActionsStore actionsStore;
     private final JDA jda;
     private final Map<ModerationAction, RevocableModerationAction> typeToRevocableAction;
+    private final Map<ModerationAction, ModerationAction> applyTypeToRevokeType;
 
     /**
      * Creates a new instance.
@@ -53,6 +57,10 @@ public final class TemporaryModerationRoutine implements Routine {
                     new TemporaryQuarantineAction(config))
             .collect(
                     Collectors.toMap(RevocableModerationAction::getApplyType, Function.identity()));
+        applyTypeToRevokeType = typeToRevocableAction.values()
+            .stream()
+            .collect(Collectors.toMap(RevocableModerationAction::getApplyType,
+                    RevocableModerationAction::getRevokeType));
     }
 
     @Override
@@ -68,63 +76,54 @@ public final class TemporaryModerationRoutine implements Routine {
     private void checkExpiredActions() {
         logger.debug("Checking expired temporary moderation actions to revoke...");
 
-        actionsStore.getExpiredActionsAscending()
-            .stream()
-            .filter(action -> typeToRevocableAction.containsKey(action.actionType()))
-            .map(RevocationGroupIdentifier::of)
-            .collect(Collectors.toSet())
-            .forEach(this::processGroupedActions);
+        actionsStore.getPendingRevocations(applyTypeToRevokeType)
+            .forEach(this::processPendingRevocation);
 
         logger.debug("Finished checking expired temporary moderation actions to revoke.");
     }
 
-    private void processGroupedActions(RevocationGroupIdentifier groupIdentifier) {
+    private void processPendingRevocation(PendingRevocation revocation) {
         // Do not revoke an action which was overwritten by a still effective action that was issued
         // afterwards
         // For example if a user was perm-banned after being temp-banned
-        ActionRecord lastApplyAction = actionsStore
-            .findLastActionAgainstTargetByType(groupIdentifier.guildId, groupIdentifier.targetId,
-                    groupIdentifier.type)
-            .orElseThrow();
+        ActionRecord lastApplyAction = revocation.lastApplyAction();
         if (lastApplyAction.isEffective()) {
+            actionsStore.markExpirationHandled(revocation);
             return;
         }
 
         // Do not revoke an action which was already revoked by another action issued afterwards
         // For example if a user was unbanned manually after being temp-banned,
         // but also if the system automatically revoked a temp-ban already itself
-        ModerationAction revokeActionType =
-                getRevocableActionByType(groupIdentifier.type).getRevokeType();
-        Optional<ActionRecord> lastRevokeActionOpt = actionsStore.findLastActionAgainstTargetByType(
-                groupIdentifier.guildId, groupIdentifier.targetId, revokeActionType);
-        if (lastRevokeActionOpt.isPresent()) {
-            ActionRecord lastRevokeAction = lastRevokeActionOpt.orElseThrow();
-            if (lastRevokeAction.issuedAt().isAfter(lastApplyAction.issuedAt())
-                    && lastRevokeAction.isEffective()) {
-                return;
-            }
+        ActionRecord lastRevokeAction = revocation.lastRevokeAction();
+        if (lastRevokeAction != null
+                && lastRevokeAction.issuedAt().isAfter(lastApplyAction.issuedAt())
+                && lastRevokeAction.isEffective()) {
+            actionsStore.markExpirationHandled(revocation);
+            return;
         }
 
-        revokeAction(groupIdentifier);
+        revokeAction(revocation);
     }
 
-    private void revokeAction(RevocationGroupIdentifier groupIdentifier) {
-        Guild guild = jda.getGuildById(groupIdentifier.guildId);
+    private void revokeAction(PendingRevocation revocation) {
+        Guild guild = jda.getGuildById(revocation.guildId());
         if (guild == null) {
             logger.debug(
                     "Attempted to revoke a temporary moderation action but the bot is not connected to the guild '{}' anymore, skipping revoking.",
-                    groupIdentifier.guildId);
+                    revocation.guildId());
             return;
         }
 
-        jda.retrieveUserById(groupIdentifier.targetId)
-            .flatMap(target -> executeRevocation(guild, target, groupIdentifier.type))
+        jda.retrieveUserById(revocation.targetId())
+            .flatMap(target -> executeRevocation(guild, target, revocation))
             .queue(result -> {
-            }, failure -> handleFailure(failure, groupIdentifier));
+            }, failure -> handleFailure(failure, revocation));
     }
 
     private RestAction<Void> executeRevocation(Guild guild, User target,
-            ModerationAction actionType) {
+            PendingRevocation revocation) {
+        ModerationAction actionType = revocation.applyType();
         logger.info(LogMarkers.SENSITIVE, "Revoked temporary action {} against user '{}' ({}).",
                 actionType, target.getName(), target.getId());
         RevocableModerationAction action = getRevocableActionByType(actionType);
@@ -132,30 +131,24 @@ public final class TemporaryModerationRoutine implements Routine {
         String reason = "Automatic revocation of temporary action.";
         actionsStore.addAction(guild.getIdLong(), jda.getSelfUser().getIdLong(), target.getIdLong(),
                 action.getRevokeType(), null, reason);
+        actionsStore.markExpirationHandled(revocation);
 
         return action.revokeAction(guild, target, reason);
     }
 
-    private void handleFailure(Throwable failure, RevocationGroupIdentifier groupIdentifier) {
-        if (getRevocableActionByType(groupIdentifier.type).handleRevokeFailure(failure,
-                groupIdentifier.targetId) == RevocableModerationAction.FailureIdentification.KNOWN) {
+    private void handleFailure(Throwable failure, PendingRevocation revocation) {
+        if (getRevocableActionByType(revocation.applyType()).handleRevokeFailure(failure,
+                revocation.targetId()) == RevocableModerationAction.FailureIdentification.KNOWN) {
             return;
         }
 
         logger.warn(LogMarkers.SENSITIVE,
                 "Attempted to revoke a temporary moderation action for user '{}' but something unexpected went wrong.",
-                groupIdentifier.targetId, failure);
+                revocation.targetId(), failure);
     }
 
     private RevocableModerationAction getRevocableActionByType(ModerationAction type) {
         return Objects.requireNonNull(typeToRevocableAction.get(type),
                 "Action type is not revocable: " + type);
     }
-
-    private record RevocationGroupIdentifier(long guildId, long targetId, ModerationAction type) {
-        static RevocationGroupIdentifier of(ActionRecord actionRecord) {
-            return new RevocationGroupIdentifier(actionRecord.guildId(), actionRecord.targetId(),
-                    actionRecord.actionType());
-        }
-    }
 }
@@ -8,10 +8,13 @@ import net.dv8tion.jda.api.entities.channel.concrete.PrivateChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
+import org.jooq.Condition;
+import org.jooq.impl.DSL;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.togetherjava.tjbot.db.Database;
+import org.togetherjava.tjbot.db.DatabaseException;
 import org.togetherjava.tjbot.db.generated.tables.records.PendingRemindersRecord;
 import org.togetherjava.tjbot.features.Routine;
 
@@ -21,6 +24,7 @@ import java.awt.Color;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAccessor;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -31,40 +35,91 @@ import static org.togetherjava.tjbot.db.generated.Tables.PENDING_REMINDERS;
  * Routine that processes and sends pending reminders.
  * <p>
  * Reminders can be set by using {@link ReminderCommand}.
+ * <p>
+ * The first run loads all pending reminders into the {@link ReminderScheduler}, which then wakes
+ * up the routine whenever a reminder is due. Later runs only act as safety net, they schedule due
+ * reminders of the database again that are missing from the schedule, for example since sending
+ * them failed.
  */
 public final class RemindRoutine implements Routine {
     static final Logger logger = LoggerFactory.getLogger(RemindRoutine.class);
     static final Color AMBIENT_COLOR = Color.decode("#F7F492");
-    private static final int SCHEDULE_INTERVAL_SECONDS = 30;
+    private static final int SCHEDULE_INTERVAL_HOURS = 1;
     private final Database database;
+    private final ReminderScheduler scheduler;
     private static final int MAX_FAILURE_RETRY = 3;
+    private static final int RETRY_DELAY_MINUTES = 1;
 
     /**
      * Creates a new instance.
      *
      * @param database the database that contains the pending reminders to send.
+     * @param scheduler the schedule of pending reminders, filled by this routine on its first run
      */
-    public RemindRoutine(Database database) {
+    public RemindRoutine(Database database, ReminderScheduler scheduler) {
         this.database = database;
+        this.scheduler = scheduler;
     }
 
     @Override
     public Schedule createSchedule() {
-        return new Schedule(ScheduleMode.FIXED_RATE, 0, SCHEDULE_INTERVAL_SECONDS,
-                TimeUnit.SECONDS);
+        return new Schedule(ScheduleMode.FIXED_RATE, 0, SCHEDULE_INTERVAL_HOURS, TimeUnit.HOURS);
     }
 
     @Override
     public void runRoutine(JDA jda) {
-        Instant now = Instant.now();
-        database.write(context -> context.selectFrom(PENDING_REMINDERS)
-            .where(PENDING_REMINDERS.REMIND_AT.lessOrEqual(now))
-            .stream()
-            .forEach(pendingReminder -> {
-                sendReminder(jda, pendingReminder);
-
-                pendingReminder.delete();
-            }));
+        if (!scheduler.isStarted()) {
+            scheduleFromDatabase(DSL.noCondition());
+
+            // Sends overdue reminders right away, the timer then takes care of all later ones
+            sendDueReminders(jda);
+            scheduler.start(() -> sendDueReminders(jda));
+            return;
+        }
+
+        // Scheduling again is harmless, reminders that were sent already are not in the database
+        scheduleFromDatabase(PENDING_REMINDERS.REMIND_AT.lessOrEqual(Instant.now()));
+        sendDueReminders(jda);
+    }
+
+    private void scheduleFromDatabase(Condition condition) {
+        database
+            .read(context -> context.select(PENDING_REMINDERS.ID, PENDING_REMINDERS.REMIND_AT)
+                .from(PENDING_REMINDERS)
+                .where(condition)
+                .fetchMap(PENDING_REMINDERS.ID, PENDING_REMINDERS.REMIND_AT))
+            .forEach(scheduler::schedule);
+    }
+
+    private void sendDueReminders(JDA jda) {
+        List<Integer> dueReminderIds = scheduler.pollDue(Instant.now());
+        if (dueReminderIds.isEmpty()) {
+            return;
+        }
+
+        // Deleted as batch upfront, so that sending does not hold on to the database
+        List<PendingRemindersRecord> dueReminders;
+        try {
+            dueReminders = database.writeAndProvide(context -> {
+                List<PendingRemindersRecord> reminders = context.selectFrom(PENDING_REMINDERS)
+                    .where(PENDING_REMINDERS.ID.in(dueReminderIds))
+                    .orderBy(PENDING_REMINDERS.REMIND_AT.asc())
+                    .fetch();
+                context.deleteFrom(PENDING_REMINDERS)
+                    .where(PENDING_REMINDERS.ID.in(dueReminderIds))
+                    .execute();
+                return reminders;
+            });
+        } catch (DatabaseException e) {
+            logger.warn("Unable to take {} due reminders out of the database, trying again later",
+                    dueReminderIds.size(), e);
+            // They are still in the database, but no longer in the schedule
+            Instant retryAt = Instant.now().plus(RETRY_DELAY_MINUTES, ChronoUnit.MINUTES);
+            dueReminderIds.forEach(id -> scheduler.schedule(id, retryAt));
+            return;
+        }
+
+        dueReminders.forEach(pendingReminder -> sendReminder(jda, pendingReminder));
     }
 
     private void sendReminder(JDA jda, PendingRemindersRecord pendingReminder) {
@@ -153,12 +208,14 @@ public final class RemindRoutine implements Routine {
         }
 
         int failureAttempts = pendingReminder.getFailureAttempts() + 1;
-        Instant remindAt = Instant.now().plus(1, ChronoUnit.MINUTES);
-        database.write(any -> {
+        Instant remindAt = Instant.now().plus(RETRY_DELAY_MINUTES, ChronoUnit.MINUTES);
+        database.write(context -> {
             pendingReminder.setRemindAt(remindAt);
             pendingReminder.setFailureAttempts(failureAttempts);
-            pendingReminder.insert();
+            // The record was deleted already, so it is inserted again as a whole
+            pendingReminder.changed(true);
+            context.executeInsert(pendingReminder);
         });
-
+        scheduler.schedule(pendingReminder.getId(), remindAt);
     }
 }
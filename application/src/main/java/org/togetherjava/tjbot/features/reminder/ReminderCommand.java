@@ -21,6 +21,7 @@ import net.dv8tion.jda.api.utils.TimeFormat;
 import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
 import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 import net.dv8tion.jda.api.utils.messages.MessageEditData;
+import org.jooq.Condition;
 import org.jooq.Result;
 
 import org.togetherjava.tjbot.db.Database;
@@ -56,7 +57,8 @@ import static org.togetherjava.tjbot.db.generated.Tables.PENDING_REMINDERS;
  * }
  * </pre>
  * <p>
- * Pending reminders are processed and send by {@link RemindRoutine}.
+ * Pending reminders are processed and send by {@link RemindRoutine}. Created and canceled reminders
+ * are also added to, respectively removed from, the {@link ReminderScheduler}.
  */
 public final class ReminderCommand extends SlashCommandAdapter {
     private static final String COMMAND_NAME = "reminder";
@@ -79,13 +81,15 @@ public final class ReminderCommand extends SlashCommandAdapter {
     static final int MAX_PENDING_REMINDERS_PER_USER = 100;
 
     private final Database database;
+    private final ReminderScheduler scheduler;
 
     /**
      * Creates an instance of the command.
      *
      * @param database to store and fetch the reminders from
+     * @param scheduler the schedule of pending reminders to keep up to date
      */
-    public ReminderCommand(Database database) {
+    public ReminderCommand(Database database, ReminderScheduler scheduler) {
         super(COMMAND_NAME, "Reminds you after a given time period has passed (e.g. in 5 weeks)",
                 CommandVisibility.GUILD);
 
@@ -109,6 +113,7 @@ public final class ReminderCommand extends SlashCommandAdapter {
                 new SubcommandData(LIST_SUBCOMMAND, "shows all your currently pending reminders"));
 
         this.database = database;
+        this.scheduler = scheduler;
     }
 
     @Override
@@ -179,23 +184,36 @@ public final class ReminderCommand extends SlashCommandAdapter {
             .setEphemeral(true)
             .queue();
 
-        database.write(context -> context.newRecord(PENDING_REMINDERS)
-            .setCreatedAt(Instant.now())
-            .setGuildId(guild.getIdLong())
-            .setChannelId(event.getChannel().getIdLong())
-            .setAuthorId(author.getIdLong())
-            .setRemindAt(remindAt)
-            .setContent(content)
-            .insert());
+        int reminderId = database.writeAndProvide(context -> {
+            PendingRemindersRecord reminderRecord = context.newRecord(PENDING_REMINDERS)
+                .setCreatedAt(Instant.now())
+                .setGuildId(guild.getIdLong())
+                .setChannelId(event.getChannel().getIdLong())
+                .setAuthorId(author.getIdLong())
+                .setRemindAt(remindAt)
+                .setContent(content);
+            reminderRecord.insert();
+            return reminderRecord.getId();
+        });
+        scheduler.schedule(reminderId, remindAt);
     }
 
     private void handleCancelCommand(SlashCommandInteractionEvent event) {
         String content = event.getOption(CANCEL_REMINDER_OPTION).getAsString();
 
-        database.write(context -> context.delete(PENDING_REMINDERS)
-            .where(PENDING_REMINDERS.CONTENT.eq(content)
-                .and(PENDING_REMINDERS.AUTHOR_ID.eq(event.getUser().getIdLong())))
-            .execute());
+        Condition isReminderToCancel = PENDING_REMINDERS.CONTENT.eq(content)
+            .and(PENDING_REMINDERS.AUTHOR_ID.eq(event.getUser().getIdLong()));
+        List<Integer> canceledReminderIds = database.writeAndProvide(context -> {
+            List<Integer> reminderIds = context.select(PENDING_REMINDERS.ID)
+                .from(PENDING_REMINDERS)
+                .where(isReminderToCancel)
+                .fetch(PENDING_REMINDERS.ID);
+            context.deleteFrom(PENDING_REMINDERS)
+                .where(PENDING_REMINDERS.ID.in(reminderIds))
+                .execute();
+            return reminderIds;
+        });
+        canceledReminderIds.forEach(scheduler::cancel);
 
         event.reply("Your reminder is canceled").setEphemeral(true).queue();
     }
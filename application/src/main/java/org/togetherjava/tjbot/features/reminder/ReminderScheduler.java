@@ -0,0 +1,170 @@
+package org.togetherjava.tjbot.features.reminder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory schedule of all pending reminders, ordered by when they are due.
+ * <p>
+ * The schedule is filled once from the database by {@link RemindRoutine}, afterwards
+ * {@link ReminderCommand} keeps it up to date when reminders are created or canceled. A single
+ * timer is armed for the reminder that is due next, which wakes up the routine exactly when it is
+ * due, instead of polling the database.
+ * <p>
+ * The class is thread-safe.
+ */
+public final class ReminderScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(ReminderScheduler.class);
+    private static final Comparator<ScheduledReminder> BY_REMIND_AT =
+            Comparator.comparing(ScheduledReminder::remindAt).thenComparing(ScheduledReminder::id);
+
+    private final NavigableSet<ScheduledReminder> schedule = new TreeSet<>(BY_REMIND_AT);
+    private final Map<Integer, ScheduledReminder> idToReminder = new HashMap<>();
+    private final ScheduledExecutorService timerService =
+            Executors.newSingleThreadScheduledExecutor();
+
+    @Nullable
+    private Runnable onDue;
+    @Nullable
+    private ScheduledFuture<?> timer;
+    @Nullable
+    private Instant timerDueAt;
+
+    /**
+     * Starts the timer, calling the given action whenever a reminder is due. Afterwards, the due
+     * reminders can be taken out of the schedule using {@link #pollDue(Instant)}.
+     *
+     * @param onDue the action to call when reminders are due
+     */
+    synchronized void start(Runnable onDue) {
+        this.onDue = onDue;
+        armTimer();
+    }
+
+    /**
+     * Whether the timer was started already, see {@link #start(Runnable)}.
+     *
+     * @return whether the timer was started
+     */
+    synchronized boolean isStarted() {
+        return onDue != null;
+    }
+
+    /**
+     * Adds the given reminder to the schedule, replacing it if it was already scheduled.
+     *
+     * @param id the id of the reminder in the database
+     * @param remindAt when the reminder is due
+     */
+    synchronized void schedule(int id, Instant remindAt) {
+        ScheduledReminder reminder = new ScheduledReminder(id, remindAt);
+
+        ScheduledReminder previousReminder = idToReminder.put(id, reminder);
+        if (previousReminder != null) {
+            schedule.remove(previousReminder);
+        }
+        schedule.add(reminder);
+
+        armTimer();
+    }
+
+    /**
+     * Removes the given reminder from the schedule, if it was scheduled.
+     *
+     * @param id the id of the reminder in the database
+     */
+    synchronized void cancel(int id) {
+        ScheduledReminder reminder = idToReminder.remove(id);
+        if (reminder != null) {
+            schedule.remove(reminder);
+            armTimer();
+        }
+    }
+
+    /**
+     * Takes all reminders out of the schedule that are due at the given time.
+     *
+     * @param now the current time
+     * @return the ids of all due reminders, in the order they are due
+     */
+    synchronized List<Integer> pollDue(Instant now) {
+        List<Integer> dueReminderIds = new ArrayList<>();
+        while (!schedule.isEmpty() && !schedule.first().remindAt().isAfter(now)) {
+            ScheduledReminder reminder = schedule.pollFirst();
+            idToReminder.remove(reminder.id());
+            dueReminderIds.add(reminder.id());
+        }
+
+        armTimer();
+        return dueReminderIds;
+    }
+
+    private void armTimer() {
+        if (onDue == null) {
+            return;
+        }
+
+        if (schedule.isEmpty()) {
+            cancelTimer();
+            return;
+        }
+
+        Instant nextDueAt = schedule.first().remindAt();
+        if (timer != null && nextDueAt.equals(timerDueAt)) {
+            return;
+        }
+
+        cancelTimer();
+        long delayMillis = Math.max(0, Duration.between(Instant.now(), nextDueAt).toMillis());
+        timer = timerService.schedule(this::onTimer, delayMillis, TimeUnit.MILLISECONDS);
+        timerDueAt = nextDueAt;
+    }
+
+    private void cancelTimer() {
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        timer = null;
+        timerDueAt = null;
+    }
+
+    private void onTimer() {
+        Runnable action;
+        synchronized (this) {
+            timer = null;
+            timerDueAt = null;
+            action = onDue;
+        }
+
+        try {
+            if (action != null) {
+                action.run();
+            }
+        } catch (Exception e) {
+            logger.error("Unknown error while processing due reminders", e);
+        } finally {
+            synchronized (this) {
+                armTimer();
+            }
+        }
+    }
+
+    private record ScheduledReminder(int id, Instant remindAt) {
+    }
+}
@@ -1,7 +1,9 @@
 package org.togetherjava.tjbot.features.system;
 
 import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.events.channel.ChannelCreateEvent;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.channel.update.ChannelUpdateNameEvent;
 import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.MessageContextInteractionEvent;
@@ -35,23 +37,23 @@ import org.togetherjava.tjbot.features.UserInteractor;
 import org.togetherjava.tjbot.features.componentids.ComponentId;
 import org.togetherjava.tjbot.features.componentids.ComponentIdParser;
 import org.togetherjava.tjbot.features.componentids.ComponentIdStore;
+import org.togetherjava.tjbot.features.componentids.InlineComponentIdCodec;
 import org.togetherjava.tjbot.features.componentids.InvalidComponentIdFormatException;
+import org.togetherjava.tjbot.metrics.Counter;
+import org.togetherjava.tjbot.metrics.Histogram;
+import org.togetherjava.tjbot.metrics.MetricsRegistry;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * The bot core is the core of command handling in this application.
@@ -63,18 +65,32 @@ import java.util.stream.Stream;
  * Commands are made available via {@link Features}, then the system has to be added to JDA as an
  * event listener, using {@link net.dv8tion.jda.api.JDA#addEventListener(Object...)}. Afterwards,
  * the system is ready and will correctly forward events to all commands.
+ * <p>
+ * Features are warmed up in the background once the core is ready, see
+ * {@link #warmUpFeatures()}. User interactors answer interactions only after their warm-up
+ * finished.
+ * <p>
+ * User interactions are handled off the event thread, see {@link InteractionDispatcher}. How long
+ * commands, message receivers and routines take, and how often they fail, is measured and exposed
+ * by {@link MetricsRegistry#getDefault()}.
  */
 public final class BotCore extends ListenerAdapter implements CommandProvider {
     private static final Logger logger = LoggerFactory.getLogger(BotCore.class);
-    private static final ExecutorService COMMAND_SERVICE = Executors.newCachedThreadPool();
     private static final ScheduledExecutorService ROUTINE_SERVICE =
             Executors.newScheduledThreadPool(5);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
     private final Config config;
     private final Map<String, UserInteractor> prefixedNameToInteractor;
     private final List<Routine> routines;
     private final ComponentIdParser componentIdParser;
     private final ComponentIdStore componentIdStore;
-    private final Map<Pattern, MessageReceiver> channelNameToMessageReceiver = new HashMap<>();
+    private final MessageReceiverRouter messageReceiverRouter;
+    /**
+     * Resolved once upfront, since looking them up for every message is too costly.
+     */
+    private final Map<MessageReceiver, MessageReceiverMetrics> receiverToMetrics;
+    private final InteractionDispatcher interactionDispatcher = new InteractionDispatcher();
+    private final FeatureWarmUp featureWarmUp;
 
     /**
      * Creates a new command system which uses the given database to allow commands to persist data.
@@ -88,13 +104,17 @@ public final class BotCore extends ListenerAdapter implements CommandProvider {
     public BotCore(JDA jda, Database database, Config config) {
         this.config = config;
         Collection<Feature> features = Features.createFeatures(jda, database, config);
+        featureWarmUp = new FeatureWarmUp(features);
 
         // Message receivers
-        features.stream()
+        List<MessageReceiver> messageReceivers = features.stream()
             .filter(MessageReceiver.class::isInstance)
             .map(MessageReceiver.class::cast)
-            .forEach(messageReceiver -> channelNameToMessageReceiver
-                .put(messageReceiver.getChannelNamePattern(), messageReceiver));
+            .toList();
+        messageReceiverRouter = new MessageReceiverRouter(messageReceivers);
+        receiverToMetrics = messageReceivers.stream()
+            .collect(Collectors.toUnmodifiableMap(Function.identity(),
+                    MessageReceiverMetrics::ofReceiver));
 
         // Event receivers
         features.stream()
@@ -124,11 +144,22 @@ public final class BotCore extends ListenerAdapter implements CommandProvider {
         // Component Id Store
         componentIdStore = new ComponentIdStore(database);
         componentIdStore.addComponentIdRemovedListener(BotCore::onComponentIdRemoved);
-        componentIdParser = uuid -> componentIdStore.get(UUID.fromString(uuid));
+        // Small payloads are encoded into the ID itself, only large ones need the store
+        InlineComponentIdCodec inlineComponentIdCodec =
+                new InlineComponentIdCodec(config.getComponentIdSecret());
+        componentIdParser = id -> InlineComponentIdCodec.isInline(id)
+                ? inlineComponentIdCodec.decode(id)
+                : componentIdStore.get(UUID.fromString(id));
         Collection<UserInteractor> interactors = getInteractors();
 
         interactors.forEach(
                 interactor -> interactor.acceptComponentIdGenerator(((componentId, lifespan) -> {
+                    Optional<String> inlineId =
+                            inlineComponentIdCodec.encode(componentId, lifespan);
+                    if (inlineId.isPresent()) {
+                        return inlineId.orElseThrow();
+                    }
+
                     UUID uuid = UUID.randomUUID();
                     componentIdStore.putOrThrow(uuid, componentId, lifespan);
                     return uuid.toString();
@@ -183,6 +214,16 @@ public final class BotCore extends ListenerAdapter implements CommandProvider {
         return Optional.ofNullable(prefixedNameToInteractor.get(prefixedName));
     }
 
+    /**
+     * Warms up all features in parallel, in the background, see {@link Feature#warmUp()}.
+     * <p>
+     * Until its warm-up finished, a user interactor does not handle interactions, users are told to
+     * try again later instead. This needs a ready {@link JDA} instance.
+     */
+    public void warmUpFeatures() {
+        featureWarmUp.start();
+    }
+
     /**
      * Schedules the registered routines.
      * <p>
@@ -192,14 +233,24 @@ public final class BotCore extends ListenerAdapter implements CommandProvider {
      */
     public void scheduleRoutines(JDA jda) {
         routines.forEach(routine -> {
+            String routineName = routine.getClass().getSimpleName();
+            Map<String, String> labels = Map.of("routine", routineName);
+            Histogram duration = METRICS.histogram("tjbot_routine_duration_seconds",
+                    "Time routines took to run", labels);
+            Counter failures = METRICS.counter("tjbot_routine_failures_total",
+                    "Runs of routines that failed", labels);
+
             Runnable command = () -> {
-                String routineName = routine.getClass().getSimpleName();
+                long startNanos = System.nanoTime();
                 try {
                     logger.debug("Running routine %s...".formatted(routineName));
                     routine.runRoutine(jda);
                     logger.debug("Finished routine %s.".formatted(routineName));
                 } catch (Exception e) {
+                    failures.increment();
                     logger.error("Unknown error in routine {}.", routineName, e);
+                } finally {
+                    duration.recordSince(startNanos);
                 }
             };
 
@@ -217,35 +268,52 @@ public final class BotCore extends ListenerAdapter implements CommandProvider {
     @Override
     public void onMessageReceived(final MessageReceivedEvent event) {
         if (event.isFromGuild()) {
-            getMessageReceiversSubscribedTo(event.getChannel())
-                .forEach(messageReceiver -> messageReceiver.onMessageReceived(event));
+            for (MessageReceiver messageReceiver : messageReceiverRouter
+                .getReceiversSubscribedTo(event.getChannel())) {
+                receiverToMetrics.get(messageReceiver)
+                    .received()
+                    .time(() -> messageReceiver.onMessageReceived(event));
+            }
         }
     }
 
     @Override
     public void onMessageUpdate(final MessageUpdateEvent event) {
         if (event.isFromGuild()) {
-            getMessageReceiversSubscribedTo(event.getChannel())
-                .forEach(messageReceiver -> messageReceiver.onMessageUpdated(event));
+            for (MessageReceiver messageReceiver : messageReceiverRouter
+                .getReceiversSubscribedTo(event.getChannel())) {
+                receiverToMetrics.get(messageReceiver)
+                    .updated()
+                    .time(() -> messageReceiver.onMessageUpdated(event));
+            }
         }
     }
 
     @Override
     public void onMessageDelete(final MessageDeleteEvent event) {
         if (event.isFromGuild()) {
-            getMessageReceiversSubscribedTo(event.getChannel())
-                .forEach(messageReceiver -> messageReceiver.onMessageDeleted(event));
+            for (MessageReceiver messageReceiver : messageReceiverRouter
+                .getReceiversSubscribedTo(event.getChannel())) {
+                receiverToMetrics.get(messageReceiver)
+                    .deleted()
+                    .time(() -> messageReceiver.onMessageDeleted(event));
+            }
         }
     }
 
-    private Stream<MessageReceiver> getMessageReceiversSubscribedTo(Channel channel) {
-        String channelName = channel.getName();
-        return channelNameToMessageReceiver.entrySet()
-            .stream()
-            .filter(patternAndReceiver -> patternAndReceiver.getKey()
-                .matcher(channelName)
-                .matches())
-            .map(Map.Entry::getValue);
+    @Override
+    public void onChannelCreate(ChannelCreateEvent event) {
+        messageReceiverRouter.invalidate(event.getChannel().getIdLong());
+    }
+
+    @Override
+    public void onChannelUpdateName(ChannelUpdateNameEvent event) {
+        messageReceiverRouter.invalidate(event.getChannel().getIdLong());
+    }
+
+    @Override
+    public void onChannelDelete(ChannelDeleteEvent event) {
+        messageReceiverRouter.invalidate(event.getChannel().getIdLong());
     }
 
     @Override
@@ -254,10 +322,13 @@ public final class BotCore extends ListenerAdapter implements CommandProvider {
 
         logger.debug("Received slash command '{}' (#{}) on guild '{}'", name, event.getId(),
                 event.getGuild());
-        COMMAND_SERVICE.execute(
-                () -> requireUserInteractor(UserInteractionType.SLASH_COMMAND.getPrefixedName(name),
-                        SlashCommand.class)
-                    .onSlashCommand(event));
+        interactionDispatcher.dispatch("slash_command", name, () -> {
+            SlashCommand command = requireUserInteractor(
+                    UserInteractionType.SLASH_COMMAND.getPrefixedName(name), SlashCommand.class);
+            if (handleRequireReady(command, event)) {
+                command.onSlashCommand(event);
+            }
+        }, () -> replyBusy(event));
     }
 
     @Override
@@ -266,41 +337,51 @@ public final class BotCore extends ListenerAdapter implements CommandProvider {
 
         logger.debug("Received auto completion from command '{}' (#{}) on guild '{}'",
                 event.getFullCommandName(), event.getId(), event.getGuild());
-        COMMAND_SERVICE.execute(
-                () -> requireUserInteractor(UserInteractionType.SLASH_COMMAND.getPrefixedName(name),
-                        SlashCommand.class)
-                    .onAutoComplete(event));
+        interactionDispatcher.dispatchAutoComplete(name, () -> {
+            SlashCommand command = requireUserInteractor(
+                    UserInteractionType.SLASH_COMMAND.getPrefixedName(name), SlashCommand.class);
+            if (!featureWarmUp.isReady(command)) {
+                // Not ready to suggest anything yet
+                event.replyChoices(List.of()).queue();
+                return;
+            }
+            command.onAutoComplete(event);
+        });
     }
 
     @Override
     public void onButtonInteraction(ButtonInteractionEvent event) {
         logger.debug("Received button click '{}' (#{}) on guild '{}'", event.getComponentId(),
                 event.getId(), event.getGuild());
-        COMMAND_SERVICE
-            .execute(() -> forwardComponentCommand(event, UserInteractor::onButtonClick));
+        long receivedAtNanos = System.nanoTime();
+        interactionDispatcher.dispatch(() -> forwardComponentCommand(event, "button",
+                receivedAtNanos, UserInteractor::onButtonClick));
     }
 
     @Override
     public void onEntitySelectInteraction(EntitySelectInteractionEvent event) {
         logger.debug("Received entity selection menu event '{}' (#{}) on guild '{}'",
                 event.getComponentId(), event.getId(), event.getGuild());
-        COMMAND_SERVICE
-            .execute(() -> forwardComponentCommand(event, UserInteractor::onEntitySelectSelection));
+        long receivedAtNanos = System.nanoTime();
+        interactionDispatcher.dispatch(() -> forwardComponentCommand(event, "entity_select",
+                receivedAtNanos, UserInteractor::onEntitySelectSelection));
     }
 
     @Override
     public void onStringSelectInteraction(StringSelectInteractionEvent event) {
         logger.debug("Received string selection menu event '{}' (#{}) on guild '{}'",
                 event.getComponentId(), event.getId(), event.getGuild());
-        COMMAND_SERVICE
-            .execute(() -> forwardComponentCommand(event, UserInteractor::onStringSelectSelection));
+        long receivedAtNanos = System.nanoTime();
+        interactionDispatcher.dispatch(() -> forwardComponentCommand(event, "string_select",
+                receivedAtNanos, UserInteractor::onStringSelectSelection));
     }
 
     @Override
     public void onModalInteraction(final ModalInteractionEvent event) {
         logger.debug("Received modal event '{}' (#{}) on guild '{}'", event.getModalId(),
                 event.getId(), event.getGuild());
-        COMMAND_SERVICE.execute(() -> {
+        long receivedAtNanos = System.nanoTime();
+        interactionDispatcher.dispatch(() -> {
             Optional<ComponentId> componentIdOptional =
                     handleParseComponentId(event, event.getModalId());
 
@@ -314,7 +395,12 @@ public final class BotCore extends ListenerAdapter implements CommandProvider {
                     requireUserInteractor(componentId.userInteractorName(), UserInteractor.class);
             logger.trace("Routing a modal event with id '{}' back to user interactor '{}'",
                     event.getModalId(), interactor.getName());
-            interactor.onModalSubmitted(event, componentId.elements());
+            if (!handleRequireReady(interactor, event)) {
+                return;
+            }
+            interactionDispatcher.handle("modal", interactor.getName(), receivedAtNanos,
+                    () -> interactor.onModalSubmitted(event, componentId.elements()),
+                    () -> replyBusy(event));
         });
     }
 
@@ -324,10 +410,14 @@ public final class BotCore extends ListenerAdapter implements CommandProvider {
 
         logger.debug("Received message context command '{}' (#{}) on guild '{}'", name,
                 event.getId(), event.getGuild());
-        COMMAND_SERVICE.execute(() -> requireUserInteractor(
-                UserInteractionType.MESSAGE_CONTEXT_COMMAND.getPrefixedName(name),
-                MessageContextCommand.class)
-            .onMessageContext(event));
+        interactionDispatcher.dispatch("message_context_command", name, () -> {
+            MessageContextCommand command = requireUserInteractor(
+                    UserInteractionType.MESSAGE_CONTEXT_COMMAND.getPrefixedName(name),
+                    MessageContextCommand.class);
+            if (handleRequireReady(command, event)) {
+                command.onMessageContext(event);
+            }
+        }, () -> replyBusy(event));
     }
 
     @Override
@@ -336,10 +426,14 @@ public final class BotCore extends ListenerAdapter implements CommandProvider {
 
         logger.debug("Received user context command '{}' (#{}) on guild '{}'", name, event.getId(),
                 event.getGuild());
-        COMMAND_SERVICE.execute(() -> requireUserInteractor(
-                UserInteractionType.USER_CONTEXT_COMMAND.getPrefixedName(name),
-                UserContextCommand.class)
-            .onUserContext(event));
+        interactionDispatcher.dispatch("user_context_command", name, () -> {
+            UserContextCommand command = requireUserInteractor(
+                    UserInteractionType.USER_CONTEXT_COMMAND.getPrefixedName(name),
+                    UserContextCommand.class);
+            if (handleRequireReady(command, event)) {
+                command.onUserContext(event);
+            }
+        }, () -> replyBusy(event));
     }
 
     /**
@@ -386,16 +480,21 @@ public final class BotCore extends ListenerAdapter implements CommandProvider {
      *
      * <pre>
      * {@code
-     * forwardComponentCommand(event, UserInteractor::onSelectionMenu);
+     * forwardComponentCommand(event, "string_select", receivedAtNanos,
+     *         UserInteractor::onStringSelectSelection);
      * }
      * </pre>
      *
      * @param event the component event that should be forwarded
+     * @param interaction the kind of interaction, used for measuring it, for example
+     *        {@code "button"}
+     * @param receivedAtNanos when the event was received, as given by {@link System#nanoTime()}
      * @param interactorArgumentConsumer the action to trigger on the associated user interactor,
      *        providing the event and list of arguments for consumption
      * @param <T> the type of the component interaction that should be forwarded
      */
     private <T extends ComponentInteraction> void forwardComponentCommand(T event,
+            String interaction, long receivedAtNanos,
             TriConsumer<? super UserInteractor, ? super T, ? super List<String>> interactorArgumentConsumer) {
 
         Optional<ComponentId> componentIdOptional =
@@ -411,7 +510,45 @@ public final class BotCore extends ListenerAdapter implements CommandProvider {
                 requireUserInteractor(componentId.userInteractorName(), UserInteractor.class);
         logger.trace("Routing a component event with id '{}' back to user interactor '{}'",
                 event.getComponentId(), interactor.getName());
-        interactorArgumentConsumer.accept(interactor, event, componentId.elements());
+        if (!handleRequireReady(interactor, event)) {
+            return;
+        }
+        interactionDispatcher.handle(interaction, interactor.getName(), receivedAtNanos,
+                () -> interactorArgumentConsumer.accept(interactor, event, componentId.elements()),
+                () -> replyBusy(event));
+    }
+
+    /**
+     * Requires that the given user interactor finished its warm-up. If not, the user is told to try
+     * again later.
+     *
+     * @param interactor the user interactor to handle the event
+     * @param event the {@link IReplyCallback event} to reply to if the interactor is not ready
+     * @return whether the interactor is ready to handle the event
+     */
+    private boolean handleRequireReady(UserInteractor interactor, IReplyCallback event) {
+        if (featureWarmUp.isReady(interactor)) {
+            return true;
+        }
+
+        logger.debug("Rejected event (#{}), the user interactor '{}' is not ready yet",
+                event.getId(), interactor.getName());
+        event.reply("Sorry, this is still starting up. Please try again in a few seconds.")
+            .setEphemeral(true)
+            .queue();
+        return false;
+    }
+
+    /**
+     * Tells the user that their interaction could not be handled in time, since the user
+     * interactor is busy with other interactions.
+     *
+     * @param event the {@link IReplyCallback event} to reply to
+     */
+    private static void replyBusy(IReplyCallback event) {
+        event.reply("Sorry, this is busy right now. Please try again in a moment.")
+            .setEphemeral(true)
+            .queue();
     }
 
     /**
@@ -445,6 +582,24 @@ public final class BotCore extends ListenerAdapter implements CommandProvider {
         // in the future to, for example, disable buttons or delete the associated message
     }
 
+    /**
+     * Measures the time a message receiver takes to handle each kind of message event.
+     */
+    private record MessageReceiverMetrics(Histogram received, Histogram updated,
+            Histogram deleted) {
+        static MessageReceiverMetrics ofReceiver(MessageReceiver messageReceiver) {
+            String receiverName = messageReceiver.getClass().getSimpleName();
+            return new MessageReceiverMetrics(ofEvent(receiverName, "received"),
+                    ofEvent(receiverName, "updated"), ofEvent(receiverName, "deleted"));
+        }
+
+        private static Histogram ofEvent(String receiverName, String event) {
+            return METRICS.histogram("tjbot_message_receiver_duration_seconds",
+                    "Time message receivers took to handle message events",
+                    Map.of("receiver", receiverName, "event", event));
+        }
+    }
+
     /**
      * Extension of {@link java.util.function.BiConsumer} but for 3 elements.
      * <p>
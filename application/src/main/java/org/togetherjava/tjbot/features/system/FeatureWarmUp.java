@@ -0,0 +1,101 @@
+package org.togetherjava.tjbot.features.system;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.togetherjava.tjbot.features.Feature;
+import org.togetherjava.tjbot.metrics.MetricsRegistry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Warms up features in parallel, see {@link Feature#warmUp()}, and keeps track of which of them are
+ * ready.
+ * <p>
+ * Each warm-up runs on a virtual thread of its own, since warm-ups mostly block on the network. How
+ * long each feature took to be ready is logged and exposed by {@link MetricsRegistry#getDefault()}.
+ * Features whose warm-up failed are considered ready nonetheless, they have to cope with missing
+ * preparations themselves.
+ * <p>
+ * The class is thread-safe.
+ */
+final class FeatureWarmUp {
+    private static final Logger logger = LoggerFactory.getLogger(FeatureWarmUp.class);
+
+    private final Collection<Feature> features;
+    private final Set<Feature> pendingFeatures = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a new instance, considering all given features not ready until they are warmed up.
+     *
+     * @param features the features to warm up
+     */
+    FeatureWarmUp(Collection<? extends Feature> features) {
+        this.features = List.copyOf(features);
+        pendingFeatures.addAll(features);
+
+        MetricsRegistry.getDefault()
+            .gauge("tjbot_feature_warm_up_pending", "Features whose warm-up did not finish yet",
+                    pendingFeatures::size);
+    }
+
+    /**
+     * Starts warming up all features in parallel, in the background.
+     *
+     * @return a future that completes once all features are ready
+     */
+    CompletableFuture<Void> start() {
+        long startNanos = System.nanoTime();
+        ExecutorService warmUpService = Executors
+            .newThreadPerTaskExecutor(Thread.ofVirtual().name("feature-warm-up-", 0).factory());
+
+        CompletableFuture<?>[] warmUps = features.stream()
+            .map(feature -> CompletableFuture.runAsync(() -> warmUp(feature, startNanos),
+                    warmUpService))
+            .toArray(CompletableFuture[]::new);
+        warmUpService.shutdown();
+
+        return CompletableFuture.allOf(warmUps)
+            .thenRun(() -> logger.info("All {} features are ready after {} ms", features.size(),
+                    Duration.ofNanos(System.nanoTime() - startNanos).toMillis()));
+    }
+
+    /**
+     * Whether the given feature finished its warm-up.
+     *
+     * @param feature the feature to check
+     * @return whether the feature is ready
+     */
+    boolean isReady(Feature feature) {
+        return !pendingFeatures.contains(feature);
+    }
+
+    private void warmUp(Feature feature, long startNanos) {
+        String featureName = feature.getClass().getSimpleName();
+        long warmUpStartNanos = System.nanoTime();
+        try {
+            feature.warmUp();
+        } catch (Exception e) {
+            logger.error("Unknown error while warming up the feature {}", featureName, e);
+        } finally {
+            pendingFeatures.remove(feature);
+
+            long warmUpNanos = System.nanoTime() - warmUpStartNanos;
+            MetricsRegistry.getDefault()
+                .histogram("tjbot_feature_warm_up_seconds", "Time features took to warm up",
+                        Map.of("feature", featureName))
+                .recordNanos(warmUpNanos);
+            logger.info("Feature {} is ready after {} ms (warm-up took {} ms)", featureName,
+                    Duration.ofNanos(System.nanoTime() - startNanos).toMillis(),
+                    Duration.ofNanos(warmUpNanos).toMillis());
+        }
+    }
+}
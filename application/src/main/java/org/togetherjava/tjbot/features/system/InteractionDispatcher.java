@@ -0,0 +1,233 @@
+package org.togetherjava.tjbot.features.system;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.togetherjava.tjbot.metrics.MetricsRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the handlers of user interactions, such as slash commands or button clicks, off the event
+ * thread.
+ * <p>
+ * Each interaction is handled by a virtual thread of its own, since handlers mostly block on the
+ * database or HTTP calls. To prevent a burst of slow interactions from taking over, each user
+ * interactor only handles up to {@value #MAX_CONCURRENT_INTERACTIONS_PER_INTERACTOR} interactions
+ * at the same time, further interactions wait for their turn.
+ * <p>
+ * Discord requires interactions to be answered within 3 seconds. Handlers answer, or defer, by
+ * themselves, so interactions that could not be handled within a budget of a few seconds are
+ * rejected instead of being handled too late. The caller is told to answer rejected interactions,
+ * for example by telling the user to try again.
+ * <p>
+ * Auto-completion has to answer within a few seconds and is handled in a separate lane, by a small
+ * pool of dedicated threads. So it is neither limited by interactions of the same interactor, nor
+ * affected by virtual threads that block their carrier thread. Auto-completions that waited too
+ * long to be answered in time are dropped.
+ * <p>
+ * How long interactions waited for their turn and took to be handled is measured per interactor
+ * and exposed by {@link MetricsRegistry#getDefault()}.
+ * <p>
+ * The class is thread-safe.
+ */
+final class InteractionDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(InteractionDispatcher.class);
+
+    static final int MAX_CONCURRENT_INTERACTIONS_PER_INTERACTOR = 8;
+    private static final int AUTO_COMPLETE_THREADS = 4;
+    /**
+     * Discord rejects answers to interactions after 3 seconds, leaving some time to answer.
+     */
+    private static final Duration MAX_QUEUE_TIME = Duration.ofSeconds(2);
+    private static final String AUTO_COMPLETE_INTERACTION = "auto_complete";
+
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+
+    private final ExecutorService interactionService;
+    private final ExecutorService autoCompleteService;
+    private final int maxConcurrentInteractionsPerInteractor;
+    private final Duration maxQueueTime;
+    private final Map<String, Semaphore> interactorNameToPermits = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new dispatcher with the default limits.
+     */
+    InteractionDispatcher() {
+        this(MAX_CONCURRENT_INTERACTIONS_PER_INTERACTOR, MAX_QUEUE_TIME);
+    }
+
+    /**
+     * Creates a new dispatcher.
+     *
+     * @param maxConcurrentInteractionsPerInteractor how many interactions each user interactor
+     *        handles at the same time at most
+     * @param maxQueueTime how long interactions wait for their turn at most, before they are
+     *        rejected
+     */
+    InteractionDispatcher(int maxConcurrentInteractionsPerInteractor, Duration maxQueueTime) {
+        this.maxConcurrentInteractionsPerInteractor = maxConcurrentInteractionsPerInteractor;
+        this.maxQueueTime = maxQueueTime;
+
+        interactionService = Executors
+            .newThreadPerTaskExecutor(Thread.ofVirtual().name("interaction-", 0).factory());
+        autoCompleteService = Executors.newFixedThreadPool(AUTO_COMPLETE_THREADS,
+                Thread.ofPlatform().name("auto-complete-", 0).daemon().factory());
+    }
+
+    /**
+     * Runs the given task off the event thread, without any limit.
+     * <p>
+     * Used for interactions whose user interactor is not known yet, for example buttons. Once it
+     * is known, the handler must be run using
+     * {@link #handle(String, String, long, Runnable, Runnable)}.
+     *
+     * @param task the task to run
+     */
+    void dispatch(Runnable task) {
+        interactionService.execute(task);
+    }
+
+    /**
+     * Handles the given interaction off the event thread, once the user interactor is free to
+     * handle it.
+     *
+     * @param interaction the kind of interaction, for example {@code "slash_command"}
+     * @param interactorName the name of the user interactor handling the interaction
+     * @param handler the action handling the interaction
+     * @param onRejected the action answering the interaction instead, if it waited too long to be
+     *        handled
+     */
+    void dispatch(String interaction, String interactorName, Runnable handler,
+            Runnable onRejected) {
+        long dispatchedAtNanos = System.nanoTime();
+        interactionService.execute(() -> handle(interaction, interactorName, dispatchedAtNanos,
+                handler, onRejected));
+    }
+
+    /**
+     * Handles the given auto-completion in the dedicated lane for auto-completions.
+     *
+     * @param interactorName the name of the user interactor handling the auto-completion
+     * @param handler the action handling the auto-completion
+     */
+    void dispatchAutoComplete(String interactorName, Runnable handler) {
+        long dispatchedAtNanos = System.nanoTime();
+        autoCompleteService.execute(() -> {
+            long queuedNanos = recordQueueTime(AUTO_COMPLETE_INTERACTION, interactorName,
+                    dispatchedAtNanos);
+            if (queuedNanos > maxQueueTime.toNanos()) {
+                // Answering is pointless, Discord does not accept it anymore
+                recordDropped(AUTO_COMPLETE_INTERACTION, interactorName);
+                return;
+            }
+
+            run(AUTO_COMPLETE_INTERACTION, interactorName, handler);
+        });
+    }
+
+    /**
+     * Handles the given interaction on the current thread, once the user interactor is free to
+     * handle it. Must be called off the event thread, see {@link #dispatch(Runnable)}.
+     *
+     * @param interaction the kind of interaction, for example {@code "button"}
+     * @param interactorName the name of the user interactor handling the interaction
+     * @param dispatchedAtNanos when the interaction was received, as given by
+     *        {@link System#nanoTime()}
+     * @param handler the action handling the interaction
+     * @param onRejected the action answering the interaction instead, if it waited too long to be
+     *        handled
+     */
+    void handle(String interaction, String interactorName, long dispatchedAtNanos,
+            Runnable handler, Runnable onRejected) {
+        Semaphore permits = getPermits(interactorName);
+        long remainingQueueNanos =
+                maxQueueTime.toNanos() - (System.nanoTime() - dispatchedAtNanos);
+        try {
+            if (!permits.tryAcquire(remainingQueueNanos, TimeUnit.NANOSECONDS)) {
+                recordDropped(interaction, interactorName);
+                onRejected.run();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting to handle an interaction with {}",
+                    interactorName, e);
+            return;
+        }
+
+        try {
+            recordQueueTime(interaction, interactorName, dispatchedAtNanos);
+            run(interaction, interactorName, handler);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Semaphore getPermits(String interactorName) {
+        return interactorNameToPermits.computeIfAbsent(interactorName, any -> {
+            Semaphore permits = new Semaphore(maxConcurrentInteractionsPerInteractor, true);
+
+            Map<String, String> labels = Map.of("interactor", interactorName);
+            METRICS.gauge("tjbot_interaction_in_progress",
+                    "Interactions currently handled by a user interactor", labels,
+                    () -> maxConcurrentInteractionsPerInteractor
+                            - (double) permits.availablePermits());
+            METRICS.gauge("tjbot_interaction_waiting",
+                    "Interactions waiting for their user interactor to be free", labels,
+                    permits::getQueueLength);
+            return permits;
+        });
+    }
+
+    private static void recordDropped(String interaction, String interactorName) {
+        logger.debug("Dropped {} of {}, it waited too long to be handled", interaction,
+                interactorName);
+        METRICS
+            .counter("tjbot_interaction_dropped_total",
+                    "Interactions that waited too long to be handled",
+                    labelsOf(interaction, interactorName))
+            .increment();
+    }
+
+    private static long recordQueueTime(String interaction, String interactorName,
+            long dispatchedAtNanos) {
+        long queuedNanos = System.nanoTime() - dispatchedAtNanos;
+        METRICS
+            .histogram("tjbot_interaction_queue_seconds",
+                    "Time interactions waited until they were handled",
+                    labelsOf(interaction, interactorName))
+            .recordNanos(queuedNanos);
+        return queuedNanos;
+    }
+
+    private static void run(String interaction, String interactorName, Runnable handler) {
+        Map<String, String> labels = labelsOf(interaction, interactorName);
+
+        long startNanos = System.nanoTime();
+        try {
+            handler.run();
+        } catch (RuntimeException e) {
+            METRICS
+                .counter("tjbot_interaction_failures_total",
+                        "Interactions with user interactors that failed", labels)
+                .increment();
+            throw e;
+        } finally {
+            METRICS
+                .histogram("tjbot_interaction_duration_seconds",
+                        "Time user interactors took to handle interactions", labels)
+                .recordSince(startNanos);
+        }
+    }
+
+    private static Map<String, String> labelsOf(String interaction, String interactorName) {
+        return Map.of("interaction", interaction, "interactor", interactorName);
+    }
+}
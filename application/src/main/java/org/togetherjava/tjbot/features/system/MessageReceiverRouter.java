@@ -0,0 +1,97 @@
+package org.togetherjava.tjbot.features.system;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.dv8tion.jda.api.entities.channel.Channel;
+
+import org.togetherjava.tjbot.features.MessageReceiver;
+import org.togetherjava.tjbot.features.utils.CacheMetrics;
+import org.togetherjava.tjbot.metrics.MetricsRegistry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Routes message events to the {@link MessageReceiver}s subscribed to the channel they happened
+ * in.
+ * <p>
+ * Matching the channel name against the pattern of each receiver is costly, so the receivers
+ * subscribed to a channel are resolved once and then cached by channel ID. The cache is filled
+ * lazily and entries should be invalidated, using {@link #invalidate(long)}, when a channel is
+ * created, renamed or deleted. In addition, an entry is resolved again if it was resolved for a
+ * different channel name, so a missed invalidation never routes to the wrong receivers.
+ * <p>
+ * Channels that are no longer used, such as archived help threads, are not invalidated. Hence the
+ * cache is bounded and drops channels that did not see any events for a while.
+ * <p>
+ * The hits, misses and size of the cache are exposed by {@link MetricsRegistry#getDefault()}.
+ * <p>
+ * The class is thread-safe.
+ */
+final class MessageReceiverRouter {
+    private static final int MAX_CACHED_CHANNELS = 10_000;
+    private static final Duration CACHED_CHANNEL_IDLE_TIME = Duration.ofDays(1);
+
+    private final MessageReceiver[] receivers;
+    private final Cache<Long, Route> channelIdToRoute = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_CHANNELS)
+        .expireAfterAccess(CACHED_CHANNEL_IDLE_TIME)
+        .recordStats()
+        .build();
+
+    /**
+     * Creates a new router for the given receivers.
+     *
+     * @param receivers the receivers to route events to
+     */
+    MessageReceiverRouter(Collection<? extends MessageReceiver> receivers) {
+        this.receivers = receivers.toArray(MessageReceiver[]::new);
+        CacheMetrics.register("message_receiver_routes", channelIdToRoute);
+    }
+
+    /**
+     * Gets all receivers subscribed to the given channel, i.e. whose channel name pattern matches
+     * the name of the channel.
+     *
+     * @param channel the channel to get the subscribed receivers for
+     * @return the subscribed receivers, must not be modified
+     */
+    MessageReceiver[] getReceiversSubscribedTo(Channel channel) {
+        String channelName = channel.getName();
+        Route route = channelIdToRoute.getIfPresent(channel.getIdLong());
+        if (route == null || !route.channelName().equals(channelName)) {
+            route = new Route(channelName, resolveReceiversSubscribedTo(channelName));
+            channelIdToRoute.put(channel.getIdLong(), route);
+        }
+
+        return route.receivers();
+    }
+
+    /**
+     * Invalidates the cached receivers of the given channel, for example because it was renamed.
+     *
+     * @param channelId the id of the channel to invalidate
+     */
+    void invalidate(long channelId) {
+        channelIdToRoute.invalidate(channelId);
+    }
+
+    private MessageReceiver[] resolveReceiversSubscribedTo(String channelName) {
+        int subscribedCount = 0;
+        MessageReceiver[] subscribedReceivers = new MessageReceiver[receivers.length];
+
+        for (MessageReceiver receiver : receivers) {
+            if (receiver.getChannelNamePattern().matcher(channelName).matches()) {
+                subscribedReceivers[subscribedCount] = receiver;
+                subscribedCount++;
+            }
+        }
+
+        return subscribedCount == receivers.length ? subscribedReceivers
+                : Arrays.copyOf(subscribedReceivers, subscribedCount);
+    }
+
+    private record Route(String channelName, MessageReceiver[] receivers) {
+    }
+}
@@ -21,7 +21,6 @@ import org.togetherjava.tjbot.features.SlashCommandAdapter;
 import org.togetherjava.tjbot.features.utils.LinkDetection;
 import org.togetherjava.tjbot.features.utils.LinkPreview;
 import org.togetherjava.tjbot.features.utils.LinkPreviews;
-import org.togetherjava.tjbot.features.utils.StringDistances;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -70,8 +69,8 @@ public final class TagCommand extends SlashCommandAdapter {
                     "Unexpected option, was: " + focusedOption.getName());
         }
 
-        Collection<Command.Choice> choices = StringDistances
-            .closeMatches(focusedOption.getValue(), tagSystem.getAllIds(), MAX_SUGGESTIONS)
+        Collection<Command.Choice> choices = tagSystem
+            .getCloseMatchingIds(focusedOption.getValue(), MAX_SUGGESTIONS)
             .stream()
             .map(id -> new Command.Choice(id, id))
             .toList();
@@ -0,0 +1,206 @@
+package org.togetherjava.tjbot.features.tags;
+
+import org.togetherjava.tjbot.features.utils.StringDistances;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Immutable in-memory index of tag ids, used to answer lookups and autocompletion without touching
+ * the database.
+ * <p>
+ * The ids are held in a trie. Autocompletion walks it while computing the Levenshtein distance
+ * column by column, sharing the work for common prefixes and skipping entire subtrees as soon as
+ * they can not contain a close enough match anymore. Hence, only a small part of all ids is scored.
+ * <p>
+ * Changes create a new index, so instances can be shared between threads freely.
+ */
+final class TagIndex {
+    /**
+     * See {@link StringDistances#closeMatches(CharSequence, Collection, int)}.
+     */
+    private static final double OFF_BY_PERCENTAGE_THRESHOLD = 0.5;
+
+    private final NavigableSet<String> ids;
+    private final Node root = new Node();
+
+    private TagIndex(NavigableSet<String> ids) {
+        this.ids = Collections.unmodifiableNavigableSet(ids);
+        ids.forEach(this::insert);
+    }
+
+    /**
+     * Creates an index of the given ids.
+     *
+     * @param ids the ids to index
+     * @return the created index
+     */
+    static TagIndex of(Collection<String> ids) {
+        return new TagIndex(new TreeSet<>(ids));
+    }
+
+    /**
+     * Creates a copy of this index, with the given id added.
+     *
+     * @param id the id to add
+     * @return the changed copy of this index
+     */
+    TagIndex withId(String id) {
+        NavigableSet<String> changedIds = new TreeSet<>(ids);
+        changedIds.add(id);
+        return new TagIndex(changedIds);
+    }
+
+    /**
+     * Creates a copy of this index, with the given id removed.
+     *
+     * @param id the id to remove
+     * @return the changed copy of this index
+     */
+    TagIndex withoutId(String id) {
+        NavigableSet<String> changedIds = new TreeSet<>(ids);
+        changedIds.remove(id);
+        return new TagIndex(changedIds);
+    }
+
+    /**
+     * Whether the given id is in the index.
+     *
+     * @param id the id to check
+     * @return whether the id is in the index
+     */
+    boolean contains(String id) {
+        return ids.contains(id);
+    }
+
+    /**
+     * Gets all ids in the index.
+     *
+     * @return all ids, sorted, not modifiable
+     */
+    NavigableSet<String> getIds() {
+        return ids;
+    }
+
+    /**
+     * Gives sorted suggestions to autocomplete a prefix from the ids in the index.
+     * <p>
+     * The results are identical to
+     * {@link StringDistances#closeMatches(CharSequence, Collection, int)} on all ids.
+     *
+     * @param prefix the prefix to give matches for
+     * @param limit number of matches to generate at max
+     * @return the ids closest to the given prefix, limited to the given limit
+     */
+    List<String> closeMatches(CharSequence prefix, int limit) {
+        if (prefix.isEmpty()) {
+            // Every id matches perfectly, so they are only ordered by name
+            return ids.stream().limit(limit).toList();
+        }
+
+        int maxDistance = (int) (prefix.length() * OFF_BY_PERCENTAGE_THRESHOLD);
+        int[] rootColumn = new int[prefix.length() + 1];
+        for (int i = 0; i < rootColumn.length; i++) {
+            rootColumn[i] = i;
+        }
+
+        List<ScoredId> matches = new ArrayList<>();
+        collectCloseMatches(root, prefix, rootColumn, prefix.length(), maxDistance, matches);
+
+        return matches.stream()
+            .sorted(Comparator.comparingInt(ScoredId::score).thenComparing(ScoredId::id))
+            .limit(limit)
+            .map(ScoredId::id)
+            .toList();
+    }
+
+    /**
+     * Collects all ids in the subtree of the given node whose prefix edit distance to the prefix is
+     * at most the given maximum.
+     *
+     * @param node the node to start at
+     * @param prefix the prefix to compute the distance to
+     * @param column the column of the Levenshtein distance table for the path to the node, i.e.
+     *        the distances of each prefix of {@code prefix} to the path
+     * @param bestDistance the smallest distance of the full {@code prefix} to any node on the path,
+     *        i.e. the prefix edit distance of all ids in this subtree so far
+     * @param maxDistance the maximal distance of interest
+     * @param matches the list to add matches to
+     */
+    private static void collectCloseMatches(Node node, CharSequence prefix, int[] column,
+            int bestDistance, int maxDistance, Collection<? super ScoredId> matches) {
+        int columnMinimum = column[0];
+        for (int distance : column) {
+            columnMinimum = Math.min(columnMinimum, distance);
+        }
+
+        if (columnMinimum > maxDistance) {
+            // Distances only grow further down, the subtree can not improve anymore
+            if (bestDistance <= maxDistance) {
+                collectAll(node, bestDistance, matches);
+            }
+            return;
+        }
+
+        if (node.id != null && bestDistance <= maxDistance) {
+            matches.add(new ScoredId(node.id, bestDistance));
+        }
+
+        for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+            int[] childColumn = computeNextColumn(prefix, column, child.getKey());
+            int childBestDistance = Math.min(bestDistance, childColumn[prefix.length()]);
+
+            collectCloseMatches(child.getValue(), prefix, childColumn, childBestDistance,
+                    maxDistance, matches);
+        }
+    }
+
+    private static int[] computeNextColumn(CharSequence prefix, int[] column, char c) {
+        int[] nextColumn = new int[column.length];
+        nextColumn[0] = column[0] + 1;
+
+        for (int i = 1; i < column.length; i++) {
+            int diagonalCandidate = column[i - 1];
+            if (prefix.charAt(i - 1) != c) {
+                diagonalCandidate++;
+            }
+
+            nextColumn[i] =
+                    Math.min(Math.min(column[i] + 1, nextColumn[i - 1] + 1), diagonalCandidate);
+        }
+        return nextColumn;
+    }
+
+    private static void collectAll(Node node, int distance, Collection<? super ScoredId> matches) {
+        if (node.id != null) {
+            matches.add(new ScoredId(node.id, distance));
+        }
+        node.children.values().forEach(child -> collectAll(child, distance, matches));
+    }
+
+    private void insert(String id) {
+        Node node = root;
+        for (int i = 0; i < id.length(); i++) {
+            node = node.children.computeIfAbsent(id.charAt(i), any -> new Node());
+        }
+        node.id = id;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        @Nullable
+        private String id;
+    }
+
+    private record ScoredId(String id, int score) {
+    }
+}
@@ -1,5 +1,7 @@
 package org.togetherjava.tjbot.features.tags;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
@@ -11,21 +13,32 @@ import org.togetherjava.tjbot.db.generated.tables.records.TagsRecord;
 import org.togetherjava.tjbot.features.utils.StringDistances;
 
 import java.awt.Color;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * The core of the tag system. Provides methods to read and create tags, directly tied to the
  * underlying database.
+ * <p>
+ * Reads are served from memory, without touching the database. All tag ids are held in a
+ * {@link TagIndex}, loaded once on creation, and tag contents are cached. Changes are written
+ * through to the database and the in-memory data together, hence tags must not be changed in the
+ * database by anything but this system.
  */
 public final class TagSystem {
     /**
      * The ambient color to use for tag system related messages.
      */
     static final Color AMBIENT_COLOR = Color.decode("#FA8072");
+    private static final int MAX_CACHED_CONTENTS = 500;
 
     private final Database database;
+    private final Object writeLock = new Object();
+    private volatile TagIndex index;
+    private final Cache<String, String> idToContentCache =
+            Caffeine.newBuilder().maximumSize(MAX_CACHED_CONTENTS).build();
 
     /**
      * Creates an instance.
@@ -34,6 +47,10 @@ public final class TagSystem {
      */
     public TagSystem(Database database) {
         this.database = database;
+
+        index = TagIndex.of(database.read(context -> context.select(Tags.TAGS.ID)
+            .from(Tags.TAGS)
+            .fetch(Tags.TAGS.ID)));
     }
 
     /**
@@ -78,9 +95,7 @@ public final class TagSystem {
      * @return whether the tag is known to the tag system
      */
     boolean hasTag(String id) {
-        return database.readTransaction(context -> context.selectFrom(Tags.TAGS)
-            .where(Tags.TAGS.ID.eq(id))
-            .fetchOne() != null);
+        return index.contains(id);
     }
 
     /**
@@ -91,11 +106,16 @@ public final class TagSystem {
      *         {@link #hasTag(String)}
      */
     void deleteTag(String id) {
-        int deletedRecords = database.writeAndProvide(
-                context -> context.deleteFrom(Tags.TAGS).where(Tags.TAGS.ID.eq(id)).execute());
-        if (deletedRecords == 0) {
-            throw new IllegalArgumentException(
-                    "Unable to delete the tag '%s', it is unknown to the system".formatted(id));
+        synchronized (writeLock) {
+            int deletedRecords = database.writeAndProvide(
+                    context -> context.deleteFrom(Tags.TAGS).where(Tags.TAGS.ID.eq(id)).execute());
+            if (deletedRecords == 0) {
+                throw new IllegalArgumentException(
+                        "Unable to delete the tag '%s', it is unknown to the system".formatted(id));
+            }
+
+            index = index.withoutId(id);
+            idToContentCache.invalidate(id);
         }
     }
 
@@ -106,12 +126,19 @@ public final class TagSystem {
      * @param content the content of the tag to put
      */
     void putTag(String id, String content) {
-        database.writeTransaction(
-                context -> context.insertInto(Tags.TAGS, Tags.TAGS.ID, Tags.TAGS.CONTENT)
-                    .values(id, content)
-                    .onDuplicateKeyUpdate()
-                    .set(Tags.TAGS.CONTENT, content)
-                    .execute());
+        synchronized (writeLock) {
+            database.writeTransaction(
+                    context -> context.insertInto(Tags.TAGS, Tags.TAGS.ID, Tags.TAGS.CONTENT)
+                        .values(id, content)
+                        .onDuplicateKeyUpdate()
+                        .set(Tags.TAGS.CONTENT, content)
+                        .execute());
+
+            if (!index.contains(id)) {
+                index = index.withId(id);
+            }
+            idToContentCache.put(id, content);
+        }
     }
 
     /**
@@ -122,9 +149,16 @@ public final class TagSystem {
      * @return the content of the tag, if the tag is known to the system
      */
     Optional<String> getTag(String id) {
-        return database.readTransaction(context -> Optional
-            .ofNullable(context.selectFrom(Tags.TAGS).where(Tags.TAGS.ID.eq(id)).fetchOne())
-            .map(TagsRecord::getContent));
+        if (!hasTag(id)) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(idToContentCache.get(id,
+                any -> database.read(context -> context.selectFrom(Tags.TAGS)
+                    .where(Tags.TAGS.ID.eq(id))
+                    .fetchOptional()
+                    .map(TagsRecord::getContent)
+                    .orElse(null))));
     }
 
     /**
@@ -133,11 +167,22 @@ public final class TagSystem {
      * @return a set of all ids known to the system, not backed
      */
     Set<String> getAllIds() {
-        return database.readTransaction(context -> context.select(Tags.TAGS.ID)
-            .from(Tags.TAGS)
-            .fetch()
-            .stream()
-            .map(dbRecord -> dbRecord.getValue(Tags.TAGS.ID))
-            .collect(Collectors.toSet()));
+        return new HashSet<>(index.getIds());
+    }
+
+    /**
+     * Gives sorted suggestions to autocomplete a prefix from the ids of all tags known to the
+     * system.
+     * <p>
+     * The results are identical to
+     * {@link StringDistances#closeMatches(CharSequence, Collection, int)} on {@link #getAllIds()},
+     * but only a small part of all ids is looked at.
+     *
+     * @param prefix the prefix to give matches for
+     * @param limit number of matches to generate at max
+     * @return the ids closest to the given prefix, limited to the given limit
+     */
+    Collection<String> getCloseMatchingIds(CharSequence prefix, int limit) {
+        return index.closeMatches(prefix, limit);
     }
 }
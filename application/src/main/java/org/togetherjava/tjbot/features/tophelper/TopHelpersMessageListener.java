@@ -56,7 +56,9 @@ public final class TopHelpersMessageListener extends MessageReceiverAdapter {
     private void addMessageRecord(MessageReceivedEvent event) {
         long messageLength = countValidCharacters(event.getMessage().getContentRaw());
 
-        database.write(context -> context.newRecord(HELP_CHANNEL_MESSAGES)
+        // Help messages are frequent and only needed for later statistics, committing them in
+        // batches takes the load off the event thread
+        database.writeBehind(context -> context.newRecord(HELP_CHANNEL_MESSAGES)
             .setMessageId(event.getMessage().getIdLong())
             .setGuildId(event.getGuild().getIdLong())
             .setChannelId(event.getChannel().getIdLong())
@@ -0,0 +1,41 @@
+package org.togetherjava.tjbot.features.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import org.togetherjava.tjbot.metrics.MetricsRegistry;
+
+import java.util.Map;
+
+/**
+ * Utility for exposing the statistics of caches as metrics, see {@link MetricsRegistry}.
+ */
+public final class CacheMetrics {
+    private CacheMetrics() {
+        throw new UnsupportedOperationException("Utility class, construction not supported");
+    }
+
+    /**
+     * Exposes the hits, misses, evictions and size of the given cache, labeled with its name.
+     * <p>
+     * Hits and misses are only counted if the cache was built with
+     * {@link com.github.benmanes.caffeine.cache.Caffeine#recordStats()}.
+     *
+     * @param cacheName the name of the cache, for example {@code "component_ids"}
+     * @param cache the cache to expose
+     */
+    public static void register(String cacheName, Cache<?, ?> cache) {
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        Map<String, String> labels = Map.of("cache", cacheName);
+
+        registry.functionCounter("tjbot_cache_hits_total", "Lookups that were found in the cache",
+                labels, () -> cache.stats().hitCount());
+        registry.functionCounter("tjbot_cache_misses_total",
+                "Lookups that were not found in the cache", labels,
+                () -> cache.stats().missCount());
+        registry.functionCounter("tjbot_cache_evictions_total",
+                "Entries that were evicted from the cache", labels,
+                () -> cache.stats().evictionCount());
+        registry.gauge("tjbot_cache_size", "Approximate amount of entries in the cache", labels,
+                cache::estimatedSize);
+    }
+}
@@ -1,13 +1,13 @@
 package org.togetherjava.tjbot.features.utils;
 
-import java.util.Arrays;
+import javax.annotation.Nullable;
+
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.PriorityQueue;
 import java.util.Queue;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -19,6 +19,12 @@ public class StringDistances {
      * between 0.0 (full match) and 1.0 (completely different).
      */
     private static final double OFF_BY_PERCENTAGE_THRESHOLD = 0.5;
+    private static final int INITIAL_ROW_BUFFER_LENGTH = 64;
+    /**
+     * Buffer for the Levenshtein distance computation, reused to not allocate on each call.
+     */
+    private static final ThreadLocal<int[]> ROW_BUFFER =
+            ThreadLocal.withInitial(() -> new int[INITIAL_ROW_BUFFER_LENGTH]);
 
     private StringDistances() {
         throw new UnsupportedOperationException("Utility class, construction not supported");
@@ -75,8 +81,13 @@ public class StringDistances {
             return List.of();
         }
 
+        // Candidates further off would be dropped by isCloseEnough anyway
+        int maxDistance = prefix.isEmpty() ? Integer.MAX_VALUE
+                : (int) (prefix.length() * OFF_BY_PERCENTAGE_THRESHOLD);
         Collection<MatchScore> scoredMatches = candidates.stream()
-            .map(candidate -> new MatchScore(candidate, prefixEditDistance(prefix, candidate)))
+            .map(candidate -> new MatchScore(candidate,
+                    prefixEditDistance(prefix, candidate, maxDistance)))
+            .filter(matchScore -> matchScore.score <= maxDistance)
             .toList();
 
         Queue<MatchScore> bestMatches = new PriorityQueue<>();
@@ -107,12 +118,36 @@ public class StringDistances {
      * @return the edit distance
      */
     public static int editDistance(CharSequence source, CharSequence destination) {
+        return editDistance(source, destination, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Distance to receive {@code destination} from {@code source} by editing, computed only up to
+     * the given maximal distance.
+     * <p>
+     * This is faster than {@link #editDistance(CharSequence, CharSequence)} if only close strings
+     * are of interest, since the computation stops as soon as the distance is known to exceed the
+     * maximum. For example {@code editDistance("hello", "world", 2)} is {@code 3}.
+     *
+     * @param source the source string to start with
+     * @param destination the destination string to receive by editing the source
+     * @param maxDistance the maximal distance of interest, at least 0
+     * @return the edit distance, or {@code maxDistance + 1} if it is greater than the maximum
+     */
+    public static int editDistance(CharSequence source, CharSequence destination,
+            int maxDistance) {
+        // Every character of the length difference has to be added or removed
+        if (Math.abs(source.length() - destination.length()) > maxDistance) {
+            return exceededDistance(maxDistance);
+        }
+
         // Given by the value in the last row and column
-        int[][] table = computeLevenshteinDistanceTable(source, destination);
-        int rows = table.length;
-        int columns = table[0].length;
+        int[] lastRow = computeLastLevenshteinDistanceRow(source, destination, maxDistance);
+        if (lastRow == null) {
+            return exceededDistance(maxDistance);
+        }
 
-        return table[rows - 1][columns - 1];
+        return Math.min(lastRow[destination.length()], exceededDistance(maxDistance));
     }
 
     /**
@@ -126,15 +161,42 @@ public class StringDistances {
      * @return the prefix edit distance
      */
     public static int prefixEditDistance(CharSequence source, CharSequence destination) {
+        return prefixEditDistance(source, destination, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Distance to receive a prefix of {@code destination} from {@code source} by editing that
+     * minimizes the distance, computed only up to the given maximal distance.
+     * <p>
+     * See {@link #editDistance(CharSequence, CharSequence, int)} for details on the maximum.
+     *
+     * @param source the source string to start with
+     * @param destination the destination string to receive a prefix of by editing the source
+     * @param maxDistance the maximal distance of interest, at least 0
+     * @return the prefix edit distance, or {@code maxDistance + 1} if it is greater than the
+     *         maximum
+     */
+    public static int prefixEditDistance(CharSequence source, CharSequence destination,
+            int maxDistance) {
         // Given by the smallest value in the last row
-        int[][] table = computeLevenshteinDistanceTable(source, destination);
-        int lastRowIndex = table.length - 1;
+        int[] lastRow = computeLastLevenshteinDistanceRow(source, destination, maxDistance);
+        if (lastRow == null) {
+            return exceededDistance(maxDistance);
+        }
+
+        int distance = lastRow[0];
+        for (int y = 1; y <= destination.length(); y++) {
+            distance = Math.min(distance, lastRow[y]);
+        }
+        return Math.min(distance, exceededDistance(maxDistance));
+    }
 
-        return Arrays.stream(table[lastRowIndex]).min().orElseThrow();
+    private static int exceededDistance(int maxDistance) {
+        return maxDistance == Integer.MAX_VALUE ? maxDistance : maxDistance + 1;
     }
 
     /**
-     * Computes the Levenshtein distance table for the given strings. See
+     * Computes the last row of the Levenshtein distance table for the given strings. See
      * <a href="https://en.wikipedia.org/wiki/Levenshtein_distance">Levenshtein distance</a> for
      * details.
      * <p>
@@ -149,43 +211,64 @@ public class StringDistances {
      * c | 3 2 1 0 1 2 3 4
      * </pre>
      *
+     * Each row only depends on the previous one, so the table is computed in a single row that is
+     * reused per thread, without allocations. Values never decrease from one row to the next, so
+     * the computation stops early once all values of a row exceed the given maximal distance.
+     *
      * @param source the source string to start with
      * @param destination the destination string to receive by editing the source
-     * @return the levenshtein distance table
+     * @param maxDistance the maximal distance of interest
+     * @return the last row of the table, valid up to index {@code destination.length()} and only
+     *         until the next computation on the same thread; or {@code null} if all values
+     *         exceeded the maximal distance
      */
-    private static int[][] computeLevenshteinDistanceTable(CharSequence source,
-            CharSequence destination) {
-        int rows = source.length() + 1;
+    @Nullable
+    private static int[] computeLastLevenshteinDistanceRow(CharSequence source,
+            CharSequence destination, int maxDistance) {
         int columns = destination.length() + 1;
-        int[][] table = new int[rows][columns];
+        int[] row = getRowBuffer(columns);
 
-        // Initialize first row and column for distances from the empty word to the target word
+        // Initialize first row for distances from the empty word to the target word
         for (int y = 0; y < columns; y++) {
-            table[0][y] = y;
-        }
-        for (int x = 0; x < rows; x++) {
-            table[x][0] = x;
+            row[y] = y;
         }
 
-        // Process row by row, selecting diagonal candidates
-        for (int x = 1; x < rows; x++) {
+        // Process row by row, overwriting the previous row from left to right
+        for (int x = 1; x <= source.length(); x++) {
+            char sourceChar = source.charAt(x - 1);
+            int diagonal = row[0];
+            row[0] = x;
+            int rowMinimum = x;
+
             for (int y = 1; y < columns; y++) {
                 // Take minimum of all candidates
-                int upperCandidate = table[x - 1][y] + 1;
-                int leftCandidate = table[x][y - 1] + 1;
-                int diagonalCandidate = table[x - 1][y - 1];
-                if (source.charAt(x - 1) != destination.charAt(y - 1)) {
+                int upperCandidate = row[y] + 1;
+                int leftCandidate = row[y - 1] + 1;
+                int diagonalCandidate = diagonal;
+                if (sourceChar != destination.charAt(y - 1)) {
                     diagonalCandidate++;
                 }
 
-                int bestCandidate = IntStream.of(upperCandidate, leftCandidate, diagonalCandidate)
-                    .min()
-                    .orElseThrow();
-                table[x][y] = bestCandidate;
+                diagonal = row[y];
+                row[y] = Math.min(Math.min(upperCandidate, leftCandidate), diagonalCandidate);
+                rowMinimum = Math.min(rowMinimum, row[y]);
+            }
+
+            if (rowMinimum > maxDistance) {
+                return null;
             }
         }
 
-        return table;
+        return row;
+    }
+
+    private static int[] getRowBuffer(int minLength) {
+        int[] buffer = ROW_BUFFER.get();
+        if (buffer.length < minLength) {
+            buffer = new int[Math.max(minLength, 2 * buffer.length)];
+            ROW_BUFFER.set(buffer);
+        }
+        return buffer;
     }
 
     private record MatchScore(String candidate, double score) implements Comparable<MatchScore> {
@@ -13,8 +13,11 @@ import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
 import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
 import org.apache.logging.log4j.core.config.plugins.validation.constraints.Required;
 
+import org.togetherjava.tjbot.metrics.MetricsRegistry;
+
 import java.io.Serializable;
 import java.net.URI;
+import java.util.Map;
 import java.util.Objects;
 
 @Plugin(name = "Discord", category = Core.CATEGORY_NAME, elementType = Appender.ELEMENT_TYPE)
@@ -28,6 +31,10 @@ final class DiscordLogAppender extends AbstractAppender {
         super(name, filter, layout, ignoreExceptions, NO_PROPERTIES);
 
         logForwarder = new DiscordLogForwarder(webhook, sourceCodeBaseUrl);
+        MetricsRegistry.getDefault()
+            .gauge("tjbot_discord_log_forwarder_buffered_logs",
+                    "Logs that still have to be forwarded to Discord", Map.of("appender", name),
+                    logForwarder::getBufferedLogsCount);
     }
 
     @Override
@@ -6,7 +6,6 @@ import club.minnced.discord.webhook.send.WebhookEmbedBuilder;
 import club.minnced.discord.webhook.send.WebhookMessage;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.LogEvent;
-import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,41 +16,65 @@ import org.togetherjava.tjbot.logging.LogMarkers;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URI;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Forwards log events to a Discord channel via a webhook. See {@link #forwardLogEvent(LogEvent)}.
  * <p>
  * Logs are forwarded in correct order, based on their timestamp. They are not forwarded
- * immediately, but at a fixed schedule in batches of {@value MAX_BATCH_SIZE} logs.
+ * immediately, but in batches of {@value MAX_BATCH_SIZE} logs. The more logs are pending, the
+ * sooner the next batch is sent, see {@link #computeFlushDelay()}.
  * <p>
- * Although unlikely to hit, the class maximally buffers {@value MAX_PENDING_LOGS} logs until
- * discarding further logs. Under normal circumstances, the class can easily handle high loads of
- * logs.
+ * Identical logs, for example the same exception thrown over and over again, that pile up until the
+ * next batch is sent are collapsed into a single embed, carrying the amount of repetitions.
+ * <p>
+ * Logging threads only append to a lock-free queue, all the formatting and collapsing is done by a
+ * single background thread. Although unlikely to hit, the class maximally buffers
+ * {@value MAX_PENDING_LOGS} logs until discarding further logs. Under normal circumstances, the
+ * class can easily handle high loads of logs.
  * <p>
  * The class is thread-safe.
  */
 final class DiscordLogForwarder {
     private static final Logger logger = LoggerFactory.getLogger(DiscordLogForwarder.class);
 
-    private static final int MAX_PENDING_LOGS = 10_000;
+    static final int MAX_PENDING_LOGS = 10_000;
     private static final int MAX_PENDING_LOGS_WARNING_THRESHOLD = 8_000;
+    /**
+     * How many causes of an exception are compared at most when collapsing identical logs.
+     */
+    private static final int MAX_CAUSE_DEPTH = 10;
 
     private static final ScheduledExecutorService SERVICE =
             Executors.newSingleThreadScheduledExecutor();
 
     private static final int MAX_BATCH_SIZE = WebhookMessage.MAX_EMBEDS;
+    /**
+     * Delay until the next batch is sent if there are barely any logs pending, giving logs the
+     * chance to be collected into a single batch.
+     */
+    private static final Duration MAX_FLUSH_DELAY = Duration.ofSeconds(5);
+    /**
+     * Delay until the next batch is sent if there are enough logs pending for a full batch. Keeps
+     * well below the rate limit of webhooks.
+     */
+    private static final Duration MIN_FLUSH_DELAY = Duration.ofSeconds(1);
     /**
      * The max total length of all descriptions contained in a batch of embeds sent to Discord.
      */
@@ -76,17 +99,39 @@ final class DiscordLogForwarder {
             Map.of(Level.TRACE, 0x00B362, Level.DEBUG, 0x00A5CE, Level.INFO, 0xAC59FF, Level.WARN,
                     0xDFDF00, Level.ERROR, 0xBF2200, Level.FATAL, 0xFF8484);
 
-    private final WebhookClient webhookClient;
+    private final Consumer<? super List<WebhookEmbed>> batchSender;
     private final String sourceCodeBaseUrl;
+    private final ScheduledExecutorService service;
+    /**
+     * Logs that have been received but not looked at yet. Appended to by any logging thread,
+     * drained by {@link #service} only.
+     */
+    private final Queue<LogEntry> receivedLogs = new ConcurrentLinkedQueue<>();
+    /**
+     * Logs that still have to be forwarded to Discord, identical logs collapsed into one. Only
+     * accessed by {@link #service}.
+     */
+    private final Map<LogKey, CollapsedLog> pendingLogs = new LinkedHashMap<>();
     /**
-     * Internal buffer of logs that still have to be forwarded to Discord. Actions are synchronized
-     * using {@link #pendingLogsLock} to ensure thread safety.
+     * The amount of received and pending logs together, i.e. the amount of buffered logs.
      */
-    private final Queue<LogMessage> pendingLogs = new PriorityQueue<>();
-    private final Object pendingLogsLock = new Object();
+    private final AtomicInteger bufferedLogsCount = new AtomicInteger();
 
     DiscordLogForwarder(URI webhook, String sourceCodeBaseUrl) {
-        webhookClient = WebhookClient.withUrl(webhook.toString());
+        this(WebhookClient.withUrl(webhook.toString())::send, sourceCodeBaseUrl, SERVICE);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param batchSender sends a batch of logs to Discord
+     * @param sourceCodeBaseUrl the base URL of the source code, used to link to the source of logs
+     * @param service the single thread collapsing and forwarding the logs
+     */
+    DiscordLogForwarder(Consumer<? super List<WebhookEmbed>> batchSender,
+            String sourceCodeBaseUrl, ScheduledExecutorService service) {
+        this.batchSender = batchSender;
+        this.service = service;
 
         if (!sourceCodeBaseUrl.endsWith("/")) {
             this.sourceCodeBaseUrl = sourceCodeBaseUrl + "/";
@@ -94,10 +139,9 @@ final class DiscordLogForwarder {
             this.sourceCodeBaseUrl = sourceCodeBaseUrl;
         }
 
-        SERVICE.scheduleWithFixedDelay(this::processPendingLogs, 5, 5, TimeUnit.SECONDS);
+        scheduleProcessPendingLogs(MAX_FLUSH_DELAY);
     }
 
-
     /**
      * Forwards the given log message to Discord.
      * <p>
@@ -109,14 +153,16 @@ final class DiscordLogForwarder {
      * @param event the log to forward
      */
     void forwardLogEvent(LogEvent event) {
-        if (pendingLogs.size() >= MAX_PENDING_LOGS) {
+        int bufferedLogs = bufferedLogsCount.getAndIncrement();
+        if (bufferedLogs >= MAX_PENDING_LOGS) {
+            bufferedLogsCount.decrementAndGet();
             logger.warn(LogMarkers.NO_DISCORD,
                     """
                             Exceeded the max amount of logs that can be buffered. \
                             Logs are forwarded to Discord slower than they pile up. Discarding the latest log...""");
             return;
         }
-        if (pendingLogs.size() >= MAX_PENDING_LOGS_WARNING_THRESHOLD) {
+        if (bufferedLogs == MAX_PENDING_LOGS_WARNING_THRESHOLD) {
             logger.warn("""
                     Nearing the max amount of logs that can be buffered. \
                     Logs are forwarded to Discord slower than they pile up. \
@@ -124,15 +170,29 @@ final class DiscordLogForwarder {
                     """);
         }
 
-        LogMessage log = LogMessage.ofEvent(event, sourceCodeBaseUrl);
+        receivedLogs.add(LogEntry.ofEvent(event));
+    }
 
-        synchronized (pendingLogsLock) {
-            pendingLogs.add(log);
-        }
+    /**
+     * Gets the amount of logs that are buffered and still have to be forwarded to Discord.
+     *
+     * @return the amount of buffered logs
+     */
+    int getBufferedLogsCount() {
+        return bufferedLogsCount.get();
+    }
+
+    private void scheduleProcessPendingLogs(Duration delay) {
+        service.schedule(this::processPendingLogs, delay.toMillis(), TimeUnit.MILLISECONDS);
     }
 
-    private void processPendingLogs() {
+    /**
+     * Forwards the next batch of pending logs to Discord and schedules the next run.
+     */
+    void processPendingLogs() {
         try {
+            collapseReceivedLogs();
+
             // Process batch
             List<LogMessage> logsToProcess = pollLogsToProcessBatch();
             if (logsToProcess.isEmpty()) {
@@ -142,20 +202,63 @@ final class DiscordLogForwarder {
 
             List<WebhookEmbed> logBatch = logsToProcess.stream().map(LogMessage::embed).toList();
 
-            webhookClient.send(logBatch);
+            batchSender.accept(logBatch);
         } catch (Exception e) {
             logger.warn(LogMarkers.NO_DISCORD,
                     "Unknown error when forwarding pending logs to Discord.", e);
+        } finally {
+            scheduleProcessPendingLogs(computeFlushDelay());
         }
     }
 
-    private List<LogMessage> pollLogsToProcessBatch() {
-        int batchSize = Math.min(pendingLogs.size(), MAX_BATCH_SIZE);
-        synchronized (pendingLogsLock) {
-            return Stream.generate(pendingLogs::remove).limit(batchSize).toList();
+    private void collapseReceivedLogs() {
+        LogEntry log = receivedLogs.poll();
+        while (log != null) {
+            LogKey key = log.key();
+            CollapsedLog previousLog = pendingLogs.get(key);
+            if (previousLog == null) {
+                pendingLogs.put(key, new CollapsedLog(log, 1));
+            } else {
+                pendingLogs.put(key, previousLog.repeated());
+                // Does not take up an additional place in the buffer anymore
+                bufferedLogsCount.decrementAndGet();
+            }
+
+            log = receivedLogs.poll();
         }
     }
 
+    private List<LogMessage> pollLogsToProcessBatch() {
+        List<Map.Entry<LogKey, CollapsedLog>> batch = pendingLogs.entrySet()
+            .stream()
+            .sorted(Comparator.comparing(entry -> entry.getValue().firstLog().timestamp()))
+            .limit(MAX_BATCH_SIZE)
+            .toList();
+
+        batch.forEach(entry -> pendingLogs.remove(entry.getKey()));
+        bufferedLogsCount.addAndGet(-batch.size());
+
+        return batch.stream()
+            .map(Map.Entry::getValue)
+            .map(collapsedLog -> LogMessage.ofCollapsedLog(collapsedLog, sourceCodeBaseUrl))
+            .toList();
+    }
+
+    /**
+     * Computes the delay until the next batch is sent, based on the amount of buffered logs.
+     * <p>
+     * The delay shrinks linearly from {@link #MAX_FLUSH_DELAY}, if no logs are pending, to
+     * {@link #MIN_FLUSH_DELAY}, if there are enough logs for a full batch.
+     *
+     * @return the delay until the next batch is sent
+     */
+    private Duration computeFlushDelay() {
+        double batchFillRatio = Math.min(1.0, (double) bufferedLogsCount.get() / MAX_BATCH_SIZE);
+        long delayRangeMillis = MAX_FLUSH_DELAY.minus(MIN_FLUSH_DELAY).toMillis();
+
+        return MAX_FLUSH_DELAY.minusMillis(Math.round(batchFillRatio * delayRangeMillis));
+    }
+
     private List<LogMessage> validateBatch(List<LogMessage> logBatch) {
         int totalDescriptionLength = logBatch.stream()
             .map(LogMessage::embed)
@@ -171,42 +274,85 @@ final class DiscordLogForwarder {
         return new ArrayList<>(logBatch);
     }
 
-    private record LogMessage(WebhookEmbed embed,
-            Instant timestamp) implements Comparable<LogMessage> {
+    /**
+     * A received log, holding only what is needed to forward it later on. Cheap to create, the
+     * formatting happens when forwarding it.
+     */
+    private record LogEntry(Level level, String loggerName, @Nullable StackTraceElement source,
+            String message, @Nullable Throwable thrown, Instant timestamp) {
+        private static LogEntry ofEvent(LogEvent event) {
+            return new LogEntry(event.getLevel(), event.getLoggerName(), event.getSource(),
+                    event.getMessage().getFormattedMessage(), event.getThrown(),
+                    Instant.ofEpochMilli(event.getInstant().getEpochMillisecond()));
+        }
+
+        /**
+         * Identifies the log, logs that are identical besides their timestamp share the same key.
+         *
+         * @return the key of this log
+         */
+        private LogKey key() {
+            List<List<?>> thrownChain = new ArrayList<>();
+            for (Throwable cause = thrown; cause != null
+                    && thrownChain.size() < MAX_CAUSE_DEPTH; cause = cause.getCause()) {
+                thrownChain.add(List.of(cause.toString(), Arrays.asList(cause.getStackTrace())));
+            }
+
+            return new LogKey(level, loggerName, message, thrownChain);
+        }
+    }
+
+    private record LogKey(Level level, String loggerName, String message,
+            List<List<?>> thrownChain) {
+    }
+
+    /**
+     * A log that was received one or more times.
+     *
+     * @param firstLog the log, as it was received first
+     * @param repetitions how often the log was received
+     */
+    private record CollapsedLog(LogEntry firstLog, int repetitions) {
+        private CollapsedLog repeated() {
+            return new CollapsedLog(firstLog, repetitions + 1);
+        }
+    }
+
+    private record LogMessage(WebhookEmbed embed) {
 
         private static final String BASE_PACKAGE = "org.togetherjava.tjbot.";
 
-        private static LogMessage ofEvent(LogEvent event, String sourceCodeBaseUrl) {
-            String authorName = event.getLoggerName();
-            String authorUrl = linkToSource(event.getSource(), sourceCodeBaseUrl).orElse(null);
-            String title = event.getLevel().name();
-            int colorDecimal = Objects.requireNonNull(LEVEL_TO_AMBIENT_COLOR.get(event.getLevel()));
-            String description =
-                    MessageUtils.abbreviate(describeLogEvent(event), MAX_EMBED_DESCRIPTION);
-            Instant timestamp = Instant.ofEpochMilli(event.getInstant().getEpochMillisecond());
+        private static LogMessage ofCollapsedLog(CollapsedLog collapsedLog,
+                String sourceCodeBaseUrl) {
+            LogEntry log = collapsedLog.firstLog();
+
+            String authorName = log.loggerName();
+            String authorUrl = linkToSource(log.source(), sourceCodeBaseUrl).orElse(null);
+            String title = collapsedLog.repetitions() == 1 ? log.level().name()
+                    : "%s (%d times)".formatted(log.level().name(), collapsedLog.repetitions());
+            int colorDecimal = Objects.requireNonNull(LEVEL_TO_AMBIENT_COLOR.get(log.level()));
+            String description = MessageUtils.abbreviate(describeLog(log), MAX_EMBED_DESCRIPTION);
 
             WebhookEmbed embed = new WebhookEmbedBuilder()
                 .setAuthor(new WebhookEmbed.EmbedAuthor(authorName, null, authorUrl))
                 .setTitle(new WebhookEmbed.EmbedTitle(title, null))
                 .setDescription(description)
                 .setColor(colorDecimal)
-                .setTimestamp(timestamp)
+                .setTimestamp(log.timestamp())
                 .build();
-            return new LogMessage(embed, timestamp);
+            return new LogMessage(embed);
         }
 
-        private static String describeLogEvent(LogEvent event) {
-            String logMessage = event.getMessage().getFormattedMessage();
-
-            Throwable exception = event.getThrown();
+        private static String describeLog(LogEntry log) {
+            Throwable exception = log.thrown();
             if (exception == null) {
-                return logMessage;
+                return log.message();
             }
 
             StringWriter exceptionWriter = new StringWriter();
             exception.printStackTrace(new PrintWriter(exceptionWriter));
 
-            return logMessage + "\n" + exceptionWriter.toString().replace("\t", "> ");
+            return log.message() + "\n" + exceptionWriter.toString().replace("\t", "> ");
         }
 
         private static Optional<String> linkToSource(@Nullable StackTraceElement sourceElement,
@@ -230,12 +376,7 @@ final class DiscordLogForwarder {
             WebhookEmbed shortEmbed =
                     new WebhookEmbedBuilder(embed).setDescription(shortDescription).build();
 
-            return new LogMessage(shortEmbed, timestamp);
-        }
-
-        @Override
-        public int compareTo(@NotNull LogMessage o) {
-            return timestamp.compareTo(o.timestamp);
+            return new LogMessage(shortEmbed);
         }
     }
 }
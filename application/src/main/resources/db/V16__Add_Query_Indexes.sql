@@ -0,0 +1,11 @@
+CREATE INDEX help_channel_messages_guild_sent_at ON help_channel_messages (guild_id, sent_at, author_id, message_length);
+CREATE INDEX help_channel_messages_sent_at ON help_channel_messages (sent_at);
+CREATE INDEX scam_history_duplicates ON scam_history (guild_id, author_id, content_hash, sent_at);
+CREATE INDEX scam_history_sent_at ON scam_history (sent_at);
+CREATE INDEX moderation_actions_target ON moderation_actions (guild_id, target_id, action_type, issued_at);
+CREATE INDEX moderation_actions_type ON moderation_actions (guild_id, action_type, issued_at);
+CREATE INDEX moderation_actions_author ON moderation_actions (guild_id, author_id, issued_at);
+CREATE INDEX moderation_actions_expires_at ON moderation_actions (action_expires_at);
+CREATE INDEX pending_reminders_remind_at ON pending_reminders (remind_at);
+CREATE INDEX pending_reminders_author ON pending_reminders (author_id, guild_id);
+CREATE INDEX bookmarks_delete_at ON bookmarks (delete_at);
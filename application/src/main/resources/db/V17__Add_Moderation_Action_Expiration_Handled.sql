@@ -0,0 +1,2 @@
+ALTER TABLE moderation_actions ADD expiration_handled BOOLEAN DEFAULT 0 NOT NULL;
+CREATE INDEX moderation_actions_pending_expiration ON moderation_actions (expiration_handled, action_expires_at);
@@ -0,0 +1,9 @@
+CREATE TABLE chatgpt_answer_cache
+(
+    category   TEXT      NOT NULL,
+    question   TEXT      NOT NULL,
+    answer     TEXT      NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (category, question)
+);
+CREATE INDEX chatgpt_answer_cache_created_at ON chatgpt_answer_cache (created_at);
@@ -0,0 +1 @@
+DROP INDEX moderation_actions_expires_at;
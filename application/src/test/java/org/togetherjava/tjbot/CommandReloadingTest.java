@@ -0,0 +1,104 @@
+package org.togetherjava.tjbot;
+
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.interactions.command.CommandImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.jda.JdaTester;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class CommandReloadingTest {
+    private static final CommandData PING =
+            Commands.slash("ping", "Pings the bot").addOption(OptionType.STRING, "text", "Text");
+    private static final CommandData QUOTE = Commands.message("quote");
+
+    private JDAImpl jda;
+
+    @BeforeEach
+    void setUp() {
+        jda = (JDAImpl) new JdaTester().getJdaMock();
+    }
+
+    /**
+     * Creates the command as Discord would return it after the given data was pushed.
+     */
+    private Command toRegisteredCommand(CommandData data) {
+        DataObject json = data.toData().put("id", "1").put("application_id", "1");
+        return new CommandImpl(jda, null, json);
+    }
+
+    private List<Command> toRegisteredCommands(CommandData... commands) {
+        return Arrays.stream(commands).map(this::toRegisteredCommand).toList();
+    }
+
+    @Test
+    @DisplayName("Registered commands equal to the given commands are up to date, in any order")
+    void unchangedCommandsAreUpToDate() {
+        // GIVEN the registered commands
+        List<Command> registeredCommands = toRegisteredCommands(PING, QUOTE);
+
+        // WHEN comparing them to the same commands in another order
+        boolean isUpToDate = CommandReloading.isUpToDate(registeredCommands, List.of(QUOTE, PING));
+
+        // THEN they are up to date
+        assertTrue(isUpToDate);
+    }
+
+    @Test
+    @DisplayName("Registered commands with a changed option are not up to date")
+    void changedOptionIsNotUpToDate() {
+        // GIVEN the registered commands
+        List<Command> registeredCommands = toRegisteredCommands(PING, QUOTE);
+
+        // WHEN comparing them to commands where an option became required
+        CommandData changedPing = Commands.slash("ping", "Pings the bot")
+            .addOption(OptionType.STRING, "text", "Text", true);
+        boolean isUpToDate =
+                CommandReloading.isUpToDate(registeredCommands, List.of(changedPing, QUOTE));
+
+        // THEN they are not up to date
+        assertFalse(isUpToDate);
+    }
+
+    @Test
+    @DisplayName("Registered commands are not up to date if a command was added or removed")
+    void addedOrRemovedCommandIsNotUpToDate() {
+        // GIVEN the registered commands
+        List<Command> registeredCommands = toRegisteredCommands(PING);
+
+        // WHEN comparing them to commands with an added command, and without any command
+        boolean isUpToDateWithAdded =
+                CommandReloading.isUpToDate(registeredCommands, List.of(PING, QUOTE));
+        boolean isUpToDateWithRemoved = CommandReloading.isUpToDate(registeredCommands, List.of());
+
+        // THEN they are not up to date
+        assertFalse(isUpToDateWithAdded);
+        assertFalse(isUpToDateWithRemoved);
+    }
+
+    @Test
+    @DisplayName("Registered commands are not up to date if a command changed its type")
+    void changedTypeIsNotUpToDate() {
+        // GIVEN a registered message context command
+        List<Command> registeredCommands = toRegisteredCommands(Commands.message("ping"));
+
+        // WHEN comparing it to a user context command of the same name
+        boolean isUpToDate =
+                CommandReloading.isUpToDate(registeredCommands, List.of(Commands.user("ping")));
+
+        // THEN it is not up to date
+        assertFalse(isUpToDate);
+    }
+}
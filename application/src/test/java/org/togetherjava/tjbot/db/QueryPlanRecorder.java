@@ -0,0 +1,122 @@
+package org.togetherjava.tjbot.db;
+
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.Query;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Utility for verifying that queries are backed by indexes.
+ * <p>
+ * Records all queries executed on a database and lets SQLite explain how it would run them, see
+ * <a href="https://www.sqlite.org/eqp.html">EXPLAIN QUERY PLAN</a>. Queries that are answered by
+ * scanning a full table, instead of searching an index, are reported by
+ * {@link #findFullTableScans()}.
+ * <p>
+ * An example test using this class might look like:
+ *
+ * <pre>
+ * {
+ *     &#64;code
+ *     QueryPlanRecorder recorder = QueryPlanRecorder.createMigratedDatabase(tempDirectory);
+ *     new ModerationActionsStore(recorder.getDatabase()).findActionByCaseId(1);
+ *
+ *     assertEquals(List.of(), recorder.findFullTableScans());
+ * }
+ * </pre>
+ */
+public final class QueryPlanRecorder {
+    /**
+     * Matches query plan details of a full table scan, such as {@code SCAN bookmarks}. Does not
+     * match index scans, such as {@code SCAN bookmarks USING COVERING INDEX bookmarks_delete_at}.
+     */
+    private static final Pattern FULL_TABLE_SCAN =
+            Pattern.compile("SCAN (TABLE )?\\w+( AS \\w+)?");
+
+    private final Database database;
+    private final List<String> recordedQueries = new CopyOnWriteArrayList<>();
+
+    private QueryPlanRecorder(Database database) {
+        this.database = database;
+
+        database.write(context -> context.configuration()
+            .set(new DefaultExecuteListenerProvider(new RecordingListener())));
+    }
+
+    /**
+     * Creates a new database in the given directory, with all migrations of the application
+     * applied, and records all queries executed on it.
+     *
+     * @param directory the directory to create the database in, e.g. a temporary directory
+     * @return the recorder of the created database
+     * @throws SQLException if the database could not be created
+     */
+    public static QueryPlanRecorder createMigratedDatabase(Path directory) throws SQLException {
+        // Reads must go through the writer connection, only that one records queries
+        return new QueryPlanRecorder(
+                new Database("jdbc:sqlite:" + directory.resolve("database.db"), 0));
+    }
+
+    /**
+     * Gets the database whose queries are recorded.
+     *
+     * @return the database
+     */
+    public Database getDatabase() {
+        return database;
+    }
+
+    /**
+     * Gets all queries executed on the database so far, with their parameters inlined.
+     *
+     * @return the recorded queries, in execution order
+     */
+    public List<String> getRecordedQueries() {
+        return List.copyOf(recordedQueries);
+    }
+
+    /**
+     * Explains all recorded queries and finds those that would scan a full table.
+     *
+     * @return descriptions of all full table scans, consisting of the query and the scan, empty if
+     *         all queries are backed by indexes
+     */
+    public List<String> findFullTableScans() {
+        List<String> fullTableScans = new ArrayList<>();
+
+        for (String query : getRecordedQueries()) {
+            List<String> planDetails = database.read(context -> context
+                .fetch("EXPLAIN QUERY PLAN " + query)
+                .getValues("detail", String.class));
+
+            planDetails.stream()
+                .filter(FULL_TABLE_SCAN.asMatchPredicate())
+                .map(detail -> "%s (in query: %s)".formatted(detail, query))
+                .forEach(fullTableScans::add);
+        }
+
+        return fullTableScans;
+    }
+
+    private final class RecordingListener implements ExecuteListener {
+        @Override
+        public void executeStart(ExecuteContext context) {
+            Query query = context.query();
+            if (query == null) {
+                return;
+            }
+
+            String sql = context.dsl().renderInlined(query);
+            if (!sql.startsWith("EXPLAIN")) {
+                recordedQueries.add(sql);
+            }
+        }
+    }
+}
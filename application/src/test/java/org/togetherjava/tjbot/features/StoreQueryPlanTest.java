@@ -0,0 +1,149 @@
+package org.togetherjava.tjbot.features;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.togetherjava.tjbot.config.Config;
+import org.togetherjava.tjbot.config.HelpSystemConfig;
+import org.togetherjava.tjbot.db.Database;
+import org.togetherjava.tjbot.db.QueryPlanRecorder;
+import org.togetherjava.tjbot.features.bookmarks.BookmarksSystem;
+import org.togetherjava.tjbot.features.bookmarks.LeftoverBookmarksCleanupRoutine;
+import org.togetherjava.tjbot.features.moderation.ModerationAction;
+import org.togetherjava.tjbot.features.moderation.ModerationActionsStore;
+import org.togetherjava.tjbot.features.moderation.scam.ScamHistoryPurgeRoutine;
+import org.togetherjava.tjbot.features.moderation.scam.ScamHistoryStore;
+import org.togetherjava.tjbot.features.reminder.RemindRoutine;
+import org.togetherjava.tjbot.features.reminder.ReminderScheduler;
+import org.togetherjava.tjbot.features.tophelper.TopHelpersCommand;
+import org.togetherjava.tjbot.features.tophelper.TopHelpersPurgeMessagesRoutine;
+import org.togetherjava.tjbot.jda.JdaTester;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies that the hot queries issued by stores and routines are backed by indexes, see
+ * {@link QueryPlanRecorder}.
+ */
+final class StoreQueryPlanTest {
+    private static final long GUILD_ID = 1;
+    private static final long AUTHOR_ID = 2;
+    private static final long TARGET_ID = 3;
+
+    @TempDir
+    private Path databaseDirectory;
+    private QueryPlanRecorder recorder;
+    private Database database;
+    private JdaTester jdaTester;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        recorder = QueryPlanRecorder.createMigratedDatabase(databaseDirectory);
+        database = recorder.getDatabase();
+        jdaTester = new JdaTester();
+    }
+
+    private void assertNoFullTableScans() {
+        assertFalse(recorder.getRecordedQueries().isEmpty(), "No queries have been recorded");
+        assertEquals(List.of(), recorder.findFullTableScans());
+    }
+
+    @Test
+    @DisplayName("Top helper queries are backed by indexes")
+    void topHelperQueriesUseIndexes() {
+        // GIVEN the top helper command and purge routine
+        SlashCommand command = new TopHelpersCommand(database);
+        SlashCommandInteractionEvent event =
+                jdaTester.createSlashCommandInteractionEvent(command).build();
+
+        // WHEN computing top helpers and purging old messages
+        command.onSlashCommand(event);
+        new TopHelpersPurgeMessagesRoutine(database).runRoutine(jdaTester.getJdaMock());
+
+        // THEN no query scanned a full table
+        assertNoFullTableScans();
+    }
+
+    @Test
+    @DisplayName("Scam history queries are backed by indexes")
+    void scamHistoryQueriesUseIndexes() {
+        // GIVEN a scam in the history
+        ScamHistoryStore store = new ScamHistoryStore(database);
+        Message scam = mock(Message.class, RETURNS_DEEP_STUBS);
+        when(scam.getContentRaw()).thenReturn("Free nitro!");
+        when(scam.getTimeCreated()).thenReturn(OffsetDateTime.now());
+        store.addScam(scam, false);
+
+        // WHEN querying and purging the history
+        store.hasRecentScamDuplicate(scam);
+        store.markScamDuplicatesDeleted(scam);
+        new ScamHistoryPurgeRoutine(store).runRoutine(jdaTester.getJdaMock());
+
+        // THEN no query scanned a full table
+        assertNoFullTableScans();
+    }
+
+    @Test
+    @DisplayName("Moderation action queries are backed by indexes")
+    void moderationActionQueriesUseIndexes() {
+        // GIVEN a moderation action in the store
+        ModerationActionsStore store = new ModerationActionsStore(database);
+        int caseId = store.addAction(GUILD_ID, AUTHOR_ID, TARGET_ID, ModerationAction.BAN,
+                Instant.now(), "Spam");
+
+        // WHEN querying the actions in all ways
+        store.getActionsByTypeAscending(GUILD_ID, ModerationAction.BAN);
+        store.getActionsByTargetAscending(GUILD_ID, TARGET_ID);
+        store.getActionsByAuthorAscending(GUILD_ID, AUTHOR_ID);
+        store.findLastActionAgainstTargetByType(GUILD_ID, TARGET_ID, ModerationAction.BAN);
+        store.findActionByCaseId(caseId);
+
+        // THEN no query scanned a full table
+        assertNoFullTableScans();
+    }
+
+    @Test
+    @DisplayName("Pending reminder queries are backed by indexes")
+    void reminderQueriesUseIndexes() {
+        // GIVEN the reminder routine
+        Routine routine = new RemindRoutine(database, new ReminderScheduler());
+
+        // WHEN loading pending reminders
+        routine.runRoutine(mock(JDA.class));
+
+        // THEN no query scanned a full table
+        assertNoFullTableScans();
+    }
+
+    @Test
+    @DisplayName("Leftover bookmark queries are backed by indexes")
+    void leftoverBookmarkQueriesUseIndexes() {
+        // GIVEN the bookmark cleanup routine
+        Config config = mock(Config.class);
+        HelpSystemConfig helpSystemConfig = mock(HelpSystemConfig.class);
+        when(helpSystemConfig.getHelpForumPattern()).thenReturn("questions");
+        when(config.getHelpSystem()).thenReturn(helpSystemConfig);
+        BookmarksSystem bookmarksSystem = new BookmarksSystem(config, database);
+
+        // WHEN deleting leftover bookmarks
+        new LeftoverBookmarksCleanupRoutine(bookmarksSystem).runRoutine(mock(JDA.class));
+
+        // THEN no query scanned a full table
+        assertNoFullTableScans();
+    }
+}
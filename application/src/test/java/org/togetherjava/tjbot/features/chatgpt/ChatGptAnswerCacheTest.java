@@ -0,0 +1,146 @@
+package org.togetherjava.tjbot.features.chatgpt;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.db.Database;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.togetherjava.tjbot.db.generated.tables.ChatgptAnswerCache.CHATGPT_ANSWER_CACHE;
+
+final class ChatGptAnswerCacheTest {
+    private static final String CATEGORY = "Java";
+    private static final String QUESTION =
+            "Scanner skips nextLine I use nextInt and then nextLine but it skips the input";
+    private static final String REPHRASED_QUESTION =
+            "scanner skips nextline I use nextInt and then nextLine, but it skips my input!";
+    private static final String SIMILAR_QUESTION =
+            "Scanner skips nextLine I use nextInt and then nextLine but it skips the line";
+    private static final String NEAR_MISS_QUESTION =
+            "Scanner skips nextLine I use nextInt then nextLine but it skips the input";
+    private static final String ANSWER = "nextInt does not consume the line break.";
+
+    private Database database;
+    private ChatGptAnswerCache cache;
+
+    @BeforeEach
+    void setUp() {
+        database = Database.createMemoryDatabase(CHATGPT_ANSWER_CACHE);
+        cache = new ChatGptAnswerCache(database);
+    }
+
+    @Test
+    @DisplayName("Rephrased questions of the same category are answered from the cache")
+    void answersRephrasedQuestions() {
+        // GIVEN an answered question
+        cache.putAnswer(CATEGORY, QUESTION, ANSWER);
+
+        // WHEN asking the question only differing in case, punctuation and filler words
+        Optional<String> answer = cache.findAnswer(CATEGORY, REPHRASED_QUESTION);
+
+        // THEN it is answered with the same answer
+        assertEquals(Optional.of(ANSWER), answer);
+    }
+
+    @Test
+    @DisplayName("Questions with other wording, but similar enough, are answered from the cache")
+    void answersSimilarQuestions() {
+        // GIVEN an answered question and a question with other words, that is similar enough
+        cache.putAnswer(CATEGORY, QUESTION, ANSWER);
+        double similarity = ChatGptAnswerCache.estimateSimilarity(QUESTION, SIMILAR_QUESTION);
+        assertTrue(similarity >= ChatGptAnswerCache.MIN_SIMILARITY, "Too different: " + similarity);
+        assertTrue(similarity < 1.0, "Identical after normalization");
+
+        // WHEN asking the similar question
+        Optional<String> answer = cache.findAnswer(CATEGORY, SIMILAR_QUESTION);
+
+        // THEN it is answered with the same answer
+        assertEquals(Optional.of(ANSWER), answer);
+    }
+
+    @Test
+    @DisplayName("Questions just below the minimal similarity are not answered")
+    void doesNotAnswerNearMisses() {
+        // GIVEN an answered question and a question that is just not similar enough
+        cache.putAnswer(CATEGORY, QUESTION, ANSWER);
+        double similarity = ChatGptAnswerCache.estimateSimilarity(QUESTION, NEAR_MISS_QUESTION);
+        assertTrue(similarity < ChatGptAnswerCache.MIN_SIMILARITY, "Too similar: " + similarity);
+        assertEquals(ChatGptAnswerCache.MIN_SIMILARITY, similarity, 0.05, "Not a near miss");
+
+        // WHEN asking the question that is just not similar enough
+        Optional<String> answer = cache.findAnswer(CATEGORY, NEAR_MISS_QUESTION);
+
+        // THEN it is not answered
+        assertTrue(answer.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Different questions, or questions of other categories, are not answered")
+    void doesNotAnswerDifferentQuestions() {
+        // GIVEN an answered question
+        cache.putAnswer(CATEGORY, QUESTION, ANSWER);
+
+        // WHEN asking a different question, and the same question in another category
+        Optional<String> differentQuestionAnswer =
+                cache.findAnswer(CATEGORY, "How to compare strings? Using == does not work");
+        Optional<String> otherCategoryAnswer = cache.findAnswer("Kotlin", QUESTION);
+
+        // THEN neither is answered
+        assertTrue(differentQuestionAnswer.isEmpty());
+        assertTrue(otherCategoryAnswer.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Answers are still known after a restart")
+    void answersArePersisted() {
+        // GIVEN an answered question
+        cache.putAnswer(CATEGORY, QUESTION, ANSWER);
+        database.flushWriteBehind();
+
+        // WHEN restarting the cache
+        ChatGptAnswerCache restartedCache = new ChatGptAnswerCache(database);
+
+        // THEN it still knows the answer
+        assertEquals(Optional.of(ANSWER), restartedCache.findAnswer(CATEGORY, REPHRASED_QUESTION));
+    }
+
+    @Test
+    @DisplayName("The similarity of questions ignores case, punctuation and filler words")
+    void estimatesSimilarity() {
+        // GIVEN questions only differing in case, punctuation and filler words, and a different one
+        String question = "How do I compare two strings in Java?";
+        String rephrasedQuestion = "how can i compare two Strings in java";
+        String differentQuestion = "How do I sort a list in Java?";
+
+        // WHEN estimating their similarity
+        double rephrasedSimilarity =
+                ChatGptAnswerCache.estimateSimilarity(question, rephrasedQuestion);
+        double differentSimilarity =
+                ChatGptAnswerCache.estimateSimilarity(question, differentQuestion);
+
+        // THEN rephrased questions are identical and different ones are not similar
+        assertEquals(1.0, rephrasedSimilarity);
+        assertTrue(differentSimilarity < 0.5, "Too similar: " + differentSimilarity);
+    }
+
+    @Test
+    @DisplayName("Evicted answers are deleted from the database")
+    void deletesEvictedAnswers() {
+        // GIVEN a cache that only holds a single answer, evicting on the calling thread
+        ChatGptAnswerCache smallCache = new ChatGptAnswerCache(database, 1, Runnable::run);
+
+        // WHEN adding two answers, so that one is evicted
+        smallCache.putAnswer(CATEGORY, QUESTION, ANSWER);
+        smallCache.putAnswer(CATEGORY, "How to compare strings? Using == does not work",
+                "Use equals instead.");
+        database.flushWriteBehind();
+
+        // THEN only a single answer is left in the database
+        int storedAnswers = database.read(context -> context.fetchCount(CHATGPT_ANSWER_CACHE));
+        assertEquals(1, storedAnswers);
+    }
+}
@@ -0,0 +1,92 @@
+package org.togetherjava.tjbot.features.chatgpt;
+
+import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.requests.restaction.interactions.ModalCallbackAction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.features.SlashCommand;
+import org.togetherjava.tjbot.features.help.HelpSystemHelper;
+import org.togetherjava.tjbot.jda.JdaTester;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+final class ChatGptCommandTest {
+    private JdaTester jdaTester;
+    private SlashCommand command;
+    private CompletableFuture<Optional<String>> answer;
+
+    @BeforeEach
+    void setUp() {
+        jdaTester = new JdaTester();
+
+        ChatGptService chatGptService = mock(ChatGptService.class);
+        answer = new CompletableFuture<>();
+        when(chatGptService.askStreaming(anyString(), anyString(), any())).thenReturn(answer);
+
+        command = jdaTester.spySlashCommand(
+                new ChatGptCommand(chatGptService, mock(HelpSystemHelper.class)));
+    }
+
+    private SlashCommandInteractionEvent triggerSlashCommand() {
+        SlashCommandInteractionEvent event =
+                jdaTester.createSlashCommandInteractionEvent(command).build();
+        doReturn(mock(ModalCallbackAction.class)).when(event).replyModal(any());
+
+        command.onSlashCommand(event);
+        return event;
+    }
+
+    private void submitQuestion() {
+        ModalInteractionEvent event = mock(ModalInteractionEvent.class, RETURNS_DEEP_STUBS);
+        when(event.getMember()).thenReturn(jdaTester.getMemberSpy());
+        when(event.getValue(anyString()).getAsString()).thenReturn("How to sort a list?");
+
+        command.onModalSubmitted(event, List.of());
+    }
+
+    @Test
+    @DisplayName("Asking again is refused while the previous answer is still streamed")
+    void refusesWhileAnswerIsStreamed() {
+        // GIVEN a question whose answer is still streamed
+        triggerSlashCommand();
+        submitQuestion();
+
+        // WHEN using '/chatgpt' again
+        SlashCommandInteractionEvent event = triggerSlashCommand();
+
+        // THEN it is refused
+        verify(event).reply(startsWith("Sorry, you need to wait"));
+        verify(event, never()).replyModal(any());
+    }
+
+    @Test
+    @DisplayName("Asking again is allowed right away if there was no answer")
+    void allowsAskingAgainWithoutAnswer() {
+        // GIVEN a question that could not be answered
+        triggerSlashCommand();
+        submitQuestion();
+        answer.complete(Optional.empty());
+
+        // WHEN using '/chatgpt' again
+        SlashCommandInteractionEvent event = triggerSlashCommand();
+
+        // THEN the question can be asked
+        verify(event).replyModal(any());
+        verify(event, never()).reply(anyString());
+    }
+}
@@ -0,0 +1,167 @@
+package org.togetherjava.tjbot.features.chatgpt;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.ChatMessage;
+import com.theokanning.openai.completion.chat.ChatMessageRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ChatGptStreamClientTest {
+    private static final String COMPLETIONS_PATH = "/chat/completions";
+    private static final String CHUNK_TEMPLATE = """
+            {"id":"chatcmpl-1","object":"chat.completion.chunk","created":0,\
+            "model":"gpt-3.5-turbo","choices":[{"index":0,"delta":%s,"finish_reason":null}]}""";
+    private static final String ANSWER_EVENTS = """
+            data: %s
+
+            data: %s
+
+            : comments and blank lines are ignored
+
+            data: %s
+
+            data: [DONE]
+
+            """.formatted(CHUNK_TEMPLATE.formatted("{\"role\":\"assistant\",\"content\":\"\"}"),
+            CHUNK_TEMPLATE.formatted("{\"content\":\"Hello\"}"),
+            CHUNK_TEMPLATE.formatted("{\"content\":\" world\"}"));
+
+    private HttpServer server;
+    private final List<String> receivedRequestBodies = new CopyOnWriteArrayList<>();
+    private final CountDownLatch releaseStalledResponses = new CountDownLatch(1);
+    private volatile int responseStatusCode = 200;
+    private volatile boolean stallAfterFirstAnswerPart;
+
+    private ChatGptStreamClient createClient() {
+        return createClient(Duration.ofSeconds(5));
+    }
+
+    private ChatGptStreamClient createClient(Duration timeout) {
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        return new ChatGptStreamClient("key", baseUrl, timeout);
+    }
+
+    private static ChatCompletionRequest createRequest() {
+        return ChatCompletionRequest.builder()
+            .model("gpt-3.5-turbo")
+            .messages(List.of(new ChatMessage(ChatMessageRole.USER.value(), "Hi?")))
+            .build();
+    }
+
+    private void handleCompletionRequest(HttpExchange exchange) throws IOException {
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            receivedRequestBodies
+                .add(new String(requestBody.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        if (stallAfterFirstAnswerPart) {
+            sendStalledResponse(exchange);
+            return;
+        }
+
+        byte[] body = ANSWER_EVENTS.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(responseStatusCode, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    private void sendStalledResponse(HttpExchange exchange) throws IOException {
+        String firstEvent = "data: " + CHUNK_TEMPLATE.formatted("{\"content\":\"Hello\"}") + "\n\n";
+        exchange.sendResponseHeaders(responseStatusCode, 0);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(firstEvent.getBytes(StandardCharsets.UTF_8));
+            responseBody.flush();
+            releaseStalledResponses.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            if (exchange.getRequestURI().getPath().equals(COMPLETIONS_PATH)) {
+                handleCompletionRequest(exchange);
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseStalledResponses.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Streamed answers are reported part by part and completed")
+    void streamsAnswer() {
+        // GIVEN a client against a stub of the OpenAI API
+        ChatGptStreamClient client = createClient();
+        List<String> answersSoFar = new CopyOnWriteArrayList<>();
+
+        // WHEN asking a question
+        Optional<String> answer = client.stream(createRequest(), answersSoFar::add).join();
+
+        // THEN the answer is reported while it grows and streaming was requested
+        assertEquals(Optional.of("Hello world"), answer);
+        assertEquals(List.of("Hello", "Hello world"), answersSoFar);
+        assertTrue(receivedRequestBodies.getFirst().contains("\"stream\":true"));
+    }
+
+    @Test
+    @DisplayName("Errors of the API result in no answer")
+    void errorIsEmpty() {
+        // GIVEN a client against a stub of the OpenAI API that fails
+        responseStatusCode = 500;
+        ChatGptStreamClient client = createClient();
+        List<String> answersSoFar = new CopyOnWriteArrayList<>();
+
+        // WHEN asking a question
+        Optional<String> answer = client.stream(createRequest(), answersSoFar::add).join();
+
+        // THEN there is no answer
+        assertTrue(answer.isEmpty());
+        assertTrue(answersSoFar.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Answers that are not finished within the timeout are aborted")
+    void stalledAnswerIsAborted() {
+        // GIVEN a client with a short timeout against a stub that stops sending after one part
+        stallAfterFirstAnswerPart = true;
+        ChatGptStreamClient client = createClient(Duration.ofMillis(500));
+        List<String> answersSoFar = new CopyOnWriteArrayList<>();
+
+        // WHEN asking a question
+        Optional<String> answer = client.stream(createRequest(), answersSoFar::add).join();
+
+        // THEN reading is aborted, without an answer
+        assertTrue(answer.isEmpty());
+        assertEquals(List.of("Hello"), answersSoFar);
+    }
+}
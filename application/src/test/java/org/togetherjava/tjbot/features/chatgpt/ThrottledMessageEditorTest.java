@@ -0,0 +1,96 @@
+package org.togetherjava.tjbot.features.chatgpt;
+
+import net.dv8tion.jda.api.requests.RestAction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+final class ThrottledMessageEditorTest {
+    private static final Duration EDIT_INTERVAL = Duration.ofMillis(200);
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final List<String> editedTexts = new CopyOnWriteArrayList<>();
+    private final Semaphore sentEdits = new Semaphore(0);
+    private volatile CompletableFuture<Void> editResult = CompletableFuture.completedFuture(null);
+
+    @SuppressWarnings("unchecked")
+    private RestAction<Void> edit(String text) {
+        RestAction<Void> action = mock(RestAction.class);
+        when(action.submit()).thenAnswer(any -> {
+            editedTexts.add(text);
+            sentEdits.release();
+            return editResult;
+        });
+        return action;
+    }
+
+    @Test
+    @DisplayName("Quickly growing texts are combined into few edits, ending with the final text")
+    void combinesEdits() throws Exception {
+        // GIVEN an editor
+        ThrottledMessageEditor editor = new ThrottledMessageEditor(this::edit, EDIT_INTERVAL);
+
+        // WHEN the text grows many times in a short time and is finished
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            text.append(i);
+            editor.accept(text.toString());
+        }
+        editor.finish(text.toString()).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        // THEN the message was only edited a few times, showing the final text at last
+        assertTrue(editedTexts.size() <= 2, "Edited too often: " + editedTexts.size());
+        assertEquals(text.toString(), editedTexts.getLast());
+    }
+
+    @Test
+    @DisplayName("Texts given after finishing are ignored")
+    void ignoresTextsAfterFinish() throws Exception {
+        // GIVEN a finished editor
+        ThrottledMessageEditor editor = new ThrottledMessageEditor(this::edit, EDIT_INTERVAL);
+        editor.finish("final").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        // WHEN giving it another text
+        editor.accept("too late");
+
+        // THEN the message keeps showing the final text
+        TimeUnit.MILLISECONDS.sleep(2 * EDIT_INTERVAL.toMillis());
+        assertEquals(List.of("final"), editedTexts);
+    }
+
+    @Test
+    @DisplayName("Cancelling waits for the edit in flight, but drops texts not shown yet")
+    void cancelDropsPendingTexts() throws Exception {
+        // GIVEN an editor with an edit in flight and a text waiting to be shown
+        CompletableFuture<Void> inFlightEdit = new CompletableFuture<>();
+        editResult = inFlightEdit;
+        ThrottledMessageEditor editor = new ThrottledMessageEditor(this::edit, EDIT_INTERVAL);
+        editor.accept("first");
+        assertTrue(sentEdits.tryAcquire(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        editor.accept("pending");
+
+        // WHEN cancelling it, until the edit in flight went through
+        CompletableFuture<Void> cancelled = editor.cancel();
+        boolean isCancelledWhileInFlight = cancelled.isDone();
+        inFlightEdit.complete(null);
+        cancelled.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        editor.accept("too late");
+
+        // THEN cancelling waited for the edit, but the message is not edited anymore
+        assertFalse(isCancelledWhileInFlight);
+        TimeUnit.MILLISECONDS.sleep(2 * EDIT_INTERVAL.toMillis());
+        assertEquals(List.of("first"), editedTexts);
+    }
+}
@@ -0,0 +1,115 @@
+package org.togetherjava.tjbot.features.componentids;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.db.Database;
+import org.togetherjava.tjbot.db.generated.tables.ComponentIds;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ComponentIdStoreTest {
+    private static final ComponentId COMPONENT_ID = new ComponentId("test", List.of("a", "b"));
+
+    private Database database;
+    private ComponentIdStore store;
+
+    @BeforeEach
+    void setUp() {
+        database = Database.createMemoryDatabase(ComponentIds.COMPONENT_IDS);
+        store = new ComponentIdStore(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    private Instant getLastUsed(UUID uuid) {
+        return database.read(context -> context.selectFrom(ComponentIds.COMPONENT_IDS)
+            .where(ComponentIds.COMPONENT_IDS.UUID.eq(uuid.toString()))
+            .fetchOne(ComponentIds.COMPONENT_IDS.LAST_USED));
+    }
+
+    private void setLastUsed(UUID uuid, Instant lastUsed) {
+        database.write(context -> context.update(ComponentIds.COMPONENT_IDS)
+            .set(ComponentIds.COMPONENT_IDS.LAST_USED, lastUsed)
+            .where(ComponentIds.COMPONENT_IDS.UUID.eq(uuid.toString()))
+            .execute());
+    }
+
+    @Test
+    @DisplayName("Component IDs can be put and retrieved")
+    void putAndGet() {
+        // GIVEN a component ID that was put
+        UUID uuid = UUID.randomUUID();
+        store.putOrThrow(uuid, COMPONENT_ID, Lifespan.REGULAR);
+
+        // WHEN getting it, and an unknown one
+        Optional<ComponentId> componentId = store.get(uuid);
+        Optional<ComponentId> unknownComponentId = store.get(UUID.randomUUID());
+
+        // THEN only the component ID that was put is present
+        assertEquals(Optional.of(COMPONENT_ID), componentId);
+        assertTrue(unknownComponentId.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Putting the same UUID twice throws")
+    void putSameUuidTwiceThrows() {
+        // GIVEN a component ID that was put
+        UUID uuid = UUID.randomUUID();
+        store.putOrThrow(uuid, COMPONENT_ID, Lifespan.REGULAR);
+
+        // WHEN putting it again, THEN it throws
+        assertThrows(IllegalArgumentException.class,
+                () -> store.putOrThrow(uuid, COMPONENT_ID, Lifespan.REGULAR));
+    }
+
+    @Test
+    @DisplayName("Component IDs that are not in the cache are loaded from the database")
+    void getLoadsFromDatabase() {
+        // GIVEN a component ID that is only in the database
+        UUID uuid = UUID.randomUUID();
+        store.putOrThrow(uuid, COMPONENT_ID, Lifespan.REGULAR);
+        store.close();
+        store = new ComponentIdStore(database);
+
+        // WHEN getting it
+        Optional<ComponentId> componentId = store.get(uuid);
+
+        // THEN it is found
+        assertEquals(Optional.of(COMPONENT_ID), componentId);
+    }
+
+    @Test
+    @DisplayName("Using component IDs heats them in the database once flushed")
+    void getHeatsOnFlush() {
+        // GIVEN a component ID that was last used long ago
+        UUID uuid = UUID.randomUUID();
+        store.putOrThrow(uuid, COMPONENT_ID, Lifespan.REGULAR);
+        Instant longAgo = Instant.now().minus(10, ChronoUnit.DAYS);
+        setLastUsed(uuid, longAgo);
+
+        // WHEN using it
+        store.get(uuid);
+        store.get(uuid);
+        Instant lastUsedBeforeFlush = getLastUsed(uuid);
+        store.flushHeat();
+
+        // THEN the heat is only written to the database on flush
+        Instant recently = Instant.now().minus(1, ChronoUnit.DAYS);
+        assertTrue(lastUsedBeforeFlush.isBefore(recently));
+        assertTrue(getLastUsed(uuid).isAfter(recently));
+    }
+}
@@ -0,0 +1,116 @@
+package org.togetherjava.tjbot.features.componentids;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class InlineComponentIdCodecTest {
+    private static final String SECRET = "secret";
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+    private static final ComponentId COMPONENT_ID =
+            new ComponentId("test", List.of("123456789012345678", "accept", ""));
+
+    private InlineComponentIdCodec codec;
+
+    private static InlineComponentIdCodec createCodecAt(Instant instant) {
+        return new InlineComponentIdCodec(SECRET, Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    @BeforeEach
+    void setUp() {
+        codec = createCodecAt(NOW);
+    }
+
+    @Test
+    @DisplayName("Small component IDs can be encoded and decoded again")
+    void roundTrip() {
+        // GIVEN a small component ID
+        // WHEN encoding and decoding it
+        String id = codec.encode(COMPONENT_ID, Lifespan.REGULAR).orElseThrow();
+        Optional<ComponentId> componentId = codec.decode(id);
+
+        // THEN it is inline, fits into Discord and is decoded to the original
+        assertTrue(InlineComponentIdCodec.isInline(id));
+        assertTrue(id.length() <= InlineComponentIdCodec.MAX_LENGTH);
+        assertEquals(Optional.of(COMPONENT_ID), componentId);
+    }
+
+    @Test
+    @DisplayName("Encoding the same component ID multiple times gives unique IDs")
+    void idsAreUnique() {
+        // GIVEN a component ID
+        // WHEN encoding it multiple times
+        String id = codec.encode(COMPONENT_ID, Lifespan.REGULAR).orElseThrow();
+        String otherId = codec.encode(COMPONENT_ID, Lifespan.REGULAR).orElseThrow();
+
+        // THEN the IDs differ, but are decoded to the same component ID
+        assertNotEquals(id, otherId);
+        assertEquals(codec.decode(id), codec.decode(otherId));
+    }
+
+    @Test
+    @DisplayName("UUIDs of the store are not considered inline")
+    void uuidsAreNotInline() {
+        assertFalse(InlineComponentIdCodec.isInline(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    @DisplayName("Component IDs too large for Discord are not encoded")
+    void tooLargeIsNotEncoded() {
+        // GIVEN a large component ID
+        ComponentId largeComponentId = new ComponentId("test", List.of("a".repeat(100)));
+
+        // WHEN encoding it
+        Optional<String> id = codec.encode(largeComponentId, Lifespan.REGULAR);
+
+        // THEN it is not encoded
+        assertTrue(id.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Tampered or foreign component IDs are rejected")
+    void tamperedIsRejected() {
+        // GIVEN an encoded component ID
+        String id = codec.encode(COMPONENT_ID, Lifespan.PERMANENT).orElseThrow();
+
+        // WHEN changing a single character, or decoding with a different secret
+        char changed = id.charAt(5) == 'A' ? 'B' : 'A';
+        String tamperedId = id.substring(0, 5) + changed + id.substring(6);
+        InlineComponentIdCodec foreignCodec =
+                new InlineComponentIdCodec("other", Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // THEN it is rejected
+        assertThrows(InvalidComponentIdFormatException.class, () -> codec.decode(tamperedId));
+        assertThrows(InvalidComponentIdFormatException.class, () -> foreignCodec.decode(id));
+        assertThrows(InvalidComponentIdFormatException.class, () -> codec.decode("~1!!"));
+    }
+
+    @Test
+    @DisplayName("Regular component IDs expire, permanent ones do not")
+    void regularExpires() {
+        // GIVEN a regular and a permanent component ID
+        String regularId = codec.encode(COMPONENT_ID, Lifespan.REGULAR).orElseThrow();
+        String permanentId = codec.encode(COMPONENT_ID, Lifespan.PERMANENT).orElseThrow();
+
+        // WHEN decoding them after the regular lifespan
+        InlineComponentIdCodec laterCodec = createCodecAt(
+                NOW.plus(InlineComponentIdCodec.REGULAR_LIFESPAN).plusSeconds(1));
+
+        // THEN only the permanent one is still present
+        assertTrue(laterCodec.decode(regularId).isEmpty());
+        assertEquals(Optional.of(COMPONENT_ID), laterCodec.decode(permanentId));
+    }
+}
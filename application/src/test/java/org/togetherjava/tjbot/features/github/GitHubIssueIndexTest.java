@@ -0,0 +1,69 @@
+package org.togetherjava.tjbot.features.github;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class GitHubIssueIndexTest {
+    private static final long REPOSITORY_ID = 1;
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private GitHubIssueIndex index;
+
+    private static GitHubIssueIndex.IndexedIssue createIssue(int number, String title,
+            int daysAgo) {
+        return new GitHubIssueIndex.IndexedIssue(REPOSITORY_ID, number, title,
+                NOW.minusSeconds(daysAgo * 86_400L));
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new GitHubIssueIndex();
+        index.putAll(List.of(createIssue(1, "Add a reminder command", 3),
+                createIssue(2, "Fix scam detection of discord links", 2),
+                createIssue(3, "Remind users of open help threads", 1)));
+    }
+
+    @Test
+    @DisplayName("Without a query, the most recently updated issues are suggested")
+    void emptyQuerySuggestsRecent() {
+        // GIVEN an index with issues
+        // WHEN querying without a title
+        List<String> titles = index.findClosestTitles("", 2);
+
+        // THEN the most recent issues are suggested
+        assertEquals(List.of("[#3] Remind users of open help threads",
+                "[#2] Fix scam detection of discord links"), titles);
+    }
+
+    @Test
+    @DisplayName("Titles are found by the beginning of words, despite typos and casing")
+    void findsByWordsWithTypos() {
+        // GIVEN an index with issues
+        // WHEN querying parts of a title with a typo
+        List<String> titles = index.findClosestTitles("SCAM detecton", 3);
+
+        // THEN the matching issue is suggested first
+        assertEquals("[#2] Fix scam detection of discord links", titles.getFirst());
+    }
+
+    @Test
+    @DisplayName("Updated issues replace their previous version")
+    void updatesReplaceIssues() {
+        // GIVEN an issue that was renamed
+        index.putAll(List.of(createIssue(1, "Add a timer command", 0)));
+
+        // WHEN querying its new and old title
+        List<String> newTitles = index.findClosestTitles("timer", 3);
+        List<String> oldTitles = index.findClosestTitles("reminder", 3);
+
+        // THEN only the new title is found
+        assertEquals(List.of("[#1] Add a timer command"), newTitles);
+        assertEquals(List.of("[#3] Remind users of open help threads"), oldTitles);
+    }
+}
@@ -0,0 +1,157 @@
+package org.togetherjava.tjbot.features.github;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class GitHubIssueResolverTest {
+    private static final long REPOSITORY_ID = 42;
+    private static final int ISSUE_NUMBER = 7;
+    private static final String ISSUE_PATH =
+            "/repositories/%d/issues/%d".formatted(REPOSITORY_ID, ISSUE_NUMBER);
+    private static final String ETAG = "\"abc\"";
+    private static final String ISSUE_JSON = """
+            {
+              "number": 7,
+              "title": "Add more stuff",
+              "html_url": "https://github.com/Together-Java/TJ-Bot/issues/7",
+              "body": "Please add more stuff.",
+              "labels": [{"name": "enhancement"}],
+              "assignees": [{"login": "alice"}],
+              "user": {"login": "bob", "avatar_url": "https://example.com/bob.png"},
+              "created_at": "2023-10-09T12:00:00Z",
+              "state": "closed",
+              "state_reason": "completed",
+              "locked": false
+            }
+            """;
+
+    private HttpServer server;
+    private final List<String> receivedIfNoneMatchHeaders = new CopyOnWriteArrayList<>();
+    private final List<GitHubIssue> renderedIssues = new CopyOnWriteArrayList<>();
+
+    private GitHubIssueResolver createResolver(Duration freshDuration) {
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        return new GitHubIssueResolver("key", issue -> {
+            renderedIssues.add(issue);
+            return new EmbedBuilder().setTitle(issue.title()).build();
+        }, baseUrl, freshDuration);
+    }
+
+    private void handleIssueRequest(HttpExchange exchange) throws IOException {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        receivedIfNoneMatchHeaders.add(String.valueOf(ifNoneMatch));
+
+        if (ETAG.equals(ifNoneMatch)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        byte[] body = ISSUE_JSON.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            if (exchange.getRequestURI().getPath().equals(ISSUE_PATH)) {
+                handleIssueRequest(exchange);
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Issues are parsed and rendered")
+    void resolvesIssue() {
+        // GIVEN a resolver against a stub of GitHub
+        GitHubIssueResolver resolver = createResolver(Duration.ofMinutes(1));
+
+        // WHEN resolving an issue
+        Optional<MessageEmbed> embed = resolver.resolve(REPOSITORY_ID, ISSUE_NUMBER).join();
+
+        // THEN it is parsed and rendered correctly
+        assertEquals("Add more stuff", embed.orElseThrow().getTitle());
+        GitHubIssue issue = renderedIssues.getFirst();
+        assertEquals(ISSUE_NUMBER, issue.number());
+        assertEquals(List.of("enhancement"), issue.labels());
+        assertEquals(List.of("alice"), issue.assignees());
+        assertEquals("bob", issue.authorLogin());
+        assertEquals(GitHubIssue.Status.COMPLETED, issue.status());
+    }
+
+    @Test
+    @DisplayName("Unknown issues resolve to nothing")
+    void unknownIssueIsEmpty() {
+        // GIVEN a resolver against a stub of GitHub
+        GitHubIssueResolver resolver = createResolver(Duration.ofMinutes(1));
+
+        // WHEN resolving an issue that does not exist
+        Optional<MessageEmbed> embed = resolver.resolve(REPOSITORY_ID, ISSUE_NUMBER + 1).join();
+
+        // THEN nothing is found
+        assertTrue(embed.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Fresh embeds are served from the cache without any request")
+    void freshEmbedsAreCached() {
+        // GIVEN a resolver that considers embeds fresh for a long time
+        GitHubIssueResolver resolver = createResolver(Duration.ofMinutes(1));
+
+        // WHEN resolving the same issue twice
+        resolver.resolve(REPOSITORY_ID, ISSUE_NUMBER).join();
+        Optional<MessageEmbed> embed = resolver.resolve(REPOSITORY_ID, ISSUE_NUMBER).join();
+
+        // THEN GitHub is only asked once
+        assertTrue(embed.isPresent());
+        assertEquals(1, receivedIfNoneMatchHeaders.size());
+    }
+
+    @Test
+    @DisplayName("Outdated embeds are revalidated with their ETag and reused if unchanged")
+    void outdatedEmbedsAreRevalidated() {
+        // GIVEN a resolver that revalidates embeds immediately
+        GitHubIssueResolver resolver = createResolver(Duration.ZERO);
+
+        // WHEN resolving the same issue twice
+        Optional<MessageEmbed> firstEmbed = resolver.resolve(REPOSITORY_ID, ISSUE_NUMBER).join();
+        Optional<MessageEmbed> secondEmbed = resolver.resolve(REPOSITORY_ID, ISSUE_NUMBER).join();
+
+        // THEN the second request is conditional and the embed is not rendered again
+        assertEquals(List.of("null", ETAG), receivedIfNoneMatchHeaders);
+        assertEquals(1, renderedIssues.size());
+        assertEquals(firstEmbed, secondEmbed);
+    }
+}
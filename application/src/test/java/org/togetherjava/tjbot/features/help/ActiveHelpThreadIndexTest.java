@@ -0,0 +1,76 @@
+package org.togetherjava.tjbot.features.help;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ActiveHelpThreadIndexTest {
+    private static final long GUILD_ID = 1;
+    private static final long OTHER_GUILD_ID = 2;
+    private static final long OWNER_ID = 10;
+    private static final long OTHER_OWNER_ID = 11;
+
+    private ActiveHelpThreadIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ActiveHelpThreadIndex();
+    }
+
+    @Test
+    @DisplayName("Threads can be looked up by guild and by owner")
+    void looksUpThreadsByGuildAndOwner() {
+        // GIVEN threads of different owners in different guilds
+        index.add(GUILD_ID, 100, OWNER_ID);
+        index.add(GUILD_ID, 101, OTHER_OWNER_ID);
+        index.add(OTHER_GUILD_ID, 200, OWNER_ID);
+
+        // WHEN looking up the threads
+        List<Long> threadIdsOfOwner = index.getThreadIdsOfOwner(GUILD_ID, OWNER_ID);
+        List<Long> threadIdsOfGuild = index.getThreadIds(GUILD_ID);
+
+        // THEN only the threads of the owner in the guild are found
+        assertEquals(List.of(100L), threadIdsOfOwner);
+        assertEquals(2, threadIdsOfGuild.size());
+        assertTrue(threadIdsOfGuild.containsAll(List.of(100L, 101L)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    @DisplayName("Removed threads are neither found by guild nor by owner")
+    void forgetsRemovedThreads() {
+        // GIVEN an active thread
+        index.add(GUILD_ID, 100, OWNER_ID);
+
+        // WHEN removing it
+        index.remove(GUILD_ID, 100);
+
+        // THEN it is not active anymore
+        assertFalse(index.isActive(100));
+        assertEquals(List.of(), index.getThreadIds(GUILD_ID));
+        assertEquals(List.of(), index.getThreadIdsOfOwner(GUILD_ID, OWNER_ID));
+    }
+
+    @Test
+    @DisplayName("Loading a guild in bulk replaces its previous threads only")
+    void replacesThreadsOfGuild() {
+        // GIVEN threads in two guilds
+        index.add(GUILD_ID, 100, OWNER_ID);
+        index.add(OTHER_GUILD_ID, 200, OWNER_ID);
+
+        // WHEN loading one of the guilds again
+        index.replaceGuild(GUILD_ID, Map.of(101L, OTHER_OWNER_ID));
+
+        // THEN only the threads of that guild are replaced
+        assertFalse(index.isActive(100));
+        assertEquals(List.of(101L), index.getThreadIdsOfOwner(GUILD_ID, OTHER_OWNER_ID));
+        assertEquals(List.of(200L), index.getThreadIds(OTHER_GUILD_ID));
+    }
+}
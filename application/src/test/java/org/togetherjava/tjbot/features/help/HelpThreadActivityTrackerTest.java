@@ -0,0 +1,113 @@
+package org.togetherjava.tjbot.features.help;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.features.help.HelpSystemHelper.ThreadActivity;
+import org.togetherjava.tjbot.features.help.HelpThreadActivityTracker.ActivityWindow;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+final class HelpThreadActivityTrackerTest {
+    private static final long SELF_USER_ID = 1;
+    private static final long ASKER_ID = 2;
+    private static final long HELPER_ID = 3;
+    private static final long THREAD_ID = 100;
+    private static final long OTHER_THREAD_ID = 101;
+
+    private HelpThreadActivityTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new HelpThreadActivityTracker(mock(HelpSystemHelper.class));
+    }
+
+    private static ActivityWindow windowOf(long... authorIds) {
+        ActivityWindow window = ActivityWindow.EMPTY;
+        for (long authorId : authorIds) {
+            window = window.withMessage(authorId);
+        }
+        return window;
+    }
+
+    @Test
+    @DisplayName("The window only keeps the authors of the most recent messages")
+    void windowEvictsOldestMessages() {
+        // GIVEN a full window
+        int limit = HelpThreadActivityTracker.ACTIVITY_DETERMINE_MESSAGE_LIMIT;
+        long[] authorIds = LongStream.range(0, limit).toArray();
+        ActivityWindow window = windowOf(authorIds);
+
+        // WHEN another message is sent
+        ActivityWindow nextWindow = window.withMessage(limit);
+
+        // THEN the oldest message is dropped
+        List<Long> expectedAuthorIds = LongStream.rangeClosed(1, limit).boxed().toList();
+        assertEquals(expectedAuthorIds, nextWindow.authorIds());
+    }
+
+    @Test
+    @DisplayName("Threads where the asker is alone, or everyone wrote once, have low activity")
+    void lowActivity() {
+        assertEquals(ThreadActivity.LOW, windowOf().determineActivity(SELF_USER_ID));
+        assertEquals(ThreadActivity.LOW,
+                windowOf(ASKER_ID, ASKER_ID, ASKER_ID).determineActivity(SELF_USER_ID));
+        assertEquals(ThreadActivity.LOW,
+                windowOf(ASKER_ID, HELPER_ID).determineActivity(SELF_USER_ID));
+    }
+
+    @Test
+    @DisplayName("Threads with two authors of which one wrote twice have medium activity")
+    void mediumActivity() {
+        assertEquals(ThreadActivity.MEDIUM,
+                windowOf(ASKER_ID, HELPER_ID, ASKER_ID).determineActivity(SELF_USER_ID));
+    }
+
+    @Test
+    @DisplayName("Messages of the bot do not count as activity")
+    void selfUserIsIgnored() {
+        assertEquals(ThreadActivity.LOW,
+                windowOf(ASKER_ID, SELF_USER_ID, ASKER_ID).determineActivity(SELF_USER_ID));
+    }
+
+    @Test
+    @DisplayName("Threads with a full window have high activity")
+    void highActivity() {
+        // GIVEN a full window, even if everything was written by a single author
+        long[] authorIds = new long[HelpThreadActivityTracker.ACTIVITY_DETERMINE_MESSAGE_LIMIT];
+        Arrays.fill(authorIds, ASKER_ID);
+
+        // WHEN determining the activity
+        ThreadActivity activity = windowOf(authorIds).determineActivity(SELF_USER_ID);
+
+        // THEN it is high
+        assertEquals(ThreadActivity.HIGH, activity);
+    }
+
+    @Test
+    @DisplayName("Only known threads have an activity, until they are no longer retained")
+    void tracksKnownThreads() {
+        // GIVEN two threads the tracker knows about, and one it does not know yet
+        tracker.reset(THREAD_ID);
+        tracker.reset(OTHER_THREAD_ID);
+        long unknownThreadId = 102;
+
+        // WHEN only retaining one of them
+        tracker.retainThreads(Set.of(THREAD_ID));
+
+        // THEN only the retained thread has an activity
+        assertEquals(Optional.of(ThreadActivity.LOW),
+                tracker.getActivity(THREAD_ID, SELF_USER_ID));
+        assertTrue(tracker.getActivity(OTHER_THREAD_ID, SELF_USER_ID).isEmpty());
+        assertTrue(tracker.getActivity(unknownThreadId, SELF_USER_ID).isEmpty());
+    }
+}
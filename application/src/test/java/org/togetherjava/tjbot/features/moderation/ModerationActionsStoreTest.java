@@ -0,0 +1,117 @@
+package org.togetherjava.tjbot.features.moderation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.db.Database;
+import org.togetherjava.tjbot.db.generated.tables.ModerationActions;
+
+import javax.annotation.Nullable;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ModerationActionsStoreTest {
+    private static final long GUILD_ID = 1;
+    private static final long AUTHOR_ID = 2;
+    private static final long TARGET_ID = 3;
+    private static final long OTHER_TARGET_ID = 4;
+    private static final Map<ModerationAction, ModerationAction> APPLY_TYPE_TO_REVOKE_TYPE =
+            Map.of(ModerationAction.BAN, ModerationAction.UNBAN, ModerationAction.MUTE,
+                    ModerationAction.UNMUTE);
+
+    private ModerationActionsStore store;
+
+    @BeforeEach
+    void setUp() {
+        Database database = Database.createMemoryDatabase(ModerationActions.MODERATION_ACTIONS);
+        store = new ModerationActionsStore(database);
+    }
+
+    private int addAction(long targetId, ModerationAction type, @Nullable Instant expiresAt) {
+        return store.addAction(GUILD_ID, AUTHOR_ID, targetId, type, expiresAt, "foo");
+    }
+
+    private List<PendingRevocation> planRevocations() {
+        return store.getPendingRevocations(APPLY_TYPE_TO_REVOKE_TYPE);
+    }
+
+    private static Instant expired() {
+        return Instant.now().minus(1, ChronoUnit.HOURS);
+    }
+
+    private static Instant notExpired() {
+        return Instant.now().plus(1, ChronoUnit.HOURS);
+    }
+
+    @Test
+    @DisplayName("Expired actions are planned with the last apply and revoke action of their group")
+    void plansExpiredGroups() {
+        // GIVEN two expired bans and a later unban against a target, and an expired mute against
+        // another target
+        addAction(TARGET_ID, ModerationAction.BAN, expired());
+        int lastBan = addAction(TARGET_ID, ModerationAction.BAN, expired());
+        int unban = addAction(TARGET_ID, ModerationAction.UNBAN, null);
+        int mute = addAction(OTHER_TARGET_ID, ModerationAction.MUTE, expired());
+
+        // WHEN planning revocations
+        List<PendingRevocation> revocations = planRevocations();
+
+        // THEN there is one revocation per group, with its last actions
+        assertEquals(2, revocations.size());
+
+        PendingRevocation banRevocation = revocations.stream()
+            .filter(revocation -> revocation.applyType() == ModerationAction.BAN)
+            .findAny()
+            .orElseThrow();
+        assertEquals(TARGET_ID, banRevocation.targetId());
+        assertEquals(lastBan, banRevocation.lastApplyAction().caseId());
+        assertEquals(unban, banRevocation.lastRevokeAction().caseId());
+
+        PendingRevocation muteRevocation = revocations.stream()
+            .filter(revocation -> revocation.applyType() == ModerationAction.MUTE)
+            .findAny()
+            .orElseThrow();
+        assertEquals(OTHER_TARGET_ID, muteRevocation.targetId());
+        assertEquals(mute, muteRevocation.lastApplyAction().caseId());
+        assertNull(muteRevocation.lastRevokeAction());
+    }
+
+    @Test
+    @DisplayName("Actions that did not expire yet or are not revocable are not planned")
+    void ignoresNotExpiredOrNotRevocable() {
+        // GIVEN a temporary ban that did not expire yet and an expired action that is not revocable
+        addAction(TARGET_ID, ModerationAction.BAN, notExpired());
+        addAction(TARGET_ID, ModerationAction.QUARANTINE, expired());
+
+        // WHEN planning revocations
+        List<PendingRevocation> revocations = planRevocations();
+
+        // THEN nothing is planned
+        assertTrue(revocations.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Handled revocations are not planned again")
+    void handledRevocationsAreNotPlannedAgain() {
+        // GIVEN an expired ban, followed by a ban that is still effective
+        addAction(TARGET_ID, ModerationAction.BAN, expired());
+        int effectiveBan = addAction(TARGET_ID, ModerationAction.BAN, notExpired());
+
+        // WHEN planning revocations and marking them as handled
+        List<PendingRevocation> revocations = planRevocations();
+        revocations.forEach(store::markExpirationHandled);
+
+        // THEN the group was planned with the effective ban, but is not planned again
+        assertEquals(1, revocations.size());
+        assertEquals(effectiveBan, revocations.getFirst().lastApplyAction().caseId());
+        assertTrue(planRevocations().isEmpty());
+    }
+}
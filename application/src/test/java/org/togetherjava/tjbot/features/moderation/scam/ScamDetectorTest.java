@@ -105,6 +105,22 @@ final class ScamDetectorTest {
         assertFalse(isScamResult);
     }
 
+    @Test
+    @DisplayName("Suspicious keywords are found case-insensitive within words, but not across them")
+    void detectsKeywordsWithinWords() {
+        // GIVEN messages with a keyword inside a word, and one split across two words
+        String keywordInWordMessage = "@everyone get SUPERNITROS https://discord.gg/free";
+        String splitKeywordMessage = "@everyone get ni,tro https://discord.gg/free";
+
+        // WHEN analyzing them
+        boolean isKeywordInWordScam = scamDetector.isScam(keywordInWordMessage);
+        boolean isSplitKeywordScam = scamDetector.isScam(splitKeywordMessage);
+
+        // THEN only the keyword inside a word is found
+        assertTrue(isKeywordInWordScam);
+        assertFalse(isSplitKeywordScam);
+    }
+
     private static List<String> provideRealScamMessages() {
         return List.of("""
                 🤩bro steam gived nitro - https://nitro-ds.online/LfgUfMzqYyx12""",
@@ -41,7 +41,7 @@ final class RemindRoutineTest {
     @BeforeEach
     void setUp() {
         Database database = Database.createMemoryDatabase(PENDING_REMINDERS);
-        routine = new RemindRoutine(database);
+        routine = new RemindRoutine(database, new ReminderScheduler());
         jdaTester = new JdaTester();
         rawReminders = new RawReminderTestHelper(database, jdaTester);
     }
@@ -169,6 +169,21 @@ final class RemindRoutineTest {
         verify(jdaTester.getTextChannelSpy(), never()).sendMessageEmbeds(any(MessageEmbed.class));
     }
 
+    @Test
+    @DisplayName("Later runs send due reminders that are missing from the schedule")
+    void laterRunsSendUnscheduledReminders() {
+        // GIVEN a routine that ran already, and a due reminder that was not scheduled
+        triggerRoutine();
+        rawReminders.insertReminder("foo", Instant.now());
+
+        // WHEN running the routine again
+        triggerRoutine();
+
+        // THEN the reminder is sent out and deleted from the database
+        assertTrue(rawReminders.readReminders().isEmpty());
+        assertEquals("foo", getLastMessageFrom(jdaTester.getTextChannelSpy()).getDescription());
+    }
+
     private static void assertSimilar(Instant expected, Instant actual) {
         // NOTE For some reason, the instant ends up in the database slightly wrong already (about
         // half a second), seems to be an issue with jOOQ
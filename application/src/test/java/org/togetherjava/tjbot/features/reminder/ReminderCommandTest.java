@@ -30,7 +30,7 @@ final class ReminderCommandTest {
     @BeforeEach
     void setUp() {
         Database database = Database.createMemoryDatabase(PENDING_REMINDERS);
-        command = new ReminderCommand(database);
+        command = new ReminderCommand(database, new ReminderScheduler());
         jdaTester = new JdaTester();
         rawReminders = new RawReminderTestHelper(database, jdaTester);
     }
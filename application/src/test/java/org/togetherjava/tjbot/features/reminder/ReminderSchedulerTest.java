@@ -0,0 +1,73 @@
+package org.togetherjava.tjbot.features.reminder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ReminderSchedulerTest {
+    private static final Instant NOW = Instant.now();
+
+    private ReminderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new ReminderScheduler();
+    }
+
+    @Test
+    @DisplayName("Only due reminders are taken out of the schedule, in the order they are due")
+    void pollsDueRemindersInOrder() {
+        // GIVEN reminders that are due and one that is not due yet
+        scheduler.schedule(1, NOW.minus(1, ChronoUnit.MINUTES));
+        scheduler.schedule(2, NOW.minus(5, ChronoUnit.MINUTES));
+        scheduler.schedule(3, NOW.plus(1, ChronoUnit.HOURS));
+
+        // WHEN taking out the due reminders twice
+        List<Integer> dueReminderIds = scheduler.pollDue(NOW);
+        List<Integer> dueReminderIdsAgain = scheduler.pollDue(NOW);
+
+        // THEN the due reminders are taken out exactly once
+        assertEquals(List.of(2, 1), dueReminderIds);
+        assertEquals(List.of(), dueReminderIdsAgain);
+        assertEquals(List.of(3), scheduler.pollDue(NOW.plus(1, ChronoUnit.HOURS)));
+    }
+
+    @Test
+    @DisplayName("Canceled and rescheduled reminders are respected")
+    void respectsCancelAndReschedule() {
+        // GIVEN due reminders
+        scheduler.schedule(1, NOW.minus(1, ChronoUnit.MINUTES));
+        scheduler.schedule(2, NOW.minus(1, ChronoUnit.MINUTES));
+
+        // WHEN canceling one and rescheduling the other one to later
+        scheduler.cancel(1);
+        scheduler.schedule(2, NOW.plus(1, ChronoUnit.HOURS));
+
+        // THEN none of them is due anymore
+        assertEquals(List.of(), scheduler.pollDue(NOW));
+    }
+
+    @Test
+    @DisplayName("The timer wakes up once a reminder is due")
+    void timerWakesUpWhenDue() throws InterruptedException {
+        // GIVEN a started scheduler
+        CountDownLatch wokeUp = new CountDownLatch(1);
+        scheduler.start(wokeUp::countDown);
+
+        // WHEN scheduling a reminder shortly in the future
+        scheduler.schedule(1, Instant.now().plusMillis(50));
+
+        // THEN the timer wakes up and the reminder is due
+        assertTrue(wokeUp.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1), scheduler.pollDue(Instant.now()));
+    }
+}
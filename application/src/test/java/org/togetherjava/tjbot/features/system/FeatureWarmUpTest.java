@@ -0,0 +1,83 @@
+package org.togetherjava.tjbot.features.system;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.features.Feature;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class FeatureWarmUpTest {
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @Test
+    @DisplayName("Features are warmed up in parallel and only ready once their warm-up finished")
+    void featuresAreReadyAfterWarmUp() throws Exception {
+        // GIVEN a slow feature that waits for another feature to warm up, and a fast one
+        CountDownLatch fastWarmedUp = new CountDownLatch(1);
+        CountDownLatch releaseSlow = new CountDownLatch(1);
+        Feature slowFeature = new Feature() {
+            @Override
+            public void warmUp() {
+                awaitOrFail(fastWarmedUp);
+                awaitOrFail(releaseSlow);
+            }
+        };
+        Feature fastFeature = new Feature() {
+            @Override
+            public void warmUp() {
+                fastWarmedUp.countDown();
+            }
+        };
+        FeatureWarmUp warmUp = new FeatureWarmUp(List.of(slowFeature, fastFeature));
+
+        // WHEN starting the warm-up
+        assertFalse(warmUp.isReady(fastFeature));
+        CompletableFuture<Void> allReady = warmUp.start();
+
+        // THEN the slow feature is not ready while it is still warming up
+        assertTrue(fastWarmedUp.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertFalse(warmUp.isReady(slowFeature));
+
+        releaseSlow.countDown();
+        allReady.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertTrue(warmUp.isReady(slowFeature));
+        assertTrue(warmUp.isReady(fastFeature));
+    }
+
+    @Test
+    @DisplayName("Features whose warm-up failed are ready nonetheless")
+    void failedFeaturesAreReady() throws Exception {
+        // GIVEN a feature whose warm-up fails
+        Feature failingFeature = new Feature() {
+            @Override
+            public void warmUp() {
+                throw new IllegalStateException("Expected failure of the test");
+            }
+        };
+        FeatureWarmUp warmUp = new FeatureWarmUp(List.of(failingFeature));
+
+        // WHEN warming it up
+        warmUp.start().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        // THEN it is ready
+        assertTrue(warmUp.isReady(failingFeature));
+    }
+
+    private static void awaitOrFail(CountDownLatch latch) {
+        try {
+            if (!latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for the latch");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
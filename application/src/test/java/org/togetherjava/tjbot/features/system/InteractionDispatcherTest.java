@@ -0,0 +1,117 @@
+package org.togetherjava.tjbot.features.system;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+final class InteractionDispatcherTest {
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final int MAX_CONCURRENT_INTERACTIONS = 2;
+    private static final Duration MAX_QUEUE_TIME = Duration.ofSeconds(TIMEOUT_SECONDS);
+    private static final Runnable FAIL_ON_REJECTED =
+            () -> fail("Rejected although the queue time was not exceeded");
+
+    @Test
+    @DisplayName("An interactor handles only a limited amount of interactions at the same time")
+    void limitsConcurrencyPerInteractor() throws InterruptedException {
+        // GIVEN a dispatcher and an interactor whose interactions block
+        InteractionDispatcher dispatcher =
+                new InteractionDispatcher(MAX_CONCURRENT_INTERACTIONS, MAX_QUEUE_TIME);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        int interactions = 5;
+        CountDownLatch finished = new CountDownLatch(interactions);
+
+        // WHEN dispatching more interactions than the limit
+        for (int i = 0; i < interactions; i++) {
+            dispatcher.dispatch("slash_command", "slow", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                awaitOrThrow(release);
+                running.decrementAndGet();
+                finished.countDown();
+            }, FAIL_ON_REJECTED);
+        }
+        TimeUnit.MILLISECONDS.sleep(200);
+        release.countDown();
+
+        // THEN all are handled, but never more than the limit at once
+        assertTrue(finished.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(MAX_CONCURRENT_INTERACTIONS, maxRunning.get());
+    }
+
+    @Test
+    @DisplayName("A saturated interactor neither blocks other interactors nor auto-completion")
+    void saturatedInteractorDoesNotBlockOthers() throws InterruptedException {
+        // GIVEN a dispatcher with an interactor that is fully saturated
+        InteractionDispatcher dispatcher =
+                new InteractionDispatcher(MAX_CONCURRENT_INTERACTIONS, MAX_QUEUE_TIME);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < MAX_CONCURRENT_INTERACTIONS + 1; i++) {
+            dispatcher.dispatch("slash_command", "slow", () -> awaitOrThrow(release),
+                    FAIL_ON_REJECTED);
+        }
+
+        // WHEN dispatching an interaction of another interactor and an auto-completion of the
+        // saturated one
+        CountDownLatch otherHandled = new CountDownLatch(1);
+        CountDownLatch autoCompleteHandled = new CountDownLatch(1);
+        dispatcher.dispatch("slash_command", "fast", otherHandled::countDown, FAIL_ON_REJECTED);
+        dispatcher.dispatchAutoComplete("slow", autoCompleteHandled::countDown);
+
+        // THEN both are handled right away
+        try {
+            assertTrue(otherHandled.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertTrue(autoCompleteHandled.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Interactions that waited too long for a saturated interactor are rejected")
+    void rejectsInteractionsExceedingQueueTime() throws InterruptedException {
+        // GIVEN a dispatcher with a short queue time and an interactor that is fully saturated
+        InteractionDispatcher dispatcher =
+                new InteractionDispatcher(MAX_CONCURRENT_INTERACTIONS, Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < MAX_CONCURRENT_INTERACTIONS; i++) {
+            dispatcher.dispatch("slash_command", "slow", () -> awaitOrThrow(release),
+                    FAIL_ON_REJECTED);
+        }
+
+        // WHEN dispatching another interaction of the saturated interactor
+        AtomicBoolean handled = new AtomicBoolean();
+        CountDownLatch rejected = new CountDownLatch(1);
+        dispatcher.dispatch("slash_command", "slow", () -> handled.set(true), rejected::countDown);
+
+        // THEN it is rejected instead of being handled
+        try {
+            assertTrue(rejected.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertFalse(handled.get());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void awaitOrThrow(CountDownLatch latch) {
+        try {
+            if (!latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for the latch");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.togetherjava.tjbot.features.system;
+
+import net.dv8tion.jda.api.entities.channel.Channel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.features.MessageReceiver;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+final class MessageReceiverRouterTest {
+    private static final long CHANNEL_ID = 1;
+
+    private MessageReceiver everywhereReceiver;
+    private MessageReceiver helpReceiver;
+    private MessageReceiverRouter router;
+    private Channel channel;
+
+    private static MessageReceiver createReceiver(String channelNamePattern) {
+        MessageReceiver receiver = mock(MessageReceiver.class);
+        when(receiver.getChannelNamePattern()).thenReturn(Pattern.compile(channelNamePattern));
+        return receiver;
+    }
+
+    @BeforeEach
+    void setUp() {
+        everywhereReceiver = createReceiver(".*");
+        helpReceiver = createReceiver("help.*");
+        router = new MessageReceiverRouter(List.of(everywhereReceiver, helpReceiver));
+
+        channel = mock(Channel.class);
+        when(channel.getIdLong()).thenReturn(CHANNEL_ID);
+    }
+
+    @Test
+    @DisplayName("Routes to all receivers whose pattern matches the channel name")
+    void routesToMatchingReceivers() {
+        // GIVEN a help channel and a general channel
+        when(channel.getName()).thenReturn("help-java");
+        Channel otherChannel = mock(Channel.class);
+        when(otherChannel.getIdLong()).thenReturn(CHANNEL_ID + 1);
+        when(otherChannel.getName()).thenReturn("general");
+
+        // WHEN routing events in both channels
+        MessageReceiver[] helpReceivers = router.getReceiversSubscribedTo(channel);
+        MessageReceiver[] generalReceivers = router.getReceiversSubscribedTo(otherChannel);
+
+        // THEN only the matching receivers are routed to
+        assertArrayEquals(new MessageReceiver[] {everywhereReceiver, helpReceiver}, helpReceivers);
+        assertArrayEquals(new MessageReceiver[] {everywhereReceiver}, generalReceivers);
+    }
+
+    @Test
+    @DisplayName("Resolves the receivers only once per channel")
+    void resolvesOncePerChannel() {
+        // GIVEN a channel
+        when(channel.getName()).thenReturn("help-java");
+
+        // WHEN routing multiple events in it
+        router.getReceiversSubscribedTo(channel);
+        router.getReceiversSubscribedTo(channel);
+        router.getReceiversSubscribedTo(channel);
+
+        // THEN the receivers are only resolved for the first event
+        verify(everywhereReceiver).getChannelNamePattern();
+        verify(helpReceiver).getChannelNamePattern();
+    }
+
+    @Test
+    @DisplayName("Routes to the receivers matching the new name after a rename")
+    void routesByNewNameAfterRename() {
+        // GIVEN a help channel that was routed to already
+        when(channel.getName()).thenReturn("help-java");
+        router.getReceiversSubscribedTo(channel);
+
+        // WHEN renaming it, with and without invalidating it
+        when(channel.getName()).thenReturn("general");
+        MessageReceiver[] receiversWithoutInvalidation = router.getReceiversSubscribedTo(channel);
+
+        when(channel.getName()).thenReturn("help-python");
+        router.invalidate(CHANNEL_ID);
+        MessageReceiver[] receiversAfterInvalidation = router.getReceiversSubscribedTo(channel);
+
+        // THEN the receivers matching the new name are routed to
+        assertArrayEquals(new MessageReceiver[] {everywhereReceiver},
+                receiversWithoutInvalidation);
+        assertArrayEquals(new MessageReceiver[] {everywhereReceiver, helpReceiver},
+                receiversAfterInvalidation);
+    }
+}
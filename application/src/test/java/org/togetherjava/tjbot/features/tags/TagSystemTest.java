@@ -6,8 +6,10 @@ import org.junit.jupiter.api.Test;
 
 import org.togetherjava.tjbot.db.Database;
 import org.togetherjava.tjbot.db.generated.tables.Tags;
+import org.togetherjava.tjbot.features.utils.StringDistances;
 import org.togetherjava.tjbot.jda.JdaTester;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -28,6 +30,8 @@ final class TagSystemTest {
     private void insertTagRaw(String id, String content) {
         database
             .write(context -> context.newRecord(Tags.TAGS).setId(id).setContent(content).insert());
+        // Tags are only loaded from the database on creation of the system
+        system = spy(new TagSystem(database));
     }
 
     private Optional<String> readTagRaw(String id) {
@@ -126,4 +130,33 @@ final class TagSystemTest {
         insertTagRaw("third", "baz");
         assertEquals(Set.of("first", "second", "third"), system.getAllIds());
     }
+
+    @Test
+    void changesAreWrittenThrough() {
+        system.putTag("first", "foo");
+        assertTrue(system.hasTag("first"));
+        assertEquals(Optional.of("foo"), system.getTag("first"));
+
+        system.putTag("first", "bar");
+        assertEquals(Optional.of("bar"), system.getTag("first"));
+        assertEquals(Optional.of("bar"), new TagSystem(database).getTag("first"));
+
+        system.deleteTag("first");
+        assertFalse(system.hasTag("first"));
+        assertTrue(system.getTag("first").isEmpty());
+        assertTrue(system.getAllIds().isEmpty());
+    }
+
+    @Test
+    void getCloseMatchingIds() {
+        List<String> ids = List.of("c", "c#", "c++", "emacs", "foo", "hello", "java", "js", "key",
+                "nvim", "py", "tag", "taz", "vi", "vim", "java-streams", "javadoc", "javafx");
+        ids.forEach(id -> system.putTag(id, "content"));
+
+        for (String prefix : List.of("", "v", "j", "c", "jav", "jvaa", "java-stre", "xyz")) {
+            assertEquals(StringDistances.closeMatches(prefix, ids, 5),
+                    system.getCloseMatchingIds(prefix, 5),
+                    "Matches for prefix '%s' differ".formatted(prefix));
+        }
+    }
 }
@@ -73,4 +73,27 @@ final class StringDistancesTest {
                     "Test '%s' failed".formatted(test.name));
         }
     }
+
+    @Test
+    void boundedDistances() {
+        record TestCase(String name, int expectedDistance, int expectedPrefixDistance,
+                String source, String destination, int maxDistance) {
+        }
+        List<TestCase> tests = List.of(new TestCase("within", 1, 1, "acc", "abc", 1),
+                new TestCase("exactly_max", 2, 2, "---", "-ab", 2),
+                new TestCase("exceeded", 3, 3, "bloed", "doof", 2),
+                new TestCase("length_exceeded", 2, 0, "abc", "abcdefg", 1),
+                new TestCase("zero_max", 1, 1, "acb", "abcdefg", 0),
+                new TestCase("empty", 0, 0, "", "", 0));
+
+        for (TestCase test : tests) {
+            assertEquals(test.expectedDistance,
+                    StringDistances.editDistance(test.source, test.destination, test.maxDistance),
+                    "Test '%s' failed".formatted(test.name));
+            assertEquals(test.expectedPrefixDistance,
+                    StringDistances.prefixEditDistance(test.source, test.destination,
+                            test.maxDistance),
+                    "Test '%s' failed for prefix".formatted(test.name));
+        }
+    }
 }
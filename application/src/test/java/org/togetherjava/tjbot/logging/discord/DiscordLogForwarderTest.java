@@ -0,0 +1,88 @@
+package org.togetherjava.tjbot.logging.discord;
+
+import club.minnced.discord.webhook.send.WebhookEmbed;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+final class DiscordLogForwarderTest {
+    private final List<List<WebhookEmbed>> sentBatches = new ArrayList<>();
+    private DiscordLogForwarder forwarder;
+
+    @BeforeEach
+    void setUp() {
+        // Processing is triggered by the tests instead
+        ScheduledExecutorService service = mock(ScheduledExecutorService.class);
+        forwarder = new DiscordLogForwarder(sentBatches::add, "https://example.org", service);
+    }
+
+    private static LogEvent createEvent(String message, long timeMillis) {
+        return Log4jLogEvent.newBuilder()
+            .setLevel(Level.ERROR)
+            .setLoggerName("test")
+            .setMessage(new SimpleMessage(message))
+            .setTimeMillis(timeMillis)
+            .build();
+    }
+
+    @Test
+    @DisplayName("Identical logs are collapsed into a single embed carrying the repetitions")
+    void collapsesIdenticalLogs() {
+        // GIVEN the same log three times and another log
+        forwarder.forwardLogEvent(createEvent("foo", 1));
+        forwarder.forwardLogEvent(createEvent("foo", 2));
+        forwarder.forwardLogEvent(createEvent("bar", 3));
+        forwarder.forwardLogEvent(createEvent("foo", 4));
+
+        // WHEN forwarding them
+        forwarder.processPendingLogs();
+
+        // THEN they are sent as two embeds, ordered by their first occurrence
+        assertEquals(1, sentBatches.size());
+        List<WebhookEmbed> batch = sentBatches.getFirst();
+        assertEquals(2, batch.size());
+        assertEquals("ERROR (3 times)", batch.get(0).getTitle().getText());
+        assertEquals("foo", batch.get(0).getDescription());
+        assertEquals("ERROR", batch.get(1).getTitle().getText());
+        assertEquals("bar", batch.get(1).getDescription());
+        assertEquals(0, forwarder.getBufferedLogsCount());
+    }
+
+    @Test
+    @DisplayName("Logs exceeding the buffer are discarded, collapsed logs free up the buffer")
+    void discardsLogsExceedingBuffer() {
+        // GIVEN a full buffer of identical logs
+        for (int i = 0; i < DiscordLogForwarder.MAX_PENDING_LOGS; i++) {
+            forwarder.forwardLogEvent(createEvent("foo", i));
+        }
+
+        // WHEN sending another log, and again after the logs were forwarded
+        forwarder.forwardLogEvent(createEvent("discarded", 0));
+        int bufferedLogsWhenFull = forwarder.getBufferedLogsCount();
+
+        forwarder.processPendingLogs();
+        forwarder.forwardLogEvent(createEvent("bar", 0));
+        forwarder.processPendingLogs();
+
+        // THEN the log was discarded while the buffer was full, but accepted afterwards
+        assertEquals(DiscordLogForwarder.MAX_PENDING_LOGS, bufferedLogsWhenFull);
+        List<String> sentDescriptions = sentBatches.stream()
+            .flatMap(List::stream)
+            .map(WebhookEmbed::getDescription)
+            .toList();
+        assertEquals(List.of("foo", "bar"), sentDescriptions);
+        assertEquals("ERROR (%d times)".formatted(DiscordLogForwarder.MAX_PENDING_LOGS),
+                sentBatches.getFirst().getFirst().getTitle().getText());
+    }
+}
@@ -0,0 +1,84 @@
+package org.togetherjava.tjbot.benchmarks;
+
+import org.togetherjava.tjbot.config.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Loads the realistic inputs used by the benchmarks, which are checked in as resources under
+ * {@code corpora/}.
+ * <p>
+ * Corpora consisting of multiple messages separate them by a line containing only {@code ---}.
+ */
+public final class Corpora {
+    private static final String CORPORA_DIRECTORY = "/corpora/";
+    private static final Pattern MESSAGE_SEPARATOR = Pattern.compile("\\R---\\R");
+    private static final String CONFIG_PATH_PROPERTY = "tjbot.benchmarks.config";
+
+    private Corpora() {
+        throw new UnsupportedOperationException("Utility class, construction not supported");
+    }
+
+    /**
+     * Reads the full content of the given corpus.
+     *
+     * @param name the name of the corpus, for example {@code "large-paste.java.txt"}
+     * @return the content of the corpus
+     * @throws UncheckedIOException if the corpus could not be read
+     */
+    public static String readText(String name) {
+        try (InputStream input = Corpora.class.getResourceAsStream(CORPORA_DIRECTORY + name)) {
+            Objects.requireNonNull(input, () -> "The corpus '%s' does not exist".formatted(name));
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the corpus '%s'".formatted(name), e);
+        }
+    }
+
+    /**
+     * Reads the messages contained in the given corpus.
+     *
+     * @param name the name of the corpus, for example {@code "scam-messages.txt"}
+     * @return the messages of the corpus, in order
+     * @throws UncheckedIOException if the corpus could not be read
+     */
+    public static List<String> readMessages(String name) {
+        return Arrays.stream(MESSAGE_SEPARATOR.split(readText(name).strip())).toList();
+    }
+
+    /**
+     * Reads the lines contained in the given corpus, ignoring blank lines.
+     *
+     * @param name the name of the corpus, for example {@code "tag-ids.txt"}
+     * @return the lines of the corpus, in order
+     * @throws UncheckedIOException if the corpus could not be read
+     */
+    public static List<String> readLines(String name) {
+        return readText(name).lines().filter(line -> !line.isBlank()).map(String::strip).toList();
+    }
+
+    /**
+     * Loads the config used by benchmarks, which is the config template of the application. Its
+     * path is given by the system property {@value CONFIG_PATH_PROPERTY}, set by the build.
+     *
+     * @return the loaded config
+     * @throws UncheckedIOException if the config could not be read
+     */
+    public static Config loadConfig() {
+        String configPath = Objects.requireNonNull(System.getProperty(CONFIG_PATH_PROPERTY),
+                "The system property '%s' must point to a config".formatted(CONFIG_PATH_PROPERTY));
+        try {
+            return Config.load(Path.of(configPath));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load the config for benchmarks", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * Shared infrastructure for the JMH benchmarks of the bot, such as loading the checked-in corpora.
+ * See {@link org.togetherjava.tjbot.benchmarks.Corpora} as entry point.
+ * <p>
+ * The benchmarks themselves are located in the packages of the code they measure, so that they can
+ * also cover package-private hot paths.
+ */
+@MethodsReturnNonnullByDefault
+@ParametersAreNonnullByDefault
+package org.togetherjava.tjbot.benchmarks;
+
+import org.togetherjava.tjbot.annotations.MethodsReturnNonnullByDefault;
+
+import javax.annotation.ParametersAreNonnullByDefault;
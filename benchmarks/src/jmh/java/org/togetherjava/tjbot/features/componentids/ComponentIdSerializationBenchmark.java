@@ -0,0 +1,57 @@
+package org.togetherjava.tjbot.features.componentids;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the CSV serialization of {@link ComponentId}s by {@link ComponentIdStore}, which
+ * happens for every created and every looked up component ID.
+ * <p>
+ * The payloads resemble the ones of actual features, for example a message ID and an action for
+ * code actions, or a list of bookmark IDs for bookmark paging.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ComponentIdSerializationBenchmark {
+    @Param({"none", "small", "large"})
+    private String payload;
+
+    private ComponentId componentId;
+    private String serializedComponentId;
+
+    @Setup
+    public void setUp() {
+        List<String> elements = switch (payload) {
+            case "none" -> List.of();
+            case "small" -> List.of("1204418291347255406", "FORMAT");
+            case "large" -> List.of("1204418291347255406", "1204418291347255407",
+                    "1204418291347255408", "1204418291347255409", "1204418291347255410",
+                    "1204418291347255411", "1204418291347255412", "1204418291347255413",
+                    "some text, with a comma and \"quotes\"");
+            default -> throw new IllegalArgumentException("Unknown payload: " + payload);
+        };
+
+        componentId = new ComponentId("code-actions", elements);
+        serializedComponentId = ComponentIdStore.serializeComponentId(componentId);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return ComponentIdStore.serializeComponentId(componentId);
+    }
+
+    @Benchmark
+    public ComponentId deserialize() {
+        return ComponentIdStore.deserializeComponentId(serializedComponentId);
+    }
+}
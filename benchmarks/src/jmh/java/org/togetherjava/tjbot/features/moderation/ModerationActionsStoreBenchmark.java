@@ -0,0 +1,116 @@
+package org.togetherjava.tjbot.features.moderation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.togetherjava.tjbot.db.Database;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.togetherjava.tjbot.db.generated.tables.ModerationActions.MODERATION_ACTIONS;
+
+/**
+ * Benchmarks how {@link ModerationActionsStore} plans the revocation of expired temporary actions,
+ * as done by the temporary moderation routine every few minutes.
+ * <p>
+ * The store holds 100k historic actions, a third of them temporary and long expired and handled
+ * already, next to a few recently expired actions. The benchmark compares planning with
+ * {@link ModerationActionsStore#getPendingRevocations(Map)} against the previous approach of
+ * looking up the last apply and revoke action for each group of all expired actions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModerationActionsStoreBenchmark {
+    private static final int HISTORIC_ACTIONS = 100_000;
+    private static final int RECENTLY_EXPIRED_ACTIONS = 20;
+    private static final int TARGETS = 10_000;
+    private static final long GUILD_ID = 1;
+    private static final long AUTHOR_ID = 2;
+    private static final Map<ModerationAction, ModerationAction> APPLY_TYPE_TO_REVOKE_TYPE =
+            Map.of(ModerationAction.BAN, ModerationAction.UNBAN, ModerationAction.MUTE,
+                    ModerationAction.UNMUTE, ModerationAction.QUARANTINE,
+                    ModerationAction.UNQUARANTINE);
+
+    private Database database;
+    private ModerationActionsStore store;
+
+    @Setup
+    public void setUp() {
+        database = Database.createMemoryDatabase(MODERATION_ACTIONS);
+        store = new ModerationActionsStore(database);
+
+        Random random = new Random(1);
+        ModerationAction[] types = ModerationAction.values();
+        Instant longAgo = Instant.now().minus(365, ChronoUnit.DAYS);
+
+        database.write(context -> {
+            for (int i = 0; i < HISTORIC_ACTIONS; i++) {
+                ModerationAction type = types[random.nextInt(types.length)];
+                boolean isTemporary =
+                        APPLY_TYPE_TO_REVOKE_TYPE.containsKey(type) && random.nextBoolean();
+
+                context.newRecord(MODERATION_ACTIONS)
+                    .setIssuedAt(longAgo.plusSeconds(i))
+                    .setGuildId(GUILD_ID)
+                    .setAuthorId(AUTHOR_ID)
+                    .setTargetId(random.nextInt(TARGETS))
+                    .setActionType(type.name())
+                    .setActionExpiresAt(isTemporary ? longAgo.plusSeconds(i + 3_600L) : null)
+                    .setReason("Historic action")
+                    .setExpirationHandled(isTemporary)
+                    .insert();
+            }
+        });
+
+        for (int i = 0; i < RECENTLY_EXPIRED_ACTIONS; i++) {
+            store.addAction(GUILD_ID, AUTHOR_ID, random.nextInt(TARGETS), ModerationAction.BAN,
+                    Instant.now().minus(1, ChronoUnit.MINUTES), "Recent action");
+        }
+    }
+
+    @Benchmark
+    public void getPendingRevocations(Blackhole blackhole) {
+        blackhole.consume(store.getPendingRevocations(APPLY_TYPE_TO_REVOKE_TYPE));
+    }
+
+    @Benchmark
+    public void findLastActionsPerExpiredGroup(Blackhole blackhole) {
+        Instant now = Instant.now();
+        Set<ExpiredGroup> expiredGroups = database
+            .read(context -> context.selectFrom(MODERATION_ACTIONS)
+                .where(MODERATION_ACTIONS.ACTION_EXPIRES_AT.lessOrEqual(now))
+                .orderBy(MODERATION_ACTIONS.ISSUED_AT.asc())
+                .fetch())
+            .stream()
+            .map(ActionRecord::of)
+            .filter(action -> APPLY_TYPE_TO_REVOKE_TYPE.containsKey(action.actionType()))
+            .map(ExpiredGroup::of)
+            .collect(Collectors.toSet());
+
+        for (ExpiredGroup group : expiredGroups) {
+            blackhole.consume(store.findLastActionAgainstTargetByType(group.guildId(),
+                    group.targetId(), group.type()));
+            blackhole.consume(store.findLastActionAgainstTargetByType(group.guildId(),
+                    group.targetId(), APPLY_TYPE_TO_REVOKE_TYPE.get(group.type())));
+        }
+    }
+
+    private record ExpiredGroup(long guildId, long targetId, ModerationAction type) {
+        static ExpiredGroup of(ActionRecord action) {
+            return new ExpiredGroup(action.guildId(), action.targetId(), action.actionType());
+        }
+    }
+}
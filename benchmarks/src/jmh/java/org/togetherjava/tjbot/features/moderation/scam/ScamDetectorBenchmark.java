@@ -0,0 +1,45 @@
+package org.togetherjava.tjbot.features.moderation.scam;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.togetherjava.tjbot.benchmarks.Corpora;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ScamDetector#isScam(CharSequence)}, which runs on every message of the guild.
+ * <p>
+ * One operation analyzes all messages of the corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScamDetectorBenchmark {
+    @Param({"scam-messages.txt", "regular-messages.txt"})
+    private String corpus;
+
+    private ScamDetector scamDetector;
+    private List<String> messages;
+
+    @Setup
+    public void setUp() {
+        scamDetector = new ScamDetector(Corpora.loadConfig());
+        messages = Corpora.readMessages(corpus);
+    }
+
+    @Benchmark
+    public void isScam(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(scamDetector.isScam(message));
+        }
+    }
+}
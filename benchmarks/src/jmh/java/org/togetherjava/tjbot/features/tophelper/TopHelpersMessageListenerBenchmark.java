@@ -0,0 +1,40 @@
+package org.togetherjava.tjbot.features.tophelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.togetherjava.tjbot.benchmarks.Corpora;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link TopHelpersMessageListener#countValidCharacters(String)}, which runs on every
+ * message sent in help threads.
+ * <p>
+ * One operation analyzes all messages of the corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TopHelpersMessageListenerBenchmark {
+    private List<String> messages;
+
+    @Setup
+    public void setUp() {
+        messages = Corpora.readMessages("help-messages.txt");
+    }
+
+    @Benchmark
+    public void countValidCharacters(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(TopHelpersMessageListener.countValidCharacters(message));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.togetherjava.tjbot.features.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.togetherjava.tjbot.benchmarks.Corpora;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link MessageUtils#extractCode(String)}, which runs on messages for code detection.
+ * <p>
+ * One operation analyzes all messages of the corpus, a mix of messages with and without code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageUtilsBenchmark {
+    private List<String> messages;
+
+    @Setup
+    public void setUp() {
+        messages = Corpora.readMessages("help-messages.txt");
+    }
+
+    @Benchmark
+    public void extractCode(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(MessageUtils.extractCode(message));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.togetherjava.tjbot.features.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.togetherjava.tjbot.benchmarks.Corpora;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link StringDistances}, as used by autocompletion of tags and GitHub issues, and by
+ * the scam detector.
+ * <p>
+ * The candidates are realistic tag names. The prefixes simulate a user typing a tag name keystroke
+ * by keystroke, including typos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StringDistancesBenchmark {
+    private static final int MAX_MATCHES = 25;
+    /**
+     * Maximal distance as used by the scam detector to find hosts similar to a keyword.
+     */
+    private static final int MAX_DISTANCE = 2;
+
+    @Param({"a", "stri", "strnig-compr", "how-to-compare-strings-in-java"})
+    private String prefix;
+
+    private List<String> candidates;
+
+    @Setup
+    public void setUp() {
+        candidates = Corpora.readLines("tag-ids.txt");
+    }
+
+    @Benchmark
+    public void editDistance(Blackhole blackhole) {
+        for (String candidate : candidates) {
+            blackhole.consume(StringDistances.editDistance(prefix, candidate));
+        }
+    }
+
+    @Benchmark
+    public void prefixEditDistance(Blackhole blackhole) {
+        for (String candidate : candidates) {
+            blackhole.consume(StringDistances.prefixEditDistance(prefix, candidate));
+        }
+    }
+
+    @Benchmark
+    public void boundedEditDistance(Blackhole blackhole) {
+        for (String candidate : candidates) {
+            blackhole.consume(StringDistances.editDistance(prefix, candidate, MAX_DISTANCE));
+        }
+    }
+
+    @Benchmark
+    public Collection<String> closeMatches() {
+        return StringDistances.closeMatches(prefix, candidates, MAX_MATCHES);
+    }
+}
@@ -0,0 +1,38 @@
+package org.togetherjava.tjbot.formatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.togetherjava.tjbot.benchmarks.Corpora;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Formatter#format(CharSequence)}, as used by the code actions in help threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormatterBenchmark {
+    @Param({"small-snippet.java.txt", "large-paste.java.txt", "compact-paste.java.txt"})
+    private String corpus;
+
+    private final Formatter formatter = new Formatter();
+    private String code;
+
+    @Setup
+    public void setUp() {
+        code = Corpora.readText(corpus);
+    }
+
+    @Benchmark
+    public String format() {
+        return formatter.format(code);
+    }
+}
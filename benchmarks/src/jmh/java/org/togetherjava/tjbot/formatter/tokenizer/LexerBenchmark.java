@@ -0,0 +1,45 @@
+package org.togetherjava.tjbot.formatter.tokenizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.togetherjava.tjbot.benchmarks.Corpora;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Lexer}, both the list-based {@link Lexer#tokenize(CharSequence)} and the
+ * compact {@link Lexer#tokenizeToStream(CharSequence)} used by the formatter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LexerBenchmark {
+    @Param({"small-snippet.java.txt", "large-paste.java.txt", "compact-paste.java.txt"})
+    private String corpus;
+
+    private final Lexer lexer = new Lexer();
+    private String code;
+
+    @Setup
+    public void setUp() {
+        code = Corpora.readText(corpus);
+    }
+
+    @Benchmark
+    public List<Token> tokenize() {
+        return lexer.tokenize(code);
+    }
+
+    @Benchmark
+    public TokenStream tokenizeToStream() {
+        return lexer.tokenizeToStream(code);
+    }
+}
@@ -11,9 +11,12 @@ import org.sqlite.SQLiteDataSource;
 
 import org.togetherjava.tjbot.db.util.CheckedConsumer;
 import org.togetherjava.tjbot.db.util.CheckedFunction;
+import org.togetherjava.tjbot.metrics.Histogram;
+import org.togetherjava.tjbot.metrics.MetricsRegistry;
 
 import java.sql.SQLException;
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -23,8 +26,38 @@ import java.util.concurrent.locks.ReentrantLock;
  * connections are handled automatically by the system.
  * <p>
  * Instances of this class are thread-safe and can be used to concurrently write to the database.
+ * <p>
+ * All writes go through a single dedicated connection, one at a time. Reads are served by a
+ * bounded pool of separate read-only connections. Since the database runs in WAL mode, reads
+ * proceed while a write, or even a long write transaction, is in progress. They see the state of
+ * the last committed write. Reads issued from within a write, on the same thread, use the writer
+ * connection instead and hence also see its uncommitted changes.
+ * <p>
+ * Databases held in memory can not share their content across connections, hence they serve reads
+ * by the writer connection as well.
+ * <p>
+ * Frequent writes that do not have to be visible immediately, such as recording every message,
+ * can opt in to be committed in the background, batched together with other writes. See
+ * {@link #writeBehind(CheckedConsumer)}.
+ * <p>
+ * How long writes wait for and hold the write lock, as well as how long reads wait for a
+ * connection, is measured and exposed by {@link MetricsRegistry#getDefault()}.
  */
 public final class Database {
+    /**
+     * Default amount of read-only connections in the pool, see {@link #Database(String, int)}.
+     */
+    public static final int DEFAULT_READ_CONNECTIONS = 4;
+
+    private static final Histogram WRITE_LOCK_WAIT = MetricsRegistry.getDefault()
+        .histogram("tjbot_database_write_lock_wait_seconds",
+                "Time writes spent waiting for the write lock of the database");
+    private static final Histogram WRITE_LOCK_HOLD = MetricsRegistry.getDefault()
+        .histogram("tjbot_database_write_lock_hold_seconds",
+                "Time writes held the write lock of the database");
+    private static final Histogram READ_CONNECTION_WAIT = MetricsRegistry.getDefault()
+        .histogram("tjbot_database_read_connection_wait_seconds",
+                "Time reads spent waiting for a read-only connection of the database");
 
     static {
         System.setProperty("org.jooq.no-logo", "true");
@@ -36,15 +69,46 @@ public final class Database {
      * Lock used to implement thread-safety across this class. Any database modifying method must
      * use this lock.
      */
-    private final Lock writeLock = new ReentrantLock();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    /**
+     * Pool of contexts over read-only connections that are currently not in use. Empty if reads
+     * are served by the writer connection.
+     */
+    private final BlockingQueue<DSLContext> idleReadContexts;
+    private final boolean hasReadConnections;
+    /**
+     * The read context the current thread has borrowed from the pool, if any. Allows nested reads
+     * without borrowing a second connection, which could otherwise deadlock an exhausted pool.
+     */
+    private final ThreadLocal<DSLContext> borrowedReadContext = new ThreadLocal<>();
+    private final WriteBehindQueue writeBehindQueue = new WriteBehindQueue(this);
 
     /**
-     * Creates an instance of a new database.
+     * Creates an instance of a new database, with the default amount of read-only connections.
      *
      * @param jdbcUrl the url to the database in the format expected by JDBC
      * @throws SQLException if no connection could be established
      */
     public Database(String jdbcUrl) throws SQLException {
+        this(jdbcUrl, isInMemory(jdbcUrl) ? 0 : DEFAULT_READ_CONNECTIONS);
+    }
+
+    /**
+     * Creates an instance of a new database.
+     *
+     * @param jdbcUrl the url to the database in the format expected by JDBC
+     * @param readConnections the amount of read-only connections to serve reads with, in addition
+     *        to the writer connection. Use {@code 0} to serve reads by the writer connection, which
+     *        is required for databases held in memory.
+     * @throws SQLException if no connection could be established
+     */
+    public Database(String jdbcUrl, int readConnections) throws SQLException {
+        if (readConnections < 0) {
+            throw new IllegalArgumentException(
+                    "The amount of read connections must not be negative, but was %d"
+                        .formatted(readConnections));
+        }
+
         SQLiteConfig sqliteConfig = new SQLiteConfig();
         sqliteConfig.enforceForeignKeys(true);
         // In WAL mode only concurrent writes pose a problem, so we synchronize those
@@ -58,6 +122,23 @@ public final class Database {
         flyway.migrate();
 
         dslContext = DSL.using(dataSource.getConnection(), SQLDialect.SQLITE);
+
+        // Readers only open the database, the writer already set it up
+        SQLiteConfig readerConfig = new SQLiteConfig();
+        readerConfig.setReadOnly(true);
+        SQLiteDataSource readerDataSource = new SQLiteDataSource(readerConfig);
+        readerDataSource.setUrl(jdbcUrl);
+
+        hasReadConnections = readConnections > 0;
+        idleReadContexts = new ArrayBlockingQueue<>(Math.max(1, readConnections));
+        for (int i = 0; i < readConnections; i++) {
+            idleReadContexts.add(DSL.using(readerDataSource.getConnection(), SQLDialect.SQLITE));
+        }
+    }
+
+    private static boolean isInMemory(String jdbcUrl) {
+        return "jdbc:sqlite:".equals(jdbcUrl) || jdbcUrl.contains(":memory:")
+                || jdbcUrl.contains("mode=memory");
     }
 
     /**
@@ -68,7 +149,7 @@ public final class Database {
      */
     public static Database createMemoryDatabase(Table<?>... tables) {
         try {
-            Database database = new Database("jdbc:sqlite:");
+            Database database = new Database("jdbc:sqlite:", 0);
             database.write(context -> context.ddl(tables).executeBatch());
             return database;
         } catch (SQLException e) {
@@ -87,7 +168,7 @@ public final class Database {
     public <T> T read(
             CheckedFunction<? super DSLContext, T, ? extends DataAccessException> action) {
         try {
-            return action.accept(getDslContext());
+            return useReadContext(action);
         } catch (DataAccessException e) {
             throw new DatabaseException(e);
         }
@@ -118,13 +199,13 @@ public final class Database {
      */
     public <T> T writeAndProvide(
             CheckedFunction<? super DSLContext, T, ? extends DataAccessException> action) {
-        writeLock.lock();
+        long lockedAtNanos = lockWrite();
         try {
             return action.accept(getDslContext());
         } catch (DataAccessException e) {
             throw new DatabaseException(e);
         } finally {
-            writeLock.unlock();
+            unlockWrite(lockedAtNanos);
         }
     }
 
@@ -156,7 +237,11 @@ public final class Database {
         var holder = new ResultHolder<T>();
 
         try {
-            getDslContext().transaction(config -> holder.result = handler.accept(config.dsl()));
+            useReadContext(context -> {
+                context.transaction(config -> holder.result = handler.accept(config.dsl()));
+                // noinspection ReturnOfNull
+                return null;
+            });
         } catch (DataAccessException e) {
             throw new DatabaseException(e);
         }
@@ -194,13 +279,13 @@ public final class Database {
             CheckedFunction<? super DSLContext, T, DataAccessException> handler) {
         var holder = new ResultHolder<T>();
 
-        writeLock.lock();
+        long lockedAtNanos = lockWrite();
         try {
             getDslContext().transaction(config -> holder.result = handler.accept(config.dsl()));
         } catch (DataAccessException e) {
             throw new DatabaseException(e);
         } finally {
-            writeLock.unlock();
+            unlockWrite(lockedAtNanos);
         }
 
         return holder.result;
@@ -222,10 +307,106 @@ public final class Database {
         });
     }
 
+    /**
+     * Queues a write that is committed in the background, without waiting for it.
+     * <p>
+     * Queued writes are committed in batches, each within a single transaction, by a dedicated
+     * thread. Hence, the write is usually committed within a few milliseconds, but until then, it
+     * is not visible to any read. Writes are committed in the order they have been queued in, but
+     * possibly after writes issued later by other means than this method. Use
+     * {@link #flushWriteBehind()} to wait for all queued writes to be committed.
+     * <p>
+     * If the queue is full, this method blocks until there is space again. If the write fails, it
+     * is logged and dropped, not retried.
+     *
+     * @param action the action to apply to the DSL context, e.g. an insert
+     * @throws DatabaseException if interrupted while waiting for space in the queue
+     */
+    public void writeBehind(
+            CheckedConsumer<? super DSLContext, ? extends DataAccessException> action) {
+        if (writeLock.isHeldByCurrentThread()) {
+            // Already within a write, waiting for the queue could deadlock with its flusher
+            write(action);
+            return;
+        }
+        writeBehindQueue.enqueue(action);
+    }
+
+    /**
+     * Waits until all writes queued by {@link #writeBehind(CheckedConsumer)} so far are committed.
+     * <p>
+     * Returns immediately if there are no such writes. Should be used before reads that must see
+     * queued writes, and on shutdown.
+     *
+     * @throws DatabaseException if interrupted or timed out while waiting
+     */
+    public void flushWriteBehind() {
+        writeBehindQueue.flush();
+    }
+
     private DSLContext getDslContext() {
         return dslContext;
     }
 
+    /**
+     * Acquires the {@link #writeLock}, measuring how long it took.
+     *
+     * @return when the lock was acquired, as given by {@link System#nanoTime()}
+     */
+    private long lockWrite() {
+        // Only the outermost of nested writes is measured, the others never wait
+        boolean isNested = writeLock.isHeldByCurrentThread();
+        long waitStartNanos = System.nanoTime();
+        writeLock.lock();
+
+        long lockedAtNanos = System.nanoTime();
+        if (!isNested) {
+            WRITE_LOCK_WAIT.recordNanos(lockedAtNanos - waitStartNanos);
+        }
+        return lockedAtNanos;
+    }
+
+    private void unlockWrite(long lockedAtNanos) {
+        if (writeLock.getHoldCount() == 1) {
+            WRITE_LOCK_HOLD.recordSince(lockedAtNanos);
+        }
+        writeLock.unlock();
+    }
+
+    private <T, E extends Throwable> T useReadContext(
+            CheckedFunction<? super DSLContext, T, E> action) throws E {
+        // Reads within a write must see its uncommitted changes
+        if (!hasReadConnections || writeLock.isHeldByCurrentThread()) {
+            return action.accept(getDslContext());
+        }
+
+        DSLContext alreadyBorrowedContext = borrowedReadContext.get();
+        if (alreadyBorrowedContext != null) {
+            return action.accept(alreadyBorrowedContext);
+        }
+
+        DSLContext readContext = borrowReadContext();
+        borrowedReadContext.set(readContext);
+        try {
+            return action.accept(readContext);
+        } finally {
+            borrowedReadContext.remove();
+            idleReadContexts.add(readContext);
+        }
+    }
+
+    private DSLContext borrowReadContext() {
+        long waitStartNanos = System.nanoTime();
+        try {
+            return idleReadContexts.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException(e);
+        } finally {
+            READ_CONNECTION_WAIT.recordSince(waitStartNanos);
+        }
+    }
+
     /**
      * Utility classed used to wrap a result, for example to bypass <i>effectively final</i>
      * restrictions.
@@ -0,0 +1,229 @@
+package org.togetherjava.tjbot.db;
+
+import org.jooq.DSLContext;
+import org.jooq.exception.DataAccessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.togetherjava.tjbot.db.util.CheckedConsumer;
+
+import javax.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queue of writes that are committed in the background, see {@link Database#writeBehind}.
+ * <p>
+ * A single flusher thread takes the queued writes and commits them in batches, each batch within a
+ * single transaction. A batch is committed once it reached {@link #MAX_BATCH_SIZE} writes or
+ * {@link #MAX_BATCH_DELAY} passed since its first write was taken, whatever comes first. Writes
+ * are committed in the order they have been queued in.
+ * <p>
+ * The flusher thread is only started once the first write is queued. The queue is bounded, once
+ * full, queuing blocks until the flusher caught up.
+ * <p>
+ * The class is thread-safe.
+ */
+final class WriteBehindQueue {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    static final int CAPACITY = 10_000;
+    static final int MAX_BATCH_SIZE = 500;
+    static final Duration MAX_BATCH_DELAY = Duration.ofMillis(5);
+    private static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Database database;
+    private final BlockingQueue<PendingWrite> pendingWrites = new ArrayBlockingQueue<>(CAPACITY);
+    /**
+     * Amount of writes that have been queued but not committed yet.
+     */
+    private final AtomicInteger uncommittedWrites = new AtomicInteger();
+    private final Object flusherLock = new Object();
+    @Nullable
+    private volatile Thread flusher;
+
+    /**
+     * Creates a new queue that commits writes to the given database.
+     *
+     * @param database the database to commit writes to
+     */
+    WriteBehindQueue(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Queues the given write, to be committed in the background. Blocks if the queue is full.
+     *
+     * @param action the write to commit
+     * @throws DatabaseException if interrupted while waiting for space in the queue
+     */
+    void enqueue(CheckedConsumer<? super DSLContext, ? extends DataAccessException> action) {
+        Thread currentFlusher = startFlusherIfNeeded();
+        if (Thread.currentThread() == currentFlusher) {
+            // Waiting for space would wait on ourselves
+            database.write(action);
+            return;
+        }
+
+        uncommittedWrites.incrementAndGet();
+        put(new PendingWrite(action, null));
+    }
+
+    /**
+     * Waits until all writes that have been queued so far are committed.
+     *
+     * @throws DatabaseException if interrupted or timed out while waiting
+     */
+    void flush() {
+        Thread currentFlusher = flusher;
+        if (currentFlusher == null || Thread.currentThread() == currentFlusher
+                || uncommittedWrites.get() == 0) {
+            return;
+        }
+
+        CompletableFuture<Void> committed = new CompletableFuture<>();
+        put(new PendingWrite(null, committed));
+
+        try {
+            committed.get(FLUSH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException(e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    private Thread startFlusherIfNeeded() {
+        Thread currentFlusher = flusher;
+        if (currentFlusher != null) {
+            return currentFlusher;
+        }
+
+        synchronized (flusherLock) {
+            if (flusher == null) {
+                Thread newFlusher = new Thread(this::runFlusher, "database-write-behind");
+                // Remaining writes are committed by a flush on shutdown
+                newFlusher.setDaemon(true);
+                newFlusher.start();
+                flusher = newFlusher;
+            }
+            return flusher;
+        }
+    }
+
+    private void put(PendingWrite pendingWrite) {
+        try {
+            pendingWrites.put(pendingWrite);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException(e);
+        }
+    }
+
+    private void runFlusher() {
+        List<PendingWrite> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("The write-behind flusher was interrupted, {} writes are dropped",
+                        uncommittedWrites.get());
+                return;
+            }
+
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    private void collectBatch(List<PendingWrite> batch) throws InterruptedException {
+        batch.add(pendingWrites.take());
+        long deadline = System.nanoTime() + MAX_BATCH_DELAY.toNanos();
+
+        while (batch.size() < MAX_BATCH_SIZE && !batch.getLast().isFlushRequest()) {
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return;
+            }
+
+            PendingWrite next = pendingWrites.poll(remainingNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        List<CheckedConsumer<? super DSLContext, ? extends DataAccessException>> actions =
+                new ArrayList<>(batch.size());
+        for (PendingWrite pendingWrite : batch) {
+            if (!pendingWrite.isFlushRequest()) {
+                actions.add(pendingWrite.action());
+            }
+        }
+
+        try {
+            commitTogether(actions);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to commit a batch of {} writes, committing them one by one instead",
+                    actions.size(), e);
+            actions.forEach(this::commitAlone);
+        } finally {
+            uncommittedWrites.addAndGet(-actions.size());
+            for (PendingWrite pendingWrite : batch) {
+                if (pendingWrite.isFlushRequest()) {
+                    pendingWrite.onCommitted().complete(null);
+                }
+            }
+        }
+    }
+
+    private void commitTogether(
+            List<CheckedConsumer<? super DSLContext, ? extends DataAccessException>> actions) {
+        if (actions.isEmpty()) {
+            return;
+        }
+
+        database.writeTransaction(context -> {
+            for (var action : actions) {
+                action.accept(context);
+            }
+        });
+    }
+
+    private void commitAlone(
+            CheckedConsumer<? super DSLContext, ? extends DataAccessException> action) {
+        try {
+            database.write(action);
+        } catch (RuntimeException e) {
+            logger.error("Failed to commit a queued write, it is dropped", e);
+        }
+    }
+
+    /**
+     * A queued entry, either a write or a request to be notified once all writes queued before
+     * are committed.
+     *
+     * @param action the write, {@code null} for flush requests
+     * @param onCommitted completed once all writes before are committed, {@code null} for writes
+     */
+    private record PendingWrite(
+            @Nullable CheckedConsumer<? super DSLContext, ? extends DataAccessException> action,
+            @Nullable CompletableFuture<Void> onCommitted) {
+        boolean isFlushRequest() {
+            return action == null;
+        }
+    }
+}
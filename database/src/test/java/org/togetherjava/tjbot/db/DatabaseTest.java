@@ -0,0 +1,165 @@
+package org.togetherjava.tjbot.db;
+
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class DatabaseTest {
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final Table<?> NUMBERS = DSL.table("numbers");
+    private static final Field<Integer> VALUE = DSL.field("value", Integer.class);
+
+    @TempDir
+    private Path databaseDirectory;
+    private Database database;
+    private ExecutorService writerService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new Database("jdbc:sqlite:" + databaseDirectory.resolve("database.db"), 1);
+        database.write(context -> context.createTable(NUMBERS).column(VALUE).execute());
+        database.write(context -> context.insertInto(NUMBERS, VALUE).values(1).execute());
+
+        writerService = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        writerService.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Reads proceed while a write transaction is open and only see committed changes")
+    void readsProceedWhileWriteTransactionIsOpen() throws Exception {
+        // GIVEN a write transaction that is kept open
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch readFinished = new CountDownLatch(1);
+        CompletableFuture<Void> writeTask = CompletableFuture.runAsync(() -> database
+            .writeTransaction(context -> {
+                context.insertInto(NUMBERS, VALUE).values(2).execute();
+                writeStarted.countDown();
+                awaitOrThrow(readFinished);
+            }), writerService);
+        awaitOrThrow(writeStarted);
+
+        // WHEN reading meanwhile
+        int countDuringWrite = CompletableFuture.supplyAsync(() -> countNumbers(database))
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        readFinished.countDown();
+        writeTask.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        // THEN the read did not wait for the write and only saw the committed state
+        assertEquals(1, countDuringWrite);
+        assertEquals(2, countNumbers(database));
+    }
+
+    @Test
+    @DisplayName("Reads within a write see the changes of that write")
+    void readsWithinWriteSeeUncommittedChanges() {
+        // GIVEN a write transaction that inserted a value
+        // WHEN reading within that transaction
+        int countWithinWrite = database.writeTransactionAndProvide(context -> {
+            context.insertInto(NUMBERS, VALUE).values(2).execute();
+            return countNumbers(database);
+        });
+
+        // THEN the read saw the inserted value
+        assertEquals(2, countWithinWrite);
+    }
+
+    @Test
+    @DisplayName("Nested reads do not exhaust the pool of read connections")
+    void nestedReadsDoNotExhaustPool() throws Exception {
+        // GIVEN a database with a single read connection
+        // WHEN reading within a read
+        int count = CompletableFuture
+            .supplyAsync(() -> database.readTransaction(context -> countNumbers(database)))
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        // THEN the nested read did not wait for the connection borrowed by the outer read
+        assertEquals(1, count);
+    }
+
+    @Test
+    @DisplayName("Writes queued for the background are committed in order once flushed")
+    void writeBehindIsCommittedOnFlush() {
+        // GIVEN many writes queued for the background
+        int amount = WriteBehindQueue.MAX_BATCH_SIZE * 3;
+        for (int i = 0; i < amount; i++) {
+            int value = i + 2;
+            database.writeBehind(
+                    context -> context.insertInto(NUMBERS, VALUE).values(value).execute());
+        }
+
+        // WHEN flushing
+        database.flushWriteBehind();
+
+        // THEN all writes are committed, in order
+        List<Integer> expectedValues = IntStream.rangeClosed(1, amount + 1).boxed().toList();
+        List<Integer> values = database.read(context -> context.select(VALUE)
+            .from(NUMBERS)
+            .orderBy(DSL.field("rowid"))
+            .fetch(VALUE));
+        assertEquals(expectedValues, values);
+    }
+
+    @Test
+    @DisplayName("A failing write queued for the background does not drop the other writes")
+    void failingWriteBehindDoesNotDropOtherWrites() {
+        // GIVEN writes queued for the background, one of which fails
+        database.writeBehind(context -> context.insertInto(NUMBERS, VALUE).values(2).execute());
+        database.writeBehind(context -> context.execute("INSERT INTO missing_table VALUES (1)"));
+        database.writeBehind(context -> context.insertInto(NUMBERS, VALUE).values(3).execute());
+
+        // WHEN flushing
+        database.flushWriteBehind();
+
+        // THEN the other writes are committed nonetheless
+        assertEquals(3, countNumbers(database));
+    }
+
+    @Test
+    @DisplayName("Writes queued for the background from within a write are committed with it")
+    void writeBehindWithinWriteIsCommittedWithIt() {
+        // GIVEN a write that queues another write for the background
+        // WHEN committing it
+        database.write(context -> database.writeBehind(
+                innerContext -> innerContext.insertInto(NUMBERS, VALUE).values(2).execute()));
+
+        // THEN the other write is committed right away
+        assertEquals(2, countNumbers(database));
+    }
+
+    private static int countNumbers(Database database) {
+        return database.read((DSLContext context) -> context.fetchCount(NUMBERS));
+    }
+
+    private static void awaitOrThrow(CountDownLatch latch) {
+        try {
+            if (!latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for the other thread");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
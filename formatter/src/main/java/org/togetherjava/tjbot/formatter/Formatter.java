@@ -2,9 +2,7 @@ package org.togetherjava.tjbot.formatter;
 
 import org.togetherjava.tjbot.formatter.formatting.CodeSectionFormatter;
 import org.togetherjava.tjbot.formatter.tokenizer.Lexer;
-import org.togetherjava.tjbot.formatter.tokenizer.Token;
-
-import java.util.List;
+import org.togetherjava.tjbot.formatter.tokenizer.TokenStream;
 
 /**
  * Formats code given as string. See {@link #format(CharSequence)}.
@@ -23,7 +21,7 @@ public final class Formatter {
      * @return the formatted code
      */
     public String format(CharSequence code) {
-        List<Token> tokens = lexer.tokenize(code);
+        TokenStream tokens = lexer.tokenizeToStream(code);
         CodeSectionFormatter codeFormatter = new CodeSectionFormatter(tokens);
 
         return codeFormatter.format();
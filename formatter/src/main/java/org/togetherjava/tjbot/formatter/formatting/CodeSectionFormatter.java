@@ -1,15 +1,15 @@
 package org.togetherjava.tjbot.formatter.formatting;
 
-import org.togetherjava.tjbot.formatter.tokenizer.Token;
+import org.togetherjava.tjbot.formatter.tokenizer.TokenStream;
 import org.togetherjava.tjbot.formatter.tokenizer.TokenType;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
- * Pretty-formats a given list of code tokens.
+ * Pretty-formats a given stream of code tokens.
  * <p>
  * After creation, use {@link #format()}. This is a one-time method.
+ * <p>
+ * The formatter reads the tokens through views on the stream and only materialises their content
+ * when appending it to the result.
  */
 // Sonar complains about commented out code on multiple methods.
 // A false-positive, this is intentional explanation.
@@ -17,6 +17,7 @@ import java.util.List;
 public final class CodeSectionFormatter {
     private static final String INDENT = " ".repeat(2);
 
+    private final TokenStream tokenStream;
     private final TokenQueue tokens;
     /**
      * The actual set of rules to apply. For example, it decides when to put a space around a token.
@@ -47,23 +48,22 @@ public final class CodeSectionFormatter {
 
     private boolean alreadyUsed;
 
-    private static List<Token> patchTokens(List<Token> tokens) {
+    private static TokenStream patchTokens(TokenStream tokens) {
         // We rebuild the whitespaces ourselves and ignore existing
-        List<Token> patchedTokens = new ArrayList<>(tokens);
-        patchedTokens.removeIf(token -> token.type() == TokenType.WHITESPACE);
-
-        return patchedTokens;
+        return tokens.without(TokenType.WHITESPACE);
     }
 
     /**
      * Creates an instance for formatting the given tokens.
      * <p>
-     * The formatter is not backed by the list.
+     * The formatter is not backed by the stream, but the stream must not be changed while
+     * formatting.
      * 
      * @param tokens to format
      */
-    public CodeSectionFormatter(List<Token> tokens) {
-        this.tokens = new TokenQueue(patchTokens(tokens));
+    public CodeSectionFormatter(TokenStream tokens) {
+        tokenStream = patchTokens(tokens);
+        this.tokens = new TokenQueue(tokenStream);
         result = new StringBuilder(this.tokens.remainingSize());
         rules = new FormatterRules(this.tokens);
     }
@@ -82,8 +82,8 @@ public final class CodeSectionFormatter {
         }
 
         while (!tokens.isEmpty()) {
-            Token token = tokens.consume();
-            process(token);
+            int tokenIndex = tokens.consume();
+            process(tokenIndex);
         }
 
         String resultText = result.toString();
@@ -95,10 +95,12 @@ public final class CodeSectionFormatter {
         return resultText;
     }
 
-    private void process(Token token) {
-        preProcess(token.type());
-        putToken(token);
-        postProcess(token.type());
+    private void process(int tokenIndex) {
+        TokenType tokenType = tokenStream.type(tokenIndex);
+
+        preProcess(tokenType);
+        putToken(tokenIndex, tokenType);
+        postProcess(tokenType);
     }
 
     private void preProcess(TokenType tokenType) {
@@ -115,7 +117,9 @@ public final class CodeSectionFormatter {
         }
 
         if (isStartOfLine) {
-            result.append(createIndent());
+            for (int i = 0; i < currentIndentLevel; i++) {
+                result.append(INDENT);
+            }
             isStartOfLine = false;
         }
     }
@@ -154,14 +158,15 @@ public final class CodeSectionFormatter {
         }
     }
 
-    private void putToken(Token token) {
-        String content = token.content();
-
-        if (token.type() == TokenType.MULTI_LINE_COMMENT) {
-            content = FormatterRules.patchMultiLineComment(content, createIndent());
+    private void putToken(int tokenIndex, TokenType tokenType) {
+        if (tokenType == TokenType.MULTI_LINE_COMMENT) {
+            String content = tokenStream.content(tokenIndex);
+            result.append(FormatterRules.patchMultiLineComment(content, createIndent()));
+            return;
         }
 
-        result.append(content);
+        // Appends directly from the original code, no intermediate string needed
+        tokenStream.appendContent(tokenIndex, result);
     }
 
     private void postProcess(TokenType tokenType) {
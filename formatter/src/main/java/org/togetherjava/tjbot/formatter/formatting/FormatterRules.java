@@ -2,11 +2,9 @@ package org.togetherjava.tjbot.formatter.formatting;
 
 import org.togetherjava.tjbot.formatter.tokenizer.TokenType;
 
-import java.util.Collection;
-import java.util.Iterator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -16,6 +14,23 @@ import java.util.stream.Collectors;
 // A false-positive, this is intentional explanation.
 @SuppressWarnings("squid:S125")
 final class FormatterRules {
+    private static final Set<TokenType> TYPES_WITH_SPACE_AFTER_INSIDE_GENERIC =
+            EnumSet.of(TokenType.COMMA, // Map<Foo, Bar>
+                    TokenType.QUESTION_MARK, // List<? super Foo>
+                    TokenType.EXTENDS, // List<? extends Foo>
+                    TokenType.SUPER); // List<? super Foo>
+    private static final Set<TokenType> TYPES_CONTINUING_AFTER_CLOSE_BRACES =
+            EnumSet.of(TokenType.CATCH, TokenType.FINALLY);
+    private static final Set<TokenType> TYPES_ALLOWED_IN_GENERICS =
+            EnumSet.of(TokenType.LESS_THAN, TokenType.GREATER_THAN, TokenType.QUESTION_MARK,
+                    TokenType.EXTENDS, TokenType.SUPER, TokenType.COMMA, TokenType.DOT,
+                    TokenType.IDENTIFIER);
+    private static final Set<TokenType> TYPES_IGNORED_IN_FOR_LOOP_HEADER =
+            EnumSet.of(TokenType.ANNOTATION, TokenType.FINAL, TokenType.MULTI_LINE_COMMENT,
+                    TokenType.SINGLE_LINE_COMMENT, TokenType.WHITESPACE, TokenType.DOT);
+    private static final Set<TokenType> TYPES_IGNORED_BETWEEN_IMPORTS = EnumSet.of(
+            TokenType.MULTI_LINE_COMMENT, TokenType.SINGLE_LINE_COMMENT, TokenType.WHITESPACE);
+
     private final TokenQueue tokens;
 
     /**
@@ -27,23 +42,16 @@ final class FormatterRules {
         this.tokens = tokens;
     }
 
-    private static boolean matchesAnyRule(TokenType tokenType,
-            Collection<? extends Predicate<TokenType>> rules) {
-        return rules.stream().anyMatch(rule -> rule.test(tokenType));
-    }
-
     boolean shouldPutSpaceBeforeGeneric(TokenType tokenType) {
-        return Set.of(TokenType.EXTENDS, TokenType.SUPER).contains(tokenType);
+        return tokenType == TokenType.EXTENDS || tokenType == TokenType.SUPER;
     }
 
     boolean shouldPutSpaceBefore(TokenType tokenType) {
-        // 5 + 3
-        List<Predicate<TokenType>> rules = List.of(
-                // 5 + 3, but not inside x >> 1
-                type -> type.getAttribute() == TokenType.Attribute.BINARY_OPERATOR
-                        && isRightShiftStartOrNone(tokenType),
-                TokenType.IMPLEMENTS::equals, TokenType.EXTENDS::equals);
-        return matchesAnyRule(tokenType, rules);
+        // 5 + 3, but not inside x >> 1
+        return (tokenType.getAttribute() == TokenType.Attribute.BINARY_OPERATOR
+                && isRightShiftStartOrNone(tokenType))
+                || tokenType == TokenType.IMPLEMENTS
+                || tokenType == TokenType.EXTENDS;
     }
 
     private boolean isRightShiftStartOrNone(TokenType tokenType) {
@@ -52,11 +60,7 @@ final class FormatterRules {
         }
 
         // The start of a >> has no > to the left
-        return tokens.peekTypeBackStream()
-            .skip(1)
-            .limit(1)
-            .findFirst()
-            .orElseThrow() != TokenType.GREATER_THAN;
+        return tokens.peekTypeBack(1) != TokenType.GREATER_THAN;
     }
 
     boolean shouldPutSpaceAfterGeneric(TokenType tokenType, int currentGenericLevel) {
@@ -71,33 +75,28 @@ final class FormatterRules {
             return tokens.peekType() != TokenType.OPEN_PARENTHESIS;
         }
 
-        return Set.of(TokenType.COMMA, // Map<Foo, Bar>
-                TokenType.QUESTION_MARK, // List<? super Foo>
-                TokenType.EXTENDS, // List<? extends Foo>
-                TokenType.SUPER) // List<? super Foo>
-            .contains(tokenType);
+        return TYPES_WITH_SPACE_AFTER_INSIDE_GENERIC.contains(tokenType);
     }
 
     boolean shouldPutSpaceAfter(TokenType tokenType, int expectedSemicolonsInLine) {
-        List<Predicate<TokenType>> rules = List.of(
-                type -> type.getAttribute() == TokenType.Attribute.KEYWORD, // class Foo
+        return tokenType.getAttribute() == TokenType.Attribute.KEYWORD // class Foo
                 // 5 + 3, but not inside x >> 1
-                type -> type.getAttribute() == TokenType.Attribute.BINARY_OPERATOR
-                        && isRightShiftEndOrNone(tokenType),
-                this::shouldPutSpaceAfterClosingParenthesis, // foo() {
-                TokenType.CLOSE_BRACKETS::equals, // foo[i] = 3
-                TokenType.COMMA::equals, // foo(x, y)
+                || (tokenType.getAttribute() == TokenType.Attribute.BINARY_OPERATOR
+                        && isRightShiftEndOrNone(tokenType))
+                || shouldPutSpaceAfterClosingParenthesis(tokenType) // foo() {
+                || tokenType == TokenType.CLOSE_BRACKETS // foo[i] = 3
+                || tokenType == TokenType.COMMA // foo(x, y)
                 // String toString()
-                type -> type == TokenType.IDENTIFIER && tokens.peekType() == TokenType.IDENTIFIER,
+                || (tokenType == TokenType.IDENTIFIER
+                        && tokens.peekType() == TokenType.IDENTIFIER)
                 // class Foo {
-                type -> type == TokenType.IDENTIFIER && tokens.peekType() == TokenType.OPEN_BRACES,
+                || (tokenType == TokenType.IDENTIFIER
+                        && tokens.peekType() == TokenType.OPEN_BRACES)
                 // for (a(); b(); c())
-                type -> type == TokenType.SEMICOLON && expectedSemicolonsInLine > 0,
+                || (tokenType == TokenType.SEMICOLON && expectedSemicolonsInLine > 0)
                 // } catch, } finally
-                type -> type == TokenType.CLOSE_BRACES
-                        && Set.of(TokenType.CATCH, TokenType.FINALLY).contains(tokens.peekType()));
-
-        return matchesAnyRule(tokenType, rules);
+                || (tokenType == TokenType.CLOSE_BRACES
+                        && TYPES_CONTINUING_AFTER_CLOSE_BRACES.contains(tokens.peekType()));
     }
 
     private boolean isRightShiftEndOrNone(TokenType tokenType) {
@@ -133,20 +132,18 @@ final class FormatterRules {
     }
 
     boolean shouldPutNewlineAfter(TokenType tokenType, int expectedSemicolonsInLine) {
-        List<Predicate<TokenType>> rules = List.of(TokenType.OPEN_BRACES::equals, // foo() {
-                TokenType.SINGLE_LINE_COMMENT::equals, // // Foo
-                TokenType.MULTI_LINE_COMMENT::equals, // /* Foo */
+        return tokenType == TokenType.OPEN_BRACES // foo() {
+                || tokenType == TokenType.SINGLE_LINE_COMMENT // // Foo
+                || tokenType == TokenType.MULTI_LINE_COMMENT // /* Foo */
                 // @Foo but not @Foo(bar)
-                type -> type == TokenType.ANNOTATION
-                        && tokens.peekType() != TokenType.OPEN_PARENTHESIS,
+                || (tokenType == TokenType.ANNOTATION
+                        && tokens.peekType() != TokenType.OPEN_PARENTHESIS)
                 // } but not };
-                type -> type == TokenType.CLOSE_BRACES && tokens.peekType() != TokenType.SEMICOLON
-                        && tokens.peekType() != TokenType.CATCH
-                        && tokens.peekType() != TokenType.FINALLY,
+                || (tokenType == TokenType.CLOSE_BRACES
+                        && tokens.peekType() != TokenType.SEMICOLON
+                        && !TYPES_CONTINUING_AFTER_CLOSE_BRACES.contains(tokens.peekType()))
                 // int x = 5; but not for (;;), } catch, } finally
-                type -> type == TokenType.SEMICOLON && expectedSemicolonsInLine == 0);
-
-        return matchesAnyRule(tokenType, rules);
+                || (tokenType == TokenType.SEMICOLON && expectedSemicolonsInLine == 0);
     }
 
     boolean isStartOfGeneric(TokenType tokenType) {
@@ -154,19 +151,15 @@ final class FormatterRules {
             return false;
         }
 
-        Set<TokenType> typesAllowedInGenerics = Set.of(TokenType.LESS_THAN, TokenType.GREATER_THAN,
-                TokenType.QUESTION_MARK, TokenType.EXTENDS, TokenType.SUPER, TokenType.COMMA,
-                TokenType.DOT, TokenType.IDENTIFIER);
         int genericLevel = 1;
 
         // Search the matching closing > as challenge to reduce the level back to 0
         // All encountered types must be allowed inside generics
-        Iterator<TokenType> previewIter = tokens.peekTypeStream().iterator();
-        while (previewIter.hasNext()) {
-            TokenType previewTokenType = previewIter.next();
+        for (int offset = 0; offset < tokens.remainingSize(); offset++) {
+            TokenType previewTokenType = tokens.peekType(offset);
 
             // Parenthesis not allowed in 5 < Foo.<>foo()
-            if (!typesAllowedInGenerics.contains(previewTokenType)) {
+            if (!TYPES_ALLOWED_IN_GENERICS.contains(previewTokenType)) {
                 break;
             }
 
@@ -199,23 +192,31 @@ final class FormatterRules {
         // 2 -> int
         // 3 -> x
         // 4 -> :
-        Set<TokenType> ignoreTypes =
-                Set.of(TokenType.ANNOTATION, TokenType.FINAL, TokenType.MULTI_LINE_COMMENT,
-                        TokenType.SINGLE_LINE_COMMENT, TokenType.WHITESPACE, TokenType.DOT);
-        return tokens.peekTypeStream()
-            .filter(Predicate.not(ignoreTypes::contains))
-            .limit(6)
-            .noneMatch(TokenType.COLON::equals);
+        int significantTypesToCheck = 6;
+        for (int offset = 0; offset < tokens.remainingSize() && significantTypesToCheck > 0;
+                offset++) {
+            TokenType previewTokenType = tokens.peekType(offset);
+            if (TYPES_IGNORED_IN_FOR_LOOP_HEADER.contains(previewTokenType)) {
+                continue;
+            }
+
+            if (previewTokenType == TokenType.COLON) {
+                return false;
+            }
+            significantTypesToCheck--;
+        }
+        return true;
     }
 
     boolean isEndOfLastImportDeclaration() {
         // After the last import statement, no further import follows
-        Set<TokenType> ignoreTypes = Set.of(TokenType.MULTI_LINE_COMMENT,
-                TokenType.SINGLE_LINE_COMMENT, TokenType.WHITESPACE);
-        return tokens.peekTypeStream()
-            .filter(Predicate.not(ignoreTypes::contains))
-            .limit(1)
-            .noneMatch(TokenType.IMPORT::equals);
+        for (int offset = 0; offset < tokens.remainingSize(); offset++) {
+            TokenType previewTokenType = tokens.peekType(offset);
+            if (!TYPES_IGNORED_BETWEEN_IMPORTS.contains(previewTokenType)) {
+                return previewTokenType != TokenType.IMPORT;
+            }
+        }
+        return true;
     }
 
     static String patchMultiLineComment(String content, String indent) {
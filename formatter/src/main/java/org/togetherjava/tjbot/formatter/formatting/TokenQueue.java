@@ -1,47 +1,42 @@
 package org.togetherjava.tjbot.formatter.formatting;
 
-import org.togetherjava.tjbot.formatter.tokenizer.Token;
+import org.togetherjava.tjbot.formatter.tokenizer.TokenStream;
 import org.togetherjava.tjbot.formatter.tokenizer.TokenType;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
- * Queue that holds {@link Token}s to be consumed. Generally, this holds the result of lexing code
+ * Queue that holds tokens to be consumed. Generally, this is a view on the result of lexing code
  * (see {@link org.togetherjava.tjbot.formatter.tokenizer.Lexer}), then processed by the actual
  * formatter (see {@link CodeSectionFormatter}).
  * <p>
  * The core methods are {@link #consume()} and {@link #isEmpty()}. Further, the queue allows peeking
- * in both directions.
- * <p>
- * The queue does not release tokens upon consumption. To prevent memory leaks, the queue should not
- * be kept alive longer than necessary.
+ * in both directions. Tokens are identified by their index in the underlying {@link TokenStream},
+ * so the queue itself does not create any objects per token.
  * <p>
  * The class is not thread-safe.
  */
 final class TokenQueue {
-    private final List<Token> tokens;
+    private final TokenStream tokens;
     private int nextTokenIndex;
 
     /**
      * Creates a new queue that consumes the given tokens. Consumption starts at the beginning of
-     * the given collection.
+     * the given stream.
      * <p>
-     * The queue is not backed by the collection.
-     * 
+     * The queue is a view on the stream.
+     *
      * @param tokens to consume by the queue
      */
-    TokenQueue(Collection<Token> tokens) {
-        this.tokens = new ArrayList<>(tokens);
+    TokenQueue(TokenStream tokens) {
+        this.tokens = tokens;
     }
 
     /**
      * Whether there are still tokens to be consumed.
-     * 
+     *
      * @return Whether there are still tokens to be consumed
      */
     boolean isEmpty() {
@@ -51,7 +46,7 @@ final class TokenQueue {
     /**
      * The remaining amount of tokens that can still be consumed, i.e. how often {@link #consume()}
      * can still be called.
-     * 
+     *
      * @return the remaining amount of tokens
      */
     int remainingSize() {
@@ -60,17 +55,17 @@ final class TokenQueue {
 
     /**
      * Consumes the next token. Must only be invoked if {@link #isEmpty()} returns {@code false}.
-     * 
-     * @return the consumed token
+     *
+     * @return the index of the consumed token in the underlying {@link TokenStream}
      * @throws NoSuchElementException if the queue is empty
      */
-    Token consume() {
+    int consume() {
         if (isEmpty()) {
             throw new NoSuchElementException("The queue is empty, can not consume another token");
         }
-        Token token = tokens.get(nextTokenIndex);
+        int tokenIndex = nextTokenIndex;
         nextTokenIndex++;
-        return token;
+        return tokenIndex;
     }
 
     /**
@@ -78,15 +73,31 @@ final class TokenQueue {
      * {@link #isEmpty()} returns {@code false}.
      * <p>
      * That is the type of the token, which would be returned by using {@link #consume()}.
-     * 
+     *
      * @return the next tokens type
      * @throws NoSuchElementException if the queue is empty
      */
     TokenType peekType() {
-        if (isEmpty()) {
-            throw new NoSuchElementException("The queue is empty, can not peek another token");
+        return peekType(0);
+    }
+
+    /**
+     * Peeks at the type of a token after the next token, without consuming anything. Must only be
+     * used if {@link #remainingSize()} is greater than the given offset.
+     * <p>
+     * An offset of {@code 0} is the same as {@link #peekType()}, an offset of {@code 1} looks at
+     * the token after that.
+     *
+     * @param offset the amount of tokens to skip ahead
+     * @return the type of the token at the given offset
+     * @throws NoSuchElementException if the queue has not enough tokens left
+     */
+    TokenType peekType(int offset) {
+        if (offset >= remainingSize()) {
+            throw new NoSuchElementException(
+                    "The queue has not enough tokens, can not peek %d ahead".formatted(offset));
         }
-        return tokens.get(nextTokenIndex).type();
+        return tokens.type(nextTokenIndex + offset);
     }
 
     /**
@@ -95,47 +106,56 @@ final class TokenQueue {
      * <p>
      * That is the type of the token, which has been returned by the previous usage of
      * {@link #consume()}.
-     * 
+     *
      * @return the previous tokens type
      * @throws NoSuchElementException if no token was consumed yet
      */
     TokenType peekTypeBack() {
-        if (nextTokenIndex == 0) {
-            throw new NoSuchElementException("No token has been consumed yet, can not peek back");
+        return peekTypeBack(0);
+    }
+
+    /**
+     * Peeks at the type of a token before the previous token, without changing the queue. Must
+     * only be used if more tokens than the given offset have been consumed.
+     * <p>
+     * An offset of {@code 0} is the same as {@link #peekTypeBack()}, an offset of {@code 1} looks
+     * at the token before that.
+     *
+     * @param offset the amount of consumed tokens to skip back
+     * @return the type of the consumed token at the given offset
+     * @throws NoSuchElementException if not enough tokens have been consumed yet
+     */
+    TokenType peekTypeBack(int offset) {
+        if (offset >= nextTokenIndex) {
+            throw new NoSuchElementException(
+                    "Not enough tokens have been consumed yet, can not peek back %d"
+                        .formatted(offset));
         }
-        return tokens.get(nextTokenIndex - 1).type();
+        return tokens.type(nextTokenIndex - offset - 1);
     }
 
     /**
      * Peeks at the type of the next tokens, without consuming them.
      * <p>
-     * This essentially gives a stream for all remaining tokens in the queue.
-     * 
+     * This essentially gives a stream for all remaining tokens in the queue. Prefer
+     * {@link #peekType(int)} on hot paths.
+     *
      * @return the next tokens types, an empty stream if the queue is empty
      */
     Stream<TokenType> peekTypeStream() {
-        if (isEmpty()) {
-            return Stream.of();
-        }
-        return tokens.subList(nextTokenIndex, tokens.size()).stream().map(Token::type);
+        return IntStream.range(0, remainingSize()).mapToObj(this::peekType);
     }
 
     /**
      * Peeks at the type of the previous tokens, without changing the queue.
      * <p>
      * This essentially gives a stream for all already consumed tokens in the queue. The stream is
-     * ordered from the most recently consumed token to the first consumed token.
-     * 
+     * ordered from the most recently consumed token to the first consumed token. Prefer
+     * {@link #peekTypeBack(int)} on hot paths.
+     *
      * @return the previous tokens types, an empty stream if no token has been consumed yet
      */
     Stream<TokenType> peekTypeBackStream() {
-        if (nextTokenIndex == 0) {
-            return Stream.of();
-        }
-
-        return IntStream.range(0, nextTokenIndex)
-            .map(i -> nextTokenIndex - i - 1)
-            .mapToObj(tokens::get)
-            .map(Token::type);
+        return IntStream.range(0, nextTokenIndex).mapToObj(this::peekTypeBack);
     }
 }
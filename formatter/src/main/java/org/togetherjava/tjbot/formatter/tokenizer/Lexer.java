@@ -1,49 +1,115 @@
 package org.togetherjava.tjbot.formatter.tokenizer;
 
-import java.nio.CharBuffer;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Stream;
 
 /**
  * Tokenizer that turns code into a list of tokens.
+ * <p>
+ * The lexer produces the same tokens as trying all {@link TokenType#getAllInMatchOrder()} one after
+ * another with {@link TokenType#matches(CharSequence)} and taking the first match. However, it does
+ * so in a single pass without regex. It dispatches on the first character of each token, matches
+ * all symbols at once with a {@link SymbolTrie} and only tries the remaining types that can start
+ * with that character (see {@link Scanning}).
+ * <p>
+ * The lexer is stateless and thread-safe.
  */
 public final class Lexer {
+    private static final int ASCII_SIZE = 128;
+    private static final SymbolTrie SYMBOLS = new SymbolTrie(TokenType.getAllInMatchOrder());
+    /**
+     * For each type, indexed by ordinal, the length of its symbol or 0 if it has none.
+     */
+    private static final int[] SYMBOL_LENGTHS = Stream.of(TokenType.values())
+        .mapToInt(tokenType -> tokenType.getSymbol().map(String::length).orElse(0))
+        .toArray();
+    /**
+     * Types that are not matched by a symbol, in match order.
+     */
+    private static final TokenType[] SCANNED_TYPES = Stream.of(TokenType.getAllInMatchOrder())
+        .filter(tokenType -> tokenType.getSymbol().isEmpty())
+        .toArray(TokenType[]::new);
+    /**
+     * For each ASCII character, the scanned types that can start with it, in match order.
+     */
+    private static final TokenType[][] ASCII_CHAR_TO_SCANNED_TYPES = createAsciiDispatchTable();
+    /**
+     * Scanned types for all non-ASCII characters, no type except the fallback starts with them.
+     */
+    private static final TokenType[] NON_ASCII_SCANNED_TYPES = {TokenType.UNKNOWN};
+
+    private static TokenType[][] createAsciiDispatchTable() {
+        TokenType[][] table = new TokenType[ASCII_SIZE][];
+        for (char c = 0; c < ASCII_SIZE; c++) {
+            char firstChar = c;
+            table[c] = Stream.of(SCANNED_TYPES)
+                .filter(tokenType -> Scanning.canStartWith(tokenType, firstChar))
+                .toArray(TokenType[]::new);
+        }
+        return table;
+    }
+
     /**
      * Tokenizes the given code into its individual tokens.
+     * <p>
+     * Prefer {@link #tokenizeToStream(CharSequence)} on hot paths, which does not create an object
+     * per token.
      *
      * @param code code to tokenize
      * @return the tokens the code consists of
      */
     public List<Token> tokenize(CharSequence code) {
-        if (code.isEmpty()) {
-            return List.of();
-        }
-
-        List<Token> tokens = new ArrayList<>();
-        CharBuffer remainingCode = CharBuffer.wrap(code);
+        return List.copyOf(tokenizeToStream(code).asTokens());
+    }
 
-        while (!remainingCode.isEmpty()) {
-            Token token = nextToken(remainingCode);
-            tokens.add(token);
+    /**
+     * Tokenizes the given code into its individual tokens, represented compactly by their type
+     * and position in the code.
+     *
+     * @param code code to tokenize, must not be changed while the returned stream is in use
+     * @return the tokens the code consists of, backed by the given code
+     */
+    public TokenStream tokenizeToStream(CharSequence code) {
+        // Most tokens are a few characters long, this avoids most growing
+        TokenStream.Builder tokens = new TokenStream.Builder(code, code.length() / 4);
+        int position = 0;
 
-            advancePosition(remainingCode, token.content().length());
+        while (position < code.length()) {
+            position = addNextToken(code, position, tokens);
         }
 
-        return tokens;
+        return tokens.build();
     }
 
-    private Token nextToken(CharSequence content) {
-        // Try all token types in order, take the first match
-        return Stream.of(TokenType.getAllInMatchOrder())
-            .map(tokenType -> tokenType.matches(content))
-            .flatMap(Optional::stream)
-            .findFirst()
-            .orElseThrow();
+    private static int addNextToken(CharSequence code, int start, TokenStream.Builder tokens) {
+        // The first match in match order wins. A symbol competes with all scanned types that
+        // come before it, for example SINGLE_LINE_COMMENT must win over DIVIDE.
+        TokenType symbolType = SYMBOLS.match(code, start);
+
+        for (TokenType scannedType : scannedTypesStartingWith(code.charAt(start))) {
+            if (symbolType != null && symbolType.ordinal() < scannedType.ordinal()) {
+                break;
+            }
+
+            int end = Scanning.scan(scannedType, code, start);
+            if (end != Scanning.NO_MATCH) {
+                tokens.add(scannedType, start, end);
+                return end;
+            }
+        }
+
+        if (symbolType == null) {
+            // UNKNOWN matches everything and comes last, so this can not happen
+            throw new AssertionError(
+                    "No token type matched the code at position %d".formatted(start));
+        }
+        int end = start + SYMBOL_LENGTHS[symbolType.ordinal()];
+        tokens.add(symbolType, start, end);
+        return end;
     }
 
-    private static void advancePosition(CharBuffer charBuffer, int advanceBy) {
-        charBuffer.position(charBuffer.position() + advanceBy);
+    private static TokenType[] scannedTypesStartingWith(char firstChar) {
+        return firstChar < ASCII_SIZE ? ASCII_CHAR_TO_SCANNED_TYPES[firstChar]
+                : NON_ASCII_SCANNED_TYPES;
     }
 }
@@ -0,0 +1,231 @@
+package org.togetherjava.tjbot.formatter.tokenizer;
+
+/**
+ * Hand-written scanners for all token types that are not fixed symbols, such as
+ * {@link TokenType#IDENTIFIER} or {@link TokenType#NUMBER}.
+ * <p>
+ * Each scanner mirrors exactly what the pattern of the corresponding {@link TokenType} would match,
+ * including its quirks, but without using regex. All scanners take the text and the position to
+ * start scanning at, and return the exclusive end of the match or {@link #NO_MATCH}.
+ */
+final class Scanning {
+    /**
+     * Returned by scanners if the text at the given position does not match.
+     */
+    static final int NO_MATCH = -1;
+
+    private Scanning() {
+        throw new UnsupportedOperationException("Utility class, no implementation");
+    }
+
+    /**
+     * Scans the given token type, which must not be matched by a symbol.
+     *
+     * @param tokenType the type to scan for
+     * @param text the text to scan
+     * @param start the position to start scanning at
+     * @return the exclusive end of the match, or {@link #NO_MATCH}
+     * @throws IllegalArgumentException if the type is matched by a symbol instead
+     */
+    static int scan(TokenType tokenType, CharSequence text, int start) {
+        return switch (tokenType) {
+            case SINGLE_LINE_COMMENT -> scanSingleLineComment(text, start);
+            case MULTI_LINE_COMMENT -> scanMultiLineComment(text, start);
+            case ANNOTATION -> scanAnnotation(text, start);
+            case NUMBER -> scanNumber(text, start);
+            case STRING -> scanString(text, start);
+            case IDENTIFIER -> scanIdentifier(text, start);
+            case WHITESPACE -> scanWhitespace(text, start);
+            case UNKNOWN -> scanUnknown(text, start);
+            default -> throw new IllegalArgumentException(
+                    "The token type %s is matched by a symbol, not a scanner".formatted(tokenType));
+        };
+    }
+
+    /**
+     * Whether a token of the given type, which must not be matched by a symbol, can start with
+     * the given character.
+     *
+     * @param tokenType the type to check
+     * @param c the first character of the token
+     * @return whether the type could match text starting with the character
+     */
+    static boolean canStartWith(TokenType tokenType, char c) {
+        return switch (tokenType) {
+            case SINGLE_LINE_COMMENT, MULTI_LINE_COMMENT -> c == '/';
+            case ANNOTATION -> c == '@';
+            case NUMBER -> isDigitOrUnderscore(c) || c == '.';
+            case STRING -> c == '"';
+            case IDENTIFIER -> isAsciiLetter(c);
+            case WHITESPACE -> isWhitespace(c);
+            case UNKNOWN -> true;
+            default -> false;
+        };
+    }
+
+    // Pattern "//.*(?=\n|$)", the comment must be followed by \n or the end of the text
+    private static int scanSingleLineComment(CharSequence text, int start) {
+        if (!startsWith(text, start, '/', '/')) {
+            return NO_MATCH;
+        }
+
+        int end = start + 2;
+        while (end < text.length() && !isLineTerminator(text.charAt(end))) {
+            end++;
+        }
+
+        int remaining = text.length() - end;
+        if (remaining == 0 || text.charAt(end) == '\n') {
+            return end;
+        }
+        // $ also matches before a final line terminator of the text, such as "\r" or "\r\n"
+        if (remaining == 1 || (remaining == 2 && startsWith(text, end, '\r', '\n'))) {
+            return end;
+        }
+        return NO_MATCH;
+    }
+
+    // Pattern "/\*.*\*/" with DOTALL, which is greedy and hence spans up to the last "*/"
+    private static int scanMultiLineComment(CharSequence text, int start) {
+        if (!startsWith(text, start, '/', '*')) {
+            return NO_MATCH;
+        }
+
+        for (int end = text.length(); end - 2 >= start + 2; end--) {
+            if (startsWith(text, end - 2, '*', '/')) {
+                return end;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    // Pattern "@[a-zA-Z]\w*"
+    private static int scanAnnotation(CharSequence text, int start) {
+        if (start + 1 >= text.length() || text.charAt(start) != '@'
+                || !isAsciiLetter(text.charAt(start + 1))) {
+            return NO_MATCH;
+        }
+        return skipWordCharacters(text, start + 2);
+    }
+
+    // Pattern "(0[xb])?([\d_]+|[\d_]+\.[\d_]+|[\d_]+\.|\.[\d_]+)[dDfFlL]?"
+    // Since the first alternative already matches whenever the second or third would,
+    // floats like 1.5 are only matched up to the dot.
+    private static int scanNumber(CharSequence text, int start) {
+        if (startsWith(text, start, '0', 'x') || startsWith(text, start, '0', 'b')) {
+            int end = scanNumberBody(text, start + 2);
+            if (end != NO_MATCH) {
+                return skipNumberSuffix(text, end);
+            }
+            // Otherwise only the 0 is matched, without the base
+        }
+
+        int end = scanNumberBody(text, start);
+        return end == NO_MATCH ? NO_MATCH : skipNumberSuffix(text, end);
+    }
+
+    private static int scanNumberBody(CharSequence text, int start) {
+        int end = skipDigitsOrUnderscores(text, start);
+        if (end > start) {
+            return end;
+        }
+
+        if (start < text.length() && text.charAt(start) == '.') {
+            end = skipDigitsOrUnderscores(text, start + 1);
+            if (end > start + 1) {
+                return end;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    private static int skipNumberSuffix(CharSequence text, int start) {
+        if (start < text.length() && "dDfFlL".indexOf(text.charAt(start)) != -1) {
+            return start + 1;
+        }
+        return start;
+    }
+
+    // Same as Matching.matchesString, ends on the first " not preceded by a \
+    private static int scanString(CharSequence text, int start) {
+        if (start + 1 >= text.length() || text.charAt(start) != '"') {
+            return NO_MATCH;
+        }
+
+        for (int i = start + 1; i < text.length(); i++) {
+            if (text.charAt(i) == '"' && text.charAt(i - 1) != '\\') {
+                return i + 1;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    // Pattern "[a-zA-Z]\w*"
+    private static int scanIdentifier(CharSequence text, int start) {
+        if (start >= text.length() || !isAsciiLetter(text.charAt(start))) {
+            return NO_MATCH;
+        }
+        return skipWordCharacters(text, start + 1);
+    }
+
+    // Pattern "\s+"
+    private static int scanWhitespace(CharSequence text, int start) {
+        int end = start;
+        while (end < text.length() && isWhitespace(text.charAt(end))) {
+            end++;
+        }
+        return end > start ? end : NO_MATCH;
+    }
+
+    // Pattern "." with DOTALL, which matches a full code point
+    private static int scanUnknown(CharSequence text, int start) {
+        if (start >= text.length()) {
+            return NO_MATCH;
+        }
+        return start + Character.charCount(Character.codePointAt(text, start));
+    }
+
+    private static boolean startsWith(CharSequence text, int start, char first, char second) {
+        return start + 1 < text.length() && text.charAt(start) == first
+                && text.charAt(start + 1) == second;
+    }
+
+    private static int skipWordCharacters(CharSequence text, int start) {
+        int end = start;
+        while (end < text.length() && isWordCharacter(text.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static int skipDigitsOrUnderscores(CharSequence text, int start) {
+        int end = start;
+        while (end < text.length() && isDigitOrUnderscore(text.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigitOrUnderscore(char c) {
+        return (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isWordCharacter(char c) {
+        // Same as regex \w
+        return isAsciiLetter(c) || isDigitOrUnderscore(c);
+    }
+
+    private static boolean isWhitespace(char c) {
+        // Same as regex \s
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        // Characters not matched by regex . without DOTALL
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
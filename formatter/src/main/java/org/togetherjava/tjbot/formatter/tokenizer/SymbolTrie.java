@@ -0,0 +1,116 @@
+package org.togetherjava.tjbot.formatter.tokenizer;
+
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Trie over the fixed symbols of all {@link TokenType}s, such as {@code "class"} or {@code "+="}.
+ * See {@link TokenType#getSymbol()}.
+ * <p>
+ * Used by {@link Lexer} to match all symbols in a single pass over the text, instead of trying
+ * each symbol one by one. The trie respects the same rules as
+ * {@link Matching#matchesSymbol(String, CharSequence, TokenType.Attribute)}, i.e. keywords must
+ * not be followed by a letter.
+ * <p>
+ * The trie is immutable after creation and thread-safe.
+ */
+final class SymbolTrie {
+    private final Node root = new Node();
+
+    /**
+     * Creates a trie containing the symbols of the given token types.
+     *
+     * @param tokenTypes the types to add, types without a symbol are ignored
+     */
+    SymbolTrie(TokenType... tokenTypes) {
+        for (TokenType tokenType : tokenTypes) {
+            tokenType.getSymbol().ifPresent(symbol -> add(symbol, tokenType));
+        }
+    }
+
+    private void add(String symbol, TokenType tokenType) {
+        Node node = root;
+        for (int i = 0; i < symbol.length(); i++) {
+            node = node.getOrCreateChild(symbol.charAt(i));
+        }
+        node.tokenType = tokenType;
+    }
+
+    /**
+     * Finds the symbol starting at the given position of the text.
+     * <p>
+     * If multiple symbols match, such as {@code "else if"} and {@code "else"} for the text
+     * {@code "else if (x)"}, the type that comes first in {@link TokenType#getAllInMatchOrder()}
+     * wins.
+     *
+     * @param text the text to match against
+     * @param start the position in the text to start matching at
+     * @return the type of the matched symbol, or {@code null} if no symbol matched. The length of
+     *         the match is the length of the symbol of the returned type.
+     */
+    @Nullable
+    TokenType match(CharSequence text, int start) {
+        TokenType bestMatch = null;
+
+        Node node = root;
+        for (int i = start; i < text.length(); i++) {
+            node = node.getChild(text.charAt(i));
+            if (node == null) {
+                break;
+            }
+
+            TokenType candidate = node.tokenType;
+            if (candidate != null && isCompleteSymbol(candidate, text, i + 1)
+                    && (bestMatch == null || candidate.ordinal() < bestMatch.ordinal())) {
+                bestMatch = candidate;
+            }
+        }
+
+        return bestMatch;
+    }
+
+    private static boolean isCompleteSymbol(TokenType tokenType, CharSequence text, int end) {
+        if (tokenType.getAttribute() != TokenType.Attribute.KEYWORD || end >= text.length()) {
+            return true;
+        }
+
+        // Keywords must not be followed by letter, e.g. "new" in "newText"
+        return !Character.isLetter(text.charAt(end));
+    }
+
+    private static final class Node {
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        @Nullable
+        private TokenType tokenType;
+
+        @Nullable
+        Node getChild(char label) {
+            // Fan-out is small, a linear scan beats hashing here
+            for (int i = 0; i < labels.length; i++) {
+                if (labels[i] == label) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node getOrCreateChild(char label) {
+            Node child = getChild(label);
+            if (child != null) {
+                return child;
+            }
+
+            child = new Node();
+            labels = Arrays.copyOf(labels, labels.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            labels[labels.length - 1] = label;
+            children[children.length - 1] = child;
+            return child;
+        }
+    }
+}
@@ -11,6 +11,9 @@ package org.togetherjava.tjbot.formatter.tokenizer;
  * <li>("\"foo\"", STRING)</li>
  * <li>(";", SEMICOLON)</li>
  * </ul>
+ * <p>
+ * On hot paths, prefer the compact representation of {@link TokenStream}, which does not create an
+ * object per token.
  *
  * @param content the actual text contained in the token, e.g., an identifier like {@code x}
  * @param type the type of the token, e.g., IDENTIFIER
@@ -0,0 +1,231 @@
+package org.togetherjava.tjbot.formatter.tokenizer;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact, read-only sequence of tokens, the result of lexing code (see
+ * {@link Lexer#tokenizeToStream(CharSequence)}).
+ * <p>
+ * Unlike a list of {@link Token}, the stream does not hold any objects per token. Each token is
+ * only represented by its type and its position in the original code, stored in parallel primitive
+ * arrays. The content of a token is only materialised on demand, ideally by appending it directly
+ * to the output with {@link #appendContent(int, StringBuilder)}.
+ * <p>
+ * Tokens are accessed by their index, from {@code 0} (inclusive) to {@link #size()} (exclusive).
+ * The stream is backed by the given code, which hence must not be changed while the stream is in
+ * use.
+ */
+public final class TokenStream {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final CharSequence code;
+    private final short[] typeOrdinals;
+    private final int[] starts;
+    private final int[] ends;
+    private final int size;
+
+    private TokenStream(CharSequence code, short[] typeOrdinals, int[] starts, int[] ends,
+            int size) {
+        this.code = code;
+        this.typeOrdinals = typeOrdinals;
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    /**
+     * Creates a stream consisting of the given tokens. The code backing the stream is the
+     * concatenation of the content of all tokens.
+     * <p>
+     * Mostly useful for tests or if tokens have not been created by {@link Lexer}.
+     *
+     * @param tokens the tokens to create the stream from
+     * @return the stream consisting of the given tokens
+     */
+    public static TokenStream of(List<Token> tokens) {
+        StringBuilder code = new StringBuilder();
+        Builder builder = new Builder(code, tokens.size());
+
+        for (Token token : tokens) {
+            int start = code.length();
+            code.append(token.content());
+            builder.add(token.type(), start, code.length());
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * The amount of tokens in this stream.
+     *
+     * @return the amount of tokens
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether this stream contains no tokens.
+     *
+     * @return whether this stream is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the type of the token at the given index.
+     *
+     * @param index the index of the token
+     * @return the type of the token
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public TokenType type(int index) {
+        return TYPES[typeOrdinals[Objects.checkIndex(index, size)]];
+    }
+
+    /**
+     * Gets the position in the code at which the token at the given index starts.
+     *
+     * @param index the index of the token
+     * @return the inclusive start position of the token
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public int start(int index) {
+        return starts[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Gets the position in the code at which the token at the given index ends.
+     *
+     * @param index the index of the token
+     * @return the exclusive end position of the token
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public int end(int index) {
+        return ends[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Appends the content of the token at the given index to the given builder, without creating
+     * any intermediate objects.
+     *
+     * @param index the index of the token
+     * @param target the builder to append the content to
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public void appendContent(int index, StringBuilder target) {
+        Objects.checkIndex(index, size);
+        target.append(code, starts[index], ends[index]);
+    }
+
+    /**
+     * Materialises the content of the token at the given index. Prefer
+     * {@link #appendContent(int, StringBuilder)} where possible.
+     *
+     * @param index the index of the token
+     * @return the content of the token, for example an identifier like {@code x}
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public String content(int index) {
+        Objects.checkIndex(index, size);
+        return code.subSequence(starts[index], ends[index]).toString();
+    }
+
+    /**
+     * Creates a copy of this stream that does not contain any token of the given type. The copy is
+     * backed by the same code.
+     *
+     * @param typeToRemove the type of the tokens to remove
+     * @return a stream without any token of the given type
+     */
+    public TokenStream without(TokenType typeToRemove) {
+        Builder builder = new Builder(code, size);
+        for (int i = 0; i < size; i++) {
+            if (typeOrdinals[i] != typeToRemove.ordinal()) {
+                builder.add(TYPES[typeOrdinals[i]], starts[i], ends[i]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Gets a view of this stream as list of tokens. The tokens are materialised lazily on access.
+     *
+     * @return this stream as list of tokens
+     */
+    public List<Token> asTokens() {
+        return new AbstractList<>() {
+            @Override
+            public Token get(int index) {
+                return new Token(content(index), type(index));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Builds a {@link TokenStream} by appending tokens one after another.
+     */
+    static final class Builder {
+        private static final int MIN_CAPACITY = 16;
+
+        private final CharSequence code;
+        private short[] typeOrdinals;
+        private int[] starts;
+        private int[] ends;
+        private int size;
+
+        /**
+         * Creates a builder for a stream backed by the given code.
+         *
+         * @param code the code backing the stream
+         * @param expectedSize the expected amount of tokens, used as initial capacity
+         */
+        Builder(CharSequence code, int expectedSize) {
+            this.code = code;
+
+            int capacity = Math.max(MIN_CAPACITY, expectedSize);
+            typeOrdinals = new short[capacity];
+            starts = new int[capacity];
+            ends = new int[capacity];
+        }
+
+        /**
+         * Appends the given token to the stream.
+         *
+         * @param type the type of the token
+         * @param start the inclusive start position of the token in the code
+         * @param end the exclusive end position of the token in the code
+         */
+        void add(TokenType type, int start, int end) {
+            if (size == typeOrdinals.length) {
+                int newCapacity = typeOrdinals.length * 2;
+                typeOrdinals = Arrays.copyOf(typeOrdinals, newCapacity);
+                starts = Arrays.copyOf(starts, newCapacity);
+                ends = Arrays.copyOf(ends, newCapacity);
+            }
+
+            typeOrdinals[size] = (short) type.ordinal();
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        /**
+         * Builds the stream. The builder must not be used afterwards.
+         *
+         * @return the stream consisting of all added tokens
+         */
+        TokenStream build() {
+            return new TokenStream(code, typeOrdinals, starts, ends, size);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.togetherjava.tjbot.formatter.tokenizer;
 
+import javax.annotation.Nullable;
+
 import java.nio.CharBuffer;
 import java.util.Optional;
 import java.util.function.Function;
@@ -170,6 +172,8 @@ public enum TokenType {
     private final Function<CharSequence, Optional<String>> matcher;
     private final Attribute attribute;
     private final String contentExample;
+    @Nullable
+    private final String symbol;
 
     /**
      * Gets all token types in the order they should be used for matching.
@@ -186,9 +190,15 @@ public enum TokenType {
 
     TokenType(Function<CharSequence, Optional<String>> matcher, Attribute attribute,
             String contentExample) {
+        this(matcher, attribute, contentExample, null);
+    }
+
+    TokenType(Function<CharSequence, Optional<String>> matcher, Attribute attribute,
+            String contentExample, @Nullable String symbol) {
         this.matcher = matcher;
         this.attribute = attribute;
         this.contentExample = contentExample;
+        this.symbol = symbol;
 
         requireMatchesExample();
     }
@@ -206,7 +216,7 @@ public enum TokenType {
     }
 
     TokenType(String symbol, Attribute attribute) {
-        this(text -> Matching.matchesSymbol(symbol, text, attribute), attribute, symbol);
+        this(text -> Matching.matchesSymbol(symbol, text, attribute), attribute, symbol, symbol);
     }
 
     TokenType(String symbol) {
@@ -237,6 +247,18 @@ public enum TokenType {
         return attribute;
     }
 
+    /**
+     * The fixed symbol this type matches, if it is not matched by a pattern or custom logic.
+     * <p>
+     * For example {@code "class"} for {@link #CLASS} or {@code "+="} for {@link #PLUS_EQUALS}, but
+     * nothing for {@link #IDENTIFIER}.
+     *
+     * @return the symbol of this type, if any
+     */
+    Optional<String> getSymbol() {
+        return Optional.ofNullable(symbol);
+    }
+
     /**
      * An example token content this type would match.
      * 
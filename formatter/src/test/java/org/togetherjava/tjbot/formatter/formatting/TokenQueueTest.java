@@ -3,6 +3,7 @@ package org.togetherjava.tjbot.formatter.formatting;
 import org.junit.jupiter.api.Test;
 
 import org.togetherjava.tjbot.formatter.tokenizer.Token;
+import org.togetherjava.tjbot.formatter.tokenizer.TokenStream;
 import org.togetherjava.tjbot.formatter.tokenizer.TokenType;
 
 import java.util.List;
@@ -49,10 +50,11 @@ final class TokenQueueTest {
         TokenQueue queue = provideEmptyTokenQueue();
         assertThrows(NoSuchElementException.class, queue::consume);
 
-        queue = provide2TokenQueue();
-        assertEquals("class", queue.consume().content());
+        TokenStream tokens = provide2Tokens();
+        queue = new TokenQueue(tokens);
+        assertEquals("class", tokens.content(queue.consume()));
 
-        assertEquals("Foo", queue.consume().content());
+        assertEquals("Foo", tokens.content(queue.consume()));
 
         assertThrows(NoSuchElementException.class, queue::consume);
     }
@@ -129,12 +131,40 @@ final class TokenQueueTest {
         assertEquals(expectedTypes, queue.peekTypeBackStream().toList());
     }
 
-    private static TokenQueue provide2TokenQueue() {
-        return new TokenQueue(List.of(new Token("class", TokenType.CLASS),
+    @Test
+    void peekTypeWithOffset() {
+        TokenQueue queue = provide2TokenQueue();
+        assertEquals(TokenType.CLASS, queue.peekType(0));
+        assertEquals(TokenType.IDENTIFIER, queue.peekType(1));
+        assertThrows(NoSuchElementException.class, () -> queue.peekType(2));
+
+        queue.consume();
+        assertEquals(TokenType.IDENTIFIER, queue.peekType(0));
+        assertThrows(NoSuchElementException.class, () -> queue.peekType(1));
+    }
+
+    @Test
+    void peekTypeBackWithOffset() {
+        TokenQueue queue = provide2TokenQueue();
+        assertThrows(NoSuchElementException.class, () -> queue.peekTypeBack(0));
+
+        queue.consume();
+        queue.consume();
+        assertEquals(TokenType.IDENTIFIER, queue.peekTypeBack(0));
+        assertEquals(TokenType.CLASS, queue.peekTypeBack(1));
+        assertThrows(NoSuchElementException.class, () -> queue.peekTypeBack(2));
+    }
+
+    private static TokenStream provide2Tokens() {
+        return TokenStream.of(List.of(new Token("class", TokenType.CLASS),
                 new Token("Foo", TokenType.IDENTIFIER)));
     }
 
+    private static TokenQueue provide2TokenQueue() {
+        return new TokenQueue(provide2Tokens());
+    }
+
     private static TokenQueue provideEmptyTokenQueue() {
-        return new TokenQueue(List.of());
+        return new TokenQueue(TokenStream.of(List.of()));
     }
 }
@@ -5,8 +5,13 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
 
+import java.nio.CharBuffer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -84,4 +89,70 @@ final class LexerTest {
 
         assertEquals(expectedTypes, actualTypes);
     }
+
+    private static Stream<String> provideDifferentialCorpus() {
+        Stream<String> contentExamples =
+                Stream.of(TokenType.values()).map(TokenType::getContentExample);
+        Stream<String> snippets = Stream.of("""
+                int x=5;
+                String y =foo("bar");""", "", "new newText", "List<List<Foo>>", """
+                package foo.bar;
+
+                import java.util.List;
+
+                @SuppressWarnings("unused")
+                public final class Foo<T extends Comparable<? super T>> implements Bar {
+                    private static final long MAX = 0x1F_FFL + 0b1010 - 1.5e3d;
+                    /* first */ int a = 1; /* second
+                     * spans lines */
+                    // line comment
+                    void foo(int... values) throws IOException {
+                        if (a >= 2 && b != 3 || !c) { a <<= 1; b >>>= 2; c >>= 3; }
+                        else if (x instanceof String s) { s::length; }
+                        else iffy = x -> x++ - --y;
+                        String t = "escaped \\" quote\\\\";
+                        char c = 'x';
+                        non-sealed interface Baz {}
+                    }
+                }""", "//no newline", "// windows\r\nint x;", "// trailing cr\r",
+                "// mid cr\rint x;", "// unicode line separator\u2028int x;", "/* unclosed comment",
+                "/*/", "/**/ a /* b */ c */", "0xAB 0b 0x.5 _foo 1_000L .5 5.", "int_x int2 intx",
+                "doubled do double", "@ @1 @Foo_1", "\"", "\"\\\"\"",
+                "tab\tvertical\u000Bformfeed\f", "über ünicode 😀 \uD83D lone surrogate",
+                "newé", "°§$#`'");
+
+        return Stream.concat(contentExamples, snippets);
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideDifferentialCorpus")
+    @DisplayName("The lexer must produce the same tokens as matching all token types in order.")
+    void sameTokensAsMatchingAllTypesInOrder(String code) {
+        List<Token> expectedTokens = tokenizeByMatchingAllTypesInOrder(code);
+
+        List<Token> actualTokens = lexer.tokenize(code);
+
+        assertEquals(expectedTokens, actualTokens, "Tested on: " + code);
+    }
+
+    /**
+     * Reference implementation, trying all token types in match order and taking the first match.
+     */
+    private static List<Token> tokenizeByMatchingAllTypesInOrder(CharSequence code) {
+        List<Token> tokens = new ArrayList<>();
+        CharBuffer remainingCode = CharBuffer.wrap(code);
+
+        while (!remainingCode.isEmpty()) {
+            Token token = Stream.of(TokenType.getAllInMatchOrder())
+                .map(tokenType -> tokenType.matches(remainingCode))
+                .flatMap(Optional::stream)
+                .findFirst()
+                .orElseThrow();
+            tokens.add(token);
+
+            remainingCode.position(remainingCode.position() + token.content().length());
+        }
+
+        return tokens;
+    }
 }
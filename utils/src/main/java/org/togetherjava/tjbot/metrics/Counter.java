@@ -0,0 +1,46 @@
+package org.togetherjava.tjbot.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A value that only ever increases, for example the amount of handled commands.
+ * <p>
+ * Create instances using {@link MetricsRegistry#counter(String, String, java.util.Map)}. The class
+ * is thread-safe and cheap to increment, even under contention.
+ */
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+        // Created by the registry only
+    }
+
+    /**
+     * Increments the counter by one.
+     */
+    public void increment() {
+        value.increment();
+    }
+
+    /**
+     * Increments the counter by the given amount.
+     *
+     * @param amount the amount to increment by, must not be negative
+     */
+    public void increment(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException(
+                    "Counters can not decrease, but the amount was %d".formatted(amount));
+        }
+        value.add(amount);
+    }
+
+    /**
+     * Gets the current value of the counter.
+     *
+     * @return the current value
+     */
+    public long get() {
+        return value.sum();
+    }
+}
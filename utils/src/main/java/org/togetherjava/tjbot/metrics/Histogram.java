@@ -0,0 +1,183 @@
+package org.togetherjava.tjbot.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Distribution of latencies, for example how long commands take to be handled.
+ * <p>
+ * Create instances using {@link MetricsRegistry#histogram(String, String, java.util.Map)}.
+ * <p>
+ * Latencies are recorded in nanoseconds into buckets of logarithmically growing width, similar to
+ * an HDR histogram. Each power of two is split into {@value SUB_BUCKETS} buckets of equal width, so
+ * any quantile is reported with a relative error of at most 12.5%, no matter whether latencies are
+ * in the range of microseconds or minutes. Recording is lock-free and does not allocate.
+ * <p>
+ * The class is thread-safe.
+ */
+public final class Histogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Values below this are recorded exactly, each in a bucket of its own.
+     */
+    private static final int EXACT_BUCKETS = 2 * SUB_BUCKETS;
+    private static final int BUCKETS = bucketIndexOf(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    Histogram() {
+        // Created by the registry only
+    }
+
+    /**
+     * Records the given latency.
+     *
+     * @param nanos the latency in nanoseconds, negative values are treated as {@code 0}
+     */
+    public void recordNanos(long nanos) {
+        long value = Math.max(0, nanos);
+
+        bucketCounts.incrementAndGet(bucketIndexOf(value));
+        count.increment();
+        sumNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     * Records the given latency.
+     *
+     * @param duration the latency to record
+     */
+    public void record(Duration duration) {
+        recordNanos(duration.toNanos());
+    }
+
+    /**
+     * Records the time since the given start.
+     *
+     * @param startNanos the start, as given by {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Runs the given action and records how long it took, also if it fails.
+     *
+     * @param action the action to measure
+     */
+    public void time(Runnable action) {
+        long startNanos = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            recordSince(startNanos);
+        }
+    }
+
+    /**
+     * Runs the given action and records how long it took, also if it fails.
+     *
+     * @param action the action to measure
+     * @param <T> the type of the result of the action
+     * @return the result of the action
+     */
+    public <T> T time(Supplier<T> action) {
+        long startNanos = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            recordSince(startNanos);
+        }
+    }
+
+    /**
+     * Gets the amount of recorded latencies.
+     *
+     * @return the amount of recorded latencies
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the sum of all recorded latencies.
+     *
+     * @return the sum in nanoseconds
+     */
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * Gets the latency below or at which the given fraction of all recorded latencies are.
+     * <p>
+     * The result is the upper bound of the bucket the quantile falls into, but never above the
+     * largest recorded latency.
+     *
+     * @param quantile the quantile to get, between {@code 0} and {@code 1}, for example
+     *        {@code 0.99}
+     * @return the latency in nanoseconds, or {@code 0} if nothing was recorded yet
+     */
+    public long getQuantileNanos(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException(
+                    "The quantile must be between 0 and 1, but was %f".formatted(quantile));
+        }
+
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = bucketCounts.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBoundOf(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    static int bucketIndexOf(long value) {
+        if (value < EXACT_BUCKETS) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * The largest value that is recorded into the given bucket.
+     *
+     * @param index the index of the bucket
+     * @return the largest value of the bucket
+     */
+    static long bucketUpperBoundOf(int index) {
+        if (index < EXACT_BUCKETS) {
+            return index;
+        }
+
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowerBound = (long) (SUB_BUCKETS + subBucket) << shift;
+        return lowerBound + ((1L << shift) - 1);
+    }
+}
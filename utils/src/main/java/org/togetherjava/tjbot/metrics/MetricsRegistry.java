@@ -0,0 +1,308 @@
+package org.togetherjava.tjbot.metrics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Registry of all metrics of the application, able to export them in the Prometheus text format.
+ * <p>
+ * Metrics are identified by their name and labels. Asking for a metric that is already registered
+ * returns the existing one, so callers can either keep the metric around, which is preferred on hot
+ * paths, or ask for it each time. The application uses a single registry, see
+ * {@link #getDefault()}, exposed by {@link MetricsServer}.
+ * <p>
+ * Three kinds of metrics are supported:
+ * <ul>
+ * <li>counters, values that only ever increase, see {@link #counter(String, String, Map)}</li>
+ * <li>gauges, values that go up and down, see {@link #gauge(String, String, Map, DoubleSupplier)}
+ * </li>
+ * <li>latency histograms, exported as Prometheus summary with a few quantiles, see
+ * {@link #histogram(String, String, Map)}</li>
+ * </ul>
+ * Values that are already counted elsewhere, for example by a cache, can be exposed as counter
+ * using {@link #functionCounter(String, String, Map, LongSupplier)}.
+ * <p>
+ * The class is thread-safe.
+ */
+public final class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL_NAME_PATTERN = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+    private static final List<Double> EXPORTED_QUANTILES = List.of(0.5, 0.9, 0.99, 0.999);
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, Family> nameToFamily = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the registry used by the whole application.
+     *
+     * @return the default registry
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets the counter with the given name, registering it if not present yet.
+     *
+     * @param name the name of the counter, by convention ending in {@code _total}
+     * @param help a human-readable description of the counter
+     * @return the counter
+     */
+    public Counter counter(String name, String help) {
+        return counter(name, help, Map.of());
+    }
+
+    /**
+     * Gets the counter with the given name and labels, registering it if not present yet.
+     *
+     * @param name the name of the counter, by convention ending in {@code _total}
+     * @param help a human-readable description of the counter
+     * @param labels the labels of the counter, for example {@code Map.of("command", "tag")}
+     * @return the counter
+     */
+    public Counter counter(String name, String help, Map<String, String> labels) {
+        Metric metric = getOrRegister(name, help, MetricType.COUNTER, labels,
+                () -> new CounterMetric(new Counter()));
+        if (!(metric instanceof CounterMetric counterMetric)) {
+            throw new IllegalArgumentException(
+                    "The counter %s%s is already registered as function counter"
+                        .formatted(name, labels));
+        }
+        return counterMetric.counter();
+    }
+
+    /**
+     * Registers a counter whose value is supplied by the given function, replacing any previous
+     * counter with the same name and labels.
+     * <p>
+     * Useful for values that are already counted elsewhere, for example the hits of a cache.
+     *
+     * @param name the name of the counter, by convention ending in {@code _total}
+     * @param help a human-readable description of the counter
+     * @param labels the labels of the counter
+     * @param value supplies the current value, is called whenever the metrics are exported
+     */
+    public void functionCounter(String name, String help, Map<String, String> labels,
+            LongSupplier value) {
+        register(name, help, MetricType.COUNTER, labels,
+                new FunctionMetric(value::getAsLong));
+    }
+
+    /**
+     * Registers a gauge whose value is supplied by the given function, replacing any previous gauge
+     * with the same name.
+     *
+     * @param name the name of the gauge
+     * @param help a human-readable description of the gauge
+     * @param value supplies the current value, is called whenever the metrics are exported
+     */
+    public void gauge(String name, String help, DoubleSupplier value) {
+        gauge(name, help, Map.of(), value);
+    }
+
+    /**
+     * Registers a gauge whose value is supplied by the given function, replacing any previous gauge
+     * with the same name and labels.
+     *
+     * @param name the name of the gauge
+     * @param help a human-readable description of the gauge
+     * @param labels the labels of the gauge
+     * @param value supplies the current value, is called whenever the metrics are exported
+     */
+    public void gauge(String name, String help, Map<String, String> labels, DoubleSupplier value) {
+        register(name, help, MetricType.GAUGE, labels, new FunctionMetric(value));
+    }
+
+    /**
+     * Gets the latency histogram with the given name, registering it if not present yet.
+     *
+     * @param name the name of the histogram, by convention ending in {@code _seconds}
+     * @param help a human-readable description of the histogram
+     * @return the histogram
+     */
+    public Histogram histogram(String name, String help) {
+        return histogram(name, help, Map.of());
+    }
+
+    /**
+     * Gets the latency histogram with the given name and labels, registering it if not present
+     * yet.
+     *
+     * @param name the name of the histogram, by convention ending in {@code _seconds}
+     * @param help a human-readable description of the histogram
+     * @param labels the labels of the histogram, for example {@code Map.of("routine", "remind")}
+     * @return the histogram
+     */
+    public Histogram histogram(String name, String help, Map<String, String> labels) {
+        Metric metric = getOrRegister(name, help, MetricType.SUMMARY, labels,
+                () -> new HistogramMetric(new Histogram()));
+        return ((HistogramMetric) metric).histogram();
+    }
+
+    /**
+     * Exports all metrics in the Prometheus text format, version {@code 0.0.4}.
+     *
+     * @return the metrics, in the Prometheus text format
+     * @see <a href="https://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus
+     *      exposition formats</a>
+     */
+    public String exportPrometheus() {
+        StringBuilder builder = new StringBuilder();
+
+        nameToFamily.values()
+            .stream()
+            .sorted(Comparator.comparing(Family::name))
+            .forEach(family -> family.writeTo(builder));
+
+        return builder.toString();
+    }
+
+    private Metric getOrRegister(String name, String help, MetricType type,
+            Map<String, String> labels, Supplier<Metric> metricFactory) {
+        Family family = getFamily(name, help, type);
+        return family.labelsToMetric().computeIfAbsent(toSortedLabels(labels),
+                any -> metricFactory.get());
+    }
+
+    private void register(String name, String help, MetricType type, Map<String, String> labels,
+            Metric metric) {
+        getFamily(name, help, type).labelsToMetric().put(toSortedLabels(labels), metric);
+    }
+
+    private Family getFamily(String name, String help, MetricType type) {
+        if (!NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name: " + name);
+        }
+
+        Family family = nameToFamily.computeIfAbsent(name,
+                any -> new Family(name, help, type, new ConcurrentHashMap<>()));
+        if (family.type() != type) {
+            throw new IllegalArgumentException(
+                    "The metric %s is already registered as %s, it can not also be a %s"
+                        .formatted(name, family.type(), type));
+        }
+        return family;
+    }
+
+    private static SortedMap<String, String> toSortedLabels(Map<String, String> labels) {
+        labels.keySet().forEach(labelName -> {
+            if (!LABEL_NAME_PATTERN.matcher(labelName).matches()) {
+                throw new IllegalArgumentException("Invalid label name: " + labelName);
+            }
+        });
+        return new TreeMap<>(labels);
+    }
+
+    private static void writeSample(StringBuilder builder, String name,
+            SortedMap<String, String> labels, double value) {
+        builder.append(name);
+        if (!labels.isEmpty()) {
+            builder.append('{');
+            labels.forEach((labelName, labelValue) -> builder.append(labelName)
+                .append("=\"")
+                .append(escapeLabelValue(labelValue))
+                .append("\","));
+            builder.setLength(builder.length() - 1);
+            builder.append('}');
+        }
+        builder.append(' ').append(formatValue(value)).append('\n');
+    }
+
+    private static String escapeLabelValue(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String formatValue(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private enum MetricType {
+        COUNTER,
+        GAUGE,
+        SUMMARY
+    }
+
+    private sealed interface Metric permits CounterMetric, FunctionMetric, HistogramMetric {
+        void writeTo(StringBuilder builder, String name, SortedMap<String, String> labels);
+    }
+
+    private record CounterMetric(Counter counter) implements Metric {
+        @Override
+        public void writeTo(StringBuilder builder, String name, SortedMap<String, String> labels) {
+            writeSample(builder, name, labels, counter.get());
+        }
+    }
+
+    private record FunctionMetric(DoubleSupplier value) implements Metric {
+        @Override
+        public void writeTo(StringBuilder builder, String name, SortedMap<String, String> labels) {
+            writeSample(builder, name, labels, value.getAsDouble());
+        }
+    }
+
+    private record HistogramMetric(Histogram histogram) implements Metric {
+        @Override
+        public void writeTo(StringBuilder builder, String name, SortedMap<String, String> labels) {
+            for (double quantile : EXPORTED_QUANTILES) {
+                SortedMap<String, String> quantileLabels = new TreeMap<>(labels);
+                quantileLabels.put("quantile", Double.toString(quantile));
+
+                writeSample(builder, name, quantileLabels,
+                        histogram.getQuantileNanos(quantile) / NANOS_PER_SECOND);
+            }
+            writeSample(builder, name + "_sum", labels,
+                    histogram.getSumNanos() / NANOS_PER_SECOND);
+            writeSample(builder, name + "_count", labels, histogram.getCount());
+        }
+    }
+
+    private record Family(String name, String help, MetricType type,
+            Map<SortedMap<String, String>, Metric> labelsToMetric) {
+        void writeTo(StringBuilder builder) {
+            if (labelsToMetric.isEmpty()) {
+                return;
+            }
+
+            builder.append("# HELP ")
+                .append(name)
+                .append(' ')
+                .append(help.replace("\\", "\\\\").replace("\n", "\\n"))
+                .append('\n');
+            builder.append("# TYPE ")
+                .append(name)
+                .append(' ')
+                .append(type.name().toLowerCase(Locale.US))
+                .append('\n');
+
+            labelsToMetric.forEach((labels, metric) -> {
+                try {
+                    metric.writeTo(builder, name, labels);
+                } catch (RuntimeException e) {
+                    // A single broken gauge must not break the whole export
+                    builder.append("# ").append(name).append(" could not be collected\n");
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.togetherjava.tjbot.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Small HTTP server exposing the metrics of a registry in the Prometheus text format, to be scraped
+ * by Prometheus.
+ * <p>
+ * The metrics are served at {@value SCRAPE_PATH}. The server only listens on the loopback address,
+ * so metrics are not reachable from the outside, unless forwarded on purpose.
+ */
+public final class MetricsServer implements AutoCloseable {
+    private static final String SCRAPE_PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_METHOD_NOT_ALLOWED = 405;
+
+    private final HttpServer server;
+
+    private MetricsServer(HttpServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Starts a server exposing the given registry on the given local port.
+     *
+     * @param registry the registry to expose
+     * @param port the port to listen on, or {@code 0} to pick any free port
+     * @return the started server
+     * @throws IOException if the server could not be started, for example if the port is in use
+     */
+    public static MetricsServer start(MetricsRegistry registry, int port) throws IOException {
+        HttpServer server = HttpServer
+            .create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(SCRAPE_PATH, exchange -> handleScrape(exchange, registry));
+        // Scrapes are rare and cheap, the dispatcher thread can serve them on its own
+        server.setExecutor(null);
+        server.start();
+
+        return new MetricsServer(server);
+    }
+
+    private static void handleScrape(HttpExchange exchange, MetricsRegistry registry)
+            throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(HTTP_METHOD_NOT_ALLOWED, -1);
+                return;
+            }
+
+            byte[] body = registry.exportPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(HTTP_OK, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        }
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return the port of the server
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, without waiting for running scrapes to complete.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
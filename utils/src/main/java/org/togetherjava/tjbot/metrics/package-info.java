@@ -0,0 +1,14 @@
+/**
+ * This package provides a small metrics system, to measure the application while it is running.
+ * See {@link org.togetherjava.tjbot.metrics.MetricsRegistry} to get started.
+ * <p>
+ * Metrics are exposed in the Prometheus text format by
+ * {@link org.togetherjava.tjbot.metrics.MetricsServer}.
+ */
+@MethodsReturnNonnullByDefault
+@ParametersAreNonnullByDefault
+package org.togetherjava.tjbot.metrics;
+
+import org.togetherjava.tjbot.annotations.MethodsReturnNonnullByDefault;
+
+import javax.annotation.ParametersAreNonnullByDefault;
@@ -0,0 +1,66 @@
+package org.togetherjava.tjbot.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class HistogramTest {
+    @Test
+    @DisplayName("Buckets cover all values without gaps")
+    void bucketsAreContiguous() {
+        // GIVEN the buckets of a histogram
+        // WHEN looking at the bounds of consecutive values
+        // THEN each value falls into the bucket right after the previous one or the same one
+        long previousUpperBound = -1;
+        for (int index = 0; index <= Histogram.bucketIndexOf(Long.MAX_VALUE); index++) {
+            long upperBound = Histogram.bucketUpperBoundOf(index);
+
+            assertEquals(index, Histogram.bucketIndexOf(previousUpperBound + 1));
+            assertEquals(index, Histogram.bucketIndexOf(upperBound));
+            previousUpperBound = upperBound;
+        }
+        assertEquals(Long.MAX_VALUE, previousUpperBound);
+    }
+
+    @Test
+    @DisplayName("Quantiles are reported within the precision of the buckets")
+    void quantilesArePrecise() {
+        // GIVEN a histogram with latencies from 1 to 1000 milliseconds
+        Histogram histogram = new Histogram();
+        for (int millis = 1; millis <= 1_000; millis++) {
+            histogram.record(Duration.ofMillis(millis));
+        }
+
+        // WHEN asking for quantiles
+        // THEN they are within the relative error of the buckets
+        assertWithinPrecision(Duration.ofMillis(500).toNanos(), histogram.getQuantileNanos(0.5));
+        assertWithinPrecision(Duration.ofMillis(990).toNanos(), histogram.getQuantileNanos(0.99));
+        assertEquals(Duration.ofMillis(1_000).toNanos(), histogram.getQuantileNanos(1));
+        assertEquals(1_000, histogram.getCount());
+        assertEquals(Duration.ofMillis(500_500).toNanos(), histogram.getSumNanos());
+    }
+
+    @Test
+    @DisplayName("An empty histogram reports 0 for all quantiles")
+    void emptyHistogram() {
+        // GIVEN an empty histogram
+        Histogram histogram = new Histogram();
+
+        // WHEN asking for a quantile
+        long quantile = histogram.getQuantileNanos(0.99);
+
+        // THEN it is 0
+        assertEquals(0, quantile);
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        double relativeError = Math.abs(actual - expected) / (double) expected;
+        assertTrue(relativeError <= 0.125,
+                "Expected %d but was %d, relative error %f".formatted(expected, actual,
+                        relativeError));
+    }
+}
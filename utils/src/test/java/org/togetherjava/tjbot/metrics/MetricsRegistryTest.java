@@ -0,0 +1,123 @@
+package org.togetherjava.tjbot.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class MetricsRegistryTest {
+    private MetricsServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Asking for the same metric twice returns the same instance")
+    void metricsAreReused() {
+        // GIVEN a registry
+        MetricsRegistry registry = new MetricsRegistry();
+
+        // WHEN asking for the same counter twice, with labels in a different order
+        Counter counter = registry.counter("commands_total", "Commands",
+                Map.of("command", "tag", "type", "slash"));
+        Counter sameCounter = registry.counter("commands_total", "Commands",
+                Map.of("type", "slash", "command", "tag"));
+
+        // THEN both are the same
+        assertSame(counter, sameCounter);
+    }
+
+    @Test
+    @DisplayName("Metrics are exported in the Prometheus text format")
+    void exportsPrometheusFormat() {
+        // GIVEN a registry with a counter, a gauge and a histogram
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("commands_total", "Handled commands", Map.of("command", "tag"))
+            .increment(3);
+        registry.gauge("queue_size", "Pending items", () -> 7);
+        registry.histogram("routine_duration_seconds", "Routine duration").recordNanos(2_000);
+
+        // WHEN exporting the metrics
+        String export = registry.exportPrometheus();
+
+        // THEN they are all present in the expected format
+        String expectedExport = """
+                # HELP commands_total Handled commands
+                # TYPE commands_total counter
+                commands_total{command="tag"} 3
+                # HELP queue_size Pending items
+                # TYPE queue_size gauge
+                queue_size 7
+                # HELP routine_duration_seconds Routine duration
+                # TYPE routine_duration_seconds summary
+                routine_duration_seconds{quantile="0.5"} 2.0E-6
+                routine_duration_seconds{quantile="0.9"} 2.0E-6
+                routine_duration_seconds{quantile="0.99"} 2.0E-6
+                routine_duration_seconds{quantile="0.999"} 2.0E-6
+                routine_duration_seconds_sum 2.0E-6
+                routine_duration_seconds_count 1
+                """;
+        assertEquals(expectedExport, export);
+    }
+
+    @Test
+    @DisplayName("Label values are escaped")
+    void escapesLabelValues() {
+        // GIVEN a counter with a label value containing special characters
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("commands_total", "Commands", Map.of("command", "a\"b\\c\nd")).increment();
+
+        // WHEN exporting the metrics
+        String export = registry.exportPrometheus();
+
+        // THEN the label value is escaped
+        assertTrue(export.contains("commands_total{command=\"a\\\"b\\\\c\\nd\"} 1\n"), export);
+    }
+
+    @Test
+    @DisplayName("A metric can not be registered with two different types")
+    void rejectsConflictingTypes() {
+        // GIVEN a registry with a counter
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("commands_total", "Commands");
+
+        // WHEN registering a gauge with the same name
+        // THEN it is rejected
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.gauge("commands_total", "Commands", () -> 1));
+    }
+
+    @Test
+    @DisplayName("The server exposes the metrics over HTTP")
+    void serverExposesMetrics() throws IOException, InterruptedException {
+        // GIVEN a server exposing a registry with a counter
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("commands_total", "Commands").increment();
+        server = MetricsServer.start(registry, 0);
+
+        // WHEN scraping the server
+        HttpResponse<String> response = HttpClient.newHttpClient()
+            .send(HttpRequest
+                .newBuilder(URI.create("http://127.0.0.1:%d/metrics".formatted(server.getPort())))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        // THEN the metrics are returned
+        assertEquals(200, response.statusCode());
+        assertEquals(registry.exportPrometheus(), response.body());
+    }
+}